@@ -0,0 +1,505 @@
+package com.reservas.benchmarks;
+
+import com.reservas.benchmarks.casos.BuzonVsLocks;
+import com.reservas.benchmarks.casos.BusquedaCatalogo;
+import com.reservas.benchmarks.casos.ConfirmarCancelar;
+import com.reservas.benchmarks.casos.CostoMetricas;
+import com.reservas.benchmarks.casos.CreacionReservas;
+import com.reservas.benchmarks.casos.DiarioAgregar;
+import com.reservas.benchmarks.casos.DiarioRecuperar;
+import com.reservas.benchmarks.casos.DifusionObservadores;
+import com.reservas.benchmarks.casos.DisponibilidadAsientos;
+import com.reservas.benchmarks.casos.EventosReserva;
+import com.reservas.benchmarks.casos.Identificadores;
+import com.reservas.benchmarks.casos.InventarioParticionado;
+import com.reservas.benchmarks.casos.MejoresAsientos;
+import com.reservas.benchmarks.casos.PreciosMapa;
+import com.reservas.benchmarks.casos.ReservasEnLote;
+import com.reservas.modelo.EventoReserva;
+import com.reservas.modelo.Reserva.ObservadorReserva;
+import com.reservas.sistema.BusEventos;
+import com.reservas.sistema.DespachadorNotificaciones;
+import com.reservas.sistema.SistemaReservas;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Arnés de benchmarks del dominio de reservas
+ *
+ * El proyecto no tiene herramienta de build ni dependencias, así que en
+ * lugar de JMH este arnés hace lo mismo a mano, con las mismas reglas:
+ * - Iteraciones de calentamiento (el JIT compila) antes de las que se miden
+ * - Cada iteración dura un tiempo fijo y cuenta operaciones
+ * - Los resultados se acumulan en un "sumidero" para que el JIT no
+ *   elimine el trabajo
+ * - Cada caso corre con 1 hilo y con varios hilos a la vez (contención)
+ * - Además de operaciones por segundo, mide los bytes asignados por
+ *   operación (sumando los hilos del caso y los que trabajan en segundo
+ *   plano, como los del despachador de notificaciones)
+ *
+ * Los resultados se guardan en CSV y JSON para compararlos entre
+ * versiones (ver CompararResultados)
+ *
+ * Uso (desde la raíz del proyecto):
+ *   javac -encoding UTF-8 -d out $(find src benchmarks -name '*.java')
+ *   java -cp out com.reservas.benchmarks.ArnesBenchmarks [opciones]
+ *
+ * Opciones:
+ *   --filtro texto      Solo los casos cuyo nombre contiene el texto
+ *   --hilos N           Hilos del modo con contención (por defecto 4)
+ *   --iteraciones N     Iteraciones medidas (por defecto 5)
+ *   --calentamiento N   Iteraciones de calentamiento (por defecto 3)
+ *   --duracion ms       Duración de cada iteración (por defecto 500)
+ *   --salida dir        Directorio de resultados (por defecto "resultados")
+ *
+ * Termina con código 1 si algún caso falló (ej: costo_metricas, cuando
+ * medir cuesta más que su presupuesto)
+ */
+public class ArnesBenchmarks {
+    private static final long ESPERA_NOTIFICACIONES = 10_000_000_000L; // 10 s
+
+    private final int hilosContencion;
+    private final int iteraciones;
+    private final int calentamiento;
+    private final long nanosIteracion;
+    private final PrintStream consola;
+    private int fallidos; // Casos que terminaron en ERROR
+
+    /**
+     * @param hilosContencion Hilos del modo con contención
+     * @param iteraciones Iteraciones medidas
+     * @param calentamiento Iteraciones de calentamiento
+     * @param milisIteracion Duración de cada iteración
+     */
+    public ArnesBenchmarks(int hilosContencion, int iteraciones, int calentamiento, long milisIteracion) {
+        if (hilosContencion < 2 || iteraciones < 1 || calentamiento < 0 || milisIteracion <= 0) {
+            throw new IllegalArgumentException("Configuración de benchmarks inválida");
+        }
+        this.hilosContencion = hilosContencion;
+        this.iteraciones = iteraciones;
+        this.calentamiento = calentamiento;
+        this.nanosIteracion = milisIteracion * 1_000_000L;
+        this.consola = System.out;
+    }
+
+    /**
+     * Los casos que cubren los caminos calientes del dominio
+     */
+    public static List<CasoBenchmark> casos() {
+        return List.of(
+            new DisponibilidadAsientos(),
+            new ConfirmarCancelar(),
+            new BusquedaCatalogo(),
+            new CreacionReservas(),
+            new DifusionObservadores(),
+            new InventarioParticionado(),
+            new BuzonVsLocks(),
+            new EventosReserva(),
+            new MejoresAsientos(),
+            new PreciosMapa(),
+            new Identificadores(),
+            new CostoMetricas(),
+            new DiarioAgregar(),
+            new DiarioRecuperar(),
+            new ReservasEnLote());
+    }
+
+    /**
+     * Corre los casos en modo de un hilo y con contención
+     * Mientras se mide, System.out se descarta (las notificaciones por email
+     * lo usan); el progreso se muestra por la consola original
+     *
+     * @param casos Casos a correr
+     * @return Un resultado por caso, parámetro y cantidad de hilos
+     */
+    public List<Resultado> correr(List<CasoBenchmark> casos) {
+        List<Resultado> resultados = new ArrayList<>();
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Map<EventoReserva.Tipo, List<ObservadorReserva>> originales = reemplazarNotificadores();
+        try {
+            for (CasoBenchmark caso : casos) {
+                for (String parametro : caso.parametros()) {
+                    for (int hilos : new int[] {1, hilosContencion}) {
+                        Resultado resultado = correr(caso, parametro, hilos);
+                        if (resultado != null) {
+                            resultados.add(resultado);
+                            consola.println(resultado);
+                        }
+                    }
+                }
+            }
+        } finally {
+            restaurarNotificadores(originales);
+            System.setOut(consola);
+        }
+        consola.println("Notificaciones del sistema entregadas: " + notificaciones.sum());
+        return resultados;
+    }
+
+    /**
+     * Cambia los suscriptores del bus del sistema (el notificador de email)
+     * por un observador que solo cuenta
+     * El email simulado escribe 7 líneas por evento y no alcanza a los
+     * cientos de miles de confirmaciones por segundo de un benchmark: la
+     * cola se llenaría y cada caso mediría la velocidad del email (quien
+     * confirma espera a que haya lugar). Así se sigue midiendo la publicación y el
+     * despacho, pero no el canal (DifusionObservadores mide el despacho aparte)
+     *
+     * @return Suscriptores originales, para restaurarlos
+     */
+    private static Map<EventoReserva.Tipo, List<ObservadorReserva>> reemplazarNotificadores() {
+        BusEventos bus = SistemaReservas.getInstance().getBusEventos();
+        ObservadorReserva contador = reserva -> notificaciones.increment();
+        Map<EventoReserva.Tipo, List<ObservadorReserva>> originales = new EnumMap<>(EventoReserva.Tipo.class);
+        for (EventoReserva.Tipo tipo : EventoReserva.Tipo.values()) {
+            List<ObservadorReserva> suscriptores = List.copyOf(bus.getSuscriptores(tipo));
+            originales.put(tipo, suscriptores);
+            suscriptores.forEach(observador -> bus.desuscribir(tipo, observador));
+            bus.suscribir(tipo, contador);
+        }
+        return originales;
+    }
+
+    private static void restaurarNotificadores(Map<EventoReserva.Tipo, List<ObservadorReserva>> originales) {
+        BusEventos bus = SistemaReservas.getInstance().getBusEventos();
+        for (Map.Entry<EventoReserva.Tipo, List<ObservadorReserva>> entrada : originales.entrySet()) {
+            List.copyOf(bus.getSuscriptores(entrada.getKey()))
+                .forEach(observador -> bus.desuscribir(entrada.getKey(), observador));
+            entrada.getValue().forEach(observador -> bus.suscribir(entrada.getKey(), observador));
+        }
+    }
+
+    private Resultado correr(CasoBenchmark caso, String parametro, int hilos) {
+        try {
+            caso.preparar(parametro, hilos);
+            for (int i = 0; i < calentamiento; i++) {
+                medirIteracion(caso, hilos);
+            }
+            double[] medidas = new double[iteraciones];
+            double bytes = 0;
+            for (int i = 0; i < iteraciones; i++) {
+                Carrera carrera = medirIteracion(caso, hilos);
+                medidas[i] = carrera.opsPorSegundo;
+                bytes += carrera.bytesPorOperacion();
+            }
+            return new Resultado(caso.nombre(), parametro, hilos, medidas, bytes / iteraciones);
+        } catch (Exception e) {
+            fallidos++;
+            consola.println("ERROR en " + caso.nombre() + " [" + parametro + ", " + hilos + " hilos]: " + e);
+            return null;
+        } finally {
+            caso.cerrar();
+            esperarNotificaciones();
+        }
+    }
+
+    /**
+     * @return Casos (parámetro y hilos) que fallaron en la última corrida
+     */
+    public int getFallidos() { return fallidos; }
+
+    /**
+     * Espera a que el despachador del sistema entregue lo que quedó en cola
+     * (la cola puede quedar llena al terminar un caso): si no, esos hilos
+     * le quitan CPU al caso siguiente
+     */
+    private void esperarNotificaciones() {
+        DespachadorNotificaciones despachador = SistemaReservas.getInstance().getDespachador();
+        long limite = System.nanoTime() + ESPERA_NOTIFICACIONES;
+        try {
+            while (despachador.getPendientes() > 0 && System.nanoTime() < limite) {
+                Thread.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Una iteración: todos los hilos arrancan juntos y llaman a la
+     * operación hasta que se acaba el tiempo
+     * @return La carrera terminada, con sus operaciones por segundo y sus bytes
+     */
+    private Carrera medirIteracion(CasoBenchmark caso, int hilos) throws Exception {
+        Carrera carrera = new Carrera(hilos);
+        Thread[] corredores = new Thread[hilos];
+        for (int h = 0; h < hilos; h++) {
+            int hilo = h;
+            corredores[h] = new Thread(() -> carrera.correr(caso, hilo), "benchmark-" + h);
+            corredores[h].start();
+        }
+        carrera.listos.await();
+        Asignaciones segundoPlano = Asignaciones.tomar();
+        long inicio = System.nanoTime();
+        carrera.largada.countDown();
+        Thread.sleep(nanosIteracion / 1_000_000L);
+        carrera.corriendo = false;
+        for (Thread corredor : corredores) {
+            corredor.join();
+        }
+        long transcurrido = System.nanoTime() - inicio;
+        if (carrera.error != null) {
+            throw new Exception("La operación falló", carrera.error);
+        }
+        sumidero ^= carrera.sumidero;
+        carrera.opsPorSegundo = carrera.operaciones * 1e9 / transcurrido;
+        carrera.bytes += segundoPlano.desde(); // Los corredores ya terminaron: no se cuentan dos veces
+        return carrera;
+    }
+
+    /**
+     * Bytes asignados por los hilos que viven durante toda la iteración
+     * (los corredores mueren antes del final y cuentan lo suyo aparte)
+     * Usa la extensión de HotSpot de ThreadMXBean; sin ella, todo vale 0
+     */
+    private static final class Asignaciones {
+        private static final com.sun.management.ThreadMXBean HILOS = medidor();
+
+        private final long[] ids;
+        private final long[] bytes;
+
+        private Asignaciones(long[] ids, long[] bytes) {
+            this.ids = ids;
+            this.bytes = bytes;
+        }
+
+        private static com.sun.management.ThreadMXBean medidor() {
+            java.lang.management.ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+            if (hilos instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean medidor = (com.sun.management.ThreadMXBean) hilos;
+                if (medidor.isThreadAllocatedMemorySupported()) {
+                    medidor.setThreadAllocatedMemoryEnabled(true);
+                    return medidor;
+                }
+            }
+            return null;
+        }
+
+        static Asignaciones tomar() {
+            if (HILOS == null) {
+                return new Asignaciones(new long[0], new long[0]);
+            }
+            long[] ids = HILOS.getAllThreadIds();
+            return new Asignaciones(ids, HILOS.getThreadAllocatedBytes(ids));
+        }
+
+        /**
+         * @return Bytes asignados desde tomar() por los hilos que siguen vivos
+         */
+        long desde() {
+            if (ids.length == 0) {
+                return 0;
+            }
+            long[] ahora = HILOS.getThreadAllocatedBytes(ids);
+            long total = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (bytes[i] >= 0 && ahora[i] >= 0) { // -1 = el hilo ya terminó
+                    total += ahora[i] - bytes[i];
+                }
+            }
+            return total;
+        }
+
+        /**
+         * @return Bytes asignados hasta ahora por el hilo actual (0 si no se puede medir)
+         */
+        static long delHiloActual() {
+            return HILOS == null ? 0 : HILOS.getCurrentThreadAllocatedBytes();
+        }
+    }
+
+    private static volatile long sumidero; // Donde terminan los valores de las operaciones
+    private static final LongAdder notificaciones = new LongAdder(); // Eventos del sistema durante la corrida
+
+    /**
+     * Estado compartido de una iteración
+     */
+    private static final class Carrera {
+        final CountDownLatch listos;
+        final CountDownLatch largada = new CountDownLatch(1);
+        volatile boolean corriendo = true;
+        long operaciones; // Se suman con el lock de la carrera al terminar cada hilo
+        long bytes;
+        long sumidero;
+        volatile Throwable error;
+        double opsPorSegundo;
+
+        Carrera(int hilos) {
+            this.listos = new CountDownLatch(hilos);
+        }
+
+        void correr(CasoBenchmark caso, int hilo) {
+            long cuenta = 0;
+            long acumulado = 0;
+            long bytesInicio = 0;
+            try {
+                listos.countDown();
+                largada.await();
+                bytesInicio = Asignaciones.delHiloActual();
+                while (corriendo) {
+                    acumulado += caso.operacion(hilo, cuenta);
+                    cuenta++;
+                }
+            } catch (Throwable e) {
+                error = e;
+                corriendo = false;
+            }
+            long asignados = Asignaciones.delHiloActual() - bytesInicio;
+            synchronized (this) {
+                operaciones += cuenta;
+                bytes += asignados;
+                sumidero ^= acumulado;
+            }
+        }
+
+        double bytesPorOperacion() {
+            return operaciones == 0 ? 0 : (double) bytes / operaciones;
+        }
+    }
+
+    // ============================================
+    // RESULTADOS
+    // ============================================
+
+    /**
+     * Resultado de un caso con un parámetro y una cantidad de hilos
+     */
+    public static final class Resultado {
+        private final String caso;
+        private final String parametro;
+        private final int hilos;
+        private final double opsPorSegundo; // Promedio de las iteraciones
+        private final double desvio;        // Desvío estándar entre iteraciones
+        private final double bytesPorOperacion; // Promedio de las iteraciones
+
+        Resultado(String caso, String parametro, int hilos, double[] medidas, double bytesPorOperacion) {
+            this.caso = caso;
+            this.parametro = parametro;
+            this.hilos = hilos;
+            this.bytesPorOperacion = bytesPorOperacion;
+            double suma = 0;
+            for (double medida : medidas) {
+                suma += medida;
+            }
+            this.opsPorSegundo = suma / medidas.length;
+            double cuadrados = 0;
+            for (double medida : medidas) {
+                cuadrados += (medida - opsPorSegundo) * (medida - opsPorSegundo);
+            }
+            this.desvio = medidas.length > 1 ? Math.sqrt(cuadrados / (medidas.length - 1)) : 0;
+        }
+
+        public String getCaso() { return caso; }
+        public String getParametro() { return parametro; }
+        public int getHilos() { return hilos; }
+        public double getOpsPorSegundo() { return opsPorSegundo; }
+        public double getDesvio() { return desvio; }
+        public double getBytesPorOperacion() { return bytesPorOperacion; }
+
+        /**
+         * @return Tiempo promedio de UNA operación vista desde un hilo
+         */
+        public double getNanosPorOperacion() {
+            return hilos * 1e9 / opsPorSegundo;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                "%-24s %-24s hilos=%-3d %,14.0f ops/s +- %4.1f%%  %,10.1f ns/op  %,8.0f B/op",
+                caso, parametro, hilos, opsPorSegundo, desvio * 100 / opsPorSegundo, getNanosPorOperacion(),
+                bytesPorOperacion);
+        }
+    }
+
+    /**
+     * Guarda los resultados en CSV (una fila por resultado) y en JSON
+     * (con datos de la máquina, para saber si dos corridas son comparables)
+     *
+     * @param resultados Resultados a guardar
+     * @param directorio Directorio de salida (se crea si no existe)
+     * @return Archivo CSV escrito
+     * @throws IOException si no se pueden escribir los archivos
+     */
+    public static Path guardar(List<Resultado> resultados, Path directorio) throws IOException {
+        Files.createDirectories(directorio);
+        String marca = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path csv = directorio.resolve("benchmarks-" + marca + ".csv");
+        try (Writer salida = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            salida.write("caso,parametro,hilos,ops_por_segundo,desvio,ns_por_op,bytes_por_op\n");
+            for (Resultado r : resultados) {
+                salida.write(String.format(Locale.ROOT, "%s,%s,%d,%.1f,%.1f,%.1f,%.1f%n",
+                    r.caso, r.parametro, r.hilos, r.opsPorSegundo, r.desvio, r.getNanosPorOperacion(),
+                    r.bytesPorOperacion));
+            }
+        }
+        Path json = directorio.resolve("benchmarks-" + marca + ".json");
+        try (Writer salida = Files.newBufferedWriter(json, StandardCharsets.UTF_8)) {
+            salida.write(String.format(Locale.ROOT,
+                "{\"fecha\":\"%s\",\"java\":\"%s\",\"procesadores\":%d,\"sistema\":\"%s\",\"resultados\":[",
+                LocalDateTime.now(), System.getProperty("java.version"),
+                Runtime.getRuntime().availableProcessors(), System.getProperty("os.name")));
+            for (int i = 0; i < resultados.size(); i++) {
+                Resultado r = resultados.get(i);
+                salida.write(String.format(Locale.ROOT,
+                    "%s%n {\"caso\":\"%s\",\"parametro\":\"%s\",\"hilos\":%d,\"ops_por_segundo\":%.1f,"
+                        + "\"desvio\":%.1f,\"ns_por_op\":%.1f,\"bytes_por_op\":%.1f}",
+                    i == 0 ? "" : ",", r.caso, r.parametro, r.hilos, r.opsPorSegundo, r.desvio,
+                    r.getNanosPorOperacion(), r.bytesPorOperacion));
+            }
+            salida.write("\n]}\n");
+        }
+        return csv;
+    }
+
+    // ============================================
+    // PROGRAMA
+    // ============================================
+
+    public static void main(String[] args) throws IOException {
+        String filtro = "";
+        int hilos = 4;
+        int iteraciones = 5;
+        int calentamiento = 3;
+        long duracion = 500;
+        Path salida = Paths.get("resultados");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--filtro": filtro = args[++i]; break;
+                case "--hilos": hilos = Integer.parseInt(args[++i]); break;
+                case "--iteraciones": iteraciones = Integer.parseInt(args[++i]); break;
+                case "--calentamiento": calentamiento = Integer.parseInt(args[++i]); break;
+                case "--duracion": duracion = Long.parseLong(args[++i]); break;
+                case "--salida": salida = Paths.get(args[++i]); break;
+                default: throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+            }
+        }
+        List<CasoBenchmark> elegidos = new ArrayList<>();
+        for (CasoBenchmark caso : casos()) {
+            if (caso.nombre().contains(filtro)) {
+                elegidos.add(caso);
+            }
+        }
+        ArnesBenchmarks arnes = new ArnesBenchmarks(hilos, iteraciones, calentamiento, duracion);
+        List<Resultado> resultados = arnes.correr(elegidos);
+        System.out.println("Resultados: " + guardar(resultados, salida));
+        // exit aunque todo ande: los servicios del sistema tienen hilos en segundo plano
+        System.exit(arnes.getFallidos() == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,50 @@
+package com.reservas.benchmarks;
+
+import java.util.List;
+
+/**
+ * Un caso de benchmark: una operación del sistema que se mide en un bucle
+ *
+ * El arnés (ArnesBenchmarks) llama, para cada parámetro y cantidad de hilos:
+ * 1. preparar() una vez, FUERA de la medición
+ * 2. operacion() en un bucle, desde todos los hilos a la vez, durante cada iteración
+ * 3. cerrar() al terminar
+ */
+public interface CasoBenchmark {
+
+    /**
+     * @return Nombre del caso (se usa en los resultados para comparar entre versiones)
+     */
+    String nombre();
+
+    /**
+     * @return Variantes del caso (ej: tamaños del catálogo); por defecto una sola
+     */
+    default List<String> parametros() {
+        return List.of("-");
+    }
+
+    /**
+     * Arma los datos del caso
+     * @param parametro Variante a medir
+     * @param hilos Cuántos hilos llamarán a operacion() a la vez
+     * @throws Exception si no se puede preparar (el caso se saltea)
+     */
+    void preparar(String parametro, int hilos) throws Exception;
+
+    /**
+     * La operación medida. Debe devolver algo que dependa del trabajo hecho:
+     * el arnés lo acumula para que el JIT no pueda eliminar la operación
+     *
+     * @param hilo Número del hilo (0 a hilos-1): sirve para repartir datos sin pelear
+     * @param iteracion Cuántas veces llamó este hilo antes
+     * @return Un valor cualquiera derivado del resultado
+     * @throws Exception si la operación falla (el caso se aborta)
+     */
+    long operacion(int hilo, long iteracion) throws Exception;
+
+    /**
+     * Libera lo que armó preparar()
+     */
+    default void cerrar() {}
+}
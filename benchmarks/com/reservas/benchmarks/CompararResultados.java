@@ -0,0 +1,92 @@
+package com.reservas.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compara dos corridas de ArnesBenchmarks (archivos CSV)
+ *
+ * Muestra, para cada caso, las operaciones por segundo antes y después y
+ * el cambio en porcentaje. Un caso empeoró si perdió más que el umbral Y
+ * la diferencia supera el ruido de las dos corridas (la suma de sus
+ * desvíos): así una medición ruidosa no se marca como regresión
+ *
+ * Uso:
+ *   java -cp out com.reservas.benchmarks.CompararResultados antes.csv despues.csv [umbral%]
+ *
+ * Termina con código 1 si algún caso empeoró (sirve para cortar un build)
+ */
+public class CompararResultados {
+
+    /**
+     * Una fila del CSV: operaciones por segundo y su desvío
+     */
+    private static final class Medida {
+        final double opsPorSegundo;
+        final double desvio;
+
+        Medida(double opsPorSegundo, double desvio) {
+            this.opsPorSegundo = opsPorSegundo;
+            this.desvio = desvio;
+        }
+    }
+
+    /**
+     * Lee un CSV escrito por ArnesBenchmarks.guardar()
+     * @return Medidas por "caso parametro hilos", en el orden del archivo
+     */
+    private static Map<String, Medida> leer(String archivo) throws IOException {
+        List<String> lineas = Files.readAllLines(Paths.get(archivo), StandardCharsets.UTF_8);
+        Map<String, Medida> medidas = new LinkedHashMap<>();
+        for (String linea : lineas.subList(1, lineas.size())) { // Sin el encabezado
+            String[] campos = linea.split(",");
+            if (campos.length < 5) {
+                continue;
+            }
+            String clave = campos[0] + " " + campos[1] + " hilos=" + campos[2];
+            medidas.put(clave, new Medida(Double.parseDouble(campos[3]), Double.parseDouble(campos[4])));
+        }
+        return medidas;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CompararResultados antes.csv despues.csv [umbral%]");
+            System.exit(2);
+        }
+        Map<String, Medida> antes = leer(args[0]);
+        Map<String, Medida> despues = leer(args[1]);
+        double umbral = args.length > 2 ? Double.parseDouble(args[2]) : 5.0;
+
+        int regresiones = 0;
+        System.out.println(String.format(Locale.ROOT, "%-52s %14s %14s %8s", "caso", "antes", "despues", "cambio"));
+        for (Map.Entry<String, Medida> entrada : despues.entrySet()) {
+            Medida anterior = antes.get(entrada.getKey());
+            Medida actual = entrada.getValue();
+            if (anterior == null) {
+                System.out.println(String.format(Locale.ROOT, "%-52s %14s %,14.0f %8s",
+                    entrada.getKey(), "-", actual.opsPorSegundo, "nuevo"));
+                continue;
+            }
+            double cambio = (actual.opsPorSegundo - anterior.opsPorSegundo) * 100 / anterior.opsPorSegundo;
+            boolean empeoro = cambio < -umbral
+                && anterior.opsPorSegundo - actual.opsPorSegundo > anterior.desvio + actual.desvio;
+            if (empeoro) {
+                regresiones++;
+            }
+            System.out.println(String.format(Locale.ROOT, "%-52s %,14.0f %,14.0f %+7.1f%%%s",
+                entrada.getKey(), anterior.opsPorSegundo, actual.opsPorSegundo, cambio,
+                empeoro ? "  <-- REGRESIÓN" : ""));
+        }
+        System.out.println(regresiones == 0
+            ? "Sin regresiones (umbral " + umbral + "%)"
+            : regresiones + " caso(s) empeoraron más de " + umbral + "%");
+        System.exit(regresiones == 0 ? 0 : 1);
+    }
+}
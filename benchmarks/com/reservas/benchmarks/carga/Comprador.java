@@ -0,0 +1,169 @@
+package com.reservas.benchmarks.carga;
+
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Reserva;
+import com.reservas.pago.EstrategiaPago;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Un comprador simulado (ciclo cerrado: cada paso espera al anterior)
+ *
+ * 1. Llega en algún momento de la rampa y mira el mapa un rato
+ * 2. Elige función (la primera es la más pedida), tamaño de grupo y asientos:
+ *    acepta la sugerencia del sistema o elige a mano, cerca del centro
+ * 3. Llama a Cliente.realizarReserva() (pagar la confirma); si pierde los
+ *    asientos o el pago falla, espera un poco y vuelve a intentar (hasta
+ *    cierto límite)
+ * 4. O bien abandona antes de pagar: retiene los asientos (por el buzón de
+ *    la función) y deja que la retención venza sola
+ */
+final class Comprador implements Runnable {
+    // Tamaño del grupo: 1 a 6 personas (las parejas son lo más común)
+    private static final double[] GRUPOS = {0.15, 0.45, 0.10, 0.20, 0.05, 0.05};
+    private static final int ELECCIONES_A_MANO = 3; // Asientos tocados antes de pedir la sugerencia
+
+    private final GeneradorCarga prueba;
+    private final ConfiguracionCarga configuracion;
+    private final Cliente cliente;
+    private final EstrategiaPago pago;
+
+    Comprador(GeneradorCarga prueba, int numero, EstrategiaPago pago) {
+        this.prueba = prueba;
+        this.configuracion = prueba.getConfiguracion();
+        this.cliente = new Cliente("Comprador " + numero, "comprador" + numero + "@carga.com", "clave");
+        this.pago = pago;
+    }
+
+    @Override
+    public void run() {
+        try {
+            prueba.esperarApertura();
+            ThreadLocalRandom azar = ThreadLocalRandom.current();
+            dormir(azar.nextLong(configuracion.rampaMillis + 1));
+            long llegada = System.nanoTime();
+            dormir(azar.nextLong(configuracion.pensarMillis + 1));
+            comprar(azar, llegada);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            prueba.errores.increment();
+        } finally {
+            prueba.terminar();
+        }
+    }
+
+    private void comprar(ThreadLocalRandom azar, long llegada) throws InterruptedException {
+        int cantidad = tamanoGrupo(azar);
+        int primera = funcionPreferida(azar);
+        for (int intento = 0; intento < configuracion.intentos; intento++) {
+            if (intento > 0) {
+                prueba.reintentos.increment();
+                dormir(azar.nextLong(configuracion.reintentoMillis + 1));
+            }
+            Funcion funcion = null;
+            List<Asiento> asientos = Collections.emptyList();
+            // Si la función preferida no tiene lugar para el grupo, prueba las siguientes
+            List<Funcion> funciones = prueba.getFunciones();
+            for (int i = 0; i < funciones.size() && asientos.isEmpty(); i++) {
+                funcion = funciones.get((primera + i) % funciones.size());
+                asientos = elegirAsientos(azar, funcion, cantidad);
+            }
+            if (asientos.isEmpty()) {
+                prueba.sinLugar.increment(); // Agotado para este grupo
+                return;
+            }
+
+            prueba.intentos.increment();
+            boolean abandona = azar.nextDouble() < configuracion.abandono;
+            long inicio = System.nanoTime();
+            Reserva reserva = abandona
+                ? funcion.getBuzon().reservar(cliente, asientos, configuracion.retencion).join()
+                : cliente.realizarReserva(funcion, asientos, pago);
+            prueba.tiempoIntento.registrar(System.nanoTime() - inicio);
+            if (reserva == null) {
+                continue; // Perdió algún asiento o el pago no se completó
+            }
+            if (abandona) {
+                prueba.abandonos.increment(); // La retención vencerá sola
+                return;
+            }
+            prueba.vender(reserva);
+            prueba.tiempoCompra.registrar(System.nanoTime() - llegada);
+            return;
+        }
+        prueba.rendidos.increment();
+    }
+
+    /**
+     * Elige asientos contiguos: a veces acepta la sugerencia del sistema,
+     * a veces los elige a mano (fila del medio hacia atrás, cerca del centro);
+     * si los que tocó están ocupados, prueba otros y al final pide la sugerencia
+     *
+     * @return Asientos elegidos, o una lista vacía si no hay un bloque libre
+     */
+    private List<Asiento> elegirAsientos(ThreadLocalRandom azar, Funcion funcion, int cantidad) {
+        if (azar.nextDouble() >= configuracion.mejoresAsientos) {
+            int filas = configuracion.filas;
+            int columnas = configuracion.columnas;
+            for (int i = 0; i < ELECCIONES_A_MANO && cantidad <= columnas; i++) {
+                int fila = Math.min(filas - 1, (int) triangular(azar, 0, filas, filas * 0.65));
+                double centro = (columnas - cantidad) / 2.0 + azar.nextGaussian() * columnas / 6.0;
+                int columna = (int) Math.max(0, Math.min(columnas - cantidad, Math.round(centro)));
+                int desde = fila * columnas + columna;
+                List<Asiento> asientos = funcion.getSala().getAsientos().subList(desde, desde + cantidad);
+                if (funcion.verificarDisponibilidad(asientos)) {
+                    return asientos;
+                }
+                prueba.seleccionesOcupadas.increment();
+            }
+        }
+        return funcion.buscarMejoresAsientos(cantidad);
+    }
+
+    /**
+     * @return Índice de la función elegida: la i-ésima se pide con peso 1/(i+1)
+     */
+    private int funcionPreferida(ThreadLocalRandom azar) {
+        double[] pesos = prueba.getPesosFunciones();
+        double valor = azar.nextDouble() * pesos[pesos.length - 1];
+        for (int i = 0; i < pesos.length; i++) {
+            if (valor < pesos[i]) {
+                return i;
+            }
+        }
+        return pesos.length - 1;
+    }
+
+    private static int tamanoGrupo(ThreadLocalRandom azar) {
+        double valor = azar.nextDouble();
+        for (int i = 0; i < GRUPOS.length; i++) {
+            valor -= GRUPOS[i];
+            if (valor < 0) {
+                return i + 1;
+            }
+        }
+        return GRUPOS.length;
+    }
+
+    /**
+     * Distribución triangular entre minimo y maximo, con la moda indicada
+     */
+    private static double triangular(ThreadLocalRandom azar, double minimo, double maximo, double moda) {
+        double u = azar.nextDouble();
+        double corte = (moda - minimo) / (maximo - minimo);
+        return u < corte
+            ? minimo + Math.sqrt(u * (maximo - minimo) * (moda - minimo))
+            : maximo - Math.sqrt((1 - u) * (maximo - minimo) * (maximo - moda));
+    }
+
+    private static void dormir(long millis) throws InterruptedException {
+        if (millis > 0) {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.reservas.benchmarks.carga;
+
+import java.time.Duration;
+
+/**
+ * Parámetros de una prueba de carga (se leen de la línea de comandos)
+ * Los valores por defecto simulan el estreno de una película muy esperada:
+ * muchos más compradores que asientos, todos llegando en el mismo segundo
+ */
+final class ConfiguracionCarga {
+    // Compradores
+    int compradores = 10_000;        // Compradores simultáneos
+    long rampaMillis = 1_000;        // Las llegadas se reparten en este intervalo desde la apertura
+    long pensarMillis = 500;         // Pausa máxima del comprador antes de elegir (mirando el mapa)
+    double abandono = 0.10;          // Probabilidad de retener asientos y no pagar nunca
+    double mejoresAsientos = 0.60;   // Probabilidad de aceptar la sugerencia del sistema
+    int intentos = 5;                // Intentos por comprador antes de rendirse
+    long reintentoMillis = 200;      // Pausa máxima entre intentos
+
+    // Funciones
+    int funciones = 4;               // Funciones del estreno (la primera es la más pedida)
+    int filas = 20;
+    int columnas = 30;
+    Duration retencion = Duration.ofSeconds(3); // Corto, para que lo abandonado vuelva a la venta
+
+    // Pago
+    double pagoMedianaMillis = 50;
+    double pagoDispersion = 0.5;
+    double pagoRechazo = 0.02;
+    int pagoHilos = 64;              // Compartimento del proveedor
+    int pagoCola = 4_096;
+
+    // Hilos
+    int maximoHilosPlataforma = 2_000; // Solo si la JVM no tiene hilos virtuales
+
+    /**
+     * @param args Opciones con la forma "--nombre valor"
+     * @return Configuración con los valores indicados y el resto por defecto
+     * @throws IllegalArgumentException si una opción no existe
+     */
+    static ConfiguracionCarga leer(String[] args) {
+        ConfiguracionCarga c = new ConfiguracionCarga();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String valor = args[i + 1];
+            switch (args[i]) {
+                case "--compradores": c.compradores = Integer.parseInt(valor); break;
+                case "--rampa": c.rampaMillis = Long.parseLong(valor); break;
+                case "--pensar": c.pensarMillis = Long.parseLong(valor); break;
+                case "--abandono": c.abandono = Double.parseDouble(valor); break;
+                case "--mejores": c.mejoresAsientos = Double.parseDouble(valor); break;
+                case "--intentos": c.intentos = Integer.parseInt(valor); break;
+                case "--reintento": c.reintentoMillis = Long.parseLong(valor); break;
+                case "--funciones": c.funciones = Integer.parseInt(valor); break;
+                case "--filas": c.filas = Integer.parseInt(valor); break;
+                case "--columnas": c.columnas = Integer.parseInt(valor); break;
+                case "--retencion": c.retencion = Duration.ofMillis(Long.parseLong(valor)); break;
+                case "--pago-mediana": c.pagoMedianaMillis = Double.parseDouble(valor); break;
+                case "--pago-dispersion": c.pagoDispersion = Double.parseDouble(valor); break;
+                case "--pago-rechazo": c.pagoRechazo = Double.parseDouble(valor); break;
+                case "--pago-hilos": c.pagoHilos = Integer.parseInt(valor); break;
+                case "--pago-cola": c.pagoCola = Integer.parseInt(valor); break;
+                case "--hilos-plataforma": c.maximoHilosPlataforma = Integer.parseInt(valor); break;
+                default: throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+            }
+        }
+        if (args.length % 2 != 0) {
+            throw new IllegalArgumentException("Falta el valor de " + args[args.length - 1]);
+        }
+        return c;
+    }
+}
@@ -0,0 +1,314 @@
+package com.reservas.benchmarks.carga;
+
+import com.reservas.metricas.ExportadorTexto;
+import com.reservas.metricas.Histograma;
+import com.reservas.metricas.RegistroMetricas;
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.EstadoReserva;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Reserva;
+import com.reservas.modelo.Sala;
+import com.reservas.pago.EstrategiaPago;
+import com.reservas.pago.PoliticaPago;
+import com.reservas.pago.ResultadoPago;
+import com.reservas.sistema.SistemaReservas;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de carga: la apertura de ventas de un estreno ("las entradas
+ * salen a la venta a las 10:00")
+ *
+ * Miles de compradores (ver Comprador) esperan la apertura y llegan todos
+ * en el mismo segundo sobre el sistema real: SistemaReservas,
+ * Cliente.realizarReserva() y el ProcesadorPagos, con una pasarela falsa
+ * de latencia variable (PasarelaLatenciaVariable)
+ *
+ * Cada comprador corre en su propio hilo virtual si la JVM los tiene
+ * (Java 21+); si no, en un grupo acotado de hilos de plataforma (y
+ * entonces no todos los compradores están activos a la vez: el reporte lo avisa)
+ *
+ * Al final informa:
+ * - Ventas por segundo y latencias (p50/p90/p99/p99.9) de la compra
+ *   completa y de cada intento de reserva
+ * - Reintentos y conflictos de asientos (otro comprador ganó el asiento)
+ * - Resultados de los pagos
+ * - Sobreventa: asientos vendidos a más de una reserva confirmada (debe ser 0)
+ *   y asientos ocupados sin una venta que los justifique
+ *
+ * Uso:
+ *   java -cp out com.reservas.benchmarks.carga.GeneradorCarga [--compradores 10000] [...]
+ * (ver ConfiguracionCarga para todas las opciones)
+ */
+public class GeneradorCarga {
+    private final ConfiguracionCarga configuracion;
+    private final List<Funcion> funciones = new ArrayList<>();
+    private final double[] pesosFunciones; // Pesos acumulados: la función i se pide con peso 1/(i+1)
+    private final CountDownLatch apertura = new CountDownLatch(1);
+    private final CountDownLatch terminados;
+    private final Queue<Reserva> vendidas = new ConcurrentLinkedQueue<>();
+
+    // Resultados
+    final Histograma tiempoCompra = new Histograma();  // Desde que llega hasta que confirma
+    final Histograma tiempoIntento = new Histograma(); // Cada llamada a realizarReserva()
+    final LongAdder intentos = new LongAdder();
+    final LongAdder reintentos = new LongAdder();
+    final LongAdder seleccionesOcupadas = new LongAdder(); // Eligió a mano asientos ya ocupados
+    final LongAdder abandonos = new LongAdder();
+    final LongAdder sinLugar = new LongAdder();
+    final LongAdder rendidos = new LongAdder();
+    final LongAdder errores = new LongAdder();
+    private final LongAdder asientosVendidos = new LongAdder();
+    private final LongAccumulator fin = new LongAccumulator(Long::max, Long.MIN_VALUE); // Último comprador
+
+    /**
+     * Arma las funciones del estreno en el sistema
+     * @param configuracion Parámetros de la prueba
+     */
+    public GeneradorCarga(ConfiguracionCarga configuracion) {
+        this.configuracion = configuracion;
+        this.terminados = new CountDownLatch(configuracion.compradores);
+        SistemaReservas sistema = SistemaReservas.getInstance();
+        Pelicula estreno = new Pelicula("Estreno", "Accion", 150);
+        sistema.agregarPelicula(estreno);
+        LocalDateTime manana = LocalDateTime.now().plusDays(1).withHour(18).withMinute(0);
+        this.pesosFunciones = new double[configuracion.funciones];
+        double acumulado = 0;
+        for (int i = 0; i < configuracion.funciones; i++) {
+            Funcion funcion = new Funcion(estreno, manana.plusHours(3L * i),
+                new Sala(configuracion.filas, configuracion.columnas));
+            sistema.agregarFuncion(funcion);
+            funciones.add(funcion);
+            acumulado += 1.0 / (i + 1);
+            pesosFunciones[i] = acumulado;
+        }
+    }
+
+    // ============================================
+    // EJECUCIÓN
+    // ============================================
+
+    /**
+     * Lanza a todos los compradores, abre la venta y espera a que terminen
+     * @param ejecutor Donde corre cada comprador
+     * @return Duración desde la apertura hasta que terminó el último comprador
+     */
+    Duration correr(ExecutorService ejecutor) throws InterruptedException {
+        List<EstrategiaPago> pasarelas = List.of(
+            new PasarelaLatenciaVariable(configuracion.pagoMedianaMillis,
+                configuracion.pagoDispersion, configuracion.pagoRechazo),       // Tarjeta
+            new PasarelaLatenciaVariable(configuracion.pagoMedianaMillis * 2,
+                configuracion.pagoDispersion, configuracion.pagoRechazo));     // Billetera, más lenta
+        for (int i = 0; i < configuracion.compradores; i++) {
+            ejecutor.execute(new Comprador(this, i, pasarelas.get(i % 10 < 7 ? 0 : 1)));
+        }
+        long inicio = System.nanoTime();
+        apertura.countDown(); // Son las 10:00
+        terminados.await();
+        ejecutor.shutdown();
+        return Duration.ofNanos(fin.get() - inicio);
+    }
+
+    void esperarApertura() throws InterruptedException {
+        apertura.await();
+    }
+
+    void terminar() {
+        fin.accumulate(System.nanoTime());
+        terminados.countDown();
+    }
+
+    void vender(Reserva reserva) {
+        vendidas.add(reserva);
+        asientosVendidos.add(reserva.getAsientos().size());
+    }
+
+    // ============================================
+    // VERIFICACIÓN
+    // ============================================
+
+    /**
+     * Asientos vendidos de más: cada asiento puede estar en UNA sola reserva confirmada
+     * @return Ventas que sobran (0 si no hubo sobreventa)
+     */
+    long contarSobreventa() {
+        long sobrantes = 0;
+        for (Funcion funcion : funciones) {
+            int[] duenos = duenosPorAsiento(funcion);
+            for (int cantidad : duenos) {
+                sobrantes += Math.max(0, cantidad - 1);
+            }
+        }
+        return sobrantes;
+    }
+
+    /**
+     * Asientos ocupados en el inventario sin una reserva confirmada que los
+     * justifique (ej: una retención que nunca se devolvió)
+     * Se mide cuando ya vencieron todas las retenciones abandonadas
+     */
+    long contarOcupadosSinVenta() {
+        long sinVenta = 0;
+        for (Funcion funcion : funciones) {
+            int[] duenos = duenosPorAsiento(funcion);
+            for (int i = 0; i < duenos.length; i++) {
+                if (duenos[i] == 0 && funcion.getInventario().estaOcupado(i)) {
+                    sinVenta++;
+                }
+            }
+        }
+        return sinVenta;
+    }
+
+    private int[] duenosPorAsiento(Funcion funcion) {
+        int[] duenos = new int[funcion.getSala().getCapacidad()];
+        for (Reserva reserva : vendidas) {
+            if (reserva.getFuncion() == funcion && reserva.getEstado() == EstadoReserva.CONFIRMADA) {
+                for (Asiento asiento : reserva.getAsientos()) {
+                    duenos[asiento.getIndice()]++;
+                }
+            }
+        }
+        return duenos;
+    }
+
+    // ============================================
+    // ACCESO (para los compradores)
+    // ============================================
+
+    ConfiguracionCarga getConfiguracion() { return configuracion; }
+    List<Funcion> getFunciones() { return Collections.unmodifiableList(funciones); }
+    double[] getPesosFunciones() { return pesosFunciones; }
+
+    // ============================================
+    // PROGRAMA
+    // ============================================
+
+    /**
+     * Crea un hilo virtual por comprador si la JVM los tiene
+     * Se busca por reflexión para que el proyecto siga compilando con Java 17
+     * @return El ejecutor, o null si no hay hilos virtuales
+     */
+    private static ExecutorService hilosVirtuales() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null; // Java < 21, o Java 19/20 sin --enable-preview
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.leer(args);
+        PrintStream consola = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Emails y mensajes de cada reserva
+
+        SistemaReservas sistema = SistemaReservas.getInstance();
+        sistema.setTiempoRetencion(configuracion.retencion);
+        sistema.getProcesadorPagos().configurar(PasarelaLatenciaVariable.class, new PoliticaPago(
+            Duration.ofSeconds(2), 1, Duration.ofMillis(50), 50, Duration.ofSeconds(5),
+            configuracion.pagoHilos, configuracion.pagoCola));
+        RegistroMetricas metricas = sistema.getMetricas();
+        long conflictosAntes = metricas.contador("asientos.conflictos").sum();
+        Map<ResultadoPago, Long> pagosAntes = contarPagos(metricas);
+
+        GeneradorCarga prueba = new GeneradorCarga(configuracion);
+        ExecutorService ejecutor = hilosVirtuales();
+        String hilos = "un hilo virtual por comprador";
+        if (ejecutor == null) {
+            int cantidad = Math.min(configuracion.compradores, configuracion.maximoHilosPlataforma);
+            ejecutor = Executors.newFixedThreadPool(cantidad);
+            hilos = cantidad + " hilos de plataforma (sin hilos virtuales en Java "
+                + Runtime.version().feature() + ")"
+                + (cantidad < configuracion.compradores ? ": NO todos los compradores llegan a la vez" : "");
+        }
+        consola.println("Compradores: " + configuracion.compradores + ", " + hilos);
+        consola.println("Funciones: " + configuracion.funciones + " de " + configuracion.filas * configuracion.columnas
+            + " asientos; retención " + configuracion.retencion.toMillis() + " ms");
+
+        Duration duracion = prueba.correr(ejecutor);
+        ejecutor.awaitTermination(1, TimeUnit.MINUTES);
+
+        // Las retenciones abandonadas vencen solas: esperamos antes de contar asientos sin venta
+        Thread.sleep(configuracion.retencion.toMillis() + 500);
+        System.setOut(consola);
+        prueba.reportar(consola, duracion, metricas.contador("asientos.conflictos").sum() - conflictosAntes,
+            restar(contarPagos(metricas), pagosAntes));
+
+        Writer salida = new OutputStreamWriter(consola, StandardCharsets.UTF_8);
+        salida.write("\nMétricas del sistema (microsegundos):\n");
+        metricas.exportar(new ExportadorTexto(salida));
+        System.exit(0); // Los servicios del sistema tienen hilos en segundo plano
+    }
+
+    private void reportar(PrintStream consola, Duration duracion, long conflictos, Map<ResultadoPago, Long> pagos) {
+        double segundos = duracion.toNanos() / 1e9;
+        long confirmadas = tiempoCompra.instantanea().getTotal();
+        long capacidad = (long) configuracion.funciones * configuracion.filas * configuracion.columnas;
+        long intentosTotales = intentos.sum();
+        consola.println(String.format(Locale.ROOT, "%nDuración: %.2f s", segundos));
+        consola.println(String.format(Locale.ROOT, "Compras confirmadas: %d (%.1f por segundo)",
+            confirmadas, confirmadas / segundos));
+        consola.println(String.format(Locale.ROOT, "Asientos vendidos: %d de %d (%.1f%%)",
+            asientosVendidos.sum(), capacidad, asientosVendidos.sum() * 100.0 / capacidad));
+        consola.println(String.format(Locale.ROOT, "Intentos de reserva: %d (%.1f por segundo)",
+            intentosTotales, intentosTotales / segundos));
+        consola.println(String.format(Locale.ROOT, "Reintentos: %d (%.1f%% de los intentos)",
+            reintentos.sum(), porcentaje(reintentos.sum(), intentosTotales)));
+        consola.println(String.format(Locale.ROOT, "Conflictos de asientos: %d (%.1f%% de los intentos)",
+            conflictos, porcentaje(conflictos, intentosTotales)));
+        consola.println("Elecciones a mano ya ocupadas: " + seleccionesOcupadas.sum());
+        consola.println("Pagos: " + pagos);
+        consola.println("Abandonos: " + abandonos.sum() + ", sin lugar: " + sinLugar.sum()
+            + ", rendidos: " + rendidos.sum() + ", errores: " + errores.sum());
+        consola.println("Latencia de la compra (ms)   " + percentiles(tiempoCompra));
+        consola.println("Latencia de cada intento (ms) " + percentiles(tiempoIntento));
+        consola.println("SOBREVENTA: " + contarSobreventa() + " asientos");
+        consola.println("Ocupados sin venta: " + contarOcupadosSinVenta() + " asientos");
+    }
+
+    private static String percentiles(Histograma histograma) {
+        Histograma.Instantanea tiempos = histograma.instantanea();
+        return String.format(Locale.ROOT, "p50=%.1f  p90=%.1f  p99=%.1f  p99.9=%.1f  max=%.1f",
+            tiempos.percentil(50) / 1e6, tiempos.percentil(90) / 1e6, tiempos.percentil(99) / 1e6,
+            tiempos.percentil(99.9) / 1e6, tiempos.getMaximo() / 1e6);
+    }
+
+    private static double porcentaje(long parte, long total) {
+        return total == 0 ? 0 : parte * 100.0 / total;
+    }
+
+    private static Map<ResultadoPago, Long> contarPagos(RegistroMetricas metricas) {
+        Map<ResultadoPago, Long> pagos = new EnumMap<>(ResultadoPago.class);
+        for (ResultadoPago resultado : ResultadoPago.values()) {
+            pagos.put(resultado, metricas.contador("pago." + resultado.name().toLowerCase(Locale.ROOT)).sum());
+        }
+        return pagos;
+    }
+
+    private static Map<ResultadoPago, Long> restar(Map<ResultadoPago, Long> despues, Map<ResultadoPago, Long> antes) {
+        Map<ResultadoPago, Long> diferencia = new EnumMap<>(ResultadoPago.class);
+        despues.forEach((resultado, cantidad) -> diferencia.put(resultado, cantidad - antes.get(resultado)));
+        return diferencia;
+    }
+}
@@ -0,0 +1,69 @@
+package com.reservas.benchmarks.carga;
+
+import com.reservas.modelo.Dinero;
+import com.reservas.pago.EstrategiaPago;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pasarela de pago falsa con latencia VARIABLE, para pruebas de carga
+ *
+ * A diferencia de PasarelaSimulada (latencia fija), cada llamada tarda un
+ * tiempo con distribución log-normal: la mayoría cerca de la mediana y
+ * unas pocas mucho más lentas, como una pasarela real
+ *   latencia = mediana * e^(dispersion * N(0, 1))
+ * Con dispersion = 0.5 el p99 queda en ~3.2 veces la mediana
+ *
+ * Respeta la clave de idempotencia (como PasarelaSimulada): un intento
+ * cortado por tiempo se puede repetir sin cobrar dos veces
+ */
+public class PasarelaLatenciaVariable implements EstrategiaPago {
+    private final long medianaMicros;
+    private final double dispersion;
+    private final double probabilidadRechazo;
+    private final Map<String, Boolean> procesados = new ConcurrentHashMap<>(); // Clave -> respuesta
+    private final LongAdder llamadas = new LongAdder();
+
+    /**
+     * @param medianaMillis Latencia mediana de cada llamada
+     * @param dispersion Desvío del logaritmo de la latencia (0 = latencia fija)
+     * @param probabilidadRechazo Probabilidad (0 a 1) de que el pago se rechace
+     */
+    public PasarelaLatenciaVariable(double medianaMillis, double dispersion, double probabilidadRechazo) {
+        if (medianaMillis < 0 || dispersion < 0 || probabilidadRechazo < 0 || probabilidadRechazo > 1) {
+            throw new IllegalArgumentException("Parámetros de pasarela inválidos");
+        }
+        this.medianaMicros = Math.round(medianaMillis * 1000);
+        this.dispersion = dispersion;
+        this.probabilidadRechazo = probabilidadRechazo;
+    }
+
+    @Override
+    public boolean procesarPago(Dinero monto) {
+        return procesarPago(UUID.randomUUID().toString(), monto); // Sin clave: cada llamada es un pago nuevo
+    }
+
+    @Override
+    public boolean procesarPago(String claveIdempotencia, Dinero monto) {
+        llamadas.increment();
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        long micros = Math.round(medianaMicros * Math.exp(dispersion * azar.nextGaussian()));
+        try {
+            Thread.sleep(micros / 1000, (int) (micros % 1000) * 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // El procesador cortó el intento por tiempo
+            return false;
+        }
+        return procesados.computeIfAbsent(claveIdempotencia, clave -> azar.nextDouble() >= probabilidadRechazo);
+    }
+
+    @Override
+    public boolean usaClaveIdempotencia() {
+        return true;
+    }
+
+    public long getLlamadas() { return llamadas.sum(); }
+}
@@ -0,0 +1,87 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.benchmarks.CasoBenchmark;
+import com.reservas.modelo.Pelicula;
+import com.reservas.sistema.IndiceCatalogo;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Búsqueda de películas en catálogos de 1.000, 10.000 y 100.000 títulos
+ *
+ * SistemaReservas.buscarPeliculas() solo agrega el temporizador sobre
+ * IndiceCatalogo.buscar(), y el sistema es un Singleton que no se puede
+ * vaciar: por eso cada tamaño usa su propio índice
+ *
+ * Los títulos se arman combinando palabras, así que las búsquedas tienen
+ * coincidencias parecidas a las de un catálogo real: una palabra común,
+ * dos palabras, un género y un texto que no aparece
+ *
+ * Las variantes "lineal" miden, sobre los mismos títulos, el filtro con
+ * streams que buscarPeliculas() usaba antes del índice: sirven de
+ * referencia para ver cuánto gana el índice con cada tamaño
+ */
+public class BusquedaCatalogo implements CasoBenchmark {
+    private static final String[] PALABRAS = {
+        "noche", "dragon", "ciudad", "sombra", "rio", "estrella", "guerra", "amor",
+        "ultimo", "viaje", "fuego", "silencio", "mar", "reino", "tiempo", "camino"
+    };
+    private static final String[] GENEROS = {"Accion", "Drama", "Comedia", "Ciencia Ficcion", "Terror", "Animacion"};
+    private static final String[] CONSULTAS = {"noche", "el dragon", "ciencia", "zzz"};
+
+    private IndiceCatalogo indice;
+    private boolean lineal;
+
+    @Override
+    public String nombre() {
+        return "busqueda_catalogo";
+    }
+
+    @Override
+    public List<String> parametros() {
+        return List.of("peliculas=1000", "peliculas=10000", "peliculas=100000",
+            "lineal,peliculas=1000", "lineal,peliculas=10000", "lineal,peliculas=100000");
+    }
+
+    @Override
+    public void preparar(String parametro, int hilos) {
+        int peliculas = Integer.parseInt(parametro.substring(parametro.indexOf('=') + 1));
+        lineal = parametro.startsWith("lineal");
+        indice = new IndiceCatalogo();
+        SplittableRandom azar = new SplittableRandom(7);
+        for (int i = 0; i < peliculas; i++) {
+            String titulo = "El " + PALABRAS[azar.nextInt(PALABRAS.length)]
+                + " de la " + PALABRAS[azar.nextInt(PALABRAS.length)] + " " + i;
+            indice.agregar(new Pelicula(titulo, GENEROS[azar.nextInt(GENEROS.length)], 90 + azar.nextInt(60)));
+        }
+    }
+
+    @Override
+    public long operacion(int hilo, long iteracion) {
+        String consulta = CONSULTAS[(int) ((iteracion + hilo) % CONSULTAS.length)];
+        return (lineal ? filtroLineal(indice.todas(), consulta) : indice.buscar(consulta)).size();
+    }
+
+    /**
+     * La búsqueda anterior al índice: recorre todo el catálogo y pasa a
+     * minúsculas cada título y género en cada consulta
+     * @param peliculas Catálogo completo
+     * @param criterio Texto a buscar
+     * @return Películas cuyo título o género contienen el criterio
+     */
+    public static List<Pelicula> filtroLineal(List<Pelicula> peliculas, String criterio) {
+        return peliculas.stream()
+            .filter(p ->
+                p.getTitulo().toLowerCase(Locale.ROOT).contains(criterio.toLowerCase(Locale.ROOT)) ||
+                p.getGenero().toLowerCase(Locale.ROOT).contains(criterio.toLowerCase(Locale.ROOT))
+            )
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public void cerrar() {
+        indice = null;
+    }
+}
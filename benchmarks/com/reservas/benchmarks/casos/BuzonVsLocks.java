@@ -0,0 +1,71 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.benchmarks.CasoBenchmark;
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Reserva;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Confirmar y cancelar una reserva de 1 asiento de dos formas:
+ * - locks: Reserva.confirmar() / cancelar() en el hilo que pide (CAS del
+ *   bitmap y monitores de la reserva, compitiendo con los demás hilos)
+ * - buzon: las mismas operaciones encoladas en el BuzonFuncion de la
+ *   función (un solo hilo por función, sin contención)
+ *
+ * Con una sola función (un estreno muy pedido) todos los hilos caen en el
+ * mismo buzón; con 500 funciones la carga se reparte entre muchos buzones
+ */
+public class BuzonVsLocks implements CasoBenchmark {
+    private boolean buzon;
+    private Funcion[] funciones;
+    private Cliente[] clientes;
+    private List<List<List<Asiento>>> asientos; // [función][hilo] -> el asiento de ese hilo
+
+    @Override
+    public String nombre() {
+        return "buzon_vs_locks";
+    }
+
+    @Override
+    public List<String> parametros() {
+        return List.of("locks,funciones=1", "locks,funciones=500", "buzon,funciones=1", "buzon,funciones=500");
+    }
+
+    @Override
+    public void preparar(String parametro, int hilos) {
+        buzon = parametro.startsWith("buzon");
+        int cantidad = Integer.parseInt(parametro.substring(parametro.indexOf('=') + 1));
+        funciones = new Funcion[cantidad];
+        asientos = new ArrayList<>(cantidad);
+        for (int f = 0; f < cantidad; f++) {
+            funciones[f] = Escenario.funcion();
+            List<List<Asiento>> porHilo = new ArrayList<>(hilos);
+            for (int h = 0; h < hilos; h++) {
+                porHilo.add(Escenario.bloque(funciones[f], h, 1)); // Cada hilo usa su propio asiento
+            }
+            asientos.add(porHilo);
+        }
+        clientes = new Cliente[hilos];
+        for (int h = 0; h < hilos; h++) {
+            clientes[h] = Escenario.cliente(h);
+        }
+    }
+
+    @Override
+    public long operacion(int hilo, long iteracion) {
+        int f = (int) ((iteracion * 7 + hilo * 131L) % funciones.length);
+        Funcion funcion = funciones[f];
+        Reserva reserva = new Reserva(clientes[hilo], funcion, asientos.get(f).get(hilo));
+        if (buzon) {
+            funcion.getBuzon().confirmar(reserva).join();
+            funcion.getBuzon().cancelar(reserva).join();
+        } else {
+            reserva.confirmar();
+            reserva.cancelar();
+        }
+        return reserva.getId().getValor();
+    }
+}
@@ -0,0 +1,58 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.benchmarks.CasoBenchmark;
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Reserva;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reserva.confirmar() seguido de Reserva.cancelar() para grupos de 1, 4 y 10 asientos
+ * Incluye todo lo que pasa en el medio: reclamo atómico en el bitmap,
+ * cambio de estado, historial, estadísticas de ventas y publicación del
+ * evento en el bus del sistema
+ *
+ * Cada hilo usa su propio bloque de asientos (nunca hay conflicto de
+ * asientos), pero los bloques vecinos comparten palabras del bitmap:
+ * con varios hilos se mide la contención de los CAS
+ */
+public class ConfirmarCancelar implements CasoBenchmark {
+    private Funcion funcion;
+    private Cliente[] clientes;
+    private List<List<Asiento>> bloques;
+
+    @Override
+    public String nombre() {
+        return "confirmar_cancelar";
+    }
+
+    @Override
+    public List<String> parametros() {
+        return List.of("asientos=1", "asientos=4", "asientos=10");
+    }
+
+    @Override
+    public void preparar(String parametro, int hilos) {
+        int asientos = Integer.parseInt(parametro.substring(parametro.indexOf('=') + 1));
+        funcion = Escenario.funcion();
+        if (asientos * hilos > funcion.getSala().getCapacidad()) {
+            throw new IllegalArgumentException("La sala no alcanza para " + hilos + " hilos");
+        }
+        clientes = new Cliente[hilos];
+        bloques = new ArrayList<>(hilos);
+        for (int h = 0; h < hilos; h++) {
+            clientes[h] = Escenario.cliente(h);
+            bloques.add(Escenario.bloque(funcion, h * asientos, asientos));
+        }
+    }
+
+    @Override
+    public long operacion(int hilo, long iteracion) {
+        Reserva reserva = new Reserva(clientes[hilo], funcion, bloques.get(hilo));
+        reserva.confirmar();
+        reserva.cancelar();
+        return reserva.getId().getValor();
+    }
+}
@@ -0,0 +1,111 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.benchmarks.CasoBenchmark;
+import com.reservas.metricas.RegistroMetricas;
+import com.reservas.metricas.Temporizador;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Costo de medir una operación con Temporizador (iniciar + detener)
+ * - activas: cada medición lee el reloj dos veces y suma al histograma
+ * - inactivas: RegistroMetricas.setActivo(false), no debería costar nada
+ *
+ * Antes de medir, el caso calcula cuánto agrega cada medición y FALLA
+ * (el arnés lo informa como ERROR y termina con código 1) si pasa el
+ * presupuesto:
+ * - activas: lo que cuesta de más sobre las dos lecturas de System.nanoTime()
+ *   (el reloj depende de la máquina; lo que sí es nuestro es el histograma)
+ * - inactivas: lo que cuesta la medición entera
+ */
+public class CostoMetricas implements CasoBenchmark {
+    static final double PRESUPUESTO_ACTIVAS_NS = 100;
+    static final double PRESUPUESTO_INACTIVAS_NS = 10;
+    private static final int MEDICIONES = 2_000_000;
+    private static final int RONDAS = 5;
+
+    private Temporizador temporizador;
+
+    @Override
+    public String nombre() {
+        return "costo_metricas";
+    }
+
+    @Override
+    public List<String> parametros() {
+        return List.of("activas", "inactivas");
+    }
+
+    @Override
+    public void preparar(String parametro, int hilos) {
+        boolean activas = parametro.equals("activas");
+        RegistroMetricas registro = new RegistroMetricas(); // Propio: no ensucia las métricas del sistema
+        registro.setActivo(activas);
+        temporizador = registro.temporizador("costo");
+
+        double costo = mediana(this::medirTemporizador);
+        double excedente = activas ? costo - mediana(CostoMetricas::medirReloj) : costo;
+        double presupuesto = activas ? PRESUPUESTO_ACTIVAS_NS : PRESUPUESTO_INACTIVAS_NS;
+        if (excedente > presupuesto) {
+            throw new IllegalStateException(String.format(Locale.ROOT,
+                "Medir con metricas %s cuesta %.1f ns por operacion, el presupuesto es %.0f ns",
+                parametro, excedente, presupuesto));
+        }
+    }
+
+    @Override
+    public long operacion(int hilo, long iteracion) {
+        long inicio = temporizador.iniciar();
+        temporizador.detener(inicio);
+        return inicio;
+    }
+
+    @Override
+    public void cerrar() {
+        temporizador = null;
+    }
+
+    // ============================================
+    // Calibración
+    // ============================================
+
+    private interface Medicion {
+        long correr(); // Devuelve algo para que el JIT no elimine el trabajo
+    }
+
+    /**
+     * @return Nanosegundos por medición (mediana de varias rondas, la
+     *         primera también calienta el JIT)
+     */
+    private static double mediana(Medicion medicion) {
+        double[] rondas = new double[RONDAS];
+        long sumidero = 0;
+        for (int i = 0; i < RONDAS; i++) {
+            long inicio = System.nanoTime();
+            sumidero += medicion.correr();
+            rondas[i] = (double) (System.nanoTime() - inicio) / MEDICIONES;
+        }
+        Arrays.sort(rondas);
+        return sumidero == 42 ? 0 : rondas[RONDAS / 2];
+    }
+
+    private long medirTemporizador() {
+        long suma = 0;
+        for (int i = 0; i < MEDICIONES; i++) {
+            long inicio = temporizador.iniciar();
+            temporizador.detener(inicio);
+            suma += inicio;
+        }
+        return suma;
+    }
+
+    private static long medirReloj() {
+        long suma = 0;
+        for (int i = 0; i < MEDICIONES; i++) {
+            long inicio = System.nanoTime();
+            suma += System.nanoTime() - inicio;
+        }
+        return suma;
+    }
+}
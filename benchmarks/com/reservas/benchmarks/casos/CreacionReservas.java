@@ -0,0 +1,71 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.benchmarks.CasoBenchmark;
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Id;
+import com.reservas.modelo.Reserva;
+import com.reservas.pago.PagoTarjeta;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creación de reservas, de lo más barato a lo más completo:
+ * - id: solo generar el identificador (Id.nuevo(), compartido por todos los hilos)
+ * - reserva: crear el objeto Reserva (incluye su id)
+ * - realizar: Cliente.realizarReserva() completo (cotización, reclamo,
+ *   retención, pago en el ProcesadorPagos e historial) y luego cancelar()
+ *   para devolver el asiento
+ *
+ * En "realizar" cada reserva pagada queda registrada en el sistema (como
+ * en producción): como se cancela enseguida, sale del índice por id en la
+ * limpieza siguiente (a lo sumo una vez por minuto)
+ */
+public class CreacionReservas implements CasoBenchmark {
+    private String modo;
+    private Funcion funcion;
+    private Cliente[] clientes;
+    private List<List<Asiento>> asientos;
+    private PagoTarjeta pago;
+
+    @Override
+    public String nombre() {
+        return "creacion_reserva";
+    }
+
+    @Override
+    public List<String> parametros() {
+        return List.of("id", "reserva", "realizar");
+    }
+
+    @Override
+    public void preparar(String parametro, int hilos) {
+        modo = parametro;
+        funcion = Escenario.funcion();
+        pago = new PagoTarjeta("4111111111111111");
+        clientes = new Cliente[hilos];
+        asientos = new ArrayList<>(hilos);
+        for (int h = 0; h < hilos; h++) {
+            clientes[h] = Escenario.cliente(h);
+            asientos.add(Escenario.bloque(funcion, h, 1));
+        }
+    }
+
+    @Override
+    public long operacion(int hilo, long iteracion) {
+        switch (modo) {
+            case "id":
+                return Id.nuevo().getValor();
+            case "reserva":
+                return new Reserva(clientes[hilo], funcion, asientos.get(hilo)).getId().getValor();
+            default:
+                Reserva reserva = clientes[hilo].realizarReserva(funcion, asientos.get(hilo), pago);
+                if (reserva == null) {
+                    throw new IllegalStateException("La reserva falló: el asiento del hilo " + hilo + " estaba ocupado");
+                }
+                reserva.cancelar();
+                return reserva.getId().getValor();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.benchmarks.CasoBenchmark;
+import com.reservas.persistencia.DiarioReservas;
+import com.reservas.persistencia.EstadoRecuperado;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Agregar registros al diario (cada operación es un registro CREADA)
+ * - esperar: cada hilo espera el fsync de su registro antes del siguiente;
+ *   el único agrupamiento es el que se da entre hilos
+ * - en_vuelo_64: cada hilo deja hasta 64 registros sin confirmar y espera
+ *   el más viejo; el escritor junta lotes grandes en un solo fsync
+ *
+ * Con un hilo, "esperar" es el peor caso (un fsync por registro); la
+ * diferencia con "en_vuelo_64" es lo que gana el group commit. El diario
+ * vive en un directorio temporal y no escribe instantáneas
+ */
+public class DiarioAgregar implements CasoBenchmark {
+    private static final int EN_VUELO = 64;
+
+    private Path directorio;
+    private DiarioReservas diario;
+    private int maximoEnVuelo;
+    private List<ArrayDeque<CompletableFuture<Long>>> enVuelo;
+
+    @Override
+    public String nombre() {
+        return "diario_agregar";
+    }
+
+    @Override
+    public List<String> parametros() {
+        return List.of("esperar", "en_vuelo_" + EN_VUELO);
+    }
+
+    @Override
+    public void preparar(String parametro, int hilos) throws Exception {
+        maximoEnVuelo = parametro.equals("esperar") ? 1 : EN_VUELO;
+        directorio = Files.createTempDirectory("bench-diario");
+        diario = new DiarioReservas(directorio, EstadoRecuperado.vacio(), Integer.MAX_VALUE);
+        enVuelo = new ArrayList<>(hilos);
+        for (int h = 0; h < hilos; h++) {
+            enVuelo.add(new ArrayDeque<>(maximoEnVuelo));
+        }
+    }
+
+    @Override
+    public long operacion(int hilo, long iteracion) {
+        ArrayDeque<CompletableFuture<Long>> pendientes = enVuelo.get(hilo);
+        pendientes.add(diario.registrar(DiarioReservas.Tipo.CREADA, hilo + "-" + iteracion, "cliente",
+            "funcion" + hilo, new int[] {(int) (iteracion & 1023)}));
+        return pendientes.size() >= maximoEnVuelo ? pendientes.poll().join() : iteracion;
+    }
+
+    @Override
+    public void cerrar() {
+        try {
+            diario.cerrar(); // Escribe lo que quedó en vuelo
+            Escenario.borrar(directorio);
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudo cerrar el diario del benchmark", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.benchmarks.CasoBenchmark;
+import com.reservas.persistencia.DiarioReservas;
+import com.reservas.persistencia.EstadoRecuperado;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Recuperar el estado al arrancar (cada operación es un DiarioReservas.recuperar completo)
+ *
+ * preparar() escribe la misma historia de 100.000 registros en 100
+ * funciones: cada reserva se crea y después se confirma o se cancela
+ * (quedan 25.000 vivas). Lo que cambia es dónde queda:
+ * - cola: todo en el diario, sin instantánea; hay que reproducir cada registro
+ * - instantanea: la última instantánea cubre toda la historia y la cola
+ *   está vacía; solo se leen los bitmaps y las reservas vivas
+ */
+public class DiarioRecuperar implements CasoBenchmark {
+    private static final int REGISTROS = 100_000;
+    private static final int FUNCIONES = 100;
+    private static final int ASIENTOS = 1000;
+
+    private Path directorio;
+
+    @Override
+    public String nombre() {
+        return "diario_recuperar";
+    }
+
+    @Override
+    public List<String> parametros() {
+        return List.of("cola", "instantanea");
+    }
+
+    @Override
+    public void preparar(String parametro, int hilos) throws Exception {
+        directorio = Files.createTempDirectory("bench-recuperar");
+        // Con intervalo REGISTROS la instantánea sale justo con el último lote
+        int intervalo = parametro.equals("cola") ? Integer.MAX_VALUE : REGISTROS;
+        DiarioReservas diario = new DiarioReservas(directorio, EstadoRecuperado.vacio(), intervalo);
+        CompletableFuture<Long> ultimo = null;
+        for (int i = 0; i < REGISTROS; i++) {
+            int reserva = i / 2;
+            DiarioReservas.Tipo tipo = i % 2 == 0 ? DiarioReservas.Tipo.CREADA
+                : i % 4 == 1 ? DiarioReservas.Tipo.CONFIRMADA : DiarioReservas.Tipo.CANCELADA;
+            ultimo = diario.registrar(tipo, "reserva" + reserva, "cliente" + reserva % 500,
+                "funcion" + reserva % FUNCIONES, new int[] {reserva / FUNCIONES % ASIENTOS});
+        }
+        ultimo.join();
+        diario.cerrar();
+    }
+
+    @Override
+    public long operacion(int hilo, long iteracion) throws Exception {
+        EstadoRecuperado estado = DiarioReservas.recuperar(directorio);
+        return estado.getReservas().size() + estado.getUltimaSecuencia();
+    }
+
+    @Override
+    public void cerrar() {
+        try {
+            Escenario.borrar(directorio);
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudo borrar el diario del benchmark", e);
+        }
+    }
+}
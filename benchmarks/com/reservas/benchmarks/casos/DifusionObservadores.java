@@ -0,0 +1,80 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.benchmarks.CasoBenchmark;
+import com.reservas.modelo.EventoReserva;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Reserva;
+import com.reservas.modelo.Reserva.ObservadorReserva;
+import com.reservas.sistema.BusEventos;
+import com.reservas.sistema.DespachadorNotificaciones;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publicación de eventos a 1, 10 y 100 observadores
+ *
+ * Usa un BusEventos propio (no el del sistema, que tiene el notificador
+ * de email) con política BLOQUEAR: cuando la cola se llena, quien publica
+ * espera, así que el resultado es el ritmo al que los trabajadores
+ * realmente entregan los eventos, no solo lo que tarda encolarlos
+ */
+public class DifusionObservadores implements CasoBenchmark {
+    private static final int CAPACIDAD = 1024;
+    private static final int TRABAJADORES = 2;
+    private static final int RESERVAS = 64; // Potencia de 2: se elige con una máscara
+
+    private DespachadorNotificaciones despachador;
+    private BusEventos bus;
+    private EventoReserva[] eventos;
+    private final LongAdder entregados = new LongAdder();
+
+    @Override
+    public String nombre() {
+        return "difusion_observadores";
+    }
+
+    @Override
+    public List<String> parametros() {
+        return List.of("observadores=1", "observadores=10", "observadores=100");
+    }
+
+    @Override
+    public void preparar(String parametro, int hilos) {
+        int observadores = Integer.parseInt(parametro.substring(parametro.indexOf('=') + 1));
+        despachador = new DespachadorNotificaciones(CAPACIDAD, TRABAJADORES,
+            DespachadorNotificaciones.PoliticaSaturacion.BLOQUEAR);
+        bus = new BusEventos(despachador);
+        for (int i = 0; i < observadores; i++) {
+            bus.suscribirATodos(new Contador());
+        }
+        // Reservas distintas: el despachador reparte cada reserva a un trabajador fijo
+        Funcion funcion = Escenario.funcion();
+        eventos = new EventoReserva[RESERVAS];
+        for (int i = 0; i < RESERVAS; i++) {
+            Reserva reserva = new Reserva(Escenario.cliente(i), funcion, List.of());
+            eventos[i] = new EventoReserva(EventoReserva.Tipo.CONFIRMADA, reserva);
+        }
+    }
+
+    @Override
+    public long operacion(int hilo, long iteracion) {
+        bus.publicar(eventos[(int) (iteracion + hilo * 17L) & (RESERVAS - 1)]);
+        return iteracion;
+    }
+
+    @Override
+    public void cerrar() {
+        despachador.detener(Duration.ofSeconds(5));
+    }
+
+    /**
+     * Observador mínimo: solo cuenta, para medir el costo del despacho y no el del canal
+     */
+    private final class Contador implements ObservadorReserva {
+        @Override
+        public void actualizar(Reserva reserva) {
+            entregados.increment();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.benchmarks.CasoBenchmark;
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Funcion;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Funcion.verificarDisponibilidad() para grupos de 4 asientos, con la sala
+ * vacía, a medio llenar y casi llena
+ * Es la consulta que hace el mapa de asientos cada vez que el cliente
+ * elige un asiento: solo lee el bitmap, así que los hilos no deberían
+ * estorbarse
+ */
+public class DisponibilidadAsientos implements CasoBenchmark {
+    private static final int CONSULTAS = 1024; // Potencia de 2: se elige con una máscara
+
+    private Funcion funcion;
+    private List<List<Asiento>> consultas;
+
+    @Override
+    public String nombre() {
+        return "disponibilidad";
+    }
+
+    @Override
+    public List<String> parametros() {
+        return List.of("ocupacion=0", "ocupacion=50", "ocupacion=90");
+    }
+
+    @Override
+    public void preparar(String parametro, int hilos) {
+        int ocupacion = Integer.parseInt(parametro.substring(parametro.indexOf('=') + 1));
+        funcion = Escenario.funcion();
+        int capacidad = funcion.getSala().getCapacidad();
+        SplittableRandom azar = new SplittableRandom(42);
+        for (int i = 0; i < capacidad; i++) {
+            if (azar.nextInt(100) < ocupacion) {
+                funcion.getInventario().reclamar(new int[] {i});
+            }
+        }
+        consultas = new ArrayList<>(CONSULTAS);
+        for (int i = 0; i < CONSULTAS; i++) {
+            consultas.add(Escenario.bloque(funcion, azar.nextInt(capacidad - 4), 4));
+        }
+    }
+
+    @Override
+    public long operacion(int hilo, long iteracion) {
+        // Cada hilo recorre las consultas desde un punto distinto
+        int i = (int) (iteracion + hilo * 131L) & (CONSULTAS - 1);
+        return funcion.verificarDisponibilidad(consultas.get(i)) ? 1 : 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Sala;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Datos comunes a los casos: una función de mañana y un cliente
+ * Cada caso arma su propia función para no heredar asientos ocupados
+ * de otro caso
+ */
+final class Escenario {
+    static final int FILAS = 20;
+    static final int COLUMNAS = 50;
+
+    private Escenario() {}
+
+    /**
+     * @return Función nueva en una sala de FILAS x COLUMNAS, con todos los asientos libres
+     */
+    static Funcion funcion() {
+        Pelicula pelicula = new Pelicula("Benchmark", "Drama", 120);
+        return new Funcion(pelicula, LocalDateTime.now().plusDays(1), new Sala(FILAS, COLUMNAS));
+    }
+
+    static Cliente cliente(int numero) {
+        return new Cliente("Cliente " + numero, "cliente" + numero + "@benchmark.com", "clave");
+    }
+
+    /**
+     * Bloque de asientos contiguos (recorre la sala fila por fila)
+     * @param funcion Función
+     * @param desde Índice del primer asiento
+     * @param cantidad Tamaño del bloque
+     */
+    static List<Asiento> bloque(Funcion funcion, int desde, int cantidad) {
+        return List.copyOf(funcion.getSala().getAsientos().subList(desde, desde + cantidad));
+    }
+
+    /**
+     * Borra un directorio temporal con todo su contenido (los casos del diario)
+     */
+    static void borrar(Path directorio) throws IOException {
+        try (Stream<Path> rutas = Files.walk(directorio)) {
+            for (Path ruta : (Iterable<Path>) rutas.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(ruta);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.benchmarks.CasoBenchmark;
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.EventoReserva;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Reserva;
+import com.reservas.modelo.Reserva.ObservadorReserva;
+import com.reservas.sistema.BusEventos;
+import com.reservas.sistema.DespachadorNotificaciones;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Crear una reserva y avisar de un cambio de estado: cuánta memoria cuesta
+ * (mirar la columna B/op)
+ * - bus: como ahora, la reserva no guarda observadores y el evento se
+ *   publica en un BusEventos compartido (con su despachador)
+ * - por_instancia: como antes del bus, cada reserva crea su lista de
+ *   observadores y su NotificadorEmail, y los recorre al cambiar de estado
+ *
+ * En los dos casos el aviso llega a un observador que solo cuenta (el
+ * email imprimiría): se compara lo que cuesta el mecanismo, no el canal
+ *
+ * Las reservas (y, antes, sus observadores) viven mientras el sistema las
+ * guarda: cada hilo las retiene en un anillo, así el JIT no puede
+ * eliminar esas asignaciones como haría con objetos que no escapan
+ */
+public class EventosReserva implements CasoBenchmark {
+    private static final int RETENIDAS = 1024; // Potencia de 2: se elige con una máscara
+
+    private boolean porInstancia;
+    private Funcion funcion;
+    private Cliente[] clientes;
+    private List<Asiento> asientos;
+    private Object[][] retenidas; // Por hilo: las últimas RETENIDAS reservas (o listas de observadores)
+    private DespachadorNotificaciones despachador;
+    private BusEventos bus;
+    private final LongAdder entregados = new LongAdder();
+    private final ObservadorReserva contador = reserva -> entregados.increment();
+
+    @Override
+    public String nombre() {
+        return "eventos_reserva";
+    }
+
+    @Override
+    public List<String> parametros() {
+        return List.of("bus", "por_instancia");
+    }
+
+    @Override
+    public void preparar(String parametro, int hilos) {
+        porInstancia = parametro.equals("por_instancia");
+        funcion = Escenario.funcion();
+        asientos = Escenario.bloque(funcion, 0, 2);
+        clientes = new Cliente[hilos];
+        retenidas = new Object[hilos][RETENIDAS];
+        for (int h = 0; h < hilos; h++) {
+            clientes[h] = Escenario.cliente(h);
+        }
+        despachador = new DespachadorNotificaciones(1024, 2, DespachadorNotificaciones.PoliticaSaturacion.BLOQUEAR);
+        bus = new BusEventos(despachador);
+        bus.suscribirATodos(contador);
+    }
+
+    @Override
+    public long operacion(int hilo, long iteracion) {
+        Reserva reserva = new Reserva(clientes[hilo], funcion, asientos);
+        if (porInstancia) {
+            // Lo que hacía el constructor de Reserva antes del bus
+            List<ObservadorReserva> observadores = new ArrayList<>();
+            observadores.add(new Reserva.NotificadorEmail());
+            // Y lo que hacía notificarObservadores(): recorrer la lista en el mismo hilo
+            for (ObservadorReserva observador : observadores) {
+                (observador instanceof Reserva.NotificadorEmail ? contador : observador).actualizar(reserva);
+            }
+            retenidas[hilo][(int) (iteracion * 2) & (RETENIDAS - 1)] = observadores;
+        } else {
+            bus.publicar(new EventoReserva(EventoReserva.Tipo.CONFIRMADA, reserva));
+        }
+        retenidas[hilo][(int) (iteracion * 2 + 1) & (RETENIDAS - 1)] = reserva;
+        return reserva.getId().getValor();
+    }
+
+    @Override
+    public void cerrar() {
+        despachador.detener(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,78 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.benchmarks.CasoBenchmark;
+import com.reservas.modelo.Id;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Id (GeneradorIds) contra UUID.randomUUID(), el que se usaba antes
+ * - id / uuid: generar un identificador nuevo
+ * - id_texto / uuid_texto: generarlo y pasarlo a texto (lo que se guarda
+ *   en el diario o se manda a la pasarela)
+ * - clave_id / clave_uuid: buscar en un HashMap de 100.000 entidades
+ *   usando el identificador como clave (como reservasPorId)
+ */
+public class Identificadores implements CasoBenchmark {
+    private static final int ENTIDADES = 100_000;
+
+    private String modo;
+    private Id<?>[] ids;
+    private UUID[] uuids;
+    private Map<Id<?>, Integer> porId;
+    private Map<UUID, Integer> porUuid;
+
+    @Override
+    public String nombre() {
+        return "identificadores";
+    }
+
+    @Override
+    public List<String> parametros() {
+        return List.of("id", "uuid", "id_texto", "uuid_texto", "clave_id", "clave_uuid");
+    }
+
+    @Override
+    public void preparar(String parametro, int hilos) {
+        modo = parametro;
+        ids = new Id<?>[ENTIDADES];
+        uuids = new UUID[ENTIDADES];
+        porId = new HashMap<>();
+        porUuid = new HashMap<>();
+        for (int i = 0; i < ENTIDADES; i++) {
+            ids[i] = Id.nuevo();
+            uuids[i] = UUID.randomUUID();
+            porId.put(ids[i], i);
+            porUuid.put(uuids[i], i);
+        }
+    }
+
+    @Override
+    public long operacion(int hilo, long iteracion) {
+        int indice = (int) ((iteracion * 7919 + hilo) % ENTIDADES); // Salteado: no recorre el arreglo en orden
+        switch (modo) {
+            case "id":
+                return Id.nuevo().getValor();
+            case "uuid":
+                return UUID.randomUUID().getLeastSignificantBits();
+            case "id_texto":
+                return Id.nuevo().toString().length();
+            case "uuid_texto":
+                return UUID.randomUUID().toString().length();
+            case "clave_id":
+                return porId.get(ids[indice]);
+            default:
+                return porUuid.get(uuids[indice]);
+        }
+    }
+
+    @Override
+    public void cerrar() {
+        ids = null;
+        uuids = null;
+        porId = null;
+        porUuid = null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.benchmarks.CasoBenchmark;
+import com.reservas.distribuido.InventarioDistribuido;
+import com.reservas.distribuido.NodoInventario;
+import com.reservas.distribuido.TransporteLocal;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Id;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reclamar y liberar un asiento a través de InventarioDistribuido, con el
+ * inventario repartido en 1, 2, 4 y 8 nodos de UN hilo cada uno
+ * Los pedidos caen en funciones distintas, así que con más nodos se
+ * podrían atender más en paralelo: el caso mide si el particionado escala
+ *
+ * Hasta ahora NO mostró que escale: en la única máquina donde se corrió
+ * (1 núcleo, los nodos comparten ese núcleo) la curva es plana: entre
+ * ~45 y ~108 mil operaciones por segundo con 1, 2, 4 y 8 nodos, sin
+ * tendencia y con mucho ruido entre corridas. Falta correrlo en una
+ * máquina con varios núcleos
+ */
+public class InventarioParticionado implements CasoBenchmark {
+    private static final int FUNCIONES = 512; // Potencia de 2: se elige con una máscara
+    private static final int CAPACIDAD = 1000;
+
+    private TransporteLocal transporte;
+    private InventarioDistribuido inventario;
+    private List<Id<Funcion>> funciones;
+
+    @Override
+    public String nombre() {
+        return "inventario_distribuido";
+    }
+
+    @Override
+    public List<String> parametros() {
+        return List.of("particiones=1", "particiones=2", "particiones=4", "particiones=8");
+    }
+
+    @Override
+    public void preparar(String parametro, int hilos) {
+        int particiones = Integer.parseInt(parametro.substring(parametro.indexOf('=') + 1));
+        transporte = new TransporteLocal();
+        inventario = new InventarioDistribuido(transporte);
+        for (int i = 0; i < particiones; i++) {
+            String nombre = "nodo-" + i;
+            transporte.conectar(new NodoInventario(nombre), 1);
+            inventario.agregarNodo(nombre);
+        }
+        funciones = new ArrayList<>(FUNCIONES);
+        for (int i = 0; i < FUNCIONES; i++) {
+            Id<Funcion> funcion = Id.nuevo();
+            inventario.crearFuncion(funcion, CAPACIDAD);
+            funciones.add(funcion);
+        }
+    }
+
+    @Override
+    public long operacion(int hilo, long iteracion) {
+        // Cada hilo usa su propio asiento: nunca hay conflicto entre hilos
+        Id<Funcion> funcion = funciones.get((int) (iteracion * 7 + hilo * 131L) & (FUNCIONES - 1));
+        int[] asiento = {hilo};
+        boolean reclamado = inventario.reclamar(funcion, asiento).join();
+        inventario.liberar(funcion, asiento).join();
+        return reclamado ? 1 : 0;
+    }
+
+    @Override
+    public void cerrar() {
+        for (String nodo : inventario.getAnillo().getNodos()) {
+            transporte.desconectar(nodo);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.benchmarks.CasoBenchmark;
+import com.reservas.modelo.AsignadorAsientos;
+import com.reservas.modelo.DisenoSala;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.InventarioAsientos;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Sala;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Funcion.buscarMejoresAsientos() con la sala al 90%, en salas de 50 a
+ * 1000 asientos (con dos pasillos cuando las filas son largas)
+ * Los grupos van de 2 a 12 asientos (hasta 10 en las salas con filas de
+ * 10), uno distinto en cada llamada
+ *
+ * La variante "bruta" busca lo mismo asiento por asiento (ver
+ * fuerzaBruta()): es la referencia contra la que se comparan las máscaras
+ */
+public class MejoresAsientos implements CasoBenchmark {
+    private static final int OCUPACION = 90; // Porcentaje de asientos ocupados
+
+    private Funcion funcion;
+    private boolean fuerzaBruta;
+    private int grupoMaximo;
+
+    @Override
+    public String nombre() {
+        return "mejores_asientos";
+    }
+
+    @Override
+    public List<String> parametros() {
+        return List.of("asientos=50", "asientos=100", "asientos=250", "asientos=500", "asientos=1000",
+            "asientos=1000,bruta");
+    }
+
+    @Override
+    public void preparar(String parametro, int hilos) {
+        fuerzaBruta = parametro.endsWith(",bruta");
+        int asientos = Integer.parseInt(parametro.substring(parametro.indexOf('=') + 1).split(",")[0]);
+        funcion = funcion(asientos, OCUPACION, new SplittableRandom(42));
+        grupoMaximo = grupoMaximo(funcion);
+    }
+
+    @Override
+    public long operacion(int hilo, long iteracion) {
+        int grupo = 2 + (int) ((iteracion + hilo) % (grupoMaximo - 1));
+        return fuerzaBruta ? fuerzaBruta(funcion, grupo) : funcion.buscarMejoresAsientos(grupo).size();
+    }
+
+    /**
+     * Función en una sala de unos "asientos" lugares, ocupada al azar
+     * Filas de 10 asientos hasta 100 lugares; de 25 y 40 (con dos
+     * pasillos) en las salas grandes
+     */
+    public static Funcion funcion(int asientos, int ocupacion, SplittableRandom azar) {
+        int columnas = asientos <= 100 ? 10 : asientos <= 500 ? 25 : 40;
+        DisenoSala.Plano plano = new DisenoSala.Plano(asientos / columnas, columnas);
+        if (columnas >= 25) {
+            plano.pasilloDespues(columnas / 4 - 1).pasilloDespues(columnas - columnas / 4 - 1);
+        }
+        Funcion funcion = new Funcion(new Pelicula("Benchmark", "Drama", 120),
+            LocalDateTime.now().plusDays(1), new Sala(plano.crear()));
+        for (int i = 0; i < funcion.getSala().getCapacidad(); i++) {
+            if (azar.nextInt(100) < ocupacion) {
+                funcion.getInventario().reclamar(new int[] {i});
+            }
+        }
+        return funcion;
+    }
+
+    /**
+     * @return El grupo más grande que se consulta en la sala de la función
+     *         (12, o menos si las filas son más cortas)
+     */
+    public static int grupoMaximo(Funcion funcion) {
+        return Math.min(12, funcion.getSala().getAsientosPorFila());
+    }
+
+    /**
+     * El mejor bloque asiento por asiento: prueba cada inicio posible y
+     * suma la calidad de sus asientos (sin máscaras ni cotas)
+     * @return Índice del primer asiento del mejor bloque, o -1 si no hay
+     */
+    public static int fuerzaBruta(Funcion funcion, int cantidad) {
+        DisenoSala diseno = funcion.getSala().getDiseno();
+        AsignadorAsientos asignador = diseno.getAsignador();
+        InventarioAsientos inventario = funcion.getInventario();
+        int columnas = diseno.getColumnas();
+        int mejor = -1;
+        double mejorPuntaje = 0;
+        for (int fila = 0; fila < diseno.getFilas(); fila++) {
+            for (int desde = 0; desde + cantidad <= columnas; desde++) {
+                double puntaje = 0;
+                boolean libre = true;
+                for (int c = desde; c < desde + cantidad && libre; c++) {
+                    libre = !inventario.estaOcupado(fila * columnas + c)
+                        && (c == desde + cantidad - 1 || !diseno.hayPasilloDespues(c));
+                    puntaje += asignador.getCalidad(fila * columnas + c);
+                }
+                if (libre && puntaje > mejorPuntaje) {
+                    mejorPuntaje = puntaje;
+                    mejor = fila * columnas + desde;
+                }
+            }
+        }
+        return mejor;
+    }
+}
@@ -0,0 +1,145 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.benchmarks.CasoBenchmark;
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Dinero;
+import com.reservas.modelo.DisenoSala;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Sala;
+import com.reservas.modelo.TipoAsiento;
+import com.reservas.precios.MotorPrecios;
+import com.reservas.precios.ReglaPrecio;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Precios de TODO el mapa de asientos (1000 asientos, 3 reglas y 2 niveles
+ * de demanda, sala al 60%): lo que se calcula cada vez que se dibuja el mapa
+ *
+ * - "tabla": copia la vista de la TablaPrecios compilada
+ * - "cruce_umbral": cada llamada ocupa o libera (alternando) un asiento
+ *   justo en el umbral de un nivel de demanda, así la vista se recalcula
+ *   siempre con un hilo (el peor caso de la tabla; con varios hilos los
+ *   asientos de cada uno se compensan y cruza menos)
+ * - "reglas": evalúa las reglas y la demanda asiento por asiento, como si
+ *   no hubiera tabla (ver preciosSinTabla())
+ */
+public class PreciosMapa implements CasoBenchmark {
+    public static final long PRECIO_BASE = 10_00;
+    public static final int FILAS = 20;
+    public static final int COLUMNAS = 50;
+    public static final int[][] NIVELES = {{50, 10}, {80, 25}}; // Ocupación mínima (%), recargo (%)
+
+    private Funcion funcion;
+    private MotorPrecios motor;
+    private List<ReglaPrecio> reglas;
+    private String variante;
+    private int umbral;       // Ocupados con los que empieza el primer nivel
+    private long[][] destino; // Un mapa por hilo
+
+    @Override
+    public String nombre() {
+        return "precios_mapa";
+    }
+
+    @Override
+    public List<String> parametros() {
+        return List.of("tabla", "cruce_umbral", "reglas");
+    }
+
+    @Override
+    public void preparar(String parametro, int hilos) {
+        variante = parametro;
+        funcion = funcion(LocalDateTime.now().plusDays(1).withHour(15));
+        reglas = reglas(funcion);
+        motor = motor(reglas);
+        int capacidad = funcion.getSala().getCapacidad();
+        umbral = (capacidad * NIVELES[0][0] + 99) / 100;
+        int ocupar = variante.equals("cruce_umbral") ? umbral - 1 : capacidad * 60 / 100;
+        for (int i = 0; i < ocupar; i++) {
+            funcion.getInventario().reclamar(new int[] {i});
+        }
+        destino = new long[hilos][capacidad];
+    }
+
+    @Override
+    public long operacion(int hilo, long iteracion) {
+        long[] precios = destino[hilo];
+        switch (variante) {
+            case "reglas":
+                preciosSinTabla(funcion, reglas, precios);
+                break;
+            case "cruce_umbral":
+                int[] asiento = {funcion.getSala().getCapacidad() - 1 - hilo};
+                if ((iteracion & 1) == 0) {
+                    funcion.getInventario().reclamar(asiento);
+                } else {
+                    funcion.getInventario().liberar(asiento);
+                }
+                motor.tablaDe(funcion).copiarPrecios(precios);
+                break;
+            default:
+                motor.tablaDe(funcion).copiarPrecios(precios);
+        }
+        return precios[(int) (iteracion % precios.length)];
+    }
+
+    /**
+     * Función de FILAS x COLUMNAS con las dos últimas filas PREMIUM y un pasillo central
+     * @param horario Horario de la función (las 15 h caen en la matiné)
+     */
+    public static Funcion funcion(LocalDateTime horario) {
+        DisenoSala diseno = new DisenoSala.Plano(FILAS, COLUMNAS)
+            .pasilloDespues(COLUMNAS / 2 - 1)
+            .tipoFila(FILAS - 2, TipoAsiento.PREMIUM)
+            .tipoFila(FILAS - 1, TipoAsiento.PREMIUM)
+            .crear();
+        return new Funcion(new Pelicula("Benchmark", "Drama", 120), horario, new Sala(diseno));
+    }
+
+    /**
+     * Reglas del caso: precio especial de la película, PREMIUM +30%, matiné -20%
+     */
+    public static List<ReglaPrecio> reglas(Funcion funcion) {
+        return List.of(
+            ReglaPrecio.precioPelicula(funcion.getPelicula().getId(), Dinero.de(12, 50)),
+            ReglaPrecio.porTipo(TipoAsiento.PREMIUM, 30),
+            ReglaPrecio.porHorario(LocalTime.of(12, 0), LocalTime.of(17, 0), -20));
+    }
+
+    /**
+     * Motor con el precio base, las reglas y los NIVELES del caso
+     */
+    public static MotorPrecios motor(List<ReglaPrecio> reglas) {
+        MotorPrecios motor = new MotorPrecios(Dinero.deCentavos(PRECIO_BASE));
+        reglas.forEach(motor::agregarRegla);
+        for (int[] nivel : NIVELES) {
+            motor.agregarNivelDemanda(nivel[0], nivel[1]);
+        }
+        return motor;
+    }
+
+    /**
+     * Precios del mapa sin tabla: todas las reglas y el recargo vigente, asiento por asiento
+     * @param destino Arreglo de al menos la capacidad de la sala, en centavos
+     */
+    public static void preciosSinTabla(Funcion funcion, List<ReglaPrecio> reglas, long[] destino) {
+        List<Asiento> asientos = funcion.getSala().getAsientos();
+        long ocupacion = 100L * funcion.getInventario().contarOcupados();
+        int recargo = 0;
+        for (int[] nivel : NIVELES) {
+            if (ocupacion >= (long) nivel[0] * asientos.size()) {
+                recargo = nivel[1];
+            }
+        }
+        for (Asiento asiento : asientos) {
+            long centavos = PRECIO_BASE;
+            for (ReglaPrecio regla : reglas) {
+                centavos = regla.aplicar(funcion, asiento, centavos);
+            }
+            destino[asiento.getIndice()] = Dinero.ajustar(Math.max(0, centavos), recargo);
+        }
+    }
+}
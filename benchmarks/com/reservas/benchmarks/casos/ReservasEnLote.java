@@ -0,0 +1,82 @@
+package com.reservas.benchmarks.casos;
+
+import com.reservas.benchmarks.CasoBenchmark;
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Reserva;
+import com.reservas.modelo.SolicitudReserva;
+import com.reservas.pago.PagoTarjeta;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reservar 4 asientos (2 en cada una de dos funciones) de una vez o de a uno
+ * - individual: 4 llamadas a Cliente.realizarReserva(), cada una con su
+ *   retención, su cobro y su confirmación
+ * - lote: UNA llamada a Cliente.realizarReservasEnLote(), con un solo
+ *   cobro por el total y la confirmación de las 4 reservas juntas
+ *
+ * Cada operación reserva los 4 asientos del hilo y después los cancela
+ * para devolverlos (la cancelación se mide en las dos variantes)
+ */
+public class ReservasEnLote implements CasoBenchmark {
+    private static final int POR_FUNCION = 2;
+
+    private boolean enLote;
+    private Funcion[] funciones;
+    private Cliente[] clientes;
+    private List<List<SolicitudReserva>> solicitudes;
+    private PagoTarjeta pago;
+
+    @Override
+    public String nombre() {
+        return "reserva_lote";
+    }
+
+    @Override
+    public List<String> parametros() {
+        return List.of("individual", "lote");
+    }
+
+    @Override
+    public void preparar(String parametro, int hilos) {
+        enLote = parametro.equals("lote");
+        funciones = new Funcion[] {Escenario.funcion(), Escenario.funcion()};
+        pago = new PagoTarjeta("4111111111111111");
+        clientes = new Cliente[hilos];
+        solicitudes = new ArrayList<>(hilos);
+        for (int h = 0; h < hilos; h++) {
+            clientes[h] = Escenario.cliente(h);
+            List<SolicitudReserva> delHilo = new ArrayList<>();
+            for (Funcion funcion : funciones) {
+                for (Asiento asiento : Escenario.bloque(funcion, h * POR_FUNCION, POR_FUNCION)) {
+                    delHilo.add(new SolicitudReserva(funcion, List.of(asiento)));
+                }
+            }
+            solicitudes.add(delHilo);
+        }
+    }
+
+    @Override
+    public long operacion(int hilo, long iteracion) {
+        List<Reserva> reservas;
+        if (enLote) {
+            reservas = clientes[hilo].realizarReservasEnLote(solicitudes.get(hilo), pago).join();
+        } else {
+            reservas = new ArrayList<>(solicitudes.get(hilo).size());
+            for (SolicitudReserva solicitud : solicitudes.get(hilo)) {
+                reservas.add(clientes[hilo].realizarReserva(solicitud.getFuncion(), solicitud.getAsientos(), pago));
+            }
+        }
+        if (reservas == null || reservas.contains(null)) {
+            throw new IllegalStateException("La reserva falló: un asiento del hilo " + hilo + " estaba ocupado");
+        }
+        long suma = 0;
+        for (Reserva reserva : reservas) {
+            reserva.cancelar();
+            suma += reserva.getId().getValor();
+        }
+        return suma;
+    }
+}
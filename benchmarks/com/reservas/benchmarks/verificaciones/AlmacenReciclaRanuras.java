@@ -0,0 +1,80 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.modelo.Id;
+import com.reservas.modelo.InventarioAsientos;
+import com.reservas.persistencia.AlmacenAsientosMapeado;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * El almacén mapeado no se llena con funciones que ya terminaron
+ *
+ * 1. Un almacén de pocas ranuras atiende muchas "semanas" de funciones:
+ *    cada semana ocupa todas las ranuras y, al terminar, las libera. Una
+ *    ranura reciclada empieza sin asientos ocupados
+ * 2. Las ranuras liberadas siguen libres después de reabrir el archivo, y
+ *    las funciones vivas conservan su ocupación
+ */
+public class AlmacenReciclaRanuras implements Verificacion {
+    private static final int RANURAS = 8;
+    private static final int CAPACIDAD = 256;
+    private static final int SEMANAS = 200;
+
+    @Override
+    public String nombre() {
+        return "almacen_recicla_ranuras";
+    }
+
+    @Override
+    public String verificar() throws Exception {
+        Path archivo = Files.createTempFile("almacen-verificacion", ".asientos");
+        Files.delete(archivo); // El almacén crea el archivo
+        try {
+            AlmacenAsientosMapeado almacen = new AlmacenAsientosMapeado(archivo, RANURAS, CAPACIDAD);
+            for (int semana = 0; semana < SEMANAS; semana++) {
+                List<String> funciones = new ArrayList<>(RANURAS);
+                for (int i = 0; i < RANURAS; i++) {
+                    String id = Id.nuevo().toString();
+                    InventarioAsientos inventario = almacen.inventario(id, CAPACIDAD);
+                    exigir(inventario.contarOcupados() == 0,
+                        "Una ranura reciclada trajo " + inventario.contarOcupados() + " asientos ocupados");
+                    exigir(inventario.reclamar(new int[] {i, 100 + i, CAPACIDAD - 1}), "No se pudo reclamar");
+                    funciones.add(id);
+                }
+                for (String id : funciones) {
+                    exigir(almacen.liberar(id), "La función " + id + " no tenía ranura");
+                }
+            }
+
+            // Reapertura: 5 funciones vivas, 2 liberadas
+            List<String> vivas = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                String id = Id.nuevo().toString();
+                almacen.inventario(id, CAPACIDAD).reclamar(new int[] {i});
+                vivas.add(id);
+            }
+            almacen.liberar(vivas.remove(0));
+            almacen.liberar(vivas.remove(0));
+            almacen.cerrar();
+
+            almacen = new AlmacenAsientosMapeado(archivo, RANURAS, CAPACIDAD);
+            exigir(almacen.getFuncionesRegistradas() == 5,
+                "Después de reabrir hay " + almacen.getFuncionesRegistradas() + " funciones, no 5");
+            for (int i = 0; i < vivas.size(); i++) {
+                exigir(almacen.inventario(vivas.get(i), CAPACIDAD).estaOcupado(i + 2),
+                    "La función " + vivas.get(i) + " perdió su ocupación al reabrir");
+            }
+            for (int i = 0; i < RANURAS - 5; i++) {
+                almacen.inventario(Id.nuevo().toString(), CAPACIDAD); // Las 2 liberadas y la que nunca se usó
+            }
+            almacen.cerrar();
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+        return SEMANAS * RANURAS + " funciones en " + RANURAS + " ranuras, ranuras libres al reabrir";
+    }
+}
@@ -0,0 +1,106 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.benchmarks.casos.BusquedaCatalogo;
+import com.reservas.modelo.Pelicula;
+import com.reservas.sistema.IndiceCatalogo;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * IndiceCatalogo devuelve exactamente lo mismo que el filtro lineal que
+ * reemplazó (mismas películas, en el mismo orden)
+ *
+ * 1. 20.000 títulos al azar (con mayúsculas y acentos); consultas de 1 a 8
+ *    letras sacadas de los títulos y géneros, y textos que no aparecen
+ * 2. Mientras un hilo agrega películas, 4 hilos buscan: cada resultado
+ *    debe ser igual al filtro lineal sobre algún prefijo del catálogo
+ *    (el que estaba publicado cuando empezó la búsqueda)
+ */
+public class BusquedaComoFiltro implements Verificacion {
+    private static final String[] PALABRAS = {
+        "Noche", "dragón", "CIUDAD", "sombra", "Río", "estrella", "guerra", "amor",
+        "último", "viaje", "fuego", "silencio", "mar", "reino", "tiempo", "camino"
+    };
+    private static final String[] GENEROS = {"Acción", "Drama", "Comedia", "Ciencia Ficción", "Terror", "Animación"};
+    private static final int PELICULAS = 20_000;
+    private static final int CONSULTAS = 3_000;
+
+    @Override
+    public String nombre() {
+        return "busqueda_catalogo";
+    }
+
+    @Override
+    public String verificar() throws Exception {
+        SplittableRandom azar = new SplittableRandom(4);
+        IndiceCatalogo indice = new IndiceCatalogo();
+        for (int i = 0; i < PELICULAS; i++) {
+            indice.agregar(peliculaAlAzar(azar, i));
+        }
+        List<Pelicula> catalogo = indice.todas();
+        for (int i = 0; i < CONSULTAS; i++) {
+            String consulta = consultaAlAzar(azar, catalogo);
+            exigir(indice.buscar(consulta).equals(BusquedaCatalogo.filtroLineal(catalogo, consulta)),
+                "El índice no coincide con el filtro para \"" + consulta + "\"");
+        }
+        long concurrentes = buscarMientrasSeAgrega();
+        return PELICULAS + " peliculas, " + CONSULTAS + " consultas iguales al filtro, "
+            + concurrentes + " consultas mientras se agregaban peliculas";
+    }
+
+    private long buscarMientrasSeAgrega() throws Exception {
+        IndiceCatalogo indice = new IndiceCatalogo();
+        AtomicBoolean agregando = new AtomicBoolean(true);
+        LongAdder consultas = new LongAdder();
+        Hilos.enParalelo(5, hilo -> {
+            SplittableRandom azar = new SplittableRandom(100 + hilo);
+            if (hilo == 0) {
+                for (int i = 0; i < PELICULAS / 4; i++) {
+                    indice.agregar(peliculaAlAzar(azar, i));
+                }
+                agregando.set(false);
+                return;
+            }
+            while (agregando.get()) {
+                List<Pelicula> antes = indice.todas();
+                String consulta = consultaAlAzar(azar, antes);
+                List<Pelicula> encontradas = indice.buscar(consulta);
+                List<Pelicula> despues = indice.todas();
+                // Lo encontrado está entre lo que vio antes de buscar y lo que hay después
+                List<Pelicula> minimo = BusquedaCatalogo.filtroLineal(antes, consulta);
+                List<Pelicula> maximo = BusquedaCatalogo.filtroLineal(despues, consulta);
+                exigir(encontradas.size() >= minimo.size() && encontradas.size() <= maximo.size()
+                        && encontradas.equals(maximo.subList(0, encontradas.size())),
+                    "Búsqueda concurrente inconsistente para \"" + consulta + "\"");
+                consultas.increment();
+            }
+        });
+        return consultas.sum();
+    }
+
+    private static Pelicula peliculaAlAzar(SplittableRandom azar, int numero) {
+        String titulo = PALABRAS[azar.nextInt(PALABRAS.length)] + " de la "
+            + PALABRAS[azar.nextInt(PALABRAS.length)] + " " + numero;
+        return new Pelicula(titulo, GENEROS[azar.nextInt(GENEROS.length)], 90);
+    }
+
+    /**
+     * Un pedazo de un título o género (cambiando mayúsculas al azar), o un
+     * texto que no aparece
+     */
+    private static String consultaAlAzar(SplittableRandom azar, List<Pelicula> catalogo) {
+        if (catalogo.isEmpty() || azar.nextInt(10) == 0) {
+            return "zq" + azar.nextInt(1000);
+        }
+        Pelicula pelicula = catalogo.get(azar.nextInt(catalogo.size()));
+        String texto = azar.nextBoolean() ? pelicula.getTitulo() : pelicula.getGenero();
+        int largo = 1 + azar.nextInt(Math.min(8, texto.length()));
+        int desde = azar.nextInt(texto.length() - largo + 1);
+        String pedazo = texto.substring(desde, desde + largo);
+        return azar.nextBoolean() ? pedazo.toUpperCase() : pedazo;
+    }
+}
@@ -0,0 +1,142 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.modelo.Dinero;
+import com.reservas.pago.PasarelaSimulada;
+import com.reservas.pago.PoliticaPago;
+import com.reservas.pago.ProcesadorPagos;
+import com.reservas.pago.ResultadoPago;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * Un proveedor de pago colgado no arrastra a los demás (compartimentos)
+ *
+ * Dos proveedores con la misma política y la misma carga: la mitad de los
+ * hilos paga con A y la otra mitad con B, cada uno esperando su resultado
+ * 1. Los dos sanos: se mide el p99 de los pagos con B
+ * 2. A se cuelga: sus llamadas no vuelven ni aunque se las interrumpa
+ *    (como un socket bloqueado), así que TODOS sus hilos quedan tomados.
+ *    Los pagos con A fallan rápido (DESCONOCIDO por tiempo o SATURADO,
+ *    nunca aprobados), B no rechaza nada y su p99 no se aleja del medido
+ *    con A sano
+ */
+public class CompartimentosAislados implements Verificacion {
+    private static final int HILOS_POR_PROVEEDOR = 24; // Más que los hilos del compartimento: usan la cola
+    private static final int PAGOS_POR_HILO = 25;
+    private static final Duration LATENCIA = Duration.ofMillis(20);
+    private static final Duration TIEMPO_MAXIMO = Duration.ofMillis(200);
+    private static final PoliticaPago POLITICA = new PoliticaPago(
+        TIEMPO_MAXIMO, 0, Duration.ofMillis(10), 1_000_000, Duration.ofSeconds(1), 16, 32);
+
+    @Override
+    public String nombre() {
+        return "compartimentos_aislados";
+    }
+
+    @Override
+    public String verificar() throws Exception {
+        ProcesadorPagos procesador = new ProcesadorPagos(Duration.ofMinutes(1));
+        procesador.configurar(ProveedorA.class, POLITICA);
+        procesador.configurar(ProveedorB.class, POLITICA);
+        ProveedorA a = new ProveedorA();
+        ProveedorB b = new ProveedorB();
+        try {
+            double sano = correr(procesador, a, b, "sano", new LongAdder());
+
+            a.colgar();
+            LongAdder aprobadosA = new LongAdder();
+            double colgado = correr(procesador, a, b, "colgado", aprobadosA);
+
+            exigir(aprobadosA.sum() == 0, "El proveedor colgado aprobó " + aprobadosA.sum() + " pagos");
+            int colgadosA = procesador.getCompartimentos().get(ProveedorA.class).getActivos();
+            long rechazadosB = procesador.getCompartimentos().get(ProveedorB.class).getRechazados();
+            exigir(colgadosA == POLITICA.getHilos(),
+                "El proveedor colgado retiene " + colgadosA + " hilos, no " + POLITICA.getHilos());
+            exigir(rechazadosB == 0, "El proveedor sano rechazó " + rechazadosB + " pagos por saturación");
+            exigir(colgado <= 2 * sano + 25,
+                String.format(Locale.ROOT, "p99 de B: %.1f ms con A sano, %.1f ms con A colgado", sano, colgado));
+            return String.format(Locale.ROOT, "p99 de B %.1f ms con A sano, %.1f ms con A colgado"
+                + " (%d hilos de A tomados)", sano, colgado, colgadosA);
+        } finally {
+            a.soltar();
+            procesador.detener();
+        }
+    }
+
+    /**
+     * La mitad de los hilos paga con A y la otra mitad con B
+     * Además de medir B, exige que ningún pago con A tarde mucho más que
+     * el tiempo máximo (aunque A esté colgado)
+     * @return p99 de los pagos con B (milisegundos)
+     */
+    private static double correr(ProcesadorPagos procesador, ProveedorA a, ProveedorB b, String fase,
+                                 LongAdder aprobadosA) throws Exception {
+        long[] tiemposB = new long[HILOS_POR_PROVEEDOR * PAGOS_POR_HILO];
+        long limiteA = TIEMPO_MAXIMO.toNanos() * 5;
+        Dinero monto = Dinero.de(10);
+        Hilos.enParalelo(2 * HILOS_POR_PROVEEDOR, hilo -> {
+            boolean conB = hilo % 2 == 0;
+            for (int i = 0; i < PAGOS_POR_HILO; i++) {
+                String clave = fase + "-" + hilo + "-" + i;
+                long inicio = System.nanoTime();
+                ResultadoPago resultado = procesador.procesar(clave, conB ? b : a, monto).get(10, TimeUnit.SECONDS);
+                long tiempo = System.nanoTime() - inicio;
+                if (conB) {
+                    exigir(resultado.esAprobado(), "Un pago con el proveedor sano terminó " + resultado);
+                    tiemposB[hilo / 2 * PAGOS_POR_HILO + i] = tiempo;
+                } else {
+                    exigir(tiempo <= limiteA, "Un pago con A tardó " + tiempo / 1_000_000 + " ms");
+                    if (resultado.esAprobado()) {
+                        aprobadosA.increment();
+                    }
+                }
+            }
+        });
+        Arrays.sort(tiemposB);
+        return tiemposB[(int) (tiemposB.length * 0.99)] / 1e6;
+    }
+
+    // Dos clases distintas: cada una tiene su política y su compartimento
+    private static class ProveedorA extends PasarelaSimulada {
+        private final CountDownLatch suelto = new CountDownLatch(1);
+        private volatile boolean colgado;
+
+        ProveedorA() {
+            super(LATENCIA, 0, 0);
+        }
+
+        void colgar() { colgado = true; }
+        void soltar() { suelto.countDown(); }
+
+        @Override
+        public boolean procesarPago(String claveIdempotencia, Dinero monto) {
+            if (!colgado) {
+                return super.procesarPago(claveIdempotencia, monto);
+            }
+            boolean interrumpido = false;
+            while (suelto.getCount() > 0) {
+                try {
+                    suelto.await();
+                } catch (InterruptedException e) {
+                    interrumpido = true; // El procesador cortó el intento: lo ignoramos, como un socket colgado
+                }
+            }
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("La pasarela no respondió");
+        }
+    }
+
+    private static class ProveedorB extends PasarelaSimulada {
+        ProveedorB() {
+            super(LATENCIA, 0, 0);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.persistencia.DiarioReservas;
+import com.reservas.persistencia.EstadoRecuperado;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * El diario no deja registros colgados al cerrarse y no arrastra funciones terminadas
+ *
+ * 1. 8 hilos registran sin parar mientras otro cierra el diario: todos los
+ *    futuros se completan (escritos o fallados por el cierre, ninguno queda
+ *    esperando) y, al recuperar, están exactamente los que se dieron por
+ *    escritos
+ * 2. Con una función terminada y otra futura, después de una instantánea
+ *    la terminada ya no está (ni su bitmap ni sus reservas)
+ */
+public class DiarioCierreLimpieza implements Verificacion {
+    private static final int HILOS = 8;
+
+    @Override
+    public String nombre() {
+        return "diario_cierre_limpieza";
+    }
+
+    @Override
+    public String verificar() throws Exception {
+        // 1. Registrar mientras se cierra
+        Path directorio = Files.createTempDirectory("diario-cierre");
+        DiarioReservas diario = new DiarioReservas(directorio, EstadoRecuperado.vacio(), Integer.MAX_VALUE);
+        List<CompletableFuture<Long>> futuros = new CopyOnWriteArrayList<>();
+        AtomicInteger numero = new AtomicInteger();
+        Hilos.enParalelo(HILOS + 1, hilo -> {
+            if (hilo == HILOS) {
+                Thread.sleep(50);
+                diario.cerrar();
+                return;
+            }
+            while (diario.estaActivo()) {
+                int reserva = numero.incrementAndGet();
+                futuros.add(diario.registrar(DiarioReservas.Tipo.CREADA, "r" + reserva, "c", "f" + hilo,
+                    new int[] {reserva}));
+            }
+            // Uno más, ya cerrado: falla enseguida
+            futuros.add(diario.registrar(DiarioReservas.Tipo.CREADA, "tarde" + hilo, "c", "f", new int[] {0}));
+        });
+        int escritos = 0;
+        int rechazados = 0;
+        for (CompletableFuture<Long> futuro : futuros) {
+            try {
+                futuro.get(5, TimeUnit.SECONDS);
+                escritos++;
+            } catch (ExecutionException e) {
+                exigir(e.getCause() instanceof IllegalStateException, "Un registro falló por " + e.getCause());
+                rechazados++;
+            }
+        }
+        exigir(rechazados >= HILOS, "Los registros posteriores al cierre no fallaron");
+        int recuperados = DiarioReservas.recuperar(directorio).getReservas().size();
+        exigir(recuperados == escritos,
+            escritos + " registros se dieron por escritos pero se recuperaron " + recuperados);
+
+        // 2. Instantánea sin la función terminada
+        Path otro = Files.createTempDirectory("diario-limpieza");
+        DiarioReservas limpio = new DiarioReservas(otro, EstadoRecuperado.vacio(), 20);
+        limpio.setFuncionTerminada(funcionId -> funcionId.equals("terminada"));
+        for (int i = 0; i < 20; i++) {
+            String funcion = i % 2 == 0 ? "terminada" : "futura";
+            limpio.registrar(DiarioReservas.Tipo.CONFIRMADA, "reserva" + i, "c", funcion, new int[] {i}).join();
+        }
+        limpio.cerrar();
+        EstadoRecuperado recuperado = DiarioReservas.recuperar(otro);
+        exigir(!recuperado.getInventarios().containsKey("terminada"), "La instantánea guardó el bitmap de una función terminada");
+        exigir(recuperado.getInventarios().containsKey("futura"), "La instantánea perdió el bitmap de una función futura");
+        exigir(recuperado.getReservas().size() == 10,
+            "Se esperaban las 10 reservas de la función futura, hay " + recuperado.getReservas().size());
+        try {
+            limpio.registrar(DiarioReservas.Tipo.CREADA, "x", "c", "futura", new int[] {0}).join();
+            exigir(false, "Un diario cerrado aceptó un registro");
+        } catch (CompletionException e) {
+            exigir(e.getCause() instanceof IllegalStateException, "Un diario cerrado falló con " + e.getCause());
+        }
+        return escritos + " registros escritos y " + rechazados + " rechazados durante el cierre, ninguno colgado;"
+            + " la funcion terminada no llego a la instantanea";
+    }
+}
@@ -0,0 +1,68 @@
+package com.reservas.benchmarks.verificaciones;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Corre las verificaciones de concurrencia y de resultados del sistema
+ *
+ * El proyecto no tiene herramienta de build ni dependencias de pruebas:
+ * cada verificación es código común que lanza AssertionError si algo no
+ * se cumple, y este programa termina con código 1 si alguna falló (sirve
+ * para cortar un build, como CompararResultados)
+ *
+ * Uso (desde la raíz del proyecto):
+ *   javac -encoding UTF-8 -d out $(find src benchmarks -name '*.java')
+ *   java -cp out com.reservas.benchmarks.verificaciones.EjecutarVerificaciones [--filtro texto]
+ */
+public class EjecutarVerificaciones {
+
+    /**
+     * Todas las verificaciones, en el orden en que se corren
+     */
+    public static List<Verificacion> verificaciones() {
+        return List.of(
+            new SinSobreventa(),
+            new BusquedaComoFiltro(),
+            new SistemaConcurrente(),
+            new NotificacionesEnOrden(),
+            new AlmacenReciclaRanuras(),
+            new MejorBloqueExacto(),
+            new PreciosTabla(),
+            new PagoIncierto(),
+            new CompartimentosAislados(),
+            new IndiceReservasLimpio(),
+            new IdsUnicosOrdenados(),
+            new ListaEsperaSinPerdidas(),
+            new RetencionesATiempo(),
+            new DiarioCierreLimpieza(),
+            new LoteTodoONada(),
+            new VentasCuadran(),
+            new RecuperacionDiario()); // Deja el diario del sistema activo: va última
+    }
+
+    public static void main(String[] args) {
+        String filtro = args.length == 2 && args[0].equals("--filtro") ? args[1] : "";
+        PrintStream consola = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Las notificaciones por email
+        int fallidas = 0;
+        for (Verificacion verificacion : verificaciones()) {
+            if (!verificacion.nombre().contains(filtro)) {
+                continue;
+            }
+            long inicio = System.nanoTime();
+            try {
+                String resumen = verificacion.verificar();
+                consola.printf("OK     %-28s %6d ms  %s%n", verificacion.nombre(),
+                    (System.nanoTime() - inicio) / 1_000_000, resumen);
+            } catch (Throwable e) {
+                fallidas++;
+                consola.printf("FALLA  %-28s %6d ms  %s%n", verificacion.nombre(),
+                    (System.nanoTime() - inicio) / 1_000_000, e);
+            }
+        }
+        consola.println(fallidas == 0 ? "Todas las verificaciones pasaron" : "Fallaron " + fallidas + " verificaciones");
+        System.exit(fallidas == 0 ? 0 : 1); // Los servicios del sistema tienen hilos en segundo plano
+    }
+}
@@ -0,0 +1,57 @@
+package com.reservas.benchmarks.verificaciones;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Corre la misma tarea en varios hilos que arrancan juntos
+ */
+final class Hilos {
+
+    /**
+     * Tarea de un hilo (puede lanzar excepciones y errores de verificación)
+     */
+    interface Tarea {
+        void correr(int hilo) throws Exception;
+    }
+
+    private Hilos() {}
+
+    /**
+     * Arranca los hilos a la vez y espera a que terminen todos
+     * @param cantidad Cantidad de hilos
+     * @param tarea Lo que hace cada hilo (recibe su número, de 0 a cantidad-1)
+     * @throws Exception el primer error de algún hilo
+     */
+    static void enParalelo(int cantidad, Tarea tarea) throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        Throwable[] errores = new Throwable[cantidad];
+        List<Thread> hilos = new ArrayList<>(cantidad);
+        for (int h = 0; h < cantidad; h++) {
+            int hilo = h;
+            Thread corredor = new Thread(() -> {
+                try {
+                    largada.await();
+                    tarea.correr(hilo);
+                } catch (Throwable e) {
+                    errores[hilo] = e;
+                }
+            }, "verificacion-" + h);
+            corredor.start();
+            hilos.add(corredor);
+        }
+        largada.countDown();
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        for (Throwable error : errores) {
+            if (error instanceof Exception) {
+                throw (Exception) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+        }
+    }
+}
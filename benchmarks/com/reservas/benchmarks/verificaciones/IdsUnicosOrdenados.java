@@ -0,0 +1,93 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.modelo.GeneradorIds;
+import com.reservas.modelo.Id;
+import java.util.Arrays;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * Los ids de GeneradorIds no se repiten y salen ordenados
+ *
+ * 1. 8 hilos piden ids a la vez al mismo generador:
+ *    - Cada hilo los recibe en orden creciente
+ *    - Entre todos los hilos no hay ni un id repetido
+ *    - Ningún milisegundo está antes del reloj
+ * 2. Otro generador con otro nodo, a la vez: sus ids llevan su nodo y
+ *    nunca coinciden con los del primero
+ * 3. Un hilo solo pide una ráfaga de más de 4096 ids por milisegundo (la
+ *    secuencia desborda al milisegundo siguiente): siguen creciendo, y
+ *    todos son mayores que los pedidos antes por los otros hilos
+ * 4. El texto vuelve al mismo id y se ordena igual que el número
+ */
+public class IdsUnicosOrdenados implements Verificacion {
+    private static final int HILOS = 8;
+    private static final int IDS_POR_HILO = 200_000;
+    private static final int RAFAGA = 100_000;
+    private static final long SECUENCIA_LLENA = 4095; // Último valor de la secuencia en un milisegundo
+
+    @Override
+    public String nombre() {
+        return "ids_unicos_ordenados";
+    }
+
+    @Override
+    public String verificar() throws Exception {
+        GeneradorIds generador = new GeneradorIds(1);
+        GeneradorIds otroNodo = new GeneradorIds(2);
+        long[][] porHilo = new long[HILOS + 1][IDS_POR_HILO];
+        long antes = System.currentTimeMillis();
+
+        // 1 y 2. Todos a la vez (el último hilo usa el otro nodo)
+        Hilos.enParalelo(HILOS + 1, hilo -> {
+            GeneradorIds propio = hilo == HILOS ? otroNodo : generador;
+            long[] ids = porHilo[hilo];
+            for (int i = 0; i < IDS_POR_HILO; i++) {
+                ids[i] = propio.siguiente();
+                exigir(i == 0 || ids[i] > ids[i - 1], "El hilo " + hilo + " recibió un id menor que el anterior");
+            }
+        });
+        long[] todos = new long[(HILOS + 1) * IDS_POR_HILO];
+        long maximo = Long.MIN_VALUE;
+        for (int hilo = 0; hilo <= HILOS; hilo++) {
+            System.arraycopy(porHilo[hilo], 0, todos, hilo * IDS_POR_HILO, IDS_POR_HILO);
+            int nodo = hilo == HILOS ? 2 : 1;
+            for (long id : porHilo[hilo]) {
+                exigir(Id.de(id).getNodo() == nodo, "Un id del nodo " + nodo + " dice ser de " + Id.de(id).getNodo());
+                exigir(Id.de(id).getMilisegundo() >= antes, "Un id tiene un milisegundo anterior al reloj");
+            }
+            if (hilo < HILOS) {
+                maximo = Math.max(maximo, porHilo[hilo][IDS_POR_HILO - 1]);
+            }
+        }
+        Arrays.sort(todos);
+        for (int i = 1; i < todos.length; i++) {
+            exigir(todos[i] != todos[i - 1], "Id repetido: " + Id.de(todos[i]));
+        }
+
+        // 3. Ráfaga: lo pedido después es mayor, aun desbordando la secuencia
+        long anteriorRafaga = maximo;
+        int desbordes = 0;
+        for (int i = 0; i < RAFAGA; i++) {
+            long id = generador.siguiente();
+            exigir(id > anteriorRafaga, "Un id de la ráfaga no es mayor que el anterior");
+            desbordes += (id & SECUENCIA_LLENA) == SECUENCIA_LLENA ? 1 : 0;
+            anteriorRafaga = id;
+        }
+        exigir(desbordes > 0, "La ráfaga nunca llenó la secuencia de un milisegundo");
+
+        // 4. Texto: ida y vuelta, y mismo orden
+        String anterior = null;
+        for (int i = 0; i < todos.length; i += 997) {
+            Id<Object> id = Id.de(todos[i]);
+            String texto = id.toString();
+            exigir(Id.desdeTexto(texto).equals(id) && Id.desdeTexto(texto.toLowerCase()).equals(id),
+                "El texto " + texto + " no vuelve al mismo id");
+            exigir(anterior == null || anterior.compareTo(texto) < 0, "El texto no se ordena como el número");
+            anterior = texto;
+        }
+        long milisegundos = Math.max(1, Id.de(maximo).getMilisegundo() - antes + 1);
+        return todos.length + " ids sin repetir en 2 nodos (" + HILOS * IDS_POR_HILO / milisegundos
+            + " por milisegundo), rafaga con " + desbordes + " secuencias llenas";
+    }
+}
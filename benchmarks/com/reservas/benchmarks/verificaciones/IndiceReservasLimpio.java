@@ -0,0 +1,85 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.EstadoReserva;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Reserva;
+import com.reservas.modelo.Sala;
+import com.reservas.pago.PasarelaSimulada;
+import com.reservas.sistema.SistemaReservas;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * El índice de reservas por id no guarda reservas que ya no sirven
+ *
+ * Se confirman reservas en una función que ya terminó y en una futura, y
+ * se cancelan algunas de la futura. Después de olvidarReservas():
+ * - Las de la función terminada y las canceladas ya no se encuentran
+ * - Las confirmadas de la función futura se siguen encontrando, y todas
+ *   siguen en el historial del cliente
+ */
+public class IndiceReservasLimpio implements Verificacion {
+    private static final int RESERVAS = 40;
+
+    @Override
+    public String nombre() {
+        return "indice_reservas_limpio";
+    }
+
+    @Override
+    public String verificar() {
+        SistemaReservas sistema = SistemaReservas.getInstance();
+        Pelicula pelicula = new Pelicula("Indice de reservas", "Drama", 100);
+        Funcion terminada = new Funcion(pelicula, LocalDateTime.now().minusDays(1), new Sala(RESERVAS));
+        Funcion futura = new Funcion(pelicula, LocalDateTime.now().plusDays(1), new Sala(RESERVAS));
+        Cliente cliente = new Cliente("Indice", "indice@verificacion.com", "clave");
+        PasarelaSimulada pasarela = new PasarelaSimulada(Duration.ZERO, 0, 0);
+
+        List<Reserva> pasadas = new ArrayList<>();
+        List<Reserva> vivas = new ArrayList<>();
+        List<Reserva> canceladas = new ArrayList<>();
+        for (int i = 0; i < RESERVAS; i++) {
+            pasadas.add(reservar(cliente, terminada, i, pasarela));
+            Reserva reserva = reservar(cliente, futura, i, pasarela);
+            if (i % 4 == 0) {
+                reserva.cancelar();
+                canceladas.add(reserva);
+            } else {
+                vivas.add(reserva);
+            }
+        }
+
+        int descartadas = sistema.olvidarReservas(LocalDateTime.now());
+        exigir(descartadas >= pasadas.size() + canceladas.size(),
+            "Se descartaron " + descartadas + " reservas, se esperaban al menos "
+                + (pasadas.size() + canceladas.size()));
+        for (Reserva reserva : pasadas) {
+            exigir(sistema.buscarReserva(reserva.getId()) == null,
+                "Sigue en el índice una reserva de una función terminada");
+        }
+        for (Reserva reserva : canceladas) {
+            exigir(sistema.buscarReserva(reserva.getId()) == null, "Sigue en el índice una reserva cancelada");
+        }
+        for (Reserva reserva : vivas) {
+            exigir(sistema.buscarReserva(reserva.getId()) == reserva
+                    && reserva.getEstado() == EstadoReserva.CONFIRMADA,
+                "Se descartó una reserva confirmada de una función futura");
+        }
+        exigir(cliente.getHistorial().getCantidad() == 2 * RESERVAS, "El historial del cliente perdió reservas");
+        return descartadas + " reservas descartadas, " + vivas.size() + " confirmadas siguen en el indice";
+    }
+
+    private static Reserva reservar(Cliente cliente, Funcion funcion, int indice, PasarelaSimulada pasarela) {
+        List<Asiento> asientos = List.of(funcion.getSala().getAsientos().get(indice));
+        Reserva reserva = cliente.realizarReserva(funcion, asientos, pasarela);
+        exigir(reserva != null, "No se pudo reservar el asiento " + indice);
+        return reserva;
+    }
+}
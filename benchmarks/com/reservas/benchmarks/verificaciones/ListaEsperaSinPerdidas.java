@@ -0,0 +1,95 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.EstadoReserva;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Reserva;
+import com.reservas.modelo.Sala;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * La lista de espera no pierde asientos liberados ni entrega ofertas con
+ * el lock de otra reserva tomado
+ *
+ * 1. Función agotada: un hilo cancela las reservas de a una mientras otro
+ *    anota a la misma cantidad de clientes (de a un asiento). Cada
+ *    cliente recibe una oferta: nadie queda esperando mientras su asiento
+ *    vuelve a la venta. Se repite muchas veces para cruzar los dos hilos
+ * 2. Lo que el cliente encadena a su oferta no corre con el lock de la
+ *    reserva que liberó los asientos
+ */
+public class ListaEsperaSinPerdidas implements Verificacion {
+    private static final int ASIENTOS = 8;
+    private static final int RONDAS = 300;
+    private static final Duration RETENCION = Duration.ofMinutes(5);
+
+    @Override
+    public String nombre() {
+        return "lista_espera_sin_perdidas";
+    }
+
+    @Override
+    public String verificar() throws Exception {
+        Pelicula pelicula = new Pelicula("Lista de espera", "Drama", 100);
+        Cliente cliente = new Cliente("Espera", "espera@verificacion.com", "clave");
+
+        // 1. Liberar y anotarse a la vez
+        for (int ronda = 0; ronda < RONDAS; ronda++) {
+            Funcion funcion = new Funcion(pelicula, LocalDateTime.now().plusDays(1), new Sala(ASIENTOS));
+            List<Reserva> vendidas = agotar(funcion, cliente);
+            List<CompletableFuture<Reserva>> ofertas = new ArrayList<>();
+            Hilos.enParalelo(2, hilo -> {
+                for (int i = 0; i < ASIENTOS; i++) {
+                    if (hilo == 0) {
+                        vendidas.get(i).cancelar();
+                    } else {
+                        ofertas.add(funcion.getListaEspera().anotar(cliente, 1));
+                    }
+                }
+            });
+            Set<Asiento> ofrecidos = new HashSet<>();
+            for (CompletableFuture<Reserva> oferta : ofertas) {
+                Reserva reserva = oferta.get(5, TimeUnit.SECONDS);
+                exigir(reserva.getEstado() == EstadoReserva.RETENIDA, "Una oferta llegó " + reserva.getEstado());
+                exigir(ofrecidos.addAll(reserva.getAsientos()), "Un asiento se ofreció dos veces");
+            }
+            exigir(funcion.getListaEspera().getProfundidad() == 0, "Quedaron clientes esperando en la ronda " + ronda);
+        }
+
+        // 2. La oferta se entrega sin el lock de la reserva cancelada
+        Funcion funcion = new Funcion(pelicula, LocalDateTime.now().plusDays(1), new Sala(ASIENTOS));
+        Reserva cancelada = agotar(funcion, cliente).get(0);
+        AtomicBoolean conLock = new AtomicBoolean();
+        CompletableFuture<Reserva> oferta = funcion.getListaEspera().anotar(cliente, 1)
+            .whenComplete((reserva, error) -> conLock.set(Thread.holdsLock(cancelada)));
+        cancelada.cancelar();
+        oferta.get(5, TimeUnit.SECONDS);
+        exigir(!conLock.get(), "La oferta se entregó con el lock de la reserva cancelada");
+        return RONDAS * ASIENTOS + " asientos liberados mientras otros se anotaban, todos ofrecidos";
+    }
+
+    /**
+     * Retiene todos los asientos de la función, de a uno
+     */
+    private static List<Reserva> agotar(Funcion funcion, Cliente cliente) {
+        List<Reserva> reservas = new ArrayList<>(ASIENTOS);
+        for (Asiento asiento : funcion.getSala().getAsientos()) {
+            Reserva reserva = funcion.getBuzon().reservar(cliente, List.of(asiento), RETENCION).join();
+            exigir(reserva != null, "No se pudo reservar el asiento " + asiento);
+            reservas.add(reserva);
+        }
+        return reservas;
+    }
+}
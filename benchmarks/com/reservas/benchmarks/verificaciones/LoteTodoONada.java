@@ -0,0 +1,110 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.EstadoReserva;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Reserva;
+import com.reservas.modelo.Sala;
+import com.reservas.modelo.SolicitudReserva;
+import com.reservas.pago.PasarelaSimulada;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * Un lote de reservas se toma entero o no toma nada
+ *
+ * 1. Un asiento de una de las solicitudes ya es de otro cliente: el lote
+ *    falla sin cobrar, TODOS sus demás asientos (de las dos funciones)
+ *    vuelven a estar libres y el del otro cliente sigue siendo suyo
+ * 2. Un asiento pedido dos veces en el lote se rechaza antes de reclamar nada
+ * 3. 8 hilos piden lotes de 3 asientos al azar sobre pocas butacas (muchos
+ *    chocan) y cancelan los que consiguen: al final no queda ningún
+ *    asiento ocupado
+ */
+public class LoteTodoONada implements Verificacion {
+    private static final int ASIENTOS = 12;
+    private static final int HILOS = 8;
+    private static final int LOTES = 200;
+
+    @Override
+    public String nombre() {
+        return "lote_todo_o_nada";
+    }
+
+    @Override
+    public String verificar() throws Exception {
+        Pelicula pelicula = new Pelicula("Lote", "Drama", 100);
+        Funcion primera = new Funcion(pelicula, LocalDateTime.now().plusDays(1), new Sala(ASIENTOS));
+        Funcion segunda = new Funcion(pelicula, LocalDateTime.now().plusDays(2), new Sala(ASIENTOS));
+        List<Asiento> deLaPrimera = primera.getSala().getAsientos();
+        List<Asiento> deLaSegunda = segunda.getSala().getAsientos();
+        Cliente empresa = new Cliente("Empresa", "empresa@verificacion.com", "clave");
+        Cliente otro = new Cliente("Otro", "otro@verificacion.com", "clave");
+        PasarelaSimulada pasarela = new PasarelaSimulada(Duration.ZERO, 0, 0);
+
+        // 1. El último asiento del lote ya es de otro
+        Reserva ajena = otro.realizarReserva(segunda, deLaSegunda.subList(5, 6), pasarela);
+        exigir(ajena != null, "No se pudo tomar el asiento ajeno");
+        List<Reserva> lote = empresa.realizarReservasEnLote(List.of(
+            new SolicitudReserva(primera, deLaPrimera.subList(0, 2)),
+            new SolicitudReserva(primera, deLaPrimera.subList(2, 3)),
+            new SolicitudReserva(segunda, deLaSegunda.subList(3, 5)),
+            new SolicitudReserva(segunda, deLaSegunda.subList(5, 6))), pasarela).join();
+        exigir(lote == null, "Un lote con un asiento ajeno se confirmó");
+        exigir(pasarela.getLlamadas() == 1, "Se cobró un lote que no pudo reclamar sus asientos");
+        for (int i = 0; i < 3; i++) {
+            exigir(!primera.estaOcupado(deLaPrimera.get(i)), "El asiento " + i + " de la primera función quedó tomado");
+        }
+        exigir(!segunda.estaOcupado(deLaSegunda.get(3)) && !segunda.estaOcupado(deLaSegunda.get(4)),
+            "Los asientos del lote en la segunda función quedaron tomados");
+        exigir(segunda.estaOcupado(deLaSegunda.get(5)) && ajena.getEstado() == EstadoReserva.CONFIRMADA,
+            "El lote fallido liberó el asiento de otro cliente");
+        exigir(empresa.getHistorial().getCantidad() == 0, "El lote fallido quedó en el historial");
+        ajena.cancelar();
+
+        // 2. Asiento repetido: se rechaza antes de tocar el inventario
+        try {
+            empresa.realizarReservasEnLote(List.of(
+                new SolicitudReserva(primera, deLaPrimera.subList(0, 2)),
+                new SolicitudReserva(primera, deLaPrimera.subList(1, 2))), pasarela);
+            exigir(false, "Un lote con un asiento repetido no se rechazó");
+        } catch (IllegalArgumentException esperado) {
+            exigir(!primera.estaOcupado(deLaPrimera.get(0)), "Un lote rechazado reclamó asientos");
+        }
+
+        // 3. Muchos lotes que chocan
+        AtomicInteger confirmados = new AtomicInteger();
+        AtomicInteger fallidos = new AtomicInteger();
+        Hilos.enParalelo(HILOS, hilo -> {
+            ThreadLocalRandom azar = ThreadLocalRandom.current();
+            for (int i = 0; i < LOTES; i++) {
+                List<SolicitudReserva> solicitudes = new ArrayList<>(3);
+                int base = azar.nextInt(ASIENTOS - 2);
+                solicitudes.add(new SolicitudReserva(primera, deLaPrimera.subList(base, base + 2)));
+                solicitudes.add(new SolicitudReserva(segunda, deLaSegunda.subList(base, base + 1)));
+                List<Reserva> conseguido = empresa.realizarReservasEnLote(solicitudes, pasarela).join();
+                if (conseguido == null) {
+                    fallidos.incrementAndGet();
+                    continue;
+                }
+                confirmados.incrementAndGet();
+                conseguido.forEach(Reserva::cancelar);
+            }
+        });
+        for (int i = 0; i < ASIENTOS; i++) {
+            exigir(!primera.estaOcupado(deLaPrimera.get(i)) && !segunda.estaOcupado(deLaSegunda.get(i)),
+                "El asiento " + i + " quedó tomado después de " + fallidos.get() + " lotes fallidos");
+        }
+        exigir(fallidos.get() > 0, "Ningún lote chocó: la prueba no ejercitó la vuelta atrás");
+        return "lote con un asiento ajeno devolvio todo sin cobrar; " + confirmados.get() + " lotes confirmados y "
+            + fallidos.get() + " devueltos sin dejar asientos tomados";
+    }
+}
@@ -0,0 +1,76 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.benchmarks.casos.MejoresAsientos;
+import com.reservas.modelo.AsignadorAsientos;
+import com.reservas.modelo.Funcion;
+import java.util.SplittableRandom;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * AsignadorAsientos encuentra el mismo mejor bloque que la fuerza bruta
+ *
+ * Salas de 50 a 1000 asientos (con y sin pasillos), ocupadas al azar del
+ * 0% al 97%, grupos de 1 a 12 (o hasta el largo de la fila): el bloque de las máscaras de bits debe
+ * estar libre y valer lo mismo que el mejor bloque que encuentra
+ * MejoresAsientos.fuerzaBruta() (si hay empates, el índice puede ser otro)
+ */
+public class MejorBloqueExacto implements Verificacion {
+    private static final int[] ASIENTOS = {50, 100, 250, 500, 1000};
+    private static final int[] OCUPACIONES = {0, 50, 80, 90, 97};
+    private static final int SALAS_POR_COMBINACION = 20;
+
+    @Override
+    public String nombre() {
+        return "mejor_bloque_exacto";
+    }
+
+    @Override
+    public String verificar() {
+        SplittableRandom azar = new SplittableRandom(7);
+        int consultas = 0;
+        int sinLugar = 0;
+        for (int asientos : ASIENTOS) {
+            for (int ocupacion : OCUPACIONES) {
+                for (int sala = 0; sala < SALAS_POR_COMBINACION; sala++) {
+                    Funcion funcion = MejoresAsientos.funcion(asientos, ocupacion, azar);
+                    AsignadorAsientos asignador = funcion.getSala().getDiseno().getAsignador();
+                    for (int grupo = 1; grupo <= MejoresAsientos.grupoMaximo(funcion); grupo++) {
+                        int esperado = MejoresAsientos.fuerzaBruta(funcion, grupo);
+                        int obtenido = asignador.buscar(funcion.getInventario(), grupo);
+                        String caso = asientos + " asientos al " + ocupacion + "%, grupo de " + grupo;
+                        consultas++;
+                        if (esperado < 0) {
+                            exigir(obtenido < 0, caso + ": no hay bloque libre, pero devolvió " + obtenido);
+                            sinLugar++;
+                            continue;
+                        }
+                        exigir(obtenido >= 0, caso + ": no encontró el bloque " + esperado);
+                        exigir(funcion.getInventario().estanLibres(bloque(obtenido, grupo)),
+                            caso + ": el bloque " + obtenido + " tiene asientos ocupados");
+                        double diferencia = puntaje(asignador, obtenido, grupo) - puntaje(asignador, esperado, grupo);
+                        exigir(Math.abs(diferencia) < 1e-9, caso + ": el bloque " + obtenido
+                            + " no es el mejor (" + esperado + " vale " + (-diferencia) + " más)");
+                    }
+                }
+            }
+        }
+        return consultas + " consultas iguales a la fuerza bruta (" + sinLugar + " sin bloque libre)";
+    }
+
+    private static int[] bloque(int desde, int cantidad) {
+        int[] indices = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            indices[i] = desde + i;
+        }
+        return indices;
+    }
+
+    private static double puntaje(AsignadorAsientos asignador, int desde, int cantidad) {
+        double puntaje = 0;
+        for (int i = desde; i < desde + cantidad; i++) {
+            puntaje += asignador.getCalidad(i);
+        }
+        return puntaje;
+    }
+}
@@ -0,0 +1,99 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.EventoReserva;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Reserva;
+import com.reservas.modelo.Reserva.ObservadorReserva;
+import com.reservas.modelo.Sala;
+import com.reservas.sistema.BusEventos;
+import com.reservas.sistema.DespachadorNotificaciones;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * El despachador entrega los eventos de cada reserva en orden, sin
+ * superponerlos, y su cola nunca pasa la capacidad con BLOQUEAR
+ *
+ * 8 hilos publican CONFIRMADA y enseguida CANCELADA para miles de
+ * reservas, en un despachador de 4 trabajadores con una cola chica (se
+ * llena todo el tiempo). El observador anota los eventos de cada reserva
+ * y detecta si dos trabajadores le entregan la misma reserva a la vez
+ */
+public class NotificacionesEnOrden implements Verificacion {
+    private static final int HILOS = 8;
+    private static final int RESERVAS_POR_HILO = 5_000;
+    private static final int CAPACIDAD = 256;
+
+    @Override
+    public String nombre() {
+        return "notificaciones_en_orden";
+    }
+
+    @Override
+    public String verificar() throws Exception {
+        DespachadorNotificaciones despachador = new DespachadorNotificaciones(
+            CAPACIDAD, 4, DespachadorNotificaciones.PoliticaSaturacion.BLOQUEAR);
+        BusEventos bus = new BusEventos(despachador);
+        Registro registro = new Registro();
+        bus.suscribirATodos(registro);
+        Funcion funcion = new Funcion(new Pelicula("Orden", "Drama", 90), LocalDateTime.now().plusDays(1), new Sala(10));
+        AtomicInteger maximaProfundidad = new AtomicInteger();
+
+        Hilos.enParalelo(HILOS, hilo -> {
+            Cliente cliente = new Cliente("Cliente " + hilo, "cliente" + hilo + "@verificacion.com", "clave");
+            for (int i = 0; i < RESERVAS_POR_HILO; i++) {
+                Reserva reserva = new Reserva(cliente, funcion, List.of());
+                bus.publicar(new EventoReserva(EventoReserva.Tipo.CONFIRMADA, reserva));
+                bus.publicar(new EventoReserva(EventoReserva.Tipo.CANCELADA, reserva));
+                maximaProfundidad.accumulateAndGet(despachador.getProfundidadCola(), Math::max);
+            }
+        });
+        exigir(despachador.detener(Duration.ofSeconds(30)), "Quedaron notificaciones sin entregar");
+
+        exigir(!registro.superpuestas.get(), "Dos trabajadores entregaron la misma reserva a la vez");
+        int reservas = HILOS * RESERVAS_POR_HILO;
+        exigir(registro.eventos.size() == reservas,
+            "Llegaron eventos de " + registro.eventos.size() + " reservas, se esperaban " + reservas);
+        for (List<EventoReserva.Tipo> tipos : registro.eventos.values()) {
+            exigir(tipos.equals(List.of(EventoReserva.Tipo.CONFIRMADA, EventoReserva.Tipo.CANCELADA)),
+                "Eventos fuera de orden: " + tipos);
+        }
+        exigir(maximaProfundidad.get() <= CAPACIDAD,
+            "La cola llegó a " + maximaProfundidad.get() + " con capacidad " + CAPACIDAD);
+        return reservas * 2 + " eventos en orden, cola maxima " + maximaProfundidad.get() + " de " + CAPACIDAD;
+    }
+
+    /**
+     * Observador que anota el orden de los eventos de cada reserva
+     */
+    private static final class Registro implements ObservadorReserva {
+        final Map<Reserva, List<EventoReserva.Tipo>> eventos = new ConcurrentHashMap<>();
+        final Map<Reserva, Boolean> entregando = new ConcurrentHashMap<>();
+        final AtomicBoolean superpuestas = new AtomicBoolean();
+
+        @Override
+        public void actualizar(Reserva reserva) {
+            throw new UnsupportedOperationException(); // Siempre llega por recibir()
+        }
+
+        @Override
+        public void recibir(EventoReserva evento) {
+            Reserva reserva = evento.getReserva();
+            if (entregando.putIfAbsent(reserva, Boolean.TRUE) != null) {
+                superpuestas.set(true);
+            }
+            eventos.computeIfAbsent(reserva, r -> new ArrayList<>()).add(evento.getTipo());
+            entregando.remove(reserva);
+        }
+    }
+}
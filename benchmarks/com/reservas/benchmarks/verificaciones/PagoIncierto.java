@@ -0,0 +1,215 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.ConciliacionPagos;
+import com.reservas.modelo.Dinero;
+import com.reservas.modelo.EstadoReserva;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Reserva;
+import com.reservas.modelo.Sala;
+import com.reservas.modelo.SolicitudReserva;
+import com.reservas.pago.EstrategiaPago;
+import com.reservas.pago.PasarelaSimulada;
+import com.reservas.pago.PoliticaPago;
+import com.reservas.pago.ProcesadorPagos;
+import com.reservas.pago.ResultadoPago;
+import com.reservas.sistema.SistemaReservas;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * Un pago que no respondió a tiempo no libera los asientos ni cobra dos veces
+ *
+ * 1. La pasarela cobra y la respuesta se demora más que el tiempo máximo:
+ *    el pago queda DESCONOCIDO y, aunque pase el plazo de la retención, los
+ *    asientos siguen tomados. Cuando la pasarela vuelve, la consulta con
+ *    la misma clave encuentra el cobro: la reserva queda CONFIRMADA y se
+ *    cobró UNA vez
+ * 2. Una estrategia que no envía la clave no se reintenta después de un
+ *    timeout (una sola llamada): la reserva queda retenida y anotada en
+ *    ConciliacionPagos (conciliarla sigue dando DESCONOCIDO), y pedir el
+ *    mismo pago otra vez devuelve DESCONOCIDO sin llamar a la pasarela
+ * 3. Un rechazo sí devuelve los asientos
+ * 4. Un lote cuyo cobro (y sus consultas) no responde queda anotado con
+ *    la clave del lote y sus asientos tomados; cuando la pasarela vuelve,
+ *    conciliarlo confirma todo el lote, cobrado UNA vez
+ */
+public class PagoIncierto implements Verificacion {
+    private static final Duration RETENCION = Duration.ofMillis(150);
+    private static final Duration LENTA = Duration.ofSeconds(2);
+    private static final PoliticaPago POLITICA = new PoliticaPago(
+        Duration.ofMillis(100), 1, Duration.ofMillis(20), 100, Duration.ofSeconds(1), 4, 16);
+
+    @Override
+    public String nombre() {
+        return "pago_incierto";
+    }
+
+    @Override
+    public String verificar() throws Exception {
+        SistemaReservas sistema = SistemaReservas.getInstance();
+        ProcesadorPagos procesador = sistema.getProcesadorPagos();
+        procesador.configurar(CobraYTarda.class, POLITICA);
+        procesador.configurar(SinClave.class, POLITICA);
+        Duration retencionOriginal = sistema.getTiempoRetencion();
+        sistema.setTiempoRetencion(RETENCION);
+        try {
+            Funcion funcion = new Funcion(new Pelicula("Pago incierto", "Drama", 100),
+                LocalDateTime.now().plusDays(1), new Sala(16));
+            List<Asiento> asientos = funcion.getSala().getAsientos();
+            Cliente cliente = new Cliente("Incierto", "incierto@verificacion.com", "clave");
+
+            // 1. Cobra, pero la respuesta no llega a tiempo
+            CobraYTarda pasarela = new CobraYTarda();
+            CompletableFuture<Reserva> futuro = cliente.realizarReservaAsync(funcion, asientos.subList(0, 2), pasarela);
+            Thread.sleep(RETENCION.toMillis() * 3);
+            exigir(!futuro.isDone(), "El pago terminó sin que la pasarela respondiera: " + futuro.getNow(null));
+            exigir(funcion.estaOcupado(asientos.get(0)) && funcion.estaOcupado(asientos.get(1)),
+                "Se liberaron los asientos de un pago que quizás se cobró");
+            pasarela.demora = Duration.ZERO;
+            Reserva reserva = futuro.get(10, TimeUnit.SECONDS);
+            exigir(reserva != null && reserva.getEstado() == EstadoReserva.CONFIRMADA,
+                "El pago cobrado no confirmó la reserva: " + (reserva == null ? null : reserva.getEstado()));
+            exigir(pasarela.cobros.get() == 1, "La pasarela cobró " + pasarela.cobros.get() + " veces");
+            exigir(pasarela.llamadas.get() > 1, "No se consultó el pago con la misma clave");
+
+            // 2. Sin clave: ni reintentos ni consultas
+            SinClave sinClave = new SinClave();
+            Reserva retenida = cliente.realizarReservaAsync(funcion, asientos.subList(2, 4), sinClave)
+                .get(10, TimeUnit.SECONDS);
+            exigir(retenida == null, "Un pago DESCONOCIDO devolvió la reserva");
+            exigir(sinClave.llamadas.get() == 1,
+                "Un pago sin clave se repitió después de un timeout: " + sinClave.llamadas.get() + " llamadas");
+            Thread.sleep(RETENCION.toMillis() * 2);
+            exigir(funcion.estaOcupado(asientos.get(2)) && funcion.estaOcupado(asientos.get(3)),
+                "Se liberaron los asientos de un pago sin clave que quizás se cobró");
+            ConciliacionPagos conciliacion = sistema.getConciliacion();
+            ConciliacionPagos.PagoIncierto sinResolver = pendienteDe(conciliacion, funcion);
+            exigir(sinResolver != null && sinResolver.getReservas().size() == 1
+                    && sinResolver.getReservas().get(0).getEstado() == EstadoReserva.RETENIDA,
+                "El pago DESCONOCIDO no quedó anotado para conciliar");
+            exigir(conciliacion.conciliar(sinResolver.getClave(), sinClave).get(10, TimeUnit.SECONDS)
+                    == ResultadoPago.DESCONOCIDO && conciliacion.buscar(sinResolver.getClave()) == sinResolver,
+                "Conciliar un pago sin clave lo sacó de la lista de pendientes");
+            Dinero monto = Dinero.de(10);
+            exigir(procesador.procesar("incierto-sin-clave", sinClave, monto).get(10, TimeUnit.SECONDS)
+                    == ResultadoPago.DESCONOCIDO, "El pago sin clave no terminó DESCONOCIDO");
+            exigir(procesador.procesar("incierto-sin-clave", sinClave, monto).get(10, TimeUnit.SECONDS)
+                    == ResultadoPago.DESCONOCIDO && sinClave.llamadas.get() == 2,
+                "Repetir un pago DESCONOCIDO sin clave volvió a llamar a la pasarela");
+
+            // 3. Rechazo: los asientos vuelven a la función
+            PasarelaSimulada rechaza = new PasarelaSimulada(Duration.ZERO, 0, 1);
+            exigir(cliente.realizarReserva(funcion, asientos.subList(4, 6), rechaza) == null,
+                "Un pago rechazado devolvió la reserva");
+            exigir(!funcion.estaOcupado(asientos.get(4)) && !funcion.estaOcupado(asientos.get(5)),
+                "Un pago rechazado no liberó los asientos");
+
+            // 4. Lote DESCONOCIDO, conciliado después
+            Funcion otra = new Funcion(funcion.getPelicula(), LocalDateTime.now().plusDays(1), new Sala(16));
+            List<Asiento> deOtra = otra.getSala().getAsientos();
+            CobraYTarda lenta = new CobraYTarda();
+            List<Reserva> lote = cliente.realizarReservasEnLote(List.of(
+                    new SolicitudReserva(otra, deOtra.subList(0, 2)), new SolicitudReserva(otra, deOtra.subList(2, 3))),
+                lenta).get(10, TimeUnit.SECONDS);
+            exigir(lote == null, "Un lote DESCONOCIDO devolvió sus reservas");
+            ConciliacionPagos.PagoIncierto delLote = pendienteDe(conciliacion, otra);
+            exigir(delLote != null && delLote.getClave().startsWith("lote-") && delLote.getReservas().size() == 2
+                    && delLote.getMonto().equals(Dinero.de(30)),
+                "El lote DESCONOCIDO no quedó anotado con su clave y su total");
+            exigir(otra.estaOcupado(deOtra.get(0)) && otra.estaOcupado(deOtra.get(2)),
+                "Se liberaron los asientos de un lote que quizás se cobró");
+            lenta.demora = Duration.ZERO;
+            exigir(conciliacion.conciliar(delLote.getClave(), lenta).get(10, TimeUnit.SECONDS) == ResultadoPago.APROBADO,
+                "La conciliación del lote no encontró el cobro");
+            for (Reserva deLote : delLote.getReservas()) {
+                exigir(deLote.getEstado() == EstadoReserva.CONFIRMADA && sistema.buscarReserva(deLote.getId()) == deLote,
+                    "Una reserva del lote conciliado quedó " + deLote.getEstado());
+            }
+            exigir(conciliacion.buscar(delLote.getClave()) == null, "El lote conciliado sigue pendiente");
+            exigir(lenta.cobros.get() == 1, "El lote se cobró " + lenta.cobros.get() + " veces");
+            return "cobrado una vez tras " + pasarela.llamadas.get() + " llamadas, sin clave: 1 llamada"
+                + " y asientos retenidos, lote incierto conciliado tras " + lenta.llamadas.get() + " llamadas";
+        } finally {
+            sistema.setTiempoRetencion(retencionOriginal);
+        }
+    }
+
+    /**
+     * @return El pago por conciliar que cubre reservas de la función, o null
+     */
+    private static ConciliacionPagos.PagoIncierto pendienteDe(ConciliacionPagos conciliacion, Funcion funcion) {
+        for (ConciliacionPagos.PagoIncierto pago : conciliacion.getPendientes()) {
+            if (pago.getReservas().get(0).getFuncion() == funcion) {
+                return pago;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Pasarela que cobra enseguida pero tarda en responder (la respuesta
+     * se pierde si el procesador corta el intento por tiempo)
+     */
+    private static class CobraYTarda implements EstrategiaPago {
+        private final Map<String, Boolean> procesados = new ConcurrentHashMap<>();
+        private final AtomicInteger cobros = new AtomicInteger();
+        private final AtomicInteger llamadas = new AtomicInteger();
+        private volatile Duration demora = LENTA;
+
+        @Override
+        public boolean procesarPago(Dinero monto) {
+            throw new UnsupportedOperationException("Se espera siempre una clave");
+        }
+
+        @Override
+        public boolean procesarPago(String claveIdempotencia, Dinero monto) {
+            llamadas.incrementAndGet();
+            boolean aprobado = procesados.computeIfAbsent(claveIdempotencia, clave -> {
+                cobros.incrementAndGet();
+                return true;
+            });
+            dormir(demora);
+            return aprobado;
+        }
+
+        @Override
+        public boolean usaClaveIdempotencia() {
+            return true;
+        }
+    }
+
+    /**
+     * Estrategia que ignora la clave (la de EstrategiaPago por defecto):
+     * cobra en cada llamada, y siempre tarda
+     */
+    private static class SinClave implements EstrategiaPago {
+        private final AtomicInteger llamadas = new AtomicInteger();
+
+        @Override
+        public boolean procesarPago(Dinero monto) {
+            llamadas.incrementAndGet();
+            dormir(LENTA);
+            return true;
+        }
+    }
+
+    private static void dormir(Duration demora) {
+        try {
+            Thread.sleep(demora.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Llamada a la pasarela interrumpida", e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.benchmarks.casos.PreciosMapa;
+import com.reservas.modelo.Funcion;
+import com.reservas.precios.MotorPrecios;
+import com.reservas.precios.ReglaPrecio;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * La tabla compilada da los mismos precios que evaluar las reglas, y el
+ * motor no guarda tablas de funciones terminadas
+ *
+ * 1. Para una función de matiné y otra de noche, a medida que la sala se
+ *    llena (y cruza los niveles de demanda), cada asiento de la tabla vale
+ *    lo mismo que PreciosMapa.preciosSinTabla()
+ * 2. Con tablas de funciones pasadas y futuras, olvidarTerminadas()
+ *    descarta exactamente las pasadas
+ */
+public class PreciosTabla implements Verificacion {
+    private static final int PASADAS = 300;
+    private static final int FUTURAS = 20;
+
+    @Override
+    public String nombre() {
+        return "precios_tabla";
+    }
+
+    @Override
+    public String verificar() {
+        int mapas = 0;
+        LocalDateTime manana = LocalDateTime.now().plusDays(1);
+        for (LocalDateTime horario : List.of(manana.withHour(15), manana.withHour(21))) {
+            Funcion funcion = PreciosMapa.funcion(horario);
+            List<ReglaPrecio> reglas = PreciosMapa.reglas(funcion);
+            MotorPrecios motor = PreciosMapa.motor(reglas);
+            int capacidad = funcion.getSala().getCapacidad();
+            long[] tabla = new long[capacidad];
+            long[] esperado = new long[capacidad];
+            for (int ocupados = 0; ocupados <= capacidad; ocupados++) {
+                motor.tablaDe(funcion).copiarPrecios(tabla);
+                PreciosMapa.preciosSinTabla(funcion, reglas, esperado);
+                exigir(Arrays.equals(tabla, esperado), "Con " + ocupados + " ocupados a las "
+                    + horario.getHour() + " h la tabla no coincide con las reglas");
+                mapas++;
+                if (ocupados < capacidad) {
+                    funcion.getInventario().reclamar(new int[] {ocupados});
+                }
+            }
+        }
+
+        MotorPrecios motor = PreciosMapa.motor(List.of());
+        LocalDateTime ahora = LocalDateTime.now();
+        for (int i = 0; i < PASADAS + FUTURAS; i++) {
+            LocalDateTime horario = i < PASADAS ? ahora.minusDays(1).plusMinutes(i) : ahora.plusDays(1);
+            motor.tablaDe(PreciosMapa.funcion(horario));
+        }
+        int descartadas = motor.olvidarTerminadas(ahora);
+        exigir(descartadas == PASADAS, "Se descartaron " + descartadas + " tablas, no " + PASADAS);
+        exigir(motor.getTablasCompiladas() == FUTURAS,
+            "Quedaron " + motor.getTablasCompiladas() + " tablas, no " + FUTURAS);
+        return mapas + " mapas iguales a las reglas, " + descartadas + " tablas de funciones pasadas descartadas";
+    }
+}
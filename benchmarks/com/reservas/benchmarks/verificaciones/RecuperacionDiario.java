@@ -0,0 +1,197 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.ConciliacionPagos;
+import com.reservas.modelo.Dinero;
+import com.reservas.modelo.EstadoReserva;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Id;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Reserva;
+import com.reservas.modelo.Sala;
+import com.reservas.modelo.Usuario;
+import com.reservas.pago.EstrategiaPago;
+import com.reservas.pago.PoliticaPago;
+import com.reservas.pago.ResultadoPago;
+import com.reservas.persistencia.DiarioReservas;
+import com.reservas.persistencia.EstadoRecuperado;
+import com.reservas.sistema.SistemaReservas;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * Después de reiniciar, las reservas vuelven como eran
+ *
+ * 1. Un diario "de la corrida anterior" (escrito directo con DiarioReservas,
+ *    con instantáneas a mitad de camino) deja: una reserva confirmada, una
+ *    confirmada sin retener (lote), una retenida, una retenida de un
+ *    cliente que no vuelve a registrarse, una confirmada de un cliente que
+ *    se registra tarde, una cancelada y una con el pago por conciliar
+ * 2. El sistema activa ese diario y se agregan la función y los clientes
+ *    con sus ids originales: las confirmadas aparecen en buscarReserva() y
+ *    en el historial de su cliente, con sus asientos ocupados. La del
+ *    cliente que todavía no se registró también (sin cliente)
+ * 3. Las retenidas vencen con lo que les quedaba del plazo (aunque su
+ *    cliente no esté) y sus vencimientos quedan en el diario. La del pago
+ *    por conciliar no vence: vuelve a ConciliacionPagos con su clave y su
+ *    monto, y conciliarla la confirma
+ * 4. El cliente que faltaba se registra: su reserva confirmada pasa a su historial
+ *
+ * Deja el diario del sistema activo: por eso va última
+ */
+public class RecuperacionDiario implements Verificacion {
+    private static final Duration RETENCION = Duration.ofMillis(400);
+    private static final long MONTO_INCIERTA = 1250;
+    private static final PoliticaPago POLITICA = new PoliticaPago(
+        Duration.ofMillis(50), 1, Duration.ofMillis(20), 100, Duration.ofSeconds(1), 2, 4);
+
+    @Override
+    public String nombre() {
+        return "recuperacion_diario";
+    }
+
+    @Override
+    public String verificar() throws Exception {
+        Path directorio = Files.createTempDirectory("diario-verificacion");
+        Funcion anterior = new Funcion(new Pelicula("Reestreno", "Drama", 100),
+            LocalDateTime.now().plusDays(1), new Sala(64));
+        String funcionId = anterior.getId().toString();
+        Id<Usuario> ana = Id.nuevo();
+        Id<Usuario> beto = Id.nuevo();
+        Id<Usuario> ausente = Id.nuevo();
+        Id<Usuario> tardio = Id.nuevo();
+        Id<Reserva> confirmada = Id.nuevo();
+        Id<Reserva> retenida = Id.nuevo();
+        Id<Reserva> cancelada = Id.nuevo();
+        Id<Reserva> deLote = Id.nuevo();
+        Id<Reserva> sinCliente = Id.nuevo();
+        Id<Reserva> deTardio = Id.nuevo();
+        Id<Reserva> incierta = Id.nuevo();
+
+        // 1. La corrida anterior (un registro por lote: la instantánea cae en el medio)
+        DiarioReservas previo = new DiarioReservas(directorio, EstadoRecuperado.vacio(), 3);
+        escribir(previo, DiarioReservas.Tipo.CREADA, confirmada, ana, funcionId, 0, 1);
+        escribir(previo, DiarioReservas.Tipo.CREADA, retenida, ana, funcionId, 2, 3);
+        escribir(previo, DiarioReservas.Tipo.CONFIRMADA, confirmada, ana, funcionId, 0, 1);
+        escribir(previo, DiarioReservas.Tipo.CREADA, cancelada, beto, funcionId, 4);
+        escribir(previo, DiarioReservas.Tipo.CANCELADA, cancelada, beto, funcionId, 4);
+        escribir(previo, DiarioReservas.Tipo.CONFIRMADA, deLote, beto, funcionId, 5);
+        escribir(previo, DiarioReservas.Tipo.CREADA, sinCliente, ausente, funcionId, 6);
+        escribir(previo, DiarioReservas.Tipo.CREADA, incierta, ana, funcionId, 8);
+        previo.registrar(DiarioReservas.Tipo.INCIERTA, incierta.toString(), ana.toString(), funcionId, new int[] {8},
+            MONTO_INCIERTA, incierta.toString()).join(); // Justo antes de una instantánea: la clave pasa por ella
+        escribir(previo, DiarioReservas.Tipo.CONFIRMADA, deTardio, tardio, funcionId, 7);
+        previo.cerrar();
+
+        // 2. Reinicio: misma función y mismos clientes (por id)
+        SistemaReservas sistema = SistemaReservas.getInstance();
+        Duration retencionOriginal = sistema.getTiempoRetencion();
+        sistema.setTiempoRetencion(RETENCION);
+        try {
+            EstadoRecuperado recuperado = sistema.activarDiario(directorio, 1000);
+            exigir(recuperado.getReservas().size() == 6,
+                "Se esperaban 6 reservas vivas en el diario, hay " + recuperado.getReservas().size());
+            Funcion funcion = new Funcion(anterior.getId(), anterior.getPelicula(), anterior.getHorario(),
+                new Sala(64));
+            sistema.agregarFuncion(funcion);
+            Cliente clienteAna = new Cliente(ana, "Ana", "ana@verificacion.com", "clave");
+            Cliente clienteBeto = new Cliente(beto, "Beto", "beto@verificacion.com", "clave");
+            sistema.agregarCliente(clienteAna);
+            sistema.agregarCliente(clienteBeto);
+
+            Reserva reservaConfirmada = sistema.buscarReserva(confirmada);
+            exigir(reservaConfirmada != null && reservaConfirmada.getEstado() == EstadoReserva.CONFIRMADA,
+                "La reserva confirmada no volvió confirmada");
+            exigir(reservaConfirmada.getCliente() == clienteAna, "La reserva confirmada no volvió a su cliente");
+            exigir(reservaConfirmada.getAsientos().size() == 2, "La reserva confirmada no volvió con sus asientos");
+            Reserva reservaRetenida = sistema.buscarReserva(retenida);
+            exigir(reservaRetenida != null && clienteAna.getHistorial().getCantidad() == 3,
+                "El historial de Ana no tiene sus tres reservas");
+            exigir(sistema.buscarReserva(deLote) != null
+                    && clienteBeto.getHistorial().conEstado(EstadoReserva.CONFIRMADA).size() == 1,
+                "La reserva del lote no volvió al historial de Beto");
+            exigir(sistema.buscarReserva(cancelada) == null, "La reserva cancelada volvió");
+            Reserva reservaTardia = sistema.buscarReserva(deTardio);
+            exigir(reservaTardia != null && reservaTardia.getEstado() == EstadoReserva.CONFIRMADA
+                    && reservaTardia.getCliente() == null,
+                "La confirmada de un cliente sin registrar no volvió (sin cliente)");
+            exigir(ocupados(funcion) == 0b11101111, "Ocupación restaurada incorrecta: " + ocupados(funcion));
+
+            // 3. Las retenidas vencen solas (la de un cliente ausente también)
+            long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (ocupados(funcion) != 0b10100011 && System.nanoTime() < limite) {
+                Thread.sleep(20);
+            }
+            exigir(ocupados(funcion) == 0b10100011, "Las retenciones recuperadas no liberaron sus asientos");
+            Reserva reservaIncierta = sistema.buscarReserva(incierta);
+            exigir(reservaIncierta != null && reservaIncierta.getEstado() == EstadoReserva.RETENIDA
+                    && funcion.getInventario().estaOcupado(8),
+                "La reserva con el pago por conciliar venció o no volvió");
+            exigir(reservaRetenida.getEstado() == EstadoReserva.EXPIRADA
+                    && clienteAna.getHistorial().conEstado(EstadoReserva.EXPIRADA).size() == 1,
+                "La retención de Ana no figura vencida");
+
+            int vivas;
+            do {
+                vivas = DiarioReservas.recuperar(directorio).getReservas().size();
+                Thread.sleep(20);
+            } while (vivas != 4 && System.nanoTime() < limite);
+            exigir(vivas == 4, "Los vencimientos no quedaron en el diario: " + vivas + " reservas vivas");
+
+            ConciliacionPagos.PagoIncierto pago = sistema.getConciliacion().buscar(incierta.toString());
+            exigir(pago != null && pago.getReservas().equals(List.of(reservaIncierta))
+                    && pago.getMonto().equals(Dinero.deCentavos(MONTO_INCIERTA))
+                    && reservaIncierta.getMonto().equals(pago.getMonto()),
+                "El pago por conciliar no volvió con su reserva y su monto");
+            sistema.getProcesadorPagos().configurar(Aprueba.class, POLITICA);
+            exigir(sistema.getConciliacion().conciliar(pago.getClave(), new Aprueba()).get(10, TimeUnit.SECONDS)
+                    == ResultadoPago.APROBADO && reservaIncierta.getEstado() == EstadoReserva.CONFIRMADA,
+                "Conciliar el pago recuperado no confirmó la reserva");
+
+            // 4. El cliente que faltaba llega
+            Cliente clienteTardio = new Cliente(tardio, "Tardio", "tardio@verificacion.com", "clave");
+            sistema.agregarCliente(clienteTardio);
+            exigir(reservaTardia.getCliente() == clienteTardio
+                    && clienteTardio.getHistorial().conEstado(EstadoReserva.CONFIRMADA).size() == 1,
+                "La confirmada no pasó al historial del cliente que se registró tarde");
+        } finally {
+            sistema.setTiempoRetencion(retencionOriginal);
+        }
+        return "3 confirmadas restauradas (1 sin cliente hasta que se registro), 2 retenciones vencidas y registradas,"
+            + " 1 pago incierto recuperado y conciliado";
+    }
+
+    private static void escribir(DiarioReservas diario, DiarioReservas.Tipo tipo, Id<Reserva> reserva,
+                                 Id<Usuario> cliente, String funcionId, int... asientos) {
+        diario.registrar(tipo, reserva.toString(), cliente.toString(), funcionId, asientos).join();
+    }
+
+    /**
+     * Pasarela que recuerda lo cobrado por clave: la consulta encuentra el cobro
+     */
+    private static class Aprueba implements EstrategiaPago {
+        @Override
+        public boolean procesarPago(Dinero monto) {
+            return true;
+        }
+
+        @Override
+        public boolean usaClaveIdempotencia() {
+            return true;
+        }
+    }
+
+    private static int ocupados(Funcion funcion) {
+        int mascara = 0;
+        for (int i = 0; i < 8; i++) {
+            mascara |= funcion.getInventario().estaOcupado(i) ? 1 << i : 0;
+        }
+        return mascara;
+    }
+}
@@ -0,0 +1,112 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.metricas.ExportadorMetricas;
+import com.reservas.metricas.Histograma;
+import com.reservas.metricas.RegistroMetricas;
+import com.reservas.sistema.ExpiradorRetenciones;
+import com.reservas.sistema.RuedaTemporizadora;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * Las retenciones vencen a tiempo y las canceladas nunca vencen
+ *
+ * Un ExpiradorRetenciones propio (ticks de 10 ms) con retenciones de
+ * 20 ms a 1,5 s: las de más de 64 ticks pasan por la cascada de los
+ * niveles superiores de la rueda. Se cancela una de cada tres antes de
+ * que venza
+ * - Ninguna vence ANTES de su plazo, ni más de 2 ticks (más un margen
+ *   para el planificador) después
+ * - Ninguna cancelada vence
+ * - Las métricas "retenciones.*" quedan publicadas en el registro y
+ *   cuentan lo mismo que se vio
+ */
+public class RetencionesATiempo implements Verificacion {
+    private static final Duration TICK = Duration.ofMillis(10);
+    private static final int RETENCIONES = 3000;
+    private static final long PLAZO_MAXIMO_MS = 1500;
+    private static final long MARGEN_NANOS = 2 * TICK.toNanos() + Duration.ofMillis(40).toNanos();
+
+    @Override
+    public String nombre() {
+        return "retenciones_a_tiempo";
+    }
+
+    @Override
+    public String verificar() throws Exception {
+        ExpiradorRetenciones expirador = new ExpiradorRetenciones(TICK);
+        RegistroMetricas metricas = new RegistroMetricas();
+        expirador.registrarMetricas(metricas);
+        try {
+            Random azar = new Random(42);
+            long[] plazos = new long[RETENCIONES];         // Instante (nanoTime) en que debe vencer
+            AtomicLongArray vencidas = new AtomicLongArray(RETENCIONES); // Instante en que venció (0: nunca)
+            RuedaTemporizadora.Tarea[] tareas = new RuedaTemporizadora.Tarea[RETENCIONES];
+            for (int i = 0; i < RETENCIONES; i++) {
+                int indice = i;
+                Duration ttl = Duration.ofMillis(20 + azar.nextInt((int) PLAZO_MAXIMO_MS - 20));
+                plazos[i] = System.nanoTime() + ttl.toNanos();
+                tareas[i] = expirador.programar(() -> vencidas.set(indice, System.nanoTime()), ttl);
+            }
+            int canceladas = 0;
+            for (int i = 0; i < RETENCIONES; i += 3) {
+                exigir(tareas[i].cancelar(), "No se pudo cancelar una retención pendiente");
+                canceladas++;
+            }
+
+            Thread.sleep(PLAZO_MAXIMO_MS + MARGEN_NANOS / 1_000_000 + 100);
+
+            long[] retrasos = new long[RETENCIONES - canceladas];
+            int n = 0;
+            for (int i = 0; i < RETENCIONES; i++) {
+                long vencida = vencidas.get(i);
+                if (i % 3 == 0) {
+                    exigir(vencida == 0, "Venció una retención cancelada");
+                    continue;
+                }
+                exigir(vencida != 0, "Una retención no venció");
+                long retraso = vencida - plazos[i];
+                exigir(retraso >= 0, "Una retención venció " + -retraso / 1000 + " us antes de su plazo");
+                exigir(retraso <= MARGEN_NANOS, "Una retención venció " + retraso / 1_000_000 + " ms tarde");
+                retrasos[n++] = retraso;
+            }
+
+            Map<String, Long> publicadas = indicadores(metricas);
+            exigir(publicadas.getOrDefault("retenciones.activas", -1L) == 0,
+                "retenciones.activas = " + publicadas.get("retenciones.activas") + ", se esperaba 0");
+            exigir(publicadas.getOrDefault("retenciones.vencidas", -1L) == n,
+                "retenciones.vencidas = " + publicadas.get("retenciones.vencidas") + ", se esperaban " + n);
+            exigir(publicadas.containsKey("retenciones.retraso_maximo_tick_ns"),
+                "No se publicó el retraso de los ticks");
+
+            Arrays.sort(retrasos);
+            return n + " vencidas (retraso p99 " + retrasos[(int) (n * 0.99)] / 1_000_000 + " ms, maximo "
+                + retrasos[n - 1] / 1_000_000 + " ms), " + canceladas + " canceladas sin vencer";
+        } finally {
+            expirador.detener();
+        }
+    }
+
+    private static Map<String, Long> indicadores(RegistroMetricas metricas) throws Exception {
+        Map<String, Long> valores = new HashMap<>();
+        metricas.exportar(new ExportadorMetricas() {
+            @Override
+            public void temporizador(String nombre, Histograma.Instantanea tiempos, long enCurso) {}
+
+            @Override
+            public void contador(String nombre, long valor) {}
+
+            @Override
+            public void indicador(String nombre, long valor) {
+                valores.put(nombre, valor);
+            }
+        });
+        return valores;
+    }
+}
@@ -0,0 +1,139 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.InventarioAsientos;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Reserva;
+import com.reservas.modelo.Sala;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * Ningún asiento se vende dos veces, con muchos hilos peleando por los mismos
+ *
+ * 1. InventarioAsientos directo: 64 hilos reclaman grupos al azar de 1 a 6
+ *    asientos (que se pisan entre sí) y los liberan. Cada reclamo exitoso
+ *    anota al hilo como dueño de sus asientos: si un asiento ya tenía
+ *    dueño, el inventario lo vendió dos veces. Los últimos reclamos de
+ *    cada hilo quedan ocupados: al final, el bitmap y el contador de
+ *    ocupados deben coincidir con los dueños anotados
+ * 2. Reserva.confirmar(): 64 hilos confirman reservas sobre los MISMOS
+ *    pocos asientos de una función; cada asiento puede terminar en una
+ *    sola reserva confirmada
+ */
+public class SinSobreventa implements Verificacion {
+    private static final int HILOS = 64;
+    private static final int CAPACIDAD = 512;      // Chica a propósito: muchos choques
+    private static final int RECLAMOS_POR_HILO = 20_000;
+    private static final int ASIENTOS_DISPUTADOS = 40;
+
+    @Override
+    public String nombre() {
+        return "sin_sobreventa";
+    }
+
+    @Override
+    public String verificar() throws Exception {
+        long reclamos = inventarioDirecto();
+        long confirmadas = confirmacionesDisputadas();
+        return HILOS + " hilos, " + reclamos + " reclamos exitosos en el inventario, "
+            + confirmadas + " reservas confirmadas sobre " + ASIENTOS_DISPUTADOS + " asientos";
+    }
+
+    private long inventarioDirecto() throws Exception {
+        InventarioAsientos inventario = new InventarioAsientos(CAPACIDAD);
+        AtomicIntegerArray duenos = new AtomicIntegerArray(CAPACIDAD); // 0 = libre, si no: hilo + 1
+        LongAdder exitosos = new LongAdder();
+        Hilos.enParalelo(HILOS, hilo -> {
+            SplittableRandom azar = new SplittableRandom(hilo);
+            for (int i = 0; i < RECLAMOS_POR_HILO; i++) {
+                int[] indices = grupoAlAzar(azar);
+                if (!inventario.reclamar(indices)) {
+                    continue;
+                }
+                exitosos.increment();
+                for (int indice : indices) {
+                    exigir(duenos.compareAndSet(indice, 0, hilo + 1),
+                        "El asiento " + indice + " se reclamó dos veces");
+                }
+                if (i < RECLAMOS_POR_HILO - 5) { // Los últimos quedan ocupados para el control final
+                    for (int indice : indices) {
+                        duenos.set(indice, 0); // Antes de liberar: después ya es de otro
+                    }
+                    inventario.liberar(indices);
+                }
+            }
+        });
+        int conDueno = 0;
+        for (int i = 0; i < CAPACIDAD; i++) {
+            boolean tieneDueno = duenos.get(i) != 0;
+            exigir(tieneDueno == inventario.estaOcupado(i),
+                "El bitmap no coincide con los dueños en el asiento " + i);
+            conDueno += tieneDueno ? 1 : 0;
+        }
+        exigir(conDueno == inventario.contarOcupados(),
+            "contarOcupados() = " + inventario.contarOcupados() + ", pero hay " + conDueno + " con dueño");
+        return exitosos.sum();
+    }
+
+    /**
+     * Grupo de 1 a 6 asientos distintos, al azar (sin ordenar: el
+     * inventario debe aceptar cualquier orden)
+     */
+    private static int[] grupoAlAzar(SplittableRandom azar) {
+        int[] indices = new int[1 + azar.nextInt(6)];
+        for (int i = 0; i < indices.length; i++) {
+            int candidato;
+            boolean repetido;
+            do {
+                candidato = azar.nextInt(CAPACIDAD);
+                repetido = false;
+                for (int j = 0; j < i; j++) {
+                    repetido |= indices[j] == candidato;
+                }
+            } while (repetido);
+            indices[i] = candidato;
+        }
+        return indices;
+    }
+
+    private long confirmacionesDisputadas() throws Exception {
+        Funcion funcion = new Funcion(new Pelicula("Estreno", "Drama", 120),
+            LocalDateTime.now().plusDays(1), new Sala(CAPACIDAD));
+        List<Asiento> disputados = funcion.getSala().getAsientos().subList(0, ASIENTOS_DISPUTADOS);
+        AtomicIntegerArray confirmadas = new AtomicIntegerArray(ASIENTOS_DISPUTADOS);
+        LongAdder total = new LongAdder();
+        Hilos.enParalelo(HILOS, hilo -> {
+            SplittableRandom azar = new SplittableRandom(1000 + hilo);
+            Cliente cliente = new Cliente("Cliente " + hilo, "cliente" + hilo + "@verificacion.com", "clave");
+            for (int i = 0; i < 200; i++) {
+                int desde = azar.nextInt(ASIENTOS_DISPUTADOS - 3);
+                List<Asiento> asientos = List.copyOf(disputados.subList(desde, desde + 1 + azar.nextInt(3)));
+                Reserva reserva = new Reserva(cliente, funcion, asientos);
+                try {
+                    reserva.confirmar();
+                } catch (IllegalStateException e) {
+                    continue; // Otro hilo ganó algún asiento
+                }
+                total.increment();
+                for (Asiento asiento : asientos) {
+                    confirmadas.incrementAndGet(asiento.getIndice());
+                }
+            }
+        });
+        for (int i = 0; i < ASIENTOS_DISPUTADOS; i++) {
+            exigir(confirmadas.get(i) <= 1,
+                "El asiento " + disputados.get(i).getNumero() + " quedó en " + confirmadas.get(i) + " reservas");
+            exigir((confirmadas.get(i) == 1) == funcion.estaOcupado(disputados.get(i)),
+                "El inventario no coincide con las reservas en " + disputados.get(i).getNumero());
+        }
+        return total.sum();
+    }
+}
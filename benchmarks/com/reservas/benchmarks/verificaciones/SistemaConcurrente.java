@@ -0,0 +1,102 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Sala;
+import com.reservas.sistema.SistemaReservas;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * SistemaReservas aguanta altas, búsquedas y listados al mismo tiempo
+ *
+ * 16 hilos: 8 agregan películas y funciones (cada una con un título
+ * único) y 8 buscan y listan mientras tanto. Se comprueba que:
+ * - getInstance() devuelve siempre la misma instancia
+ * - Nada lanza excepciones (ej: ConcurrentModificationException)
+ * - Cada listado es una "foto" que solo crece: un lector nunca ve menos
+ *   películas o funciones que en su listado anterior
+ * - Toda película agregada se encuentra por su título, y toda función por
+ *   su horario, apenas termina agregarPelicula() / agregarFuncion()
+ * - Al final están todas: ni se perdieron ni se duplicaron
+ */
+public class SistemaConcurrente implements Verificacion {
+    private static final int ESCRITORES = 8;
+    private static final int LECTORES = 8;
+    private static final int ALTAS_POR_ESCRITOR = 2_000;
+
+    @Override
+    public String nombre() {
+        return "sistema_concurrente";
+    }
+
+    @Override
+    public String verificar() throws Exception {
+        SistemaReservas sistema = SistemaReservas.getInstance();
+        int peliculasAntes = sistema.getPeliculas().size();
+        int funcionesAntes = sistema.getFunciones().size();
+        String prefijo = "Concurrente " + System.nanoTime() + " "; // Títulos que no están en el catálogo
+        LocalDateTime base = LocalDateTime.now().plusYears(50);    // Horarios que no usa nadie más
+        AtomicInteger escribiendo = new AtomicInteger(ESCRITORES);
+        LongAdder lecturas = new LongAdder();
+
+        Hilos.enParalelo(ESCRITORES + LECTORES, hilo -> {
+            exigir(SistemaReservas.getInstance() == sistema, "getInstance() devolvió otra instancia");
+            if (hilo < ESCRITORES) {
+                Sala sala = new Sala(5, 10);
+                for (int i = 0; i < ALTAS_POR_ESCRITOR; i++) {
+                    String titulo = prefijo + hilo + "-" + i;
+                    Pelicula pelicula = new Pelicula(titulo, "Drama", 100);
+                    sistema.agregarPelicula(pelicula);
+                    LocalDateTime horario = base.plusMinutes((long) hilo * ALTAS_POR_ESCRITOR + i);
+                    Funcion funcion = new Funcion(pelicula, horario, sala);
+                    sistema.agregarFuncion(funcion);
+                    if (i % 50 == 0) {
+                        List<Pelicula> encontradas = sistema.buscarPeliculas(titulo);
+                        exigir(encontradas.size() == 1 && encontradas.get(0) == pelicula,
+                            "No se encuentra la película recién agregada " + titulo);
+                        exigir(sistema.buscarFunciones(horario, horario.plusSeconds(1)).contains(funcion),
+                            "No se encuentra la función recién agregada de " + titulo);
+                    }
+                }
+                escribiendo.decrementAndGet();
+                return;
+            }
+            SplittableRandom azar = new SplittableRandom(hilo);
+            int ultimasPeliculas = 0;
+            int ultimasFunciones = 0;
+            while (escribiendo.get() > 0) {
+                List<Pelicula> peliculas = sistema.getPeliculas();
+                exigir(peliculas.size() >= ultimasPeliculas, "El catálogo se achicó");
+                ultimasPeliculas = peliculas.size();
+                int recorridas = 0;
+                for (Funcion funcion : sistema.getFunciones()) {
+                    recorridas++; // Recorrer mientras otros agregan no debe fallar
+                }
+                exigir(recorridas >= ultimasFunciones, "La lista de funciones se achicó");
+                ultimasFunciones = recorridas;
+                String consulta = prefijo + azar.nextInt(ESCRITORES) + "-" + azar.nextInt(ALTAS_POR_ESCRITOR);
+                for (Pelicula pelicula : sistema.buscarPeliculas(consulta)) {
+                    exigir(pelicula.getTitulo().startsWith(consulta), "La búsqueda devolvió " + pelicula.getTitulo());
+                }
+                lecturas.increment();
+            }
+        });
+
+        int altas = ESCRITORES * ALTAS_POR_ESCRITOR;
+        exigir(sistema.getPeliculas().size() == peliculasAntes + altas,
+            "Hay " + sistema.getPeliculas().size() + " películas, se esperaban " + (peliculasAntes + altas));
+        exigir(sistema.getFunciones().size() == funcionesAntes + altas,
+            "Hay " + sistema.getFunciones().size() + " funciones, se esperaban " + (funcionesAntes + altas));
+        exigir(sistema.buscarPeliculas(prefijo).size() == altas, "La búsqueda por prefijo no encuentra todas");
+        exigir(sistema.buscarFunciones(base, base.plusMinutes(altas)).size() == altas,
+            "La búsqueda por horario no encuentra todas las funciones");
+        return (ESCRITORES + LECTORES) + " hilos, " + altas + " peliculas y funciones, "
+            + lecturas.sum() + " rondas de lectura";
+    }
+}
@@ -0,0 +1,116 @@
+package com.reservas.benchmarks.verificaciones;
+
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.Dinero;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Id;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Reserva;
+import com.reservas.modelo.Sala;
+import com.reservas.pago.PasarelaSimulada;
+import com.reservas.sistema.EstadisticasVentas;
+import com.reservas.sistema.SistemaReservas;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.reservas.benchmarks.verificaciones.Verificacion.exigir;
+
+/**
+ * Las estadísticas de ventas cuadran con lo que se vendió
+ *
+ * 1. 8 hilos compran asientos de a uno en la misma función y cancelan uno
+ *    de cada cuatro: los totales de la función (reservas, asientos,
+ *    ingresos, cancelaciones) son la suma de lo que quedó confirmado
+ * 2. Una reserva confirmada restaurada (como al recuperar el diario) vuelve
+ *    a sumarse con su monto; una retenida restaurada no suma
+ * 3. olvidarTerminadas() descarta una función que ya terminó, deja la
+ *    futura y no toca los totales de la película
+ * 4. Una venta por el buzón de la función se cotiza, suma a la función y
+ *    queda en el historial del cliente y en el índice del sistema
+ */
+public class VentasCuadran implements Verificacion {
+    private static final int HILOS = 8;
+    private static final int POR_HILO = 8;
+
+    @Override
+    public String nombre() {
+        return "ventas_cuadran";
+    }
+
+    @Override
+    public String verificar() throws Exception {
+        EstadisticasVentas estadisticas = SistemaReservas.getInstance().getEstadisticas();
+        Pelicula pelicula = new Pelicula("Ventas", "Drama", 100);
+        Funcion funcion = new Funcion(pelicula, LocalDateTime.now().plusDays(1), new Sala(HILOS * POR_HILO));
+        List<Asiento> asientos = funcion.getSala().getAsientos();
+        PasarelaSimulada pasarela = new PasarelaSimulada(Duration.ZERO, 0, 0);
+
+        // 1. Ventas y cancelaciones concurrentes
+        AtomicLong ingresos = new AtomicLong();
+        AtomicLong vendidas = new AtomicLong();
+        Hilos.enParalelo(HILOS, hilo -> {
+            Cliente cliente = new Cliente("Ventas " + hilo, "ventas" + hilo + "@verificacion.com", "clave");
+            for (int i = 0; i < POR_HILO; i++) {
+                Reserva reserva = cliente.realizarReserva(funcion, List.of(asientos.get(hilo * POR_HILO + i)), pasarela);
+                exigir(reserva != null, "No se pudo comprar un asiento libre");
+                if (i % 4 == 0) {
+                    reserva.cancelar();
+                } else {
+                    vendidas.incrementAndGet();
+                    ingresos.addAndGet(reserva.getMonto().getCentavos());
+                }
+            }
+        });
+        EstadisticasVentas.Resumen deFuncion = estadisticas.deFuncion(funcion);
+        exigir(deFuncion.getReservas() == vendidas.get() && deFuncion.getAsientos() == vendidas.get(),
+            "Se vendieron " + vendidas.get() + " asientos pero la función cuenta " + deFuncion);
+        exigir(deFuncion.getIngresos().equals(Dinero.deCentavos(ingresos.get())),
+            "Se cobraron " + Dinero.deCentavos(ingresos.get()) + " pero la función cuenta " + deFuncion.getIngresos());
+        exigir(deFuncion.getCancelaciones() == HILOS * POR_HILO / 4,
+            "Se esperaban " + HILOS * POR_HILO / 4 + " cancelaciones, hay " + deFuncion.getCancelaciones());
+        exigir(ingresos.get() > 0, "Las reservas se vendieron sin precio");
+
+        // 2. Restauradas
+        Funcion restaurada = new Funcion(pelicula, LocalDateTime.now().plusDays(2), new Sala(4));
+        List<Asiento> deLaRestaurada = restaurada.getSala().getAsientos();
+        Reserva.restaurar(Id.nuevo(), null, restaurada, deLaRestaurada.subList(0, 2), true, null, Dinero.de(25, 0));
+        Reserva.restaurar(Id.nuevo(), null, restaurada, deLaRestaurada.subList(2, 3), false, Duration.ofMinutes(5),
+            Dinero.de(10, 0));
+        EstadisticasVentas.Resumen deRestaurada = estadisticas.deFuncion(restaurada);
+        exigir(deRestaurada.getReservas() == 1 && deRestaurada.getAsientos() == 2
+                && deRestaurada.getIngresos().equals(Dinero.de(25, 0)),
+            "Una confirmada restaurada de $25 y una retenida dejaron " + deRestaurada);
+
+        // 3. Función terminada
+        Funcion terminada = new Funcion(pelicula, LocalDateTime.now().minusDays(1), new Sala(4));
+        Reserva.restaurar(Id.nuevo(), null, terminada, terminada.getSala().getAsientos().subList(0, 1), true, null,
+            Dinero.de(5, 0));
+        exigir(estadisticas.deFuncion(terminada).getReservas() == 1, "No se contó la venta de la función terminada");
+        EstadisticasVentas.Resumen antes = estadisticas.dePelicula(pelicula);
+        exigir(estadisticas.olvidarTerminadas(LocalDateTime.now()) >= 1, "No se descartó ninguna función terminada");
+        exigir(estadisticas.deFuncion(terminada).getReservas() == 0, "La función terminada sigue en las estadísticas");
+        exigir(estadisticas.deFuncion(funcion).getReservas() == vendidas.get(), "Se descartó una función futura");
+        EstadisticasVentas.Resumen despues = estadisticas.dePelicula(pelicula);
+        exigir(despues.getReservas() == antes.getReservas() && despues.getIngresos().equals(antes.getIngresos()),
+            "Olvidar la función cambió los totales de la película: " + antes + " -> " + despues);
+
+        // 4. Por el buzón
+        Funcion porBuzon = new Funcion(pelicula, LocalDateTime.now().plusDays(3), new Sala(4));
+        Cliente cliente = new Cliente("Buzon", "buzon@verificacion.com", "clave");
+        Reserva delBuzon = porBuzon.getBuzon()
+            .reservar(cliente, porBuzon.getSala().getAsientos().subList(0, 2), Duration.ofMinutes(5)).join();
+        exigir(delBuzon != null && delBuzon.getMonto().getCentavos() > 0, "El buzón reservó sin cotizar");
+        porBuzon.getBuzon().confirmar(delBuzon).join();
+        exigir(estadisticas.deFuncion(porBuzon).getIngresos().equals(delBuzon.getMonto()),
+            "La venta del buzón no sumó su monto: " + estadisticas.deFuncion(porBuzon));
+        exigir(cliente.getHistorial().getCantidad() == 1, "La venta del buzón no llegó al historial del cliente");
+        exigir(SistemaReservas.getInstance().buscarReserva(delBuzon.getId()) == delBuzon,
+            "La venta del buzón no se registró en el sistema");
+        return vendidas.get() + " ventas y " + HILOS * POR_HILO / 4 + " cancelaciones cuadran ("
+            + deFuncion.getIngresos() + "); la restaurada suma su monto y la terminada se descarta;"
+            + " el buzon cotiza y registra";
+    }
+}
@@ -0,0 +1,37 @@
+package com.reservas.benchmarks.verificaciones;
+
+/**
+ * Una verificación de concurrencia o de resultados del sistema
+ *
+ * A diferencia de un CasoBenchmark, no mide velocidad: somete al sistema
+ * a una carga (muchos hilos, datos al azar) y comprueba una propiedad que
+ * nunca debe romperse (ej: ningún asiento vendido dos veces)
+ * EjecutarVerificaciones las corre todas y falla si alguna no se cumple
+ */
+public interface Verificacion {
+
+    /**
+     * @return Nombre de la verificación (se usa con --filtro)
+     */
+    String nombre();
+
+    /**
+     * Corre la verificación
+     * @return Resumen de lo comprobado (ej: "64 hilos, 200k reclamos")
+     * @throws AssertionError si la propiedad no se cumple
+     * @throws Exception si algo falla al prepararla o correrla
+     */
+    String verificar() throws Exception;
+
+    /**
+     * Comprueba una condición
+     * @param condicion Lo que debe cumplirse
+     * @param mensaje Qué se rompió, si no se cumple
+     * @throws AssertionError si la condición es falsa
+     */
+    static void exigir(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+}
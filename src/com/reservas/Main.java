@@ -3,6 +3,7 @@ package com.reservas;
 import com.reservas.modelo.*;
 import com.reservas.pago.*;
 import com.reservas.sistema.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,6 +31,7 @@ public class Main {
         // En lugar de hacer: new Cliente(...)
         // Esto nos da más control sobre la creación
         Cliente cliente = Usuario.crearCliente("Juan Pérez", "juan@email.com", "pass123");
+        sistema.agregarCliente(cliente); // Con diario activo, aquí recuperaría sus reservas
         System.out.println("Cliente creado: " + cliente.getNombre());
         
         // ========================================
@@ -39,8 +41,8 @@ public class Main {
         Pelicula pelicula = new Pelicula("Inception", "Sci-Fi", 148);
         sistema.agregarPelicula(pelicula);
         
-        // Creamos una sala con 50 asientos
-        Sala sala = new Sala(50);
+        // Creamos una sala con 50 asientos (5 filas de 10)
+        Sala sala = new Sala(5, 10);
         
         // Creamos una función (película en un horario y sala específicos)
         Funcion funcion = new Funcion(pelicula, LocalDateTime.now().plusDays(1), sala);
@@ -52,12 +54,15 @@ public class Main {
         // ========================================
         // 4. SELECCIÓN DE ASIENTOS
         // ========================================
-        // El cliente selecciona los asientos que desea reservar
-        List<Asiento> asientosSeleccionados = new ArrayList<>();
-        asientosSeleccionados.add(sala.getAsientos().get(0)); // Asiento A1
-        asientosSeleccionados.add(sala.getAsientos().get(1)); // Asiento A2
+        // El cliente pide los 2 mejores asientos juntos
+        // (también podría elegirlos a mano: sala.getAsientos().get(0), ...)
+        List<Asiento> asientosSeleccionados = new ArrayList<>(funcion.buscarMejoresAsientos(2));
         
-        System.out.println("\nAsientos seleccionados: A1, A2");
+        System.out.print("\nAsientos seleccionados:");
+        for (Asiento asiento : asientosSeleccionados) {
+            System.out.print(" " + asiento.getNumero());
+        }
+        System.out.println();
         
         // ========================================
         // 5. PATRÓN STRATEGY
@@ -77,17 +82,20 @@ public class Main {
             // ========================================
             // 7. PATRÓN OBSERVER
             // ========================================
-            // La reserva ya tiene un NotificadorEmail por defecto
+            // El sistema ya tiene un NotificadorEmail suscrito a todos los eventos
             // Pero podríamos agregar más observadores:
-            // reserva.agregarObservador(new NotificadorSMS());
-            
-            System.out.println("\n=== Confirmando reserva ===");
+            // sistema.getBusEventos().suscribirATodos(new NotificadorSMS());
+            // o uno solo para esta reserva: reserva.agregarObservador(...)
             
-            // Al confirmar, se notifica automáticamente a todos los observadores
-            reserva.confirmar();
+            // El pago aprobado ya confirmó la reserva: al confirmarse se
+            // notificó automáticamente a todos los observadores
             
             System.out.println("\nReserva completada exitosamente!");
             System.out.println("ID de reserva: " + reserva.getId());
         }
+        
+        // Las notificaciones se entregan en segundo plano:
+        // antes de terminar esperamos a que salgan todas
+        sistema.cerrar(Duration.ofSeconds(5));
     }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.reservas.distribuido;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Anillo de hashing consistente: decide qué nodo es dueño de cada función
+ *
+ * Cada nodo ocupa muchos puntos (nodos virtuales) en un anillo de 64 bits;
+ * una función pertenece al primer punto que encuentra yendo "hacia
+ * adelante" desde el hash de su id
+ *
+ * Ventaja sobre "id % cantidadDeNodos": cuando un nodo entra o sale, solo
+ * cambian de dueño las funciones de los tramos que ganó o perdió (~1/N del
+ * total), no casi todas
+ *
+ * Es INMUTABLE: agregar o quitar un nodo devuelve un anillo nuevo, así los
+ * lectores nunca ven un anillo a medio cambiar
+ */
+public final class AnilloConsistente {
+    public static final int NODOS_VIRTUALES = 128; // Puntos por nodo: reparten la carga de forma pareja
+
+    private final TreeMap<Long, String> puntos = new TreeMap<>();
+    private final SortedSet<String> nodos;
+    private final int virtuales;
+
+    /**
+     * @param nodos Nombres de los nodos
+     * @param virtuales Puntos de cada nodo en el anillo
+     */
+    public AnilloConsistente(Collection<String> nodos, int virtuales) {
+        if (virtuales <= 0) {
+            throw new IllegalArgumentException("Cada nodo necesita al menos un punto en el anillo");
+        }
+        this.nodos = Collections.unmodifiableSortedSet(new TreeSet<>(nodos));
+        this.virtuales = virtuales;
+        for (String nodo : this.nodos) {
+            for (int i = 0; i < virtuales; i++) {
+                puntos.put(hash(nodo + "#" + i), nodo);
+            }
+        }
+    }
+
+    /**
+     * @return Anillo vacío (sin nodos)
+     */
+    public static AnilloConsistente vacio() {
+        return new AnilloConsistente(List.of(), NODOS_VIRTUALES);
+    }
+
+    /**
+     * @param clave Valor del id de la función
+     * @return Nombre del nodo dueño
+     * @throws IllegalStateException si el anillo no tiene nodos
+     */
+    public String duenoDe(long clave) {
+        if (puntos.isEmpty()) {
+            throw new IllegalStateException("No hay nodos de inventario");
+        }
+        Map.Entry<Long, String> punto = puntos.ceilingEntry(mezclar(clave));
+        return (punto != null ? punto : puntos.firstEntry()).getValue(); // Después del último, vuelve al primero
+    }
+
+    /**
+     * @param nodo Nodo que entra
+     * @return Anillo nuevo con el nodo
+     */
+    public AnilloConsistente con(String nodo) {
+        List<String> nuevos = new ArrayList<>(nodos);
+        nuevos.add(nodo);
+        return new AnilloConsistente(nuevos, virtuales);
+    }
+
+    /**
+     * @param nodo Nodo que sale
+     * @return Anillo nuevo sin el nodo
+     */
+    public AnilloConsistente sin(String nodo) {
+        List<String> nuevos = new ArrayList<>(nodos);
+        nuevos.remove(nodo);
+        return new AnilloConsistente(nuevos, virtuales);
+    }
+
+    public SortedSet<String> getNodos() { return nodos; }
+
+    // ============================================
+    // HASH
+    // ============================================
+
+    /**
+     * Hash de un nombre: FNV-1a de 64 bits, mezclado al final
+     */
+    private static long hash(String texto) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : texto.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return mezclar(h);
+    }
+
+    /**
+     * Mezcla los bits (finalizador de MurmurHash3)
+     * Los ids de función son casi consecutivos (tienen el tiempo en los
+     * bits altos): sin mezclar caerían todos en el mismo tramo del anillo
+     */
+    static long mezclar(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+}
@@ -0,0 +1,181 @@
+package com.reservas.distribuido;
+
+import com.reservas.metricas.RegistroMetricas;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Id;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Inventario de asientos repartido entre varios nodos
+ *
+ * Un solo SistemaReservas por JVM usa como mucho los núcleos de una
+ * máquina. Aquí cada función vive en UN nodo (su dueño según el
+ * AnilloConsistente) y todos los pedidos de esa función van a ese nodo:
+ * funciones distintas se atienden en paralelo en nodos distintos
+ *
+ * Que esto escale NO está demostrado: el benchmark inventario_distribuido
+ * solo se corrió en una máquina de 1 núcleo, donde más nodos no dan más
+ * operaciones por segundo (entre ~45 y ~108 mil, sin tendencia)
+ *
+ * Cambios de nodos (agregarNodo / quitarNodo):
+ * 1. Se publica el anillo nuevo
+ * 2. Cada función que cambia de dueño se EXPORTA del dueño anterior (que
+ *    deja de atenderla en ese instante) y se IMPORTA en el nuevo
+ * 3. Mientras tanto, los pedidos de esa función reciben NO_ES_DUENO y se
+ *   reintentan solos hasta que la función llega a su nuevo dueño
+ * Solo se mueven las funciones de los tramos del anillo que cambiaron (~1/N)
+ *
+ * Esta clase es el único coordinador: guarda el directorio de funciones
+ * (id y capacidad) para saber qué mover. No hay réplicas: si un nodo se
+ * cae sin salir con quitarNodo(), sus funciones se pierden
+ */
+public class InventarioDistribuido {
+    private static final int MAXIMO_REINTENTOS = 200;
+    private static final Executor ESPERA_REINTENTO = CompletableFuture.delayedExecutor(1, TimeUnit.MILLISECONDS);
+
+    private final Transporte transporte;
+    private final Map<Long, Integer> funciones = new ConcurrentHashMap<>(); // Id de función -> capacidad
+    private volatile AnilloConsistente anillo = AnilloConsistente.vacio();
+
+    // Métricas
+    private final LongAdder reintentos;
+    private final LongAdder movidas;
+
+    /**
+     * @param transporte Cómo llegar a los nodos
+     */
+    public InventarioDistribuido(Transporte transporte) {
+        this.transporte = transporte;
+        this.reintentos = RegistroMetricas.global().contador("distribuido.reintentos");
+        this.movidas = RegistroMetricas.global().contador("distribuido.particiones_movidas");
+    }
+
+    // ============================================
+    // OPERACIONES DE ASIENTOS
+    // ============================================
+
+    /**
+     * Crea la partición de la función en el nodo dueño y recién entonces la
+     * registra en el directorio: si no se pudo crear (ej: no hay nodos), el
+     * directorio no queda con una función sin partición
+     * @param funcion Id de la función
+     * @param capacidad Asientos de la sala
+     * @throws IllegalStateException si no hay nodos de inventario
+     */
+    public synchronized void crearFuncion(Id<Funcion> funcion, int capacidad) {
+        pedir(MensajeInventario.crear(funcion.getValor(), capacidad), 0).join();
+        funciones.put(funcion.getValor(), capacidad); // Con el lock: ningún cambio de anillo en el medio
+    }
+
+    /**
+     * Ocupa TODOS los asientos de forma atómica (todo o nada) en el nodo dueño
+     * @return Futuro con true si se ocuparon todos
+     */
+    public CompletableFuture<Boolean> reclamar(Id<Funcion> funcion, int[] indices) {
+        return pedir(MensajeInventario.asientos(MensajeInventario.Tipo.RECLAMAR, funcion.getValor(), indices), 0)
+            .thenApply(respuesta -> respuesta.getEstado() == RespuestaInventario.Estado.SI);
+    }
+
+    /**
+     * Devuelve asientos previamente reclamados
+     * @return Futuro que se completa cuando el nodo los liberó
+     */
+    public CompletableFuture<Void> liberar(Id<Funcion> funcion, int[] indices) {
+        return pedir(MensajeInventario.asientos(MensajeInventario.Tipo.LIBERAR, funcion.getValor(), indices), 0)
+            .thenApply(respuesta -> null);
+    }
+
+    /**
+     * Consulta (una "foto" del momento, como InventarioAsientos.estanLibres)
+     * @return Futuro con true si todos están libres
+     */
+    public CompletableFuture<Boolean> estanLibres(Id<Funcion> funcion, int[] indices) {
+        return pedir(MensajeInventario.asientos(MensajeInventario.Tipo.CONSULTAR, funcion.getValor(), indices), 0)
+            .thenApply(respuesta -> respuesta.getEstado() == RespuestaInventario.Estado.SI);
+    }
+
+    /**
+     * Envía el pedido al dueño actual; si ya no lo es (rebalanceo en
+     * curso), espera un poco y vuelve a consultar el anillo
+     */
+    private CompletableFuture<RespuestaInventario> pedir(MensajeInventario mensaje, int intento) {
+        String nodo = anillo.duenoDe(mensaje.getFuncion());
+        return transporte.enviar(nodo, mensaje).thenCompose(respuesta -> {
+            if (respuesta.getEstado() != RespuestaInventario.Estado.NO_ES_DUENO) {
+                return CompletableFuture.completedFuture(respuesta);
+            }
+            if (intento >= MAXIMO_REINTENTOS) {
+                return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Ningún nodo atiende la función " + Id.de(mensaje.getFuncion())));
+            }
+            reintentos.increment();
+            return CompletableFuture.runAsync(() -> {}, ESPERA_REINTENTO)
+                .thenCompose(espera -> pedir(mensaje, intento + 1));
+        });
+    }
+
+    // ============================================
+    // NODOS
+    // ============================================
+
+    /**
+     * Suma un nodo (ya alcanzable por el transporte) y le mueve sus funciones
+     * @param nombre Nombre del nodo
+     */
+    public synchronized void agregarNodo(String nombre) {
+        cambiarAnillo(anillo.con(nombre));
+    }
+
+    /**
+     * Saca un nodo de forma ordenada: sus funciones pasan a los demás
+     * Después de esto se lo puede desconectar del transporte
+     * @param nombre Nombre del nodo
+     * @throws IllegalStateException si es el último nodo y hay funciones
+     */
+    public synchronized void quitarNodo(String nombre) {
+        AnilloConsistente nuevo = anillo.sin(nombre);
+        if (nuevo.getNodos().isEmpty() && !funciones.isEmpty()) {
+            throw new IllegalStateException("No se puede quitar el último nodo: sus funciones no tendrían dueño");
+        }
+        cambiarAnillo(nuevo);
+    }
+
+    private void cambiarAnillo(AnilloConsistente nuevo) {
+        AnilloConsistente anterior = anillo;
+        List<Long> aMover = new ArrayList<>();
+        if (!anterior.getNodos().isEmpty()) {
+            for (Long funcion : funciones.keySet()) {
+                if (!anterior.duenoDe(funcion).equals(nuevo.duenoDe(funcion))) {
+                    aMover.add(funcion);
+                }
+            }
+        }
+        anillo = nuevo; // Desde ahora los pedidos van al dueño nuevo (y reintentan hasta que llegue la función)
+        for (Long funcion : aMover) {
+            RespuestaInventario exportada = transporte.enviar(anterior.duenoDe(funcion),
+                MensajeInventario.exportar(funcion)).join();
+            if (exportada.getEstado() == RespuestaInventario.Estado.SI) {
+                transporte.enviar(nuevo.duenoDe(funcion), MensajeInventario.importar(funcion,
+                    exportada.getCapacidad(), exportada.getPalabras())).join();
+                movidas.increment();
+            }
+        }
+    }
+
+    /**
+     * @return Nombre del nodo que atiende la función
+     */
+    public String duenoDe(Id<Funcion> funcion) {
+        return anillo.duenoDe(funcion.getValor());
+    }
+
+    public AnilloConsistente getAnillo() { return anillo; }
+    public int getCantidadFunciones() { return funciones.size(); }
+}
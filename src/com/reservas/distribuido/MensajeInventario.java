@@ -0,0 +1,56 @@
+package com.reservas.distribuido;
+
+/**
+ * Pedido que viaja por el Transporte hacia el nodo dueño de una función
+ * Es inmutable (los arreglos se copian): un transporte local lo puede
+ * entregar tal cual y uno remoto lo puede serializar
+ */
+public final class MensajeInventario {
+    public enum Tipo {
+        CREAR,      // Crear la partición de una función (capacidad)
+        RECLAMAR,   // Ocupar asientos, todo o nada (indices)
+        LIBERAR,    // Devolver asientos (indices)
+        CONSULTAR,  // ¿Están libres? (indices)
+        EXPORTAR,   // Entregar la partición y dejar de atenderla (rebalanceo)
+        IMPORTAR    // Recibir una partición exportada (capacidad y palabras)
+    }
+
+    private final Tipo tipo;
+    private final long funcion;   // Valor del Id<Funcion>
+    private final int[] indices;
+    private final int capacidad;
+    private final long[] palabras;
+
+    private MensajeInventario(Tipo tipo, long funcion, int[] indices, int capacidad, long[] palabras) {
+        this.tipo = tipo;
+        this.funcion = funcion;
+        this.indices = indices;
+        this.capacidad = capacidad;
+        this.palabras = palabras;
+    }
+
+    public static MensajeInventario crear(long funcion, int capacidad) {
+        return new MensajeInventario(Tipo.CREAR, funcion, null, capacidad, null);
+    }
+
+    /**
+     * @param tipo RECLAMAR, LIBERAR o CONSULTAR
+     */
+    public static MensajeInventario asientos(Tipo tipo, long funcion, int[] indices) {
+        return new MensajeInventario(tipo, funcion, indices.clone(), 0, null);
+    }
+
+    public static MensajeInventario exportar(long funcion) {
+        return new MensajeInventario(Tipo.EXPORTAR, funcion, null, 0, null);
+    }
+
+    public static MensajeInventario importar(long funcion, int capacidad, long[] palabras) {
+        return new MensajeInventario(Tipo.IMPORTAR, funcion, null, capacidad, palabras.clone());
+    }
+
+    public Tipo getTipo() { return tipo; }
+    public long getFuncion() { return funcion; }
+    public int[] getIndices() { return indices.clone(); }
+    public int getCapacidad() { return capacidad; }
+    public long[] getPalabras() { return palabras.clone(); }
+}
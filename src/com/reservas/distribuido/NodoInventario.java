@@ -0,0 +1,114 @@
+package com.reservas.distribuido;
+
+import com.reservas.modelo.InventarioAsientos;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Un nodo del inventario distribuido: es dueño de las particiones (una
+ * por función) que el anillo le asigna
+ *
+ * Cada partición es un InventarioAsientos común (bitmap con CAS): varios
+ * hilos del nodo pueden operar sobre la misma función sin locks
+ *
+ * Rebalanceo: al EXPORTAR una partición, el nodo deja de atenderla en el
+ * mismo momento en que copia su ocupación; desde entonces responde
+ * NO_ES_DUENO y el cliente reintenta con el dueño nuevo. Así nunca hay dos
+ * nodos aceptando cambios de la misma función
+ */
+public class NodoInventario {
+    private final String nombre;
+    private final Map<Long, Particion> particiones = new ConcurrentHashMap<>();
+
+    /**
+     * @param nombre Nombre del nodo en el anillo
+     */
+    public NodoInventario(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Partición de una función
+     * Las operaciones toman el lock de lectura (no se bloquean entre sí);
+     * exportar toma el de escritura para copiar una ocupación estable
+     */
+    private static final class Particion {
+        final InventarioAsientos inventario;
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        boolean exportada; // Solo cambia con el lock de escritura
+
+        Particion(InventarioAsientos inventario) {
+            this.inventario = inventario;
+        }
+    }
+
+    /**
+     * Atiende un pedido (lo llama el transporte, desde cualquier hilo)
+     * @param mensaje Pedido recibido
+     * @return Respuesta para el cliente
+     */
+    public RespuestaInventario atender(MensajeInventario mensaje) {
+        long funcion = mensaje.getFuncion();
+        switch (mensaje.getTipo()) {
+            case CREAR:
+                particiones.putIfAbsent(funcion, new Particion(new InventarioAsientos(mensaje.getCapacidad())));
+                return RespuestaInventario.SI;
+            case IMPORTAR:
+                InventarioAsientos importado = new InventarioAsientos(mensaje.getCapacidad());
+                importado.restaurar(mensaje.getPalabras());
+                particiones.put(funcion, new Particion(importado));
+                return RespuestaInventario.SI;
+            case EXPORTAR:
+                return exportar(funcion);
+            default:
+                return operar(mensaje);
+        }
+    }
+
+    private RespuestaInventario operar(MensajeInventario mensaje) {
+        Particion particion = particiones.get(mensaje.getFuncion());
+        if (particion == null) {
+            return RespuestaInventario.NO_ES_DUENO;
+        }
+        particion.lock.readLock().lock();
+        try {
+            if (particion.exportada) {
+                return RespuestaInventario.NO_ES_DUENO; // Se movió mientras esperábamos el lock
+            }
+            InventarioAsientos inventario = particion.inventario;
+            switch (mensaje.getTipo()) {
+                case RECLAMAR:
+                    return RespuestaInventario.de(inventario.reclamar(mensaje.getIndices()));
+                case LIBERAR:
+                    inventario.liberar(mensaje.getIndices());
+                    return RespuestaInventario.SI;
+                case CONSULTAR:
+                    return RespuestaInventario.de(inventario.estanLibres(mensaje.getIndices()));
+                default:
+                    throw new IllegalArgumentException("Pedido desconocido: " + mensaje.getTipo());
+            }
+        } finally {
+            particion.lock.readLock().unlock();
+        }
+    }
+
+    private RespuestaInventario exportar(long funcion) {
+        Particion particion = particiones.get(funcion);
+        if (particion == null) {
+            return RespuestaInventario.NO_ES_DUENO;
+        }
+        particion.lock.writeLock().lock();
+        try {
+            particion.exportada = true;
+            particiones.remove(funcion, particion);
+            return RespuestaInventario.particion(particion.inventario.getCapacidad(),
+                particion.inventario.copiarPalabras());
+        } finally {
+            particion.lock.writeLock().unlock();
+        }
+    }
+
+    public String getNombre() { return nombre; }
+    public int getCantidadParticiones() { return particiones.size(); }
+}
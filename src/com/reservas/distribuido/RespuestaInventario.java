@@ -0,0 +1,44 @@
+package com.reservas.distribuido;
+
+/**
+ * Respuesta de un nodo de inventario
+ */
+public final class RespuestaInventario {
+    public enum Estado {
+        SI,           // La operación se hizo (o la consulta dio "libres")
+        NO,           // Algún asiento ya estaba ocupado (o la consulta dio "ocupados")
+        NO_ES_DUENO   // El nodo no atiende esa función (se está moviendo o el anillo cambió)
+    }
+
+    public static final RespuestaInventario SI = new RespuestaInventario(Estado.SI, 0, null);
+    public static final RespuestaInventario NO = new RespuestaInventario(Estado.NO, 0, null);
+    public static final RespuestaInventario NO_ES_DUENO = new RespuestaInventario(Estado.NO_ES_DUENO, 0, null);
+
+    private final Estado estado;
+    private final int capacidad;   // Solo en la respuesta de EXPORTAR
+    private final long[] palabras; // Solo en la respuesta de EXPORTAR
+
+    private RespuestaInventario(Estado estado, int capacidad, long[] palabras) {
+        this.estado = estado;
+        this.capacidad = capacidad;
+        this.palabras = palabras;
+    }
+
+    /**
+     * @return true si la operación se hizo
+     */
+    static RespuestaInventario de(boolean resultado) {
+        return resultado ? SI : NO;
+    }
+
+    /**
+     * @return Partición exportada (ocupación completa de la función)
+     */
+    static RespuestaInventario particion(int capacidad, long[] palabras) {
+        return new RespuestaInventario(Estado.SI, capacidad, palabras.clone());
+    }
+
+    public Estado getEstado() { return estado; }
+    public int getCapacidad() { return capacidad; }
+    public long[] getPalabras() { return palabras.clone(); }
+}
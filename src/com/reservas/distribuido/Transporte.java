@@ -0,0 +1,21 @@
+package com.reservas.distribuido;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cómo llega un pedido al nodo dueño de una función
+ *
+ * Implementaciones:
+ * - TransporteLocal: todos los nodos en la misma JVM (pruebas y benchmarks)
+ * - Una red real (HTTP, gRPC, ...) implementaría lo mismo serializando el
+ *   MensajeInventario; InventarioDistribuido no cambia
+ */
+public interface Transporte {
+    /**
+     * Envía un pedido a un nodo
+     * @param nodo Nombre del nodo destino
+     * @param mensaje Pedido
+     * @return Futuro con la respuesta; falla si el nodo no es alcanzable
+     */
+    CompletableFuture<RespuestaInventario> enviar(String nodo, MensajeInventario mensaje);
+}
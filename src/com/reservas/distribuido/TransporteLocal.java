@@ -0,0 +1,70 @@
+package com.reservas.distribuido;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Transporte dentro de la misma JVM (loopback), para pruebas y benchmarks
+ *
+ * Cada nodo conectado tiene sus propios hilos, como si fuera otra máquina
+ * con esa cantidad de núcleos: un pedido se entrega pasando de hilo, igual
+ * que llegaría por la red (pero sin serializar)
+ */
+public class TransporteLocal implements Transporte {
+    private final Map<String, Destino> nodos = new ConcurrentHashMap<>();
+
+    private static final class Destino {
+        final NodoInventario nodo;
+        final ExecutorService hilos;
+
+        Destino(NodoInventario nodo, ExecutorService hilos) {
+            this.nodo = nodo;
+            this.hilos = hilos;
+        }
+    }
+
+    /**
+     * Hace alcanzable un nodo
+     * @param nodo Nodo a conectar
+     * @param hilos Hilos que atienden sus pedidos ("núcleos" del nodo)
+     */
+    public void conectar(NodoInventario nodo, int hilos) {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "nodo-" + nodo.getNombre());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        Destino anterior = nodos.put(nodo.getNombre(), new Destino(nodo, ejecutor));
+        if (anterior != null) {
+            anterior.hilos.shutdown();
+        }
+    }
+
+    /**
+     * Deja de entregar pedidos a un nodo (como si se apagara)
+     * @param nombre Nombre del nodo
+     */
+    public void desconectar(String nombre) {
+        Destino destino = nodos.remove(nombre);
+        if (destino != null) {
+            destino.hilos.shutdown();
+        }
+    }
+
+    @Override
+    public CompletableFuture<RespuestaInventario> enviar(String nodo, MensajeInventario mensaje) {
+        Destino destino = nodos.get(nodo);
+        if (destino == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Nodo no alcanzable: " + nodo));
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> destino.nodo.atender(mensaje), destino.hilos);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Nodo no alcanzable: " + nodo, e));
+        }
+    }
+}
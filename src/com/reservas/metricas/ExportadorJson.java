@@ -0,0 +1,78 @@
+package com.reservas.metricas;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Exporta las métricas como un objeto JSON (tiempos en nanosegundos):
+ *
+ *   {"temporizadores":{"reserva.confirmar":{"n":1200,"en_curso":0,"media":12400,
+ *     "p50":9215,"p90":30207,"p99":61439,"p999":130047,"max":212000}},
+ *    "contadores":{"asientos.conflictos":37},
+ *    "indicadores":{"notificaciones.pendientes":0}}
+ *
+ * Los nombres de métrica son internos (letras, puntos y guiones bajos),
+ * así que no hace falta escapar caracteres
+ */
+public class ExportadorJson implements ExportadorMetricas {
+    private final Writer destino;
+    private String seccion;    // Sección abierta ("temporizadores", ...)
+    private boolean primero;   // Primer elemento de la sección actual
+
+    /**
+     * @param destino Donde escribir (no se cierra al terminar)
+     */
+    public ExportadorJson(Writer destino) {
+        this.destino = destino;
+    }
+
+    @Override
+    public void inicio() throws IOException {
+        destino.write('{');
+        seccion = null;
+    }
+
+    @Override
+    public void temporizador(String nombre, Histograma.Instantanea tiempos, long enCurso) throws IOException {
+        abrir("temporizadores", nombre);
+        destino.write("{\"n\":" + tiempos.getTotal()
+            + ",\"en_curso\":" + enCurso
+            + ",\"media\":" + Math.round(tiempos.getMedia())
+            + ",\"p50\":" + tiempos.percentil(50)
+            + ",\"p90\":" + tiempos.percentil(90)
+            + ",\"p99\":" + tiempos.percentil(99)
+            + ",\"p999\":" + tiempos.percentil(99.9)
+            + ",\"max\":" + tiempos.getMaximo() + "}");
+    }
+
+    @Override
+    public void contador(String nombre, long valor) throws IOException {
+        abrir("contadores", nombre);
+        destino.write(Long.toString(valor));
+    }
+
+    @Override
+    public void indicador(String nombre, long valor) throws IOException {
+        abrir("indicadores", nombre);
+        destino.write(Long.toString(valor));
+    }
+
+    @Override
+    public void fin() throws IOException {
+        destino.write(seccion == null ? "}\n" : "}}\n");
+        destino.flush();
+    }
+
+    /**
+     * Escribe la clave de un elemento, abriendo su sección si es nueva
+     */
+    private void abrir(String nueva, String nombre) throws IOException {
+        if (!nueva.equals(seccion)) {
+            destino.write((seccion == null ? "\"" : "},\"") + nueva + "\":{");
+            seccion = nueva;
+            primero = true;
+        }
+        destino.write((primero ? "\"" : ",\"") + nombre + "\":");
+        primero = false;
+    }
+}
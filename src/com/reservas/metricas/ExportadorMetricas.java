@@ -0,0 +1,29 @@
+package com.reservas.metricas;
+
+import java.io.IOException;
+
+/**
+ * Destino de las métricas (PATRÓN STRATEGY, como EstrategiaPago)
+ *
+ * RegistroMetricas.exportar() llama a inicio(), después a un método por
+ * cada métrica (ordenadas por nombre) y al final a fin(). Implementaciones:
+ * - ExportadorTexto: tabla legible, para la consola o un log
+ * - ExportadorJson: un objeto JSON, para otras herramientas
+ */
+public interface ExportadorMetricas {
+
+    default void inicio() throws IOException {}
+
+    /**
+     * @param nombre Nombre de la operación
+     * @param tiempos Latencias en nanosegundos
+     * @param enCurso Operaciones que empezaron y aún no terminaron
+     */
+    void temporizador(String nombre, Histograma.Instantanea tiempos, long enCurso) throws IOException;
+
+    void contador(String nombre, long valor) throws IOException;
+
+    void indicador(String nombre, long valor) throws IOException;
+
+    default void fin() throws IOException {}
+}
@@ -0,0 +1,51 @@
+package com.reservas.metricas;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Exporta las métricas como texto legible (tiempos en microsegundos)
+ *
+ * Ejemplo:
+ *   reserva.confirmar          n=1200  en_curso=0  media=12.4  p50=9.2  p99=61.4  p99.9=130.1  max=212.0
+ *   asientos.conflictos        37
+ */
+public class ExportadorTexto implements ExportadorMetricas {
+    private final Writer destino;
+
+    /**
+     * @param destino Donde escribir (no se cierra al terminar)
+     */
+    public ExportadorTexto(Writer destino) {
+        this.destino = destino;
+    }
+
+    @Override
+    public void temporizador(String nombre, Histograma.Instantanea tiempos, long enCurso) throws IOException {
+        destino.write(String.format(Locale.ROOT,
+            "%-28s n=%-8d en_curso=%-4d media=%.1f  p50=%.1f  p90=%.1f  p99=%.1f  p99.9=%.1f  max=%.1f%n",
+            nombre, tiempos.getTotal(), enCurso, tiempos.getMedia() / 1000.0,
+            micros(tiempos.percentil(50)), micros(tiempos.percentil(90)), micros(tiempos.percentil(99)),
+            micros(tiempos.percentil(99.9)), micros(tiempos.getMaximo())));
+    }
+
+    @Override
+    public void contador(String nombre, long valor) throws IOException {
+        destino.write(String.format(Locale.ROOT, "%-28s %d%n", nombre, valor));
+    }
+
+    @Override
+    public void indicador(String nombre, long valor) throws IOException {
+        destino.write(String.format(Locale.ROOT, "%-28s %d (actual)%n", nombre, valor));
+    }
+
+    @Override
+    public void fin() throws IOException {
+        destino.flush();
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+}
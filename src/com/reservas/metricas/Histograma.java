@@ -0,0 +1,132 @@
+package com.reservas.metricas;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias (en nanosegundos) al estilo HDR
+ *
+ * Los valores se cuentan en casilleros "log-lineales": cada potencia de 2
+ * se divide en 32 casilleros iguales. Así el error relativo es siempre
+ * menor al 3%, tanto para 200 ns como para 2 segundos, con solo ~1000
+ * casilleros (un arreglo fijo: registrar un valor no reserva memoria)
+ *
+ * Para que muchos hilos registren a la vez sin pelear por los mismos
+ * casilleros, hay varias FRANJAS (copias del arreglo); cada hilo usa la
+ * suya y al leer se suman todas
+ */
+public class Histograma {
+    private static final int BITS_SUBCASILLERO = 5;                 // 32 casilleros por potencia de 2
+    private static final int SUBCASILLEROS = 1 << BITS_SUBCASILLERO;
+    private static final int BITS_MAXIMO = 36;                      // Hasta ~68 segundos
+    static final long VALOR_MAXIMO = (1L << (BITS_MAXIMO + 1)) - 1;
+    private static final int CASILLEROS = (BITS_MAXIMO - BITS_SUBCASILLERO + 2) * SUBCASILLEROS;
+    private static final int FRANJAS = Math.min(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    private final AtomicLongArray[] franjas = new AtomicLongArray[FRANJAS];
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    public Histograma() {
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new AtomicLongArray(CASILLEROS);
+        }
+    }
+
+    /**
+     * Registra un valor (los negativos cuentan como 0 y los enormes como el máximo)
+     * @param nanos Duración medida
+     */
+    @SuppressWarnings("deprecation") // getId(): en Java 17 no hay otra forma barata de distinguir hilos
+    public void registrar(long nanos) {
+        long valor = Math.max(0, Math.min(nanos, VALOR_MAXIMO));
+        int franja = (int) Thread.currentThread().getId() & (FRANJAS - 1);
+        franjas[franja].getAndIncrement(casillero(valor));
+        suma.add(valor);
+        maximo.accumulate(valor);
+    }
+
+    /**
+     * Casillero de un valor: los menores a 32 tienen uno propio; el resto
+     * se agrupa por su bit más alto y los 5 bits siguientes
+     */
+    static int casillero(long valor) {
+        if (valor < SUBCASILLEROS) {
+            return (int) valor;
+        }
+        int desplazamiento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUBCASILLERO;
+        return ((desplazamiento + 1) << BITS_SUBCASILLERO) + (int) (valor >>> desplazamiento) - SUBCASILLEROS;
+    }
+
+    /**
+     * Mayor valor que cae en un casillero (como HDR, se informa el techo)
+     */
+    static long techo(int casillero) {
+        if (casillero < SUBCASILLEROS) {
+            return casillero;
+        }
+        int desplazamiento = (casillero >> BITS_SUBCASILLERO) - 1;
+        long base = (casillero & (SUBCASILLEROS - 1)) + SUBCASILLEROS;
+        return ((base + 1) << desplazamiento) - 1;
+    }
+
+    /**
+     * Foto del histograma (suma las franjas)
+     * Con registros en curso puede quedar algún valor a medio contar:
+     * para métricas es suficiente
+     * @return Copia independiente
+     */
+    public Instantanea instantanea() {
+        long[] cuentas = new long[CASILLEROS];
+        long total = 0;
+        for (AtomicLongArray franja : franjas) {
+            for (int i = 0; i < CASILLEROS; i++) {
+                long cuenta = franja.get(i);
+                cuentas[i] += cuenta;
+                total += cuenta;
+            }
+        }
+        return new Instantanea(cuentas, total, suma.sum(), maximo.get());
+    }
+
+    /**
+     * Foto inmutable de un histograma, con percentiles
+     */
+    public static final class Instantanea {
+        private final long[] cuentas;
+        private final long total;
+        private final long suma;
+        private final long maximo;
+
+        private Instantanea(long[] cuentas, long total, long suma, long maximo) {
+            this.cuentas = cuentas;
+            this.total = total;
+            this.suma = suma;
+            this.maximo = maximo;
+        }
+
+        /**
+         * @param percentil Entre 0 y 100 (ej: 99.9)
+         * @return Valor tal que ese porcentaje de los registros es menor o igual (con error < 3%)
+         */
+        public long percentil(double percentil) {
+            if (total == 0) {
+                return 0;
+            }
+            long objetivo = Math.max(1, (long) Math.ceil(total * percentil / 100.0));
+            long acumulado = 0;
+            for (int i = 0; i < cuentas.length; i++) {
+                acumulado += cuentas[i];
+                if (acumulado >= objetivo) {
+                    return Math.min(techo(i), maximo);
+                }
+            }
+            return maximo;
+        }
+
+        public long getTotal() { return total; }
+        public long getMaximo() { return maximo; }
+        public double getMedia() { return total == 0 ? 0 : (double) suma / total; }
+    }
+}
@@ -0,0 +1,98 @@
+package com.reservas.metricas;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Registro de métricas del sistema (latencias, contadores e indicadores)
+ *
+ * Tres tipos de métrica, cada una identificada por un nombre ("reserva.confirmar"):
+ * - Temporizador: histograma de latencias y operaciones en curso
+ * - Contador: un LongAdder que solo suma (ej: asientos que otro cliente ganó)
+ * - Indicador: un valor que se lee al exportar (ej: tamaño de una cola)
+ *
+ * Buscar una métrica por nombre es lento para el camino caliente: el
+ * código instrumentado la pide UNA vez y la guarda en un campo
+ *
+ * Las métricas se publican con un ExportadorMetricas (texto, JSON, o el
+ * que se implemente para otro sistema de monitoreo)
+ */
+public class RegistroMetricas {
+    private final Map<String, Temporizador> temporizadores = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> contadores = new ConcurrentSkipListMap<>();
+    private final Map<String, LongSupplier> indicadores = new ConcurrentSkipListMap<>();
+    private volatile boolean activo = true;
+
+    /**
+     * Registro del proceso (no depende de ningún otro componente, así que
+     * se puede usar desde cualquier clase, incluso durante el arranque)
+     */
+    private static class Contenedor {
+        private static final RegistroMetricas GLOBAL = new RegistroMetricas();
+    }
+
+    /**
+     * @return El registro compartido del proceso
+     */
+    public static RegistroMetricas global() {
+        return Contenedor.GLOBAL;
+    }
+
+    /**
+     * @param nombre Nombre de la operación
+     * @return Su temporizador (el mismo cada vez que se pide)
+     */
+    public Temporizador temporizador(String nombre) {
+        return temporizadores.computeIfAbsent(nombre, n -> new Temporizador(this));
+    }
+
+    /**
+     * @param nombre Nombre del contador
+     * @return El contador (el mismo cada vez que se pide)
+     */
+    public LongAdder contador(String nombre) {
+        return contadores.computeIfAbsent(nombre, n -> new LongAdder());
+    }
+
+    /**
+     * Registra (o reemplaza) un indicador
+     * @param nombre Nombre del indicador
+     * @param valor Cómo leer el valor actual (debe ser rápido y no bloquear)
+     */
+    public void indicador(String nombre, LongSupplier valor) {
+        indicadores.put(nombre, valor);
+    }
+
+    /**
+     * Activa o desactiva las mediciones (los contadores siguen sumando)
+     * @param activo false para no medir tiempos
+     */
+    public void setActivo(boolean activo) {
+        this.activo = activo;
+    }
+
+    public boolean estaActivo() { return activo; }
+
+    /**
+     * Publica todas las métricas, ordenadas por nombre
+     * @param exportador Formato y destino
+     * @throws IOException si el exportador no puede escribir
+     */
+    public void exportar(ExportadorMetricas exportador) throws IOException {
+        exportador.inicio();
+        for (Map.Entry<String, Temporizador> entrada : temporizadores.entrySet()) {
+            Temporizador temporizador = entrada.getValue();
+            exportador.temporizador(entrada.getKey(), temporizador.getTiempos(), temporizador.getEnCurso());
+        }
+        for (Map.Entry<String, LongAdder> entrada : contadores.entrySet()) {
+            exportador.contador(entrada.getKey(), entrada.getValue().sum());
+        }
+        for (Map.Entry<String, LongSupplier> entrada : indicadores.entrySet()) {
+            exportador.indicador(entrada.getKey(), entrada.getValue().getAsLong());
+        }
+        exportador.fin();
+    }
+}
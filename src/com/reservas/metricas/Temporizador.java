@@ -0,0 +1,75 @@
+package com.reservas.metricas;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mide cuánto tarda una operación y cuántas hay en curso
+ *
+ * Uso:
+ *   long inicio = temporizador.iniciar();
+ *   try {
+ *       ... operación ...
+ *   } finally {
+ *       temporizador.detener(inicio);
+ *   }
+ *
+ * Para operaciones asíncronas, detener() se llama cuando el futuro se completa
+ *
+ * Si las métricas están desactivadas (RegistroMetricas.setActivo(false)),
+ * iniciar() ni siquiera lee el reloj y detener() no hace nada
+ */
+public class Temporizador {
+    static final long SIN_MEDIR = Long.MIN_VALUE;
+
+    private final RegistroMetricas registro;
+    private final Histograma histograma = new Histograma();
+    private final LongAdder enCurso = new LongAdder(); // Indicador de concurrencia/contención
+
+    Temporizador(RegistroMetricas registro) {
+        this.registro = registro;
+    }
+
+    /**
+     * @return Marca de inicio para pasarle a detener()
+     */
+    public long iniciar() {
+        if (!registro.estaActivo()) {
+            return SIN_MEDIR;
+        }
+        enCurso.increment();
+        return System.nanoTime();
+    }
+
+    /**
+     * @param inicio Marca devuelta por iniciar()
+     */
+    public void detener(long inicio) {
+        if (inicio != SIN_MEDIR) {
+            histograma.registrar(System.nanoTime() - inicio);
+            enCurso.decrement();
+        }
+    }
+
+    /**
+     * Termina una medición sin registrarla (ej: la operación no llegó a empezar)
+     * @param inicio Marca devuelta por iniciar()
+     */
+    public void descartar(long inicio) {
+        if (inicio != SIN_MEDIR) {
+            enCurso.decrement();
+        }
+    }
+
+    /**
+     * Registra una duración medida por otro medio
+     * @param nanos Duración
+     */
+    public void registrar(long nanos) {
+        if (registro.estaActivo()) {
+            histograma.registrar(nanos);
+        }
+    }
+
+    public Histograma.Instantanea getTiempos() { return histograma.instantanea(); }
+    public long getEnCurso() { return enCurso.sum(); }
+}
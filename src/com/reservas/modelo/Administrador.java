@@ -1,5 +1,12 @@
 package com.reservas.modelo;
 
+import com.reservas.sistema.EstadisticasVentas;
+import com.reservas.sistema.SistemaReservas;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
 /**
  * Clase Administrador: usuario con privilegios especiales
  * Puede gestionar funciones y generar reportes
@@ -34,9 +41,27 @@ public class Administrador extends Usuario {
     /**
      * Funcionalidad exclusiva: generar reportes
      * (Ventas, ocupación de salas, películas más vistas, etc.)
+     * Muestra el total y el reporte completo por consola
      */
     public void generarReportes() {
         System.out.println("Generando reportes...");
-        // Aquí iría la lógica para generar reportes
+        EstadisticasVentas estadisticas = SistemaReservas.getInstance().getEstadisticas();
+        System.out.println("Total: " + estadisticas.getTotales());
+        try {
+            generarReportes(new PrintWriter(System.out));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // No pasa: PrintWriter no lanza IOException
+        }
+    }
+    
+    /**
+     * Escribe el reporte completo (CSV) en un destino, sin armarlo en memoria
+     * Los totales se mantienen al día con cada reserva (ver EstadisticasVentas):
+     * no hace falta recorrer las reservas de los clientes
+     * @param destino Archivo, respuesta HTTP, etc.
+     * @throws IOException si falla la escritura
+     */
+    public void generarReportes(Writer destino) throws IOException {
+        SistemaReservas.getInstance().getEstadisticas().exportar(destino);
     }
 }
\ No newline at end of file
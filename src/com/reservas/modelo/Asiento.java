@@ -2,38 +2,40 @@ package com.reservas.modelo;
 
 /**
  * Clase Asiento: representa un asiento individual en una sala
- * Tiene estado (ocupado/libre) y operaciones para cambiar ese estado
+ * Es inmutable: solo describe la posición física del asiento.
+ * Si está ocupado o libre depende de cada Funcion (ver InventarioAsientos),
+ * así el mismo asiento puede estar vendido a las 18:00 y libre a las 21:00
+ * 
+ * Los asientos los crea el DisenoSala una sola vez, y los comparten todas
+ * las salas con ese diseño
  */
 public class Asiento {
-    private String numero;      // Número del asiento (ej: "A1", "B5")
-    private boolean ocupado;    // Estado: true = ocupado, false = libre
+    private final DisenoSala diseno;  // Diseño al que pertenece (tiene los nombres)
+    private final int indice;         // Posición del asiento dentro de la sala (0, 1, 2...)
+    private final int fila;           // Fila (0 = A, la más cercana a la pantalla)
+    private final int columna;        // Columna dentro de la fila (0 = asiento 1)
+    private final TipoAsiento tipo;   // Normal, premium o accesible
     
     /**
-     * Constructor que crea un asiento libre
-     * @param numero Número identificador del asiento
+     * Constructor que crea un asiento
+     * @param diseno Diseño de sala al que pertenece
+     * @param indice Posición del asiento dentro de la sala
+     * @param fila Fila del asiento
+     * @param columna Columna del asiento
+     * @param tipo Tipo de asiento
      */
-    public Asiento(String numero) {
-        this.numero = numero;
-        this.ocupado = false; // Por defecto, el asiento está libre
-    }
-    
-    /**
-     * Marca el asiento como ocupado
-     * Se llama cuando se confirma una reserva
-     */
-    public void reservar() { 
-        this.ocupado = true; 
-    }
-    
-    /**
-     * Marca el asiento como libre
-     * Se llama cuando se cancela una reserva
-     */
-    public void liberar() { 
-        this.ocupado = false; 
+    Asiento(DisenoSala diseno, int indice, int fila, int columna, TipoAsiento tipo) {
+        this.diseno = diseno;
+        this.indice = indice;
+        this.fila = fila;
+        this.columna = columna;
+        this.tipo = tipo;
     }
     
     // Getters
-    public String getNumero() { return numero; }
-    public boolean isOcupado() { return ocupado; }
-}
\ No newline at end of file
+    public int getIndice() { return indice; }
+    public int getFila() { return fila; }
+    public int getColumna() { return columna; }
+    public TipoAsiento getTipo() { return tipo; }
+    public String getNumero() { return diseno.getNombre(indice); } // Ej: "A1", "B5"
+}
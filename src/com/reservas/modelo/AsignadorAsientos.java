@@ -0,0 +1,220 @@
+package com.reservas.modelo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Asignador de asientos: encuentra el MEJOR bloque de N asientos juntos
+ *
+ * "Juntos" significa en la misma fila y sin un pasillo en el medio: cada
+ * fila se divide en TRAMOS (los asientos entre dos pasillos) y los bloques
+ * se buscan dentro de cada tramo
+ *
+ * Cada asiento tiene un puntaje de calidad (más alto cerca del centro de
+ * la fila y a unos dos tercios de la pantalla). Un bloque vale la suma de
+ * los puntajes de sus asientos.
+ *
+ * La búsqueda trabaja con máscaras de bits, no asiento por asiento:
+ * 1. Se copia el bitmap de ocupación de la función (InventarioAsientos)
+ * 2. Por cada tramo se arma la máscara de asientos LIBRES
+ * 3. Con pocos AND y shifts se obtienen todos los inicios de bloques libres
+ *    de largo N (ver iniciosDeTramos)
+ * 4. Cada inicio se evalúa en O(1) con sumas acumuladas de calidad
+ *
+ * Los tramos se recorren del mejor al peor según una cota (el mejor
+ * bloque posible en el tramo vacío); en cuanto la cota no puede superar al
+ * mejor bloque encontrado, la búsqueda termina
+ *
+ * El asignador depende solo del DisenoSala: es inmutable y lo comparten
+ * todas las salas (y funciones) con ese diseño
+ */
+public class AsignadorAsientos {
+    private static final int BITS_POR_PALABRA = 64;
+
+    private final double[] calidad;     // Puntaje de cada asiento, por índice
+    private final int[] inicioTramo;    // Índice del primer asiento de cada tramo
+    private final int[] largoTramo;     // Asientos de cada tramo
+    private final double[][] acumulada; // acumulada[tramo][i] = suma de calidad de los i primeros
+    private final AtomicReferenceArray<OrdenTramos> ordenes; // Por tamaño de grupo, se calcula al usarse
+
+    /**
+     * @param diseno Distribución de la sala
+     */
+    AsignadorAsientos(DisenoSala diseno) {
+        int filas = diseno.getFilas();
+        int columnas = diseno.getColumnas();
+        this.calidad = new double[filas * columnas];
+
+        double filaIdeal = (filas - 1) * 2.0 / 3.0;
+        double centro = (columnas - 1) / 2.0;
+        for (Asiento asiento : diseno.getAsientos()) {
+            double puntajeFila = 1.0 - Math.abs(asiento.getFila() - filaIdeal) / filas;
+            double puntajeColumna = 1.0 - Math.abs(asiento.getColumna() - centro) / columnas;
+            calidad[asiento.getIndice()] = puntajeFila * puntajeColumna;
+        }
+
+        // Tramos: cada fila se corta en los pasillos
+        List<int[]> tramos = new ArrayList<>();
+        for (int fila = 0; fila < filas; fila++) {
+            int desde = 0;
+            for (int columna = 0; columna < columnas; columna++) {
+                if (columna == columnas - 1 || diseno.hayPasilloDespues(columna)) {
+                    tramos.add(new int[] {fila * columnas + desde, columna - desde + 1});
+                    desde = columna + 1;
+                }
+            }
+        }
+        this.inicioTramo = new int[tramos.size()];
+        this.largoTramo = new int[tramos.size()];
+        this.acumulada = new double[tramos.size()][];
+        int maximo = 0;
+        for (int t = 0; t < tramos.size(); t++) {
+            inicioTramo[t] = tramos.get(t)[0];
+            largoTramo[t] = tramos.get(t)[1];
+            acumulada[t] = new double[largoTramo[t] + 1];
+            for (int i = 0; i < largoTramo[t]; i++) {
+                acumulada[t][i + 1] = acumulada[t][i] + calidad[inicioTramo[t] + i];
+            }
+            maximo = Math.max(maximo, largoTramo[t]);
+        }
+        this.ordenes = new AtomicReferenceArray<>(Math.min(maximo, BITS_POR_PALABRA) + 1);
+    }
+
+    /**
+     * Busca el mejor bloque de asientos contiguos (en la misma fila) libres
+     * Es una consulta sobre una "foto" de la ocupación: para quedarse con
+     * los asientos hay que reclamarlos, y si otro cliente ganó, buscar de nuevo
+     *
+     * @param inventario Ocupación de la función
+     * @param cantidad Tamaño del grupo (1 a 64, y no más que el tramo más largo)
+     * @return Índice del primer asiento del bloque, o -1 si no hay ninguno libre
+     */
+    public int buscar(InventarioAsientos inventario, int cantidad) {
+        if (cantidad <= 0 || cantidad >= ordenes.length()) {
+            throw new IllegalArgumentException("Tamaño de grupo no soportado: " + cantidad);
+        }
+        long[] ocupados = inventario.copiarPalabras();
+        OrdenTramos orden = orden(cantidad);
+
+        int mejor = -1;
+        double mejorPuntaje = 0;
+        for (int k = 0; k < orden.tramos.length; k++) {
+            if (mejor >= 0 && orden.cotas[k] <= mejorPuntaje) {
+                break; // Ningún tramo que queda puede mejorar el bloque encontrado
+            }
+            int tramo = orden.tramos[k];
+            int inicio = inicioTramo[tramo];
+            int largoTotal = largoTramo[tramo];
+            double[] sumas = acumulada[tramo];
+
+            // El tramo se recorre en ventanas de hasta 64 asientos que se solapan
+            // en cantidad-1, así ningún bloque queda partido entre dos ventanas
+            for (int desde = 0; desde + cantidad <= largoTotal;
+                    desde += BITS_POR_PALABRA - cantidad + 1) {
+                int largo = Math.min(BITS_POR_PALABRA, largoTotal - desde);
+                long libres = ~extraer(ocupados, inicio + desde, largo) & mascara(largo);
+                long inicios = iniciosDeTramos(libres, cantidad);
+                while (inicios != 0) {
+                    int posicion = desde + Long.numberOfTrailingZeros(inicios);
+                    inicios &= inicios - 1;
+                    double puntaje = sumas[posicion + cantidad] - sumas[posicion];
+                    if (puntaje > mejorPuntaje) {
+                        mejorPuntaje = puntaje;
+                        mejor = inicio + posicion;
+                    }
+                }
+            }
+        }
+        return mejor;
+    }
+
+    /**
+     * @param indice Índice del asiento
+     * @return Puntaje de calidad del asiento (entre 0 y 1)
+     */
+    public double getCalidad(int indice) { return calidad[indice]; }
+
+    // ============================================
+    // OPERACIONES DE BITS
+    // ============================================
+
+    /**
+     * Bits que marcan dónde EMPIEZA un tramo de "cantidad" bits libres seguidos
+     * Después de cubrir c asientos, el bit i indica que i..i+c-1 están libres;
+     * combinar con un shift de p (p <= c) extiende la cobertura a c+p.
+     * Duplicando la cobertura, un grupo de 12 necesita solo 4 pasos
+     */
+    static long iniciosDeTramos(long libres, int cantidad) {
+        long inicios = libres;
+        int cubiertos = 1;
+        while (cubiertos < cantidad) {
+            int paso = Math.min(cubiertos, cantidad - cubiertos);
+            inicios &= inicios >>> paso;
+            cubiertos += paso;
+        }
+        return inicios;
+    }
+
+    /**
+     * Lee "largo" bits (hasta 64) del bitmap a partir de la posición "desde"
+     */
+    private static long extraer(long[] palabras, int desde, int largo) {
+        int palabra = desde / BITS_POR_PALABRA;
+        int bit = desde % BITS_POR_PALABRA;
+        long valor = palabras[palabra] >>> bit;
+        if (bit != 0 && bit + largo > BITS_POR_PALABRA) {
+            valor |= palabras[palabra + 1] << (BITS_POR_PALABRA - bit);
+        }
+        return valor & mascara(largo);
+    }
+
+    private static long mascara(int largo) {
+        return largo == BITS_POR_PALABRA ? -1L : (1L << largo) - 1;
+    }
+
+    // ============================================
+    // ORDEN DE LOS TRAMOS
+    // ============================================
+
+    /**
+     * Tramos ordenados por su mejor bloque posible para un tamaño de grupo
+     * Se calcula la primera vez que se pide ese tamaño y después se reutiliza
+     */
+    private OrdenTramos orden(int cantidad) {
+        OrdenTramos orden = ordenes.get(cantidad);
+        if (orden == null) {
+            orden = new OrdenTramos(cantidad);
+            ordenes.compareAndSet(cantidad, null, orden); // Si otro hilo ganó, el resultado es el mismo
+        }
+        return orden;
+    }
+
+    private final class OrdenTramos {
+        final int[] tramos;   // Tramos (donde cabe el grupo) del mejor al peor
+        final double[] cotas; // Mejor bloque posible de cada tramo, en el mismo orden
+
+        OrdenTramos(int cantidad) {
+            List<Integer> candidatos = new ArrayList<>();
+            double[] porTramo = new double[largoTramo.length];
+            for (int tramo = 0; tramo < largoTramo.length; tramo++) {
+                double[] sumas = acumulada[tramo];
+                for (int i = 0; i + cantidad <= largoTramo[tramo]; i++) {
+                    porTramo[tramo] = Math.max(porTramo[tramo], sumas[i + cantidad] - sumas[i]);
+                }
+                if (largoTramo[tramo] >= cantidad) {
+                    candidatos.add(tramo);
+                }
+            }
+            candidatos.sort(Comparator.comparingDouble((Integer tramo) -> porTramo[tramo]).reversed());
+
+            this.tramos = new int[candidatos.size()];
+            this.cotas = new double[candidatos.size()];
+            for (int k = 0; k < tramos.length; k++) {
+                tramos[k] = candidatos.get(k);
+                cotas[k] = porTramo[tramos[k]];
+            }
+        }
+    }
+}
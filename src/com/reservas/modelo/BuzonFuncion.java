@@ -0,0 +1,249 @@
+package com.reservas.modelo;
+
+import com.reservas.metricas.RegistroMetricas;
+import com.reservas.metricas.Temporizador;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Buzón de UNA función: ejecuta de a una las operaciones sobre sus reservas
+ *
+ * MODELO DE ACTORES (un solo "escritor" por función):
+ * - Reservar, confirmar, cancelar y vencer se ENCOLAN en el buzón de la
+ *   función, en vez de ejecutarse en el hilo que las pide
+ * - Un solo hilo por vez vacía el buzón: las operaciones de la misma
+ *   función no compiten entre sí (los CAS del bitmap no fallan por otro
+ *   pedido del buzón)
+ * - Si llegan muchos pedidos juntos (una preventa), el hilo los procesa en
+ *   tandas sin volver a planificarse: el costo de despertarlo se reparte
+ *   entre toda la tanda
+ * - Cada función tiene su buzón: funciones distintas se atienden en
+ *   paralelo en el ForkJoinPool compartido
+ *
+ * El buzón NO está libre de locks: sus mensajes toman el monitor de la
+ * reserva, el del historial del cliente (HistorialReservas) y el de la
+ * lista de espera de la función al liberar asientos. Entre mensajes del
+ * mismo buzón nunca compiten, pero sí con quien opere esas reservas o ese
+ * cliente directamente (o desde el buzón de otra función)
+ *
+ * Dentro del buzón solo se cambian el estado y los asientos (la cotización
+ * se hace antes de encolar, como en Cliente). Todo lo demás corre en otros
+ * hilos:
+ * - Esperar el diario en disco: los futuros se completan cuando el
+ *   registro llega al disco
+ * - Notificar a los observadores (y las estadísticas de los vencimientos):
+ *   en el hilo de Avisos, nunca en el del buzón
+ * - Las ofertas de la lista de espera: en los hilos de la lista
+ *
+ * Los dos modos conviven: una reserva operada directamente (confirmar(),
+ * cancelar()) sigue siendo correcta gracias a sus locks; la contención
+ * solo desaparece si TODAS las operaciones de la función pasan por aquí.
+ * Quien use estos futuros no debe encadenarles trabajo pesado con
+ * thenApply() (correría en el hilo del buzón): usar las variantes Async
+ */
+public class BuzonFuncion {
+    private static final int TANDA_MAXIMA = 256; // Después cede el hilo a los demás buzones
+    private static final int AVISOS_MAXIMOS = 1024; // Avisos pedidos y sin publicar
+
+    // Métricas: mensajes / tandas = tamaño promedio de las tandas
+    private static final LongAdder MENSAJES = RegistroMetricas.global().contador("buzon.mensajes");
+    private static final LongAdder TANDAS = RegistroMetricas.global().contador("buzon.tandas");
+    private static final Temporizador TIEMPO_EN_COLA = RegistroMetricas.global().temporizador("buzon.espera");
+
+    /**
+     * Hilos compartidos por todos los buzones (se crean con el primer mensaje)
+     * Modo asíncrono (FIFO): los buzones se atienden en orden de llegada
+     */
+    private static class Planificador {
+        private static final ForkJoinPool HILOS = new ForkJoinPool(
+            Runtime.getRuntime().availableProcessors(),
+            pool -> {
+                ForkJoinWorkerThread hilo = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                hilo.setName("buzon-funciones-" + hilo.getPoolIndex());
+                return hilo;
+            },
+            null, true);
+    }
+
+    /**
+     * Hilo que notifica los cambios hechos en los buzones (compartido; se
+     * crea con el primer aviso)
+     * Uno solo: los avisos salen en el orden en que se pidieron, como si
+     * los publicara el buzón. Publicar es encolar en el BusEventos, así que
+     * alcanza; si el despachador está lleno, espera este hilo y no el buzón
+     * Pedir un aviso no lo espera: quien confirma o cancela no paga el
+     * cambio de hilo. La cola es acotada: si este hilo no da abasto, quien
+     * pide el aviso espera a que haya lugar (como la política BLOQUEAR del
+     * despachador), en vez de acumular avisos sin límite
+     */
+    private static class Avisos {
+        private static final ThreadPoolExecutor HILO = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(AVISOS_MAXIMOS),
+            tarea -> {
+                Thread hilo = new Thread(tarea, "buzon-avisos");
+                hilo.setDaemon(true); // No impide que la aplicación termine
+                return hilo;
+            },
+            (tarea, ejecutor) -> {
+                try {
+                    ejecutor.getQueue().put(tarea); // Nunca se detiene: esperar siempre termina
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    tarea.run(); // El aviso no se pierde: sale en este hilo
+                }
+            });
+    }
+
+    private final Funcion funcion;
+    private final Queue<Runnable> cola = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean programado = new AtomicBoolean(); // true si hay un hilo vaciando (o por vaciar) el buzón
+
+    /**
+     * @param funcion Función dueña del buzón
+     */
+    BuzonFuncion(Funcion funcion) {
+        this.funcion = funcion;
+    }
+
+    // ============================================
+    // OPERACIONES DE LAS RESERVAS
+    // ============================================
+
+    /**
+     * Crea una reserva cotizada, reclama sus asientos y la retiene (como los
+     * pasos 1 a 3 de Cliente.realizarReservaAsync(), sin cobrar)
+     * Su vencimiento también pasa por el buzón; al confirmarla pasa al
+     * historial del cliente (ver confirmar())
+     *
+     * @param cliente Cliente que reserva
+     * @param asientos Asientos de la sala de esta función
+     * @param ttl Tiempo que dura la retención
+     * @return Futuro con la reserva RETENIDA, o con null si algún asiento ya estaba ocupado
+     */
+    public CompletableFuture<Reserva> reservar(Cliente cliente, List<Asiento> asientos, Duration ttl) {
+        Reserva reserva = cliente.nuevaReserva(funcion, asientos);
+        return ejecutar(() -> {
+            if (!reserva.reclamarAsientos()) {
+                return CompletableFuture.<Reserva>completedFuture(null);
+            }
+            return durable(reserva.marcarRetenida(ttl, () -> vencer(reserva))).thenApply(registro -> reserva);
+        }).thenCompose(retenida -> retenida);
+    }
+
+    /**
+     * Confirma la reserva (ver Reserva.confirmar()) y la registra como
+     * pagada, igual que Cliente: en el historial de su cliente y en el
+     * índice del sistema
+     * @return Futuro que se completa con el cambio en disco, la reserva
+     *         registrada y su aviso ya pedido; falla con
+     *         IllegalStateException si la retención venció o perdió sus asientos
+     */
+    public CompletableFuture<Void> confirmar(Reserva reserva) {
+        return ejecutar(deEstaFuncion(reserva)::marcarConfirmada)
+            .thenCompose(BuzonFuncion::durable)
+            .thenRun(() -> {
+                Cliente.registrarPagada(reserva);
+                Avisos.HILO.execute(() -> reserva.notificarObservadores(EventoReserva.Tipo.CONFIRMADA));
+            });
+    }
+
+    /**
+     * Cancela la reserva y libera sus asientos (ver Reserva.cancelar())
+     * @return Futuro que se completa con el cambio en disco y su aviso ya pedido
+     */
+    public CompletableFuture<Void> cancelar(Reserva reserva) {
+        return ejecutar(deEstaFuncion(reserva)::marcarCancelada)
+            .thenCompose(BuzonFuncion::durable)
+            .thenRun(() -> Avisos.HILO.execute(() -> reserva.notificarObservadores(EventoReserva.Tipo.CANCELADA)));
+    }
+
+    /**
+     * Vence la retención desde el buzón (el expirador solo encola)
+     * En el buzón solo cambian el estado y los asientos; el aviso va aparte
+     */
+    private void vencer(Reserva reserva) {
+        ejecutar(() -> {
+            if (reserva.marcarExpirada()) {
+                Avisos.HILO.execute(reserva::avisarExpiracion);
+            }
+            return null;
+        });
+    }
+
+    private Reserva deEstaFuncion(Reserva reserva) {
+        if (reserva.getFuncion() != funcion) {
+            throw new IllegalArgumentException("La reserva " + reserva.getId() + " no es de esta función");
+        }
+        return reserva;
+    }
+
+    private static CompletableFuture<Void> durable(CompletableFuture<Long> registro) {
+        return registro == null ? CompletableFuture.completedFuture(null) : registro.thenApply(posicion -> null);
+    }
+
+    // ============================================
+    // BUZÓN
+    // ============================================
+
+    /**
+     * Encola una operación cualquiera sobre la función
+     * @param operacion Se ejecuta en el hilo del buzón, después de las ya encoladas
+     * @return Futuro con su resultado (o con la excepción que lanzó)
+     */
+    public <T> CompletableFuture<T> ejecutar(Supplier<T> operacion) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        long encolado = TIEMPO_EN_COLA.iniciar();
+        cola.add(() -> {
+            TIEMPO_EN_COLA.detener(encolado);
+            try {
+                resultado.complete(operacion.get());
+            } catch (RuntimeException | Error e) {
+                resultado.completeExceptionally(e);
+            }
+        });
+        if (programado.compareAndSet(false, true)) {
+            Planificador.HILOS.execute(this::vaciar);
+        }
+        return resultado;
+    }
+
+    /**
+     * Procesa una tanda de mensajes en el hilo del buzón
+     * Si quedaron mensajes, se vuelve a planificar (al final de la cola del
+     * pool, para no acaparar el hilo si la función es muy popular)
+     */
+    private void vaciar() {
+        int procesados = 0;
+        Runnable mensaje;
+        while (procesados < TANDA_MAXIMA && (mensaje = cola.poll()) != null) {
+            mensaje.run();
+            procesados++;
+        }
+        MENSAJES.add(procesados);
+        TANDAS.increment();
+        programado.set(false);
+        // Un mensaje pudo llegar después del último poll() pero antes de
+        // set(false): su emisor vio programado=true y no planificó a nadie
+        if (!cola.isEmpty() && programado.compareAndSet(false, true)) {
+            Planificador.HILOS.execute(this::vaciar);
+        }
+    }
+
+    /**
+     * @return Mensajes esperando en el buzón (aproximado)
+     */
+    public int getPendientes() {
+        return cola.size();
+    }
+}
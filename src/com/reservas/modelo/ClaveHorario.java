@@ -0,0 +1,82 @@
+package com.reservas.modelo;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Clave de ordenamiento por horario (inmutable)
+ *
+ * Ordena por horario y, a igual horario, por id: así dos elementos a la
+ * misma hora no se pisan en un mapa ordenado. La usan los índices que
+ * recorren por rango de fechas: las funciones del sistema
+ * (IndiceFunciones) y el historial de cada cliente (HistorialReservas)
+ */
+public final class ClaveHorario implements Comparable<ClaveHorario> {
+    private final LocalDateTime horario;
+    private final long id;
+
+    /**
+     * @param horario Horario de la función
+     * @param id Valor del id del elemento (función o reserva)
+     */
+    public ClaveHorario(LocalDateTime horario, long id) {
+        this.horario = horario;
+        this.id = id;
+    }
+
+    /**
+     * Clave menor que cualquier elemento con ese horario
+     */
+    public static ClaveHorario inicio(LocalDateTime horario) {
+        return new ClaveHorario(horario, Long.MIN_VALUE);
+    }
+
+    /**
+     * Cursor opaco: la clave en Base64 (el cliente no debe armarlo a mano)
+     * El horario va como segundos y nanos, que se leen mucho más rápido
+     * que una fecha en texto
+     */
+    public String codificar() {
+        String texto = horario.toEpochSecond(ZoneOffset.UTC) + "." + horario.getNano() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor Cursor creado por codificar()
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static ClaveHorario decodificar(String cursor) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int punto = texto.indexOf('.');
+            int separador = texto.indexOf('|', punto);
+            LocalDateTime horario = LocalDateTime.ofEpochSecond(Long.parseLong(texto, 0, punto, 10),
+                Integer.parseInt(texto, punto + 1, separador, 10), ZoneOffset.UTC);
+            return new ClaveHorario(horario, Long.parseLong(texto, separador + 1, texto.length(), 10));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+    }
+
+    @Override
+    public int compareTo(ClaveHorario otra) {
+        int comparacion = horario.compareTo(otra.horario);
+        return comparacion != 0 ? comparacion : Long.compare(id, otra.id);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof ClaveHorario)) {
+            return false;
+        }
+        ClaveHorario otra = (ClaveHorario) obj;
+        return horario.equals(otra.horario) && id == otra.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * horario.hashCode() + Long.hashCode(id);
+    }
+}
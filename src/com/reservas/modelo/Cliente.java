@@ -1,16 +1,33 @@
 package com.reservas.modelo;
 
+import com.reservas.metricas.RegistroMetricas;
+import com.reservas.metricas.Temporizador;
 import com.reservas.pago.EstrategiaPago;
+import com.reservas.pago.ProcesadorPagos;
+import com.reservas.pago.ResultadoPago;
+import com.reservas.sistema.SistemaReservas;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Clase Cliente: representa a un usuario que puede hacer reservas
  * Extiende de Usuario e implementa funcionalidades específicas
  */
 public class Cliente extends Usuario {
-    // Lista de todas las reservas realizadas por este cliente
-    private List<Reserva> reservas;
+    // Métricas (se buscan una sola vez, no en cada llamada)
+    private static final Temporizador TIEMPO_RESERVA = RegistroMetricas.global().temporizador("reserva.realizar");
+    private static final Temporizador TIEMPO_RECLAMO = RegistroMetricas.global().temporizador("reserva.reclamar_asientos");
+    private static final LongAdder CONFLICTOS = RegistroMetricas.global().contador("asientos.conflictos");
+    
+    // Todas las reservas realizadas por este cliente, indexadas
+    private final HistorialReservas historial;
     
     /**
      * Constructor público que inicializa un cliente
@@ -19,8 +36,22 @@ public class Cliente extends Usuario {
      * @param password Contraseña del cliente
      */
     public Cliente(String nombre, String email, String password) {
-        super(nombre, email, password); // Llama al constructor de Usuario
-        this.reservas = new ArrayList<>(); // Inicializa la lista vacía
+        this(Id.nuevo(), nombre, email, password);
+    }
+    
+    /**
+     * Constructor que crea un cliente con un id conocido
+     * Se usa para volver a cargar clientes ya registrados: el DiarioReservas
+     * guarda el id del cliente de cada reserva, y al agregarlo al sistema
+     * (SistemaReservas.agregarCliente()) recupera sus reservas
+     * @param id Identificador del cliente
+     * @param nombre Nombre del cliente
+     * @param email Email del cliente
+     * @param password Contraseña del cliente
+     */
+    public Cliente(Id<Usuario> id, String nombre, String email, String password) {
+        super(id, nombre, email, password); // Llama al constructor de Usuario
+        this.historial = new HistorialReservas(); // Se agrega desde los hilos de pago
     }
     
     /**
@@ -35,41 +66,292 @@ public class Cliente extends Usuario {
     /**
      * Método principal para realizar una reserva
      * Aquí se integra el PATRÓN STRATEGY para el pago
+     * Espera a que termine el pago; para no bloquear, usar realizarReservaAsync()
      * 
      * @param funcion La función de cine a reservar
      * @param asientos Lista de asientos seleccionados
      * @param pago Estrategia de pago elegida (tarjeta, PayPal, etc.)
-     * @return La reserva creada o null si falla
+     * @return La reserva CONFIRMADA, o null si falla
      */
     public Reserva realizarReserva(Funcion funcion, List<Asiento> asientos, EstrategiaPago pago) {
-        // 1. Verificar que los asientos estén disponibles
-        if (!funcion.verificarDisponibilidad(asientos)) {
+        return realizarReservaAsync(funcion, asientos, pago).join();
+    }
+    
+    /**
+     * Realiza una reserva sin esperar a la pasarela de pago
+     * Los asientos se reclaman y retienen enseguida; el pago corre en el
+     * ProcesadorPagos del sistema (con tiempo máximo, reintentos y circuito)
+     * usando el id de la reserva como clave de idempotencia
+     * Si el pago se aprueba, la reserva queda CONFIRMADA (no hace falta
+     * llamar a confirmar()); si termina DESCONOCIDO y no se puede
+     * conciliar, los asientos quedan retenidos y el pago queda en
+     * SistemaReservas.getConciliacion() (ver cobrar())
+     * 
+     * @param funcion La función de cine a reservar
+     * @param asientos Lista de asientos seleccionados
+     * @param pago Estrategia de pago elegida (tarjeta, PayPal, etc.)
+     * @return Futuro con la reserva confirmada, o con null si falla o queda por conciliar
+     */
+    public CompletableFuture<Reserva> realizarReservaAsync(Funcion funcion, List<Asiento> asientos,
+                                                           EstrategiaPago pago) {
+        long inicio = TIEMPO_RESERVA.iniciar(); // Hasta que el pago termine
+        
+        // 1. Crear la reserva (aún en estado PENDIENTE) y cotizarla con los
+        // precios que el cliente vio en el mapa de asientos
+        Reserva reserva = nuevaReserva(funcion, asientos);
+        
+        // 2. Ocupar los asientos de forma atómica (todo o nada)
+        // Si otro cliente ganó alguno de los asientos, la reserva falla aquí
+        // y nunca llegamos a cobrar
+        long inicioReclamo = TIEMPO_RECLAMO.iniciar();
+        boolean reclamados = reserva.reclamarAsientos();
+        TIEMPO_RECLAMO.detener(inicioReclamo);
+        if (!reclamados) {
+            CONFLICTOS.increment(); // Otro cliente ganó algún asiento
+            TIEMPO_RESERVA.detener(inicio);
             System.out.println("Los asientos seleccionados no están disponibles");
-            return null; // Reserva fallida
+            return CompletableFuture.completedFuture(null); // Reserva fallida
         }
         
-        // 2. Crear la reserva (aún en estado PENDIENTE)
-        Reserva reserva = new Reserva(this, funcion, asientos);
+        // 3. Retener los asientos por tiempo limitado: queda en el diario, y si
+        // el proceso se cae antes de saber cómo terminó el pago, los asientos
+        // se liberan solos al recuperarse
+        reserva.retener(SistemaReservas.getInstance().getTiempoRetencion());
         
-        // 3. Calcular el monto total (precio fijo de $10 por asiento)
-        double monto = asientos.size() * 10.0;
+        // 4. Cobrar (asíncrono) y, si se aprueba, confirmar
+        return cobrar(reserva, pago)
+            .whenComplete((resultado, error) -> TIEMPO_RESERVA.detener(inicio));
+    }
+    
+    /**
+     * Se anota en la lista de espera de una función agotada
+     * Cuando otra reserva libera asientos, el sistema se los ofrece al
+     * primero que espera (ver ListaEspera): la reserva ya viene RETENIDA y
+     * se cobra y confirma como en realizarReservaAsync()
+     * 
+     * @param funcion Función agotada
+     * @param cantidad Asientos juntos que se necesitan
+     * @param pago Estrategia de pago para cuando lleguen los asientos
+     * @return Futuro con la reserva confirmada, o con null si el pago falla;
+     *         cancelarlo saca al cliente de la lista de espera (si la oferta
+     *         ya había llegado, su retención vence sola)
+     */
+    public CompletableFuture<Reserva> esperarAsientos(Funcion funcion, int cantidad, EstrategiaPago pago) {
+        CompletableFuture<Reserva> oferta = funcion.getListaEspera().anotar(this, cantidad);
+        CompletableFuture<Reserva> resultado = oferta.thenCompose(reserva -> {
+            reserva.setMonto(SistemaReservas.getInstance().getMotorPrecios().cotizar(funcion, reserva.getAsientos()));
+            return cobrar(reserva, pago);
+        });
+        resultado.whenComplete((reserva, error) -> oferta.cancel(false)); // Si el cliente desistió
+        return resultado;
+    }
+    
+    /**
+     * PATRÓN STRATEGY: ejecuta el algoritmo de pago seleccionado
+     * No nos importa CÓMO procesa el pago, solo que implemente procesarPago()
+     * 
+     * Mientras se cobra, la retención no vence (Reserva.suspenderVencimiento()):
+     * - APROBADO: la reserva se confirma y pasa al historial del cliente
+     * - RECHAZADO, ERROR, NO_DISPONIBLE, SATURADO: no se cobró; los
+     *   asientos vuelven a la función
+     * - DESCONOCIDO: pudo haberse cobrado. Los asientos NO se liberan: se
+     *   concilia el pago con la misma clave y se decide con esa respuesta.
+     *   Si tampoco así se sabe, la reserva queda RETENIDA (sin vencer) y el
+     *   pago se anota en ConciliacionPagos, con la reserva como clave, hasta
+     *   que alguien lo vuelva a conciliar
+     * 
+     * @return Futuro con la reserva confirmada si el pago se aprobó, o con null
+     */
+    private CompletableFuture<Reserva> cobrar(Reserva reserva, EstrategiaPago pago) {
+        if (!reserva.suspenderVencimiento()) {
+            return CompletableFuture.completedFuture(null); // La retención venció antes de cobrar
+        }
+        String clave = reserva.getId().toString();
+        return pagar(clave, pago, reserva.getMonto())
+            .thenApply(resultado -> {
+                if (resultado.esAprobado()) {
+                    // 5. Si el pago es exitoso, confirmamos (queda en el diario y se
+                    // notifica) y agregamos la reserva al historial del cliente
+                    reserva.confirmar();
+                    agregarAlHistorial(reserva);
+                    return reserva;
+                }
+                if (resultado == ResultadoPago.DESCONOCIDO) {
+                    // Pudo haberse cobrado: los asientos siguen retenidos hasta conciliarlo
+                    SistemaReservas.getInstance().getConciliacion()
+                        .registrar(clave, List.of(reserva), reserva.getMonto());
+                    return null;
+                }
+                
+                // Pago fallido: devolvemos los asientos para que otro cliente los pueda tomar
+                System.out.println("El pago no se pudo completar: " + resultado);
+                reserva.anular();
+                return null;
+            });
+    }
+    
+    /**
+     * Procesa el pago y, si termina DESCONOCIDO, lo concilia con la misma clave
+     * @return Futuro con el resultado final
+     */
+    private static CompletableFuture<ResultadoPago> pagar(String clave, EstrategiaPago pago, Dinero monto) {
+        ProcesadorPagos procesador = SistemaReservas.getInstance().getProcesadorPagos();
+        return procesador.procesar(clave, pago, monto)
+            .thenCompose(resultado -> resultado == ResultadoPago.DESCONOCIDO
+                ? procesador.conciliar(clave, pago, monto)
+                : CompletableFuture.completedFuture(resultado));
+    }
+    
+    /**
+     * Reserva muchos asientos, en varias funciones, como UNA sola operación
+     * (reservas de empresas, escuelas, grupos)
+     * 
+     * 1. Valida TODAS las solicitudes antes de tocar el inventario
+     * 2. Reclama los asientos de cada solicitud; si alguna falla, devuelve
+     *    los ya reclamados y el lote entero falla. Los reclamos quedan en el
+     *    diario (CREADA, un solo fsync para todo el lote) antes de cobrar
+     * 3. Cobra UNA sola vez el total del lote
+     * 4. Confirma todas las reservas y espera al diario una sola vez
+     * 
+     * No se usa retención con vencimiento: el pago siempre termina (tiene
+     * tiempo máximo), así que los asientos nunca quedan tomados sin dueño
+     * (si el proceso se cae durante el cobro, los reclamos vuelven del
+     * diario como retenciones y vencen solos);
+     * si termina DESCONOCIDO (ver cobrar()) quedan tomados y el lote entero
+     * se anota en ConciliacionPagos con la clave de su cobro
+     * 
+     * @param solicitudes Reservas pedidas
+     * @param pago Estrategia de pago para el total
+     * @return Futuro con las reservas confirmadas (en el orden pedido), o con
+     *         null si el lote falla o queda por conciliar
+     * @throws IllegalArgumentException si un asiento no es de su función o está pedido dos veces
+     */
+    public CompletableFuture<List<Reserva>> realizarReservasEnLote(List<SolicitudReserva> solicitudes,
+                                                                    EstrategiaPago pago) {
+        // 1. Validación: asientos de la sala correcta y sin repetir dentro del lote
+        Map<Funcion, BitSet> pedidos = new IdentityHashMap<>();
+        for (SolicitudReserva solicitud : solicitudes) {
+            BitSet pedidosFuncion = pedidos.computeIfAbsent(solicitud.getFuncion(), f -> new BitSet());
+            for (int indice : solicitud.getFuncion().indices(solicitud.getAsientos())) {
+                if (pedidosFuncion.get(indice)) {
+                    throw new IllegalArgumentException("El asiento " + indice + " está pedido dos veces en el lote");
+                }
+                pedidosFuncion.set(indice);
+            }
+        }
         
-        // 4. PATRÓN STRATEGY: ejecutar el algoritmo de pago seleccionado
-        // No nos importa CÓMO procesa el pago, solo que implemente procesarPago()
-        if (pago.procesarPago(monto)) {
-            // 5. Si el pago es exitoso, agregamos la reserva a la lista del cliente
-            reservas.add(reserva);
-            return reserva; // Retornamos la reserva para que pueda ser confirmada
+        // 2. Reclamar todo o nada
+        List<Reserva> lote = new ArrayList<>(solicitudes.size());
+        List<CompletableFuture<Long>> reclamos = new ArrayList<>(solicitudes.size());
+        Dinero total = Dinero.CERO;
+        for (SolicitudReserva solicitud : solicitudes) {
+            Reserva reserva = nuevaReserva(solicitud.getFuncion(), solicitud.getAsientos());
+            total = total.sumar(reserva.getMonto());
+            if (!reserva.reclamarAsientos()) {
+                System.out.println("Lote rechazado: hay asientos que ya no están disponibles");
+                anularTodas(lote);
+                return CompletableFuture.completedFuture(null);
+            }
+            lote.add(reserva);
+            reclamos.add(reserva.registrarReclamo());
+        }
+        for (CompletableFuture<Long> reclamo : reclamos) {
+            Reserva.esperarDurable(reclamo);
         }
         
-        return null; // Pago fallido
+        // 3. Un solo cobro por el total (la clave identifica al lote)
+        String clave = "lote-" + Id.nuevo();
+        Dinero totalLote = total;
+        return pagar(clave, pago, total)
+            .thenApply(resultado -> {
+                if (resultado == ResultadoPago.DESCONOCIDO) {
+                    SistemaReservas.getInstance().getConciliacion().registrar(clave, lote, totalLote);
+                    return null;
+                }
+                if (!resultado.esAprobado()) {
+                    System.out.println("El pago del lote no se pudo completar: " + resultado);
+                    anularTodas(lote);
+                    return null;
+                }
+                
+                // 4. Confirmar todas
+                confirmarPagadas(lote);
+                return Collections.unmodifiableList(lote);
+            });
+    }
+    
+    /**
+     * Confirma las reservas de un pago aprobado (un lote, o un pago
+     * conciliado): los registros del diario se encolan juntos y el escritor
+     * los guarda con muy pocos fsync; después pasan al historial de su
+     * cliente y se notifican
+     */
+    static void confirmarPagadas(List<Reserva> reservas) {
+        List<CompletableFuture<Long>> registros = new ArrayList<>(reservas.size());
+        for (Reserva reserva : reservas) {
+            registros.add(reserva.marcarConfirmada()); // No falla: PENDIENTE o RETENIDA sin vencer, con sus asientos
+        }
+        for (CompletableFuture<Long> registro : registros) {
+            Reserva.esperarDurable(registro);
+        }
+        for (Reserva reserva : reservas) {
+            registrarPagada(reserva);
+        }
+        for (Reserva reserva : reservas) {
+            reserva.notificarObservadores(EventoReserva.Tipo.CONFIRMADA);
+        }
+    }
+    
+    static void anularTodas(List<Reserva> lote) {
+        for (Reserva reserva : lote) {
+            reserva.anular();
+        }
+    }
+    
+    /**
+     * Crea una reserva PENDIENTE de este cliente, cotizada con los precios
+     * que vio en el mapa de asientos (también la usa BuzonFuncion)
+     */
+    Reserva nuevaReserva(Funcion funcion, List<Asiento> asientos) {
+        Reserva reserva = new Reserva(this, funcion, asientos);
+        reserva.setMonto(SistemaReservas.getInstance().getMotorPrecios().cotizar(funcion, asientos));
+        return reserva;
+    }
+    
+    /**
+     * Registra una reserva pagada: en el historial del cliente y en el
+     * índice del sistema (para encontrarla por id)
+     */
+    private void agregarAlHistorial(Reserva reserva) {
+        historial.agregar(reserva);
+        SistemaReservas.getInstance().registrarReserva(reserva);
+    }
+    
+    /**
+     * Como agregarAlHistorial(), para una reserva cuyo cliente puede no
+     * conocerse (recuperada sin cliente): entonces solo va al índice
+     */
+    static void registrarPagada(Reserva reserva) {
+        Cliente cliente = reserva.getCliente();
+        if (cliente != null) {
+            cliente.agregarAlHistorial(reserva);
+        } else {
+            SistemaReservas.getInstance().registrarReserva(reserva);
+        }
     }
     
     /**
      * Permite al cliente consultar todas sus reservas
-     * @return Copia de la lista de reservas (para evitar modificaciones externas)
+     * No copia nada: es una vista de solo lectura que se puede compartir
+     * (para filtrar o paginar, usar getHistorial())
+     * @return Reservas ordenadas por horario de la función
      */
-    public List<Reserva> consultarReservas() {
-        return new ArrayList<>(reservas);
+    public Collection<Reserva> consultarReservas() {
+        return historial.todas();
     }
+    
+    /**
+     * @return Historial indexado por estado, fecha y película, con paginación
+     */
+    public HistorialReservas getHistorial() { return historial; }
 }
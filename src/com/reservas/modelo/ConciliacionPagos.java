@@ -0,0 +1,150 @@
+package com.reservas.modelo;
+
+import com.reservas.metricas.RegistroMetricas;
+import com.reservas.pago.EstrategiaPago;
+import com.reservas.pago.ResultadoPago;
+import com.reservas.sistema.SistemaReservas;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pagos que terminaron DESCONOCIDO y esperan que alguien los concilie
+ *
+ * Un pago DESCONOCIDO pudo haberse cobrado: sus reservas no se confirman
+ * ni se liberan. Quedan RETENIDAS sin vencer, con un registro INCIERTA en
+ * el diario (con la clave del pago), y se anotan aquí por clave de
+ * idempotencia. conciliar() vuelve a preguntarle a la pasarela con esa
+ * clave y decide con la respuesta:
+ * - APROBADO: confirma todas las reservas del pago
+ * - RECHAZADO, ERROR, NO_DISPONIBLE, SATURADO: las anula (los asientos
+ *   vuelven a la función)
+ * - DESCONOCIDO: siguen aquí, para intentarlo más tarde
+ *
+ * Sobrevive a un reinicio: SistemaReservas.activarDiario() vuelve a
+ * anotar las reservas INCIERTA del diario, agrupadas por clave
+ *
+ * Métricas: "conciliacion.pendientes" (pagos sin resolver) y los contadores
+ * "conciliacion.registrados", "conciliacion.confirmados" y "conciliacion.anulados"
+ */
+public class ConciliacionPagos {
+    private final Map<String, PagoIncierto> pendientes = new ConcurrentHashMap<>();
+    private final LongAdder registrados;
+    private final LongAdder confirmados;
+    private final LongAdder anulados;
+
+    /**
+     * @param metricas Registro donde publicar los pagos pendientes y resueltos
+     */
+    public ConciliacionPagos(RegistroMetricas metricas) {
+        this.registrados = metricas.contador("conciliacion.registrados");
+        this.confirmados = metricas.contador("conciliacion.confirmados");
+        this.anulados = metricas.contador("conciliacion.anulados");
+        metricas.indicador("conciliacion.pendientes", pendientes::size);
+    }
+
+    /**
+     * Un pago DESCONOCIDO y las reservas que cubre
+     */
+    public static final class PagoIncierto {
+        private final String clave;
+        private final List<Reserva> reservas = new CopyOnWriteArrayList<>(); // Al recuperar llegan de a una
+        private volatile Dinero monto = Dinero.CERO;
+
+        private PagoIncierto(String clave) {
+            this.clave = clave;
+        }
+
+        private synchronized void agregar(Reserva reserva, Dinero montoReserva) {
+            reservas.add(reserva);
+            monto = monto.sumar(montoReserva);
+        }
+
+        public String getClave() { return clave; }
+        public List<Reserva> getReservas() { return Collections.unmodifiableList(reservas); }
+        public Dinero getMonto() { return monto; }
+    }
+
+    /**
+     * Anota un pago que terminó DESCONOCIDO (lo llama el Cliente): sus
+     * reservas quedan en el diario como INCIERTA antes de volver
+     * @param clave Clave de idempotencia con la que se cobró
+     * @param reservas Reservas que cubre el pago (una, o todo un lote)
+     * @param monto Monto cobrado (el total del lote)
+     */
+    void registrar(String clave, List<Reserva> reservas, Dinero monto) {
+        PagoIncierto pago = new PagoIncierto(clave);
+        pago.reservas.addAll(reservas);
+        pago.monto = monto;
+        List<CompletableFuture<Long>> registros = new ArrayList<>(reservas.size());
+        for (Reserva reserva : reservas) {
+            registros.add(reserva.marcarIncierta(clave));
+        }
+        for (CompletableFuture<Long> registro : registros) {
+            Reserva.esperarDurable(registro);
+        }
+        pendientes.put(clave, pago);
+        registrados.increment();
+    }
+
+    /**
+     * Vuelve a anotar una reserva INCIERTA recuperada del diario
+     * (SistemaReservas, al restaurarla); las de un mismo lote se juntan por clave
+     * @param clave Clave del pago según el diario
+     * @param reserva Reserva restaurada (RETENIDA, sin vencer)
+     */
+    public void restaurar(String clave, Reserva reserva) {
+        pendientes.computeIfAbsent(clave, PagoIncierto::new).agregar(reserva, reserva.getMonto());
+    }
+
+    /**
+     * Vuelve a consultar un pago con su clave y, si la pasarela responde,
+     * confirma o anula sus reservas (ver la descripción de la clase)
+     * Si dos hilos concilian el mismo pago, solo uno aplica el resultado
+     *
+     * @param clave Clave del pago (ej: getPendientes())
+     * @param estrategia Método de pago con el que se cobró
+     * @return Futuro con el resultado de la consulta
+     * @throws IllegalArgumentException si no hay un pago por conciliar con esa clave
+     */
+    public CompletableFuture<ResultadoPago> conciliar(String clave, EstrategiaPago estrategia) {
+        PagoIncierto pago = pendientes.get(clave);
+        if (pago == null) {
+            throw new IllegalArgumentException("No hay un pago por conciliar con la clave " + clave);
+        }
+        return SistemaReservas.getInstance().getProcesadorPagos().conciliar(clave, estrategia, pago.getMonto())
+            .thenApply(resultado -> {
+                if (resultado != ResultadoPago.DESCONOCIDO && pendientes.remove(clave, pago)) {
+                    if (resultado.esAprobado()) {
+                        Cliente.confirmarPagadas(pago.getReservas());
+                        confirmados.increment();
+                    } else {
+                        Cliente.anularTodas(pago.getReservas());
+                        anulados.increment();
+                    }
+                }
+                return resultado;
+            });
+    }
+
+    /**
+     * @param clave Clave del pago
+     * @return El pago por conciliar, o null si no hay (o ya se resolvió)
+     */
+    public PagoIncierto buscar(String clave) {
+        return pendientes.get(clave);
+    }
+
+    /**
+     * @return Pagos sin resolver (vista de solo lectura)
+     */
+    public Collection<PagoIncierto> getPendientes() {
+        return Collections.unmodifiableCollection(pendientes.values());
+    }
+}
@@ -0,0 +1,117 @@
+package com.reservas.modelo;
+
+/**
+ * Clase Dinero: un monto exacto en centavos (punto fijo)
+ *
+ * Usar double para dinero acumula errores de redondeo (0.1 + 0.2 != 0.3).
+ * Aquí todo se guarda como un long de centavos, y las únicas operaciones
+ * que pueden redondear (porcentajes) lo hacen de forma explícita
+ *
+ * Es inmutable
+ */
+public final class Dinero implements Comparable<Dinero> {
+    public static final Dinero CERO = new Dinero(0);
+
+    private final long centavos;
+
+    private Dinero(long centavos) {
+        this.centavos = centavos;
+    }
+
+    /**
+     * @param centavos Monto en centavos (ej: 1050 = $10.50)
+     * @return El monto
+     */
+    public static Dinero deCentavos(long centavos) {
+        return centavos == 0 ? CERO : new Dinero(centavos);
+    }
+
+    /**
+     * @param pesos Parte entera
+     * @param centavos Parte decimal (0 a 99)
+     * @return El monto
+     */
+    public static Dinero de(long pesos, int centavos) {
+        if (centavos < 0 || centavos > 99) {
+            throw new IllegalArgumentException("Centavos inválidos: " + centavos);
+        }
+        return deCentavos(Math.addExact(Math.multiplyExact(pesos, 100), pesos < 0 ? -centavos : centavos));
+    }
+
+    /**
+     * Convierte un double (ej: de código anterior) redondeando al centavo
+     * @param monto Monto en unidades
+     * @return El monto
+     */
+    public static Dinero de(double monto) {
+        return deCentavos(Math.round(monto * 100));
+    }
+
+    public Dinero sumar(Dinero otro) {
+        return deCentavos(Math.addExact(centavos, otro.centavos));
+    }
+
+    public Dinero restar(Dinero otro) {
+        return deCentavos(Math.subtractExact(centavos, otro.centavos));
+    }
+
+    public Dinero multiplicar(long cantidad) {
+        return deCentavos(Math.multiplyExact(centavos, cantidad));
+    }
+
+    /**
+     * Aplica un ajuste porcentual, redondeando al centavo más cercano
+     * @param porcentaje Ej: 15 = +15%, -20 = 20% de descuento
+     * @return El monto ajustado
+     */
+    public Dinero ajustar(int porcentaje) {
+        return deCentavos(ajustar(centavos, porcentaje));
+    }
+
+    /**
+     * Ajuste porcentual sobre centavos (la mitad se redondea alejándose de cero)
+     * @param centavos Monto en centavos
+     * @param porcentaje Ej: 15 = +15%
+     * @return Centavos ajustados
+     */
+    public static long ajustar(long centavos, int porcentaje) {
+        long escalado = Math.multiplyExact(centavos, 100L + porcentaje);
+        long redondeo = escalado >= 0 ? 50 : -50;
+        return (escalado + redondeo) / 100;
+    }
+
+    public long getCentavos() { return centavos; }
+    public boolean esPositivo() { return centavos > 0; }
+
+    /**
+     * @return El monto como double (solo para mostrar o para APIs antiguas)
+     */
+    public double aDouble() {
+        return centavos / 100.0;
+    }
+
+    @Override
+    public int compareTo(Dinero otro) {
+        return Long.compare(centavos, otro.centavos);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Dinero && ((Dinero) obj).centavos == centavos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    /**
+     * @return El monto con dos decimales (ej: "$10.50")
+     */
+    @Override
+    public String toString() {
+        long absoluto = Math.abs(centavos);
+        String texto = "$" + absoluto / 100 + "." + (absoluto % 100 < 10 ? "0" : "") + absoluto % 100;
+        return centavos < 0 ? "-" + texto : texto;
+    }
+}
@@ -0,0 +1,251 @@
+package com.reservas.modelo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Clase DisenoSala: distribución física de los asientos (filas, columnas,
+ * pasillos y tipos de asiento)
+ *
+ * Es inmutable y se COMPARTE: todas las salas con el mismo diseño usan la
+ * misma instancia (ver Plano.crear()), con la misma lista de asientos y el
+ * mismo AsignadorAsientos
+ *
+ * - Cada asiento se identifica por un índice compacto: fila * columnas + columna
+ * - Los nombres ("A1", "B12", "AA3") se arman recién cuando se piden, y
+ *   quedan guardados en el diseño para las siguientes veces
+ * - Buscar un asiento por nombre es O(1): el nombre se convierte en fila
+ *   y columna, sin recorrer la lista
+ * - Un pasillo corta la fila: los asientos a cada lado no cuentan como juntos
+ */
+public final class DisenoSala {
+    // Diseños ya creados, para reutilizarlos en lugar de duplicarlos
+    private static final Map<Plano, DisenoSala> DISENOS = new ConcurrentHashMap<>();
+
+    private final int filas;
+    private final int columnas;
+    private final boolean[] pasilloDespues; // pasilloDespues[c] = hay pasillo entre c y c+1
+    private final List<Asiento> asientos;   // Todos los asientos, fila por fila (solo lectura)
+    private final String[] letrasFila;      // "A", "B", ..., "AA"
+    private final String[] nombres;         // Se completan a medida que se piden
+    private final AsignadorAsientos asignador;
+
+    private DisenoSala(Plano plano) {
+        this.filas = plano.filas;
+        this.columnas = plano.columnas;
+        this.pasilloDespues = plano.pasilloDespues.clone();
+
+        TipoAsiento[] tipos = TipoAsiento.values();
+        List<Asiento> lista = new ArrayList<>(filas * columnas);
+        for (int fila = 0; fila < filas; fila++) {
+            for (int columna = 0; columna < columnas; columna++) {
+                int indice = fila * columnas + columna;
+                lista.add(new Asiento(this, indice, fila, columna, tipos[plano.tipos[indice]]));
+            }
+        }
+        this.asientos = Collections.unmodifiableList(lista);
+
+        this.letrasFila = new String[filas];
+        for (int fila = 0; fila < filas; fila++) {
+            letrasFila[fila] = nombreFila(fila);
+        }
+        this.nombres = new String[filas * columnas];
+        this.asignador = new AsignadorAsientos(this);
+    }
+
+    /**
+     * Diseño rectangular sin pasillos y con todos los asientos NORMAL
+     * @param filas Número de filas
+     * @param columnas Asientos por fila
+     * @return Diseño compartido
+     */
+    public static DisenoSala de(int filas, int columnas) {
+        return new Plano(filas, columnas).crear();
+    }
+
+    /**
+     * Nombre de un asiento (ej: "C7")
+     * @param indice Índice del asiento
+     * @return Nombre del asiento
+     */
+    public String getNombre(int indice) {
+        String nombre = nombres[indice];
+        if (nombre == null) {
+            // Si dos hilos lo arman a la vez, los dos obtienen el mismo texto
+            nombre = letrasFila[indice / columnas] + (indice % columnas + 1);
+            nombres[indice] = nombre;
+        }
+        return nombre;
+    }
+
+    /**
+     * Busca un asiento por su nombre, sin recorrer la lista
+     * @param nombre Nombre del asiento (ej: "B12", sin distinguir mayúsculas)
+     * @return El asiento, o null si el diseño no tiene ese asiento
+     */
+    public Asiento buscar(String nombre) {
+        int fila = 0;
+        int i = 0;
+        // Letras de la fila: numeración biyectiva en base 26 (A..Z, AA..)
+        // Solo ASCII: Character.isLetter()/isDigit() aceptan otras escrituras
+        // (ej: "٣" es un dígito, y "ſ" en mayúsculas es "S")
+        while (i < nombre.length() && esLetra(nombre.charAt(i))) {
+            if (fila > filas) {
+                return null;
+            }
+            fila = fila * 26 + ((nombre.charAt(i) | 0x20) - 'a' + 1); // | 0x20 pasa a minúscula
+            i++;
+        }
+        int numero = 0;
+        int digitos = i;
+        while (i < nombre.length() && esDigito(nombre.charAt(i)) && numero <= columnas) {
+            numero = numero * 10 + (nombre.charAt(i) - '0');
+            i++;
+        }
+        if (fila == 0 || i == digitos || i != nombre.length()
+                || fila > filas || numero < 1 || numero > columnas) {
+            return null;
+        }
+        return asientos.get((fila - 1) * columnas + numero - 1);
+    }
+
+    private static boolean esLetra(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    private static boolean esDigito(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @param columna Columna de la fila
+     * @return true si hay un pasillo entre esa columna y la siguiente
+     */
+    public boolean hayPasilloDespues(int columna) {
+        return pasilloDespues[columna];
+    }
+
+    // Getters
+    public int getFilas() { return filas; }
+    public int getColumnas() { return columnas; }
+    public int getCapacidad() { return asientos.size(); }
+    public List<Asiento> getAsientos() { return asientos; }
+    public AsignadorAsientos getAsignador() { return asignador; } // Público para consultar la calidad de cada asiento
+
+    /**
+     * Nombre de una fila: A..Z, y después AA, AB...
+     */
+    private static String nombreFila(int fila) {
+        String nombre = String.valueOf((char) ('A' + fila % 26));
+        return fila < 26 ? nombre : nombreFila(fila / 26 - 1) + nombre;
+    }
+
+    // ============================================
+    // PLANO (para armar diseños)
+    // ============================================
+
+    /**
+     * Plano de un diseño: se configura y después se llama a crear()
+     * Dos planos iguales producen la MISMA instancia de DisenoSala
+     *
+     * Ejemplo:
+     *   DisenoSala diseno = new DisenoSala.Plano(12, 20)
+     *       .pasilloDespues(4).pasilloDespues(14)
+     *       .tipoFila(8, TipoAsiento.PREMIUM)
+     *       .tipo(0, 0, TipoAsiento.ACCESIBLE)
+     *       .crear();
+     */
+    public static final class Plano {
+        private final int filas;
+        private final int columnas;
+        private final boolean[] pasilloDespues;
+        private final byte[] tipos; // Ordinal de TipoAsiento de cada asiento
+
+        /**
+         * @param filas Número de filas
+         * @param columnas Asientos por fila
+         */
+        public Plano(int filas, int columnas) {
+            if (filas <= 0 || columnas < 0 || (long) filas * columnas > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Distribución de sala inválida: " + filas + "x" + columnas);
+            }
+            this.filas = filas;
+            this.columnas = columnas;
+            this.pasilloDespues = new boolean[columnas];
+            this.tipos = new byte[filas * columnas];
+        }
+
+        /**
+         * Agrega un pasillo entre una columna y la siguiente (en todas las filas)
+         * @param columna Columna después de la cual está el pasillo
+         */
+        public Plano pasilloDespues(int columna) {
+            if (columna < 0 || columna >= columnas - 1) {
+                throw new IllegalArgumentException("Pasillo fuera de la sala: " + columna);
+            }
+            pasilloDespues[columna] = true;
+            return this;
+        }
+
+        /**
+         * Cambia el tipo de un asiento
+         */
+        public Plano tipo(int fila, int columna, TipoAsiento tipo) {
+            if (fila < 0 || fila >= filas || columna < 0 || columna >= columnas) {
+                throw new IllegalArgumentException("Asiento fuera de la sala: " + fila + "," + columna);
+            }
+            tipos[fila * columnas + columna] = (byte) tipo.ordinal();
+            return this;
+        }
+
+        /**
+         * Cambia el tipo de todos los asientos de una fila
+         */
+        public Plano tipoFila(int fila, TipoAsiento tipo) {
+            for (int columna = 0; columna < columnas; columna++) {
+                tipo(fila, columna, tipo);
+            }
+            return this;
+        }
+
+        /**
+         * Devuelve el diseño de este plano (el mismo objeto si ya se creó antes)
+         * @return Diseño compartido e inmutable
+         */
+        public DisenoSala crear() {
+            DisenoSala existente = DISENOS.get(this);
+            if (existente != null) {
+                return existente;
+            }
+            Plano copia = new Plano(this); // Quien guarde este plano no puede cambiar la clave
+            return DISENOS.computeIfAbsent(copia, DisenoSala::new);
+        }
+
+        private Plano(Plano original) {
+            this.filas = original.filas;
+            this.columnas = original.columnas;
+            this.pasilloDespues = original.pasilloDespues.clone();
+            this.tipos = original.tipos.clone();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Plano)) {
+                return false;
+            }
+            Plano otro = (Plano) obj;
+            return filas == otro.filas && columnas == otro.columnas
+                && Arrays.equals(pasilloDespues, otro.pasilloDespues)
+                && Arrays.equals(tipos, otro.tipos);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * filas + columnas) + Arrays.hashCode(pasilloDespues)) + Arrays.hashCode(tipos);
+        }
+    }
+}
@@ -9,6 +9,8 @@ package com.reservas.modelo;
  */
 public enum EstadoReserva {
     PENDIENTE,      // Reserva creada pero aún no confirmada (pago en proceso)
+    RETENIDA,       // Asientos apartados por un tiempo limitado mientras se completa la compra
     CONFIRMADA,     // Reserva pagada y confirmada
-    CANCELADA       // Reserva cancelada por el usuario o el sistema
+    CANCELADA,      // Reserva cancelada por el usuario o el sistema
+    EXPIRADA        // La retención venció sin confirmarse y los asientos se liberaron
 }
@@ -0,0 +1,52 @@
+package com.reservas.modelo;
+
+/**
+ * Evento inmutable que describe un cambio de estado de una reserva
+ * 
+ * Es liviano (tres campos) y "congela" qué pasó: aunque la reserva cambie
+ * después, el observador sabe exactamente qué evento está procesando
+ */
+public final class EventoReserva {
+    
+    /**
+     * Tipos de evento a los que se puede suscribir un observador
+     */
+    public enum Tipo {
+        CONFIRMADA(EstadoReserva.CONFIRMADA),   // La reserva se confirmó
+        CANCELADA(EstadoReserva.CANCELADA),     // La reserva se canceló
+        EXPIRADA(EstadoReserva.EXPIRADA);       // La retención venció sin confirmarse
+        
+        private final EstadoReserva estado;     // Estado en que queda la reserva
+        
+        Tipo(EstadoReserva estado) {
+            this.estado = estado;
+        }
+        
+        public EstadoReserva getEstado() { return estado; }
+    }
+    
+    private final Tipo tipo;            // Qué ocurrió
+    private final Reserva reserva;      // Reserva afectada
+    private final long instante;        // Cuándo ocurrió (milisegundos desde epoch)
+    
+    /**
+     * Constructor del evento
+     * @param tipo Tipo de evento
+     * @param reserva Reserva que cambió de estado
+     */
+    public EventoReserva(Tipo tipo, Reserva reserva) {
+        this.tipo = tipo;
+        this.reserva = reserva;
+        this.instante = System.currentTimeMillis();
+    }
+    
+    // Getters
+    public Tipo getTipo() { return tipo; }
+    public Reserva getReserva() { return reserva; }
+    public long getInstante() { return instante; }
+    
+    /**
+     * @return Estado en que quedó la reserva con este evento
+     */
+    public EstadoReserva getEstado() { return tipo.getEstado(); }
+}
@@ -1,18 +1,21 @@
 package com.reservas.modelo;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Clase Funcion: representa una proyección específica de una película
  * Relaciona: Película + Horario + Sala
  */
 public class Funcion {
-    private String id;                  // Identificador único de la función
+    private Id<Funcion> id;             // Identificador único de la función
     private Pelicula pelicula;          // Película que se proyecta
     private LocalDateTime horario;      // Fecha y hora de la función
     private Sala sala;                  // Sala donde se proyecta
+    private InventarioAsientos inventario; // Ocupación de los asientos en ESTA función
+    private final ListaEspera listaEspera;  // Clientes esperando asientos que se liberen
+    private final BuzonFuncion buzon;       // Operaciones de a una por vez (modelo de actores)
     
     /**
      * Constructor que crea una función
@@ -21,10 +24,44 @@ public class Funcion {
      * @param sala Sala de proyección
      */
     public Funcion(Pelicula pelicula, LocalDateTime horario, Sala sala) {
-        this.id = UUID.randomUUID().toString();
+        this(Id.nuevo(), pelicula, horario, sala);
+    }
+    
+    /**
+     * Constructor que crea una función con un id conocido
+     * Se usa para reconstruir funciones ya programadas (ej: al recuperar
+     * las ventas desde el DiarioReservas, que guarda el id en texto:
+     * se reconstruye con Id.desdeTexto())
+     * @param id Identificador de la función
+     * @param pelicula Película a proyectar
+     * @param horario Fecha y hora
+     * @param sala Sala de proyección
+     */
+    public Funcion(Id<Funcion> id, Pelicula pelicula, LocalDateTime horario, Sala sala) {
+        this(id, pelicula, horario, sala, new InventarioAsientos(sala.getCapacidad()));
+    }
+    
+    /**
+     * Constructor que crea una función con un inventario ya existente
+     * (ej: uno respaldado por un AlmacenAsientosMapeado, fuera del heap)
+     * @param id Identificador de la función
+     * @param pelicula Película a proyectar
+     * @param horario Fecha y hora
+     * @param sala Sala de proyección
+     * @param inventario Ocupación de los asientos de esta función
+     */
+    public Funcion(Id<Funcion> id, Pelicula pelicula, LocalDateTime horario, Sala sala,
+                   InventarioAsientos inventario) {
+        if (inventario.getCapacidad() != sala.getCapacidad()) {
+            throw new IllegalArgumentException("El inventario no corresponde a la capacidad de la sala");
+        }
+        this.id = id;
         this.pelicula = pelicula;
         this.horario = horario;
         this.sala = sala;
+        this.inventario = inventario;
+        this.listaEspera = new ListaEspera(this);
+        this.buzon = new BuzonFuncion(this);
     }
     
     /**
@@ -33,14 +70,94 @@ public class Funcion {
      * @return true si TODOS los asientos están libres, false si alguno está ocupado
      */
     public boolean verificarDisponibilidad(List<Asiento> asientos) {
-        // Usamos Stream API para verificar que ningún asiento esté ocupado
-        // noneMatch retorna true si NINGUNO cumple la condición (ocupado)
-        return asientos.stream().noneMatch(Asiento::isOcupado);
+        // Consultamos el bitmap de la función: es solo una "foto" del momento,
+        // para ocupar los asientos sin carreras hay que usar reclamarAsientos()
+        return inventario.estanLibres(indices(asientos));
+    }
+    
+    /**
+     * Busca los mejores asientos libres, todos juntos en la misma fila
+     * Solo los sugiere: para ocuparlos hay que reservarlos, y si otro
+     * cliente los tomó antes, se puede volver a buscar
+     * 
+     * @param cantidad Tamaño del grupo
+     * @return Asientos sugeridos, o una lista vacía si no hay un bloque libre de ese tamaño
+     */
+    public List<Asiento> buscarMejoresAsientos(int cantidad) {
+        int primero = sala.getAsignador().buscar(inventario, cantidad);
+        if (primero < 0) {
+            return Collections.emptyList();
+        }
+        return sala.getAsientos().subList(primero, primero + cantidad);
+    }
+    
+    /**
+     * Consulta la ocupación de un asiento en ESTA función
+     * @param asiento Asiento de la sala
+     * @return true si el asiento está vendido o reservado para esta función
+     */
+    public boolean estaOcupado(Asiento asiento) {
+        return inventario.estaOcupado(indice(asiento));
+    }
+    
+    /**
+     * Ocupa TODOS los asientos de forma atómica (todo o nada)
+     * Si dos clientes compiten por el mismo asiento, solo uno lo obtiene
+     * 
+     * @param asientos Asientos a ocupar
+     * @return true si se ocuparon todos, false si alguno ya estaba ocupado
+     */
+    public boolean reclamarAsientos(List<Asiento> asientos) {
+        return inventario.reclamar(indices(asientos));
+    }
+    
+    /**
+     * Libera asientos previamente reclamados en esta función
+     * Pasan primero por la lista de espera: si alguien espera, se los lleva
+     * antes de volver a la venta
+     * @param asientos Asientos a liberar
+     */
+    public void liberarAsientos(List<Asiento> asientos) {
+        listaEspera.liberar(indices(asientos));
+    }
+    
+    /**
+     * Convierte los asientos en sus índices dentro de la sala
+     * @throws IllegalArgumentException si algún asiento no es de esta sala
+     */
+    int[] indices(List<Asiento> asientos) {
+        int[] indices = new int[asientos.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = indice(asientos.get(i));
+        }
+        return indices;
+    }
+    
+    /**
+     * Índice del asiento dentro de la sala
+     * Rechaza asientos que pertenecen a otra sala
+     */
+    private int indice(Asiento asiento) {
+        List<Asiento> asientosSala = sala.getAsientos();
+        int indice = asiento.getIndice();
+        if (indice < 0 || indice >= asientosSala.size() || asientosSala.get(indice) != asiento) {
+            throw new IllegalArgumentException(
+                "El asiento " + asiento.getNumero() + " no pertenece a la sala de esta función");
+        }
+        return indice;
     }
     
     // Getters
-    public String getId() { return id; }
+    public Id<Funcion> getId() { return id; }
     public Pelicula getPelicula() { return pelicula; }
     public LocalDateTime getHorario() { return horario; }
+    
+    /**
+     * @return Cuándo termina la función (horario + duración de la película)
+     */
+    public LocalDateTime getFin() { return horario.plusMinutes(pelicula.getDuracion()); }
     public Sala getSala() { return sala; }
+    public InventarioAsientos getInventario() { return inventario; }
+    public ListaEspera getListaEspera() { return listaEspera; }
+    public BuzonFuncion getBuzon() { return buzon; }
 }
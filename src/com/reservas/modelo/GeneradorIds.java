@@ -0,0 +1,85 @@
+package com.reservas.modelo;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de identificadores de 64 bits, ordenados por tiempo
+ *
+ * Reemplaza a UUID.randomUUID(), que usa SecureRandom y deja un String de
+ * 36 caracteres por entidad. Cada id es un long con tres partes:
+ *
+ *   [41 bits: milisegundos desde 2024-01-01][10 bits: nodo][12 bits: secuencia]
+ *
+ * - Ordenados: un id generado después es mayor (en el mismo nodo), así
+ *   que los índices que los usan como clave se llenan "al final"
+ * - Únicos entre nodos: cada servidor usa un número de nodo distinto
+ *   (0 a 1023), y nunca pueden repetir un id del otro
+ * - Sin locks: el estado (milisegundo + secuencia) es un único AtomicLong
+ *   que se avanza con CAS
+ *
+ * Si en un milisegundo se piden más de 4096 ids, la secuencia "desborda"
+ * al milisegundo siguiente en lugar de esperar: el reloj del generador se
+ * adelanta un poco y se pone al día solo. Si el reloj del sistema vuelve
+ * hacia atrás, se sigue desde el último valor: nunca se repite un id
+ */
+public final class GeneradorIds {
+    public static final long EPOCA = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    static final int BITS_NODO = 10;
+    static final int BITS_SECUENCIA = 12;
+    public static final int MAXIMO_NODO = (1 << BITS_NODO) - 1;
+
+    private final long nodo; // Ya desplazado a su posición
+    private final AtomicLong ultimo = new AtomicLong(); // (milisegundo << BITS_SECUENCIA) | secuencia
+
+    /**
+     * Generador del proceso: el nodo se toma de la propiedad "reservas.nodo"
+     * (ej: java -Dreservas.nodo=3), o 0 si no está definida
+     */
+    private static class Contenedor {
+        private static final GeneradorIds GLOBAL = new GeneradorIds(Integer.getInteger("reservas.nodo", 0));
+    }
+
+    /**
+     * @param nodo Número de este servidor (0 a 1023)
+     */
+    public GeneradorIds(int nodo) {
+        if (nodo < 0 || nodo > MAXIMO_NODO) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + MAXIMO_NODO + ": " + nodo);
+        }
+        this.nodo = (long) nodo << BITS_SECUENCIA;
+    }
+
+    /**
+     * @return El generador compartido del proceso
+     */
+    public static GeneradorIds global() {
+        return Contenedor.GLOBAL;
+    }
+
+    /**
+     * Genera un id nuevo (no reserva memoria)
+     * @return Id de 63 bits (siempre positivo)
+     */
+    public long siguiente() {
+        long ahora = (System.currentTimeMillis() - EPOCA) << BITS_SECUENCIA;
+        while (true) {
+            long anterior = ultimo.get();
+            // La secuencia siguiente, o el milisegundo actual si el reloj ya avanzó
+            long nuevo = Math.max(anterior + 1, ahora);
+            if (ultimo.compareAndSet(anterior, nuevo)) {
+                long milisegundo = nuevo >>> BITS_SECUENCIA;
+                long secuencia = nuevo & ((1L << BITS_SECUENCIA) - 1);
+                return (milisegundo << (BITS_NODO + BITS_SECUENCIA)) | nodo | secuencia;
+            }
+        }
+    }
+
+    /**
+     * @return Un id nuevo, con el tipo de la entidad que identifica
+     */
+    public <T> Id<T> nuevo() {
+        return Id.de(siguiente());
+    }
+
+    public int getNodo() { return (int) (nodo >>> BITS_SECUENCIA); }
+}
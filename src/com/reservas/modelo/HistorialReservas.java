@@ -0,0 +1,202 @@
+package com.reservas.modelo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Historial de reservas de UN cliente, indexado
+ *
+ * - Por fecha de la función: todas las reservas ordenadas por horario
+ * - Por estado y por película: el mismo orden, pero solo las de ese estado/película
+ *
+ * Como IndiceFunciones, usa ConcurrentSkipListMap: las consultas devuelven
+ * VISTAS de solo lectura (no copias) que se pueden compartir sin costo, y
+ * leer nunca bloquea a quien agrega reservas
+ *
+ * Para historiales largos hay paginación por CURSOR: cada página trae un
+ * cursor opaco que indica dónde sigue la siguiente. A diferencia de un
+ * "offset", el cursor es una clave: si se agregan reservas mientras tanto,
+ * no se repiten ni se saltean elementos, y saltar a la siguiente página
+ * es O(log n)
+ *
+ * El índice por estado se mantiene al día: la Reserva avisa cada vez que
+ * cambia de estado (ver cambioDeEstado)
+ */
+public class HistorialReservas {
+    private final ConcurrentSkipListMap<ClaveHorario, Reserva> porFecha = new ConcurrentSkipListMap<>();
+    private final Map<Id<Pelicula>, ConcurrentSkipListMap<ClaveHorario, Reserva>> porPelicula = new ConcurrentHashMap<>();
+    private final Map<EstadoReserva, ConcurrentSkipListMap<ClaveHorario, Reserva>> porEstado =
+        new EnumMap<>(EstadoReserva.class); // Se llena en el constructor y después solo se lee
+    private final Map<Id<Reserva>, ClaveHorario> claves = new ConcurrentHashMap<>(); // Id de reserva -> su clave
+
+    HistorialReservas() {
+        for (EstadoReserva estado : EstadoReserva.values()) {
+            porEstado.put(estado, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * Agrega una reserva a todos los índices (si ya estaba, no hace nada)
+     * Las escrituras se serializan con cambioDeEstado(): así el índice por
+     * estado termina igual sin importar cuál de los dos llega primero
+     * @param reserva Reserva del cliente
+     */
+    synchronized void agregar(Reserva reserva) {
+        ClaveHorario clave = new ClaveHorario(reserva.getFuncion().getHorario(), reserva.getId().getValor());
+        if (claves.putIfAbsent(reserva.getId(), clave) != null) {
+            return;
+        }
+        porFecha.put(clave, reserva);
+        porPelicula.computeIfAbsent(reserva.getFuncion().getPelicula().getId(), id -> new ConcurrentSkipListMap<>())
+            .put(clave, reserva);
+        porEstado.get(reserva.getEstado()).put(clave, reserva); // Estado leído DENTRO del lock
+    }
+
+    /**
+     * Mueve una reserva al índice de su nuevo estado
+     * Si la reserva todavía no está en el historial no hace nada: cuando se
+     * agregue, se indexará con el estado que tenga en ese momento
+     * @param reserva Reserva que cambió (ya con el estado nuevo)
+     * @param anterior Estado que tenía antes
+     */
+    synchronized void cambioDeEstado(Reserva reserva, EstadoReserva anterior) {
+        ClaveHorario clave = claves.get(reserva.getId());
+        if (clave == null || anterior == reserva.getEstado()) {
+            return;
+        }
+        porEstado.get(anterior).remove(clave);
+        porEstado.get(reserva.getEstado()).put(clave, reserva);
+    }
+
+    // ============================================
+    // CONSULTAS (vistas de solo lectura)
+    // ============================================
+
+    /**
+     * Todas las reservas, ordenadas por horario de la función
+     * @return Vista de solo lectura (no es una copia)
+     */
+    public Collection<Reserva> todas() {
+        return Collections.unmodifiableCollection(porFecha.values());
+    }
+
+    /**
+     * @param estado Estado buscado
+     * @return Vista de solo lectura, ordenada por horario de la función
+     */
+    public Collection<Reserva> conEstado(EstadoReserva estado) {
+        return Collections.unmodifiableCollection(porEstado.get(estado).values());
+    }
+
+    /**
+     * @param peliculaId Id de la película
+     * @return Vista de solo lectura, ordenada por horario de la función
+     */
+    public Collection<Reserva> dePelicula(Id<Pelicula> peliculaId) {
+        ConcurrentSkipListMap<ClaveHorario, Reserva> indice = porPelicula.get(peliculaId);
+        return indice == null ? Collections.emptyList() : Collections.unmodifiableCollection(indice.values());
+    }
+
+    /**
+     * Reservas para funciones con horario en [desde, hasta)
+     * @return Vista de solo lectura, ordenada por horario de la función
+     */
+    public Collection<Reserva> entre(LocalDateTime desde, LocalDateTime hasta) {
+        if (!desde.isBefore(hasta)) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableCollection(
+            porFecha.subMap(ClaveHorario.inicio(desde), true, ClaveHorario.inicio(hasta), false).values());
+    }
+
+    public int getCantidad() { return porFecha.size(); }
+
+    // ============================================
+    // PAGINACIÓN POR CURSOR
+    // ============================================
+
+    /**
+     * Una página de todas las reservas
+     * @param cursor Cursor de la página anterior, o null para la primera
+     * @param tamano Máximo de reservas en la página
+     * @return La página y el cursor de la siguiente
+     */
+    public Pagina pagina(String cursor, int tamano) {
+        return paginar(porFecha, cursor, tamano);
+    }
+
+    /**
+     * Una página de las reservas en un estado
+     * @param estado Estado buscado
+     * @param cursor Cursor de la página anterior, o null para la primera
+     * @param tamano Máximo de reservas en la página
+     * @return La página y el cursor de la siguiente
+     */
+    public Pagina paginaConEstado(EstadoReserva estado, String cursor, int tamano) {
+        return paginar(porEstado.get(estado), cursor, tamano);
+    }
+
+    /**
+     * Una página de las reservas de una película
+     * @param peliculaId Id de la película
+     * @param cursor Cursor de la página anterior, o null para la primera
+     * @param tamano Máximo de reservas en la página
+     * @return La página y el cursor de la siguiente
+     */
+    public Pagina paginaDePelicula(Id<Pelicula> peliculaId, String cursor, int tamano) {
+        ConcurrentSkipListMap<ClaveHorario, Reserva> indice = porPelicula.get(peliculaId);
+        return paginar(indice == null ? new ConcurrentSkipListMap<>() : indice, cursor, tamano);
+    }
+
+    /**
+     * Recorre el índice desde la clave del cursor (excluida) hasta llenar la página
+     */
+    private static Pagina paginar(NavigableMap<ClaveHorario, Reserva> indice, String cursor, int tamano) {
+        if (tamano <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo: " + tamano);
+        }
+        NavigableMap<ClaveHorario, Reserva> resto = cursor == null
+            ? indice : indice.tailMap(ClaveHorario.decodificar(cursor), false);
+        List<Reserva> reservas = new ArrayList<>(Math.min(tamano, 64));
+        ClaveHorario ultima = null;
+        Iterator<Map.Entry<ClaveHorario, Reserva>> it = resto.entrySet().iterator();
+        while (it.hasNext() && reservas.size() < tamano) {
+            Map.Entry<ClaveHorario, Reserva> entrada = it.next();
+            reservas.add(entrada.getValue());
+            ultima = entrada.getKey();
+        }
+        // Solo hay siguiente página si quedó algo sin recorrer
+        String siguiente = it.hasNext() ? ultima.codificar() : null;
+        return new Pagina(Collections.unmodifiableList(reservas), siguiente);
+    }
+
+    /**
+     * Una página del historial
+     */
+    public static final class Pagina {
+        private final List<Reserva> reservas;
+        private final String siguienteCursor;
+
+        private Pagina(List<Reserva> reservas, String siguienteCursor) {
+            this.reservas = reservas;
+            this.siguienteCursor = siguienteCursor;
+        }
+
+        public List<Reserva> getReservas() { return reservas; }
+        public boolean haySiguiente() { return siguienteCursor != null; }
+
+        /**
+         * @return Cursor para pedir la página siguiente, o null si esta es la última
+         */
+        public String getSiguienteCursor() { return siguienteCursor; }
+    }
+}
@@ -0,0 +1,123 @@
+package com.reservas.modelo;
+
+/**
+ * Clase Id: identificador de una entidad (un long, ver GeneradorIds)
+ *
+ * El parámetro de tipo solo existe para el compilador: un Id<Funcion> no
+ * se puede pasar donde se espera un Id<Pelicula>, aunque los dos sean un
+ * long por dentro
+ *
+ * Se compara, se usa como clave de mapas y se ordena como número. Solo se
+ * convierte a texto en los bordes (pantallas, archivos, pasarelas de
+ * pago): 13 caracteres en base 32 (alfabeto de Crockford), que se ordenan
+ * igual que los números y no tienen letras confundibles (I, L, O, U)
+ *
+ * Es inmutable
+ */
+public final class Id<T> implements Comparable<Id<T>> {
+    private static final char[] ALFABETO = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LARGO_TEXTO = 13; // 13 × 5 bits cubren los 64 bits
+
+    private final long valor;
+    private String texto; // Se arma recién cuando se pide
+
+    private Id(long valor) {
+        this.valor = valor;
+    }
+
+    /**
+     * @return Un id nuevo del generador global
+     */
+    public static <T> Id<T> nuevo() {
+        return GeneradorIds.global().nuevo();
+    }
+
+    /**
+     * @param valor Id numérico (ej: leído de un archivo)
+     * @return El id
+     */
+    public static <T> Id<T> de(long valor) {
+        return new Id<>(valor);
+    }
+
+    /**
+     * Lee un id desde su texto (sin distinguir mayúsculas)
+     * @param texto Texto generado por toString()
+     * @return El id
+     * @throws IllegalArgumentException si el texto no es un id
+     */
+    public static <T> Id<T> desdeTexto(String texto) {
+        if (texto.length() != LARGO_TEXTO) {
+            throw new IllegalArgumentException("Id inválido: " + texto);
+        }
+        long valor = 0;
+        for (int i = 0; i < LARGO_TEXTO; i++) {
+            int digito = digito(Character.toUpperCase(texto.charAt(i)));
+            if (digito < 0 || (i == 0 && digito > 0xF)) { // El primer carácter lleva solo 4 bits
+                throw new IllegalArgumentException("Id inválido: " + texto);
+            }
+            valor = (valor << 5) | digito;
+        }
+        return new Id<>(valor);
+    }
+
+    private static int digito(char caracter) {
+        for (int i = 0; i < ALFABETO.length; i++) {
+            if (ALFABETO[i] == caracter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long getValor() { return valor; }
+
+    /**
+     * @return Momento en que se generó (milisegundos desde 1970)
+     */
+    public long getMilisegundo() {
+        return (valor >>> (GeneradorIds.BITS_NODO + GeneradorIds.BITS_SECUENCIA)) + GeneradorIds.EPOCA;
+    }
+
+    /**
+     * @return Nodo que lo generó
+     */
+    public int getNodo() {
+        return (int) (valor >>> GeneradorIds.BITS_SECUENCIA) & GeneradorIds.MAXIMO_NODO;
+    }
+
+    @Override
+    public int compareTo(Id<T> otro) {
+        return Long.compare(valor, otro.valor);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Id && ((Id<?>) obj).valor == valor;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(valor);
+    }
+
+    /**
+     * @return El id en texto (ej: "01HZ3K8V2QX0A"), siempre de 13 caracteres
+     */
+    @Override
+    public String toString() {
+        String resultado = texto;
+        if (resultado == null) {
+            // Si dos hilos lo arman a la vez, los dos obtienen el mismo texto
+            char[] caracteres = new char[LARGO_TEXTO];
+            long resto = valor;
+            for (int i = LARGO_TEXTO - 1; i >= 0; i--) {
+                caracteres[i] = ALFABETO[(int) (resto & 31)];
+                resto >>>= 5;
+            }
+            resultado = new String(caracteres);
+            texto = resultado;
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,299 @@
+package com.reservas.modelo;
+
+import com.reservas.metricas.RegistroMetricas;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Clase InventarioAsientos: estado de ocupación de los asientos de UNA función
+ *
+ * Cada asiento es un bit dentro de un AtomicLongArray (64 asientos por palabra):
+ * - bit en 1 = asiento ocupado, bit en 0 = asiento libre
+ * - El índice del bit es el índice del asiento dentro de la sala
+ *
+ * Las operaciones son lock-free (compareAndSet):
+ * - Si dos hilos intentan tomar el mismo asiento, solo uno gana el CAS
+ * - Reclamar varios asientos es TODO o NADA: si alguno ya está ocupado,
+ *   se devuelven los que se alcanzaron a tomar y la operación falla
+ *
+ * Dónde viven las palabras lo decide el Almacen: por defecto en el heap,
+ * pero también pueden vivir fuera del heap (ej: en un archivo mapeado a
+ * memoria, ver persistencia.AlmacenAsientosMapeado)
+ */
+public class InventarioAsientos {
+    private static final int BITS_POR_PALABRA = 64;
+    // CAS perdidos contra otro hilo (mide la contención sobre las mismas palabras)
+    private static final LongAdder REINTENTOS_CAS = RegistroMetricas.global().contador("asientos.reintentos_cas");
+
+    private final int capacidad;            // Número de asientos de la función
+    private final Almacen palabras; // Bitmap de ocupación
+    private final AtomicInteger ocupados = new AtomicInteger(); // Se actualiza con cada cambio
+
+    /**
+     * Constructor que crea un inventario en el heap con todos los asientos libres
+     * @param capacidad Número de asientos de la sala
+     */
+    public InventarioAsientos(int capacidad) {
+        this(capacidad, new AlmacenHeap(palabrasNecesarias(capacidad)));
+    }
+
+    /**
+     * Constructor que usa un almacén ya existente (no lo limpia: si el
+     * almacén guardaba ventas anteriores, el inventario las conserva)
+     * @param capacidad Número de asientos de la sala
+     * @param almacen Palabras donde se guarda el bitmap
+     */
+    public InventarioAsientos(int capacidad, Almacen almacen) {
+        if (almacen.longitud() < palabrasNecesarias(capacidad)) {
+            throw new IllegalArgumentException(
+                "El almacén no alcanza para " + capacidad + " asientos");
+        }
+        this.capacidad = capacidad;
+        this.palabras = almacen;
+        this.ocupados.set(contarBits());
+    }
+
+    /**
+     * @param capacidad Número de asientos
+     * @return Palabras de 64 bits necesarias para guardarlos
+     */
+    public static int palabrasNecesarias(int capacidad) {
+        if (capacidad < 0) {
+            throw new IllegalArgumentException("La capacidad no puede ser negativa: " + capacidad);
+        }
+        return (capacidad + BITS_POR_PALABRA - 1) / BITS_POR_PALABRA;
+    }
+
+    /**
+     * Intenta ocupar TODOS los asientos indicados de forma atómica
+     * Si algún asiento ya está ocupado no se modifica nada
+     *
+     * @param indices Índices de los asientos a ocupar
+     * @return true si se ocuparon todos, false si alguno ya estaba ocupado
+     */
+    public boolean reclamar(int[] indices) {
+        Mascaras mascaras = agrupar(indices);
+
+        for (int i = 0; i < mascaras.cantidad; i++) {
+            if (!tomarPalabra(mascaras.palabras[i], mascaras.bits[i])) {
+                // Deshacemos las palabras que ya habíamos tomado:
+                // esos bits son nuestros, así que nadie más los pudo cambiar
+                for (int j = 0; j < i; j++) {
+                    soltarPalabra(mascaras.palabras[j], mascaras.bits[j]);
+                }
+                return false;
+            }
+        }
+        ocupados.addAndGet(mascaras.totalBits());
+        return true;
+    }
+
+    /**
+     * Libera los asientos indicados
+     * Solo debe llamarlo quien los reclamó previamente
+     * @param indices Índices de los asientos a liberar
+     */
+    public void liberar(int[] indices) {
+        Mascaras mascaras = agrupar(indices);
+        for (int i = 0; i < mascaras.cantidad; i++) {
+            soltarPalabra(mascaras.palabras[i], mascaras.bits[i]);
+        }
+        ocupados.addAndGet(-mascaras.totalBits());
+    }
+
+    /**
+     * Verifica si todos los asientos indicados están libres en este momento
+     * Es solo una consulta: para ocuparlos hay que usar reclamar()
+     * @param indices Índices de los asientos a verificar
+     * @return true si TODOS están libres
+     */
+    public boolean estanLibres(int[] indices) {
+        Mascaras mascaras = agrupar(indices);
+        for (int i = 0; i < mascaras.cantidad; i++) {
+            if ((palabras.get(mascaras.palabras[i]) & mascaras.bits[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param indice Índice del asiento
+     * @return true si el asiento está ocupado
+     */
+    public boolean estaOcupado(int indice) {
+        validar(indice);
+        return (palabras.get(indice / BITS_POR_PALABRA) & (1L << indice)) != 0;
+    }
+
+    /**
+     * Cantidad de asientos ocupados, en O(1)
+     * (un contador que acompaña a cada reclamar/liberar)
+     * @return Número de asientos ocupados
+     */
+    public int contarOcupados() {
+        return ocupados.get();
+    }
+
+    /**
+     * Cuenta los bits en 1 del bitmap (una lectura por cada 64 asientos)
+     */
+    private int contarBits() {
+        int total = 0;
+        for (int i = 0; i < palabrasNecesarias(capacidad); i++) {
+            total += Long.bitCount(palabras.get(i));
+        }
+        return total;
+    }
+
+    /**
+     * Copia el bitmap completo (para instantáneas y diagnóstico)
+     * @return Palabras de 64 bits, un bit por asiento
+     */
+    public long[] copiarPalabras() {
+        long[] copia = new long[palabrasNecesarias(capacidad)];
+        for (int i = 0; i < copia.length; i++) {
+            copia[i] = palabras.get(i);
+        }
+        return copia;
+    }
+
+    /**
+     * Reemplaza la ocupación por un bitmap guardado (al recuperar desde disco)
+     * Debe llamarse antes de empezar a vender asientos de la función
+     * @param guardadas Palabras de 64 bits, un bit por asiento
+     */
+    public void restaurar(long[] guardadas) {
+        for (int i = 0; i < palabrasNecesarias(capacidad); i++) {
+            long palabra = i < guardadas.length ? guardadas[i] : 0L;
+            int sobrantes = (i + 1) * BITS_POR_PALABRA - capacidad;
+            if (sobrantes > 0) {
+                palabra &= -1L >>> sobrantes; // Ignoramos bits fuera de la sala
+            }
+            palabras.set(i, palabra);
+        }
+        ocupados.set(contarBits());
+    }
+
+    public int getCapacidad() { return capacidad; }
+
+    // ============================================
+    // ALMACENAMIENTO DE LAS PALABRAS
+    // ============================================
+
+    /**
+     * Arreglo de palabras de 64 bits con lectura y compareAndSet atómicos
+     * Las lecturas y escrituras deben tener semántica volatile
+     */
+    public interface Almacen {
+        /** @return Cantidad de palabras disponibles */
+        int longitud();
+
+        long get(int i);
+
+        void set(int i, long valor);
+
+        boolean compareAndSet(int i, long esperado, long nuevo);
+    }
+
+    /**
+     * Almacén en el heap (el de siempre: un AtomicLongArray)
+     */
+    private static final class AlmacenHeap implements Almacen {
+        private final AtomicLongArray palabras;
+
+        AlmacenHeap(int longitud) {
+            this.palabras = new AtomicLongArray(longitud);
+        }
+
+        @Override public int longitud() { return palabras.length(); }
+        @Override public long get(int i) { return palabras.get(i); }
+        @Override public void set(int i, long valor) { palabras.set(i, valor); }
+        @Override public boolean compareAndSet(int i, long esperado, long nuevo) {
+            return palabras.compareAndSet(i, esperado, nuevo);
+        }
+    }
+
+    // ============================================
+    // OPERACIONES SOBRE PALABRAS DE 64 BITS
+    // ============================================
+
+    /**
+     * Pone en 1 los bits de la máscara si TODOS estaban en 0
+     */
+    private boolean tomarPalabra(int palabra, long mascara) {
+        while (true) {
+            long actual = palabras.get(palabra);
+            if ((actual & mascara) != 0) {
+                return false; // Algún asiento ya está ocupado
+            }
+            if (palabras.compareAndSet(palabra, actual, actual | mascara)) {
+                return true;
+            }
+            // Otro hilo cambió la palabra (quizás otros asientos): reintentamos
+            REINTENTOS_CAS.increment();
+        }
+    }
+
+    /**
+     * Pone en 0 los bits de la máscara
+     */
+    private void soltarPalabra(int palabra, long mascara) {
+        long actual = palabras.get(palabra);
+        while (!palabras.compareAndSet(palabra, actual, actual & ~mascara)) {
+            REINTENTOS_CAS.increment();
+            actual = palabras.get(palabra);
+        }
+    }
+
+    /**
+     * Agrupa los índices por palabra, en orden ascendente
+     * Tomar siempre las palabras en el mismo orden evita que dos reservas
+     * grandes se hagan fallar mutuamente una y otra vez
+     */
+    private Mascaras agrupar(int[] indices) {
+        int[] ordenados = indices.clone();
+        Arrays.sort(ordenados);
+
+        Mascaras mascaras = new Mascaras(ordenados.length);
+        for (int indice : ordenados) {
+            validar(indice);
+            int palabra = indice / BITS_POR_PALABRA;
+            if (mascaras.cantidad == 0 || mascaras.palabras[mascaras.cantidad - 1] != palabra) {
+                mascaras.palabras[mascaras.cantidad++] = palabra;
+            }
+            mascaras.bits[mascaras.cantidad - 1] |= 1L << indice; // El shift usa indice % 64
+        }
+        return mascaras;
+    }
+
+    private void validar(int indice) {
+        if (indice < 0 || indice >= capacidad) {
+            throw new IllegalArgumentException("Asiento fuera de la sala: " + indice);
+        }
+    }
+
+    /**
+     * Pares (palabra, bits) de una operación de varios asientos
+     */
+    private static final class Mascaras {
+        final int[] palabras;
+        final long[] bits;
+        int cantidad;
+
+        Mascaras(int maximo) {
+            this.palabras = new int[maximo];
+            this.bits = new long[maximo];
+        }
+
+        int totalBits() {
+            int total = 0;
+            for (int i = 0; i < cantidad; i++) {
+                total += Long.bitCount(bits[i]);
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.reservas.modelo;
+
+import com.reservas.metricas.RegistroMetricas;
+import com.reservas.metricas.Temporizador;
+import com.reservas.sistema.SistemaReservas;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lista de espera de UNA función (para funciones agotadas)
+ *
+ * Un cliente se anota pidiendo N asientos juntos. Cuando una reserva
+ * devuelve asientos (cancelación, retención vencida, pago fallido), esos
+ * asientos NO vuelven a la venta libre: se ofrecen primero a quien espera
+ *
+ * Estructura: una cola FIFO por tamaño de grupo (1, 2, 3, ...)
+ * - Dentro de cada cola, las solicitudes están ordenadas por llegada
+ * - Para un hueco de L asientos juntos, alcanza con mirar la cabeza de las
+ *   colas 1..L y elegir la solicitud más antigua: O(tamaño de grupo), sin
+ *   recorrer toda la lista
+ *
+ * Reasignación (en una sola pasada sobre los asientos liberados, sin
+ * recorrer la sala):
+ * 1. Los asientos liberados se agrupan en tramos contiguos de la misma fila
+ * 2. Cada tramo se extiende hacia los costados con los asientos libres
+ *    vecinos (hasta un pasillo, un ocupado o el fin de la fila)
+ * 3. Se elige la solicitud más antigua que entra en ese hueco, se le da un
+ *    bloque que cubre los asientos liberados y se sigue con lo que sobra
+ * 4. Los asientos liberados que nadie tomó vuelven al inventario
+ *
+ * Los asientos liberados pasan DIRECTAMENTE a la nueva reserva: nunca se
+ * marcan libres, así que ningún otro comprador puede ganarlos en el medio
+ *
+ * TODA liberación de asientos de la función pasa por liberar(), con el
+ * lock de la lista: mirar si alguien espera y liberar (o reasignar) es un
+ * solo paso, así que un cliente que se anota a la vez nunca queda
+ * esperando asientos que ya volvieron a la venta
+ *
+ * Quien libera suele tener el lock de su reserva: las ofertas se entregan
+ * en los hilos de la lista (Entregas), nunca en el hilo que liberó, para
+ * que lo que el cliente encadena al futuro no corra con ese lock tomado
+ *
+ * La oferta es una reserva RETENIDA (con el mismo vencimiento que
+ * cualquier retención): si el cliente no la paga a tiempo, vence y los
+ * asientos se ofrecen al siguiente de la lista
+ */
+public class ListaEspera {
+    // Métricas (compartidas por todas las funciones)
+    private static final Temporizador TIEMPO_OFERTA = RegistroMetricas.global().temporizador("espera.oferta");
+    private static final Temporizador TIEMPO_EN_LISTA = RegistroMetricas.global().temporizador("espera.tiempo_en_lista");
+    private static final LongAdder OFERTAS = RegistroMetricas.global().contador("espera.ofertas");
+    private static final LongAdder PROFUNDIDAD = new LongAdder(); // Solicitudes esperando, en todas las funciones
+    static {
+        RegistroMetricas.global().indicador("espera.profundidad", PROFUNDIDAD::sum);
+    }
+
+    /**
+     * Hilos que entregan las ofertas (compartidos por todas las funciones;
+     * se crean con la primera oferta)
+     */
+    private static class Entregas {
+        private static final ExecutorService HILOS = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), tarea -> {
+                Thread hilo = new Thread(tarea, "lista-espera");
+                hilo.setDaemon(true); // No impide que la aplicación termine
+                return hilo;
+            });
+    }
+
+    private final Funcion funcion;
+    private final DisenoSala diseno;
+    private final ArrayDeque<Solicitud>[] porTamano; // porTamano[n] = solicitudes de n asientos, por llegada
+    private long secuencia;                          // Orden de llegada (desempata el mismo nanoTime)
+    private volatile int profundidad;                // Solicitudes esperando (lectura sin lock)
+
+    /**
+     * @param funcion Función a la que pertenece la lista
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Arreglo de un tipo genérico
+    ListaEspera(Funcion funcion) {
+        this.funcion = funcion;
+        this.diseno = funcion.getSala().getDiseno();
+        // Igual que el AsignadorAsientos: grupos de hasta 64 y no más que el tramo más largo
+        this.porTamano = new ArrayDeque[Math.min(tramoMasLargo(diseno), Long.SIZE) + 1];
+    }
+
+    /**
+     * Solicitud de un cliente que espera asientos
+     */
+    private static final class Solicitud {
+        final Cliente cliente;
+        final int cantidad;
+        final long secuencia;
+        final long instante = System.nanoTime();
+        final CompletableFuture<Reserva> oferta = new CompletableFuture<>();
+
+        Solicitud(Cliente cliente, int cantidad, long secuencia) {
+            this.cliente = cliente;
+            this.cantidad = cantidad;
+            this.secuencia = secuencia;
+        }
+    }
+
+    /**
+     * Asientos asignados a una solicitud (se entregan fuera del lock)
+     */
+    private static final class Oferta {
+        final Solicitud solicitud;
+        final int[] indices;
+
+        Oferta(Solicitud solicitud, int[] indices) {
+            this.solicitud = solicitud;
+            this.indices = indices;
+        }
+    }
+
+    // ============================================
+    // ANOTARSE
+    // ============================================
+
+    /**
+     * Anota al cliente en la lista
+     * Si ya hay un bloque libre del tamaño pedido, se le ofrece enseguida
+     * en este hilo (así no se pierde un asiento liberado justo antes de
+     * anotarse)
+     *
+     * @param cliente Cliente que espera
+     * @param cantidad Asientos juntos que necesita
+     * @return Futuro que se completa con una reserva RETENIDA cuando hay
+     *         asientos; cancelarlo saca al cliente de la lista
+     * @throws IllegalArgumentException si el grupo no entra en ningún tramo de la sala
+     */
+    public CompletableFuture<Reserva> anotar(Cliente cliente, int cantidad) {
+        if (cantidad <= 0 || cantidad >= porTamano.length) {
+            throw new IllegalArgumentException("Ningún tramo de la sala tiene " + cantidad + " asientos juntos");
+        }
+        long inicio = System.nanoTime();
+        Oferta inmediata = null;
+        Solicitud solicitud;
+        synchronized (this) {
+            solicitud = new Solicitud(cliente, cantidad, secuencia++);
+            int primero = funcion.getSala().getAsignador().buscar(funcion.getInventario(), cantidad);
+            int[] bloque = primero < 0 ? null : rango(primero, primero + cantidad - 1);
+            if (bloque != null && funcion.getInventario().reclamar(bloque)) {
+                inmediata = new Oferta(solicitud, bloque);
+            } else {
+                cola(cantidad).addLast(solicitud);
+                cambiarProfundidad(1);
+            }
+        }
+        if (inmediata != null) {
+            ofrecer(inmediata, inicio);
+        } else {
+            solicitud.oferta.whenComplete((reserva, error) -> {
+                if (solicitud.oferta.isCancelled()) {
+                    retirar(solicitud);
+                }
+            });
+        }
+        return solicitud.oferta;
+    }
+
+    private synchronized void retirar(Solicitud solicitud) {
+        if (porTamano[solicitud.cantidad].remove(solicitud)) {
+            cambiarProfundidad(-1);
+        }
+    }
+
+    // ============================================
+    // REASIGNAR ASIENTOS LIBERADOS
+    // ============================================
+
+    /**
+     * Entrega asientos liberados a quien espera y devuelve el resto al inventario
+     * Lo llama Funcion.liberarAsientos(); si nadie espera, solo los libera
+     *
+     * @param liberados Índices de los asientos que se liberan (todavía ocupados en el inventario)
+     */
+    void liberar(int[] liberados) {
+        long inicio = System.nanoTime();
+        List<Oferta> ofertas = new ArrayList<>(1);
+        synchronized (this) {
+            if (profundidad == 0) {
+                funcion.getInventario().liberar(liberados);
+                return;
+            }
+            int[] ordenados = liberados.clone();
+            Arrays.sort(ordenados);
+            int[] sobrantes = new int[ordenados.length];
+            int cantidadSobrantes = 0;
+            int desde = 0;
+            while (desde < ordenados.length) {
+                // Tramo de asientos liberados contiguos: ordenados[desde..hasta]
+                int hasta = desde;
+                while (hasta + 1 < ordenados.length && ordenados[hasta + 1] == ordenados[hasta] + 1
+                        && juntos(ordenados[hasta])) {
+                    hasta++;
+                }
+                int primero = asignarTramo(ordenados[desde], ordenados[hasta], ofertas);
+                for (int indice = primero; indice <= ordenados[hasta]; indice++) {
+                    sobrantes[cantidadSobrantes++] = indice;
+                }
+                desde = hasta + 1;
+            }
+            if (cantidadSobrantes > 0) {
+                funcion.getInventario().liberar(Arrays.copyOf(sobrantes, cantidadSobrantes));
+            }
+        }
+        for (Oferta oferta : ofertas) {
+            Entregas.HILOS.execute(() -> ofrecer(oferta, inicio));
+        }
+    }
+
+    /**
+     * Ofrece los asientos liberados primero..ultimo (contiguos) a las
+     * solicitudes que entran, de la más antigua a la más nueva
+     *
+     * @return Primer asiento liberado que nadie tomó (ultimo + 1 si se asignaron todos)
+     */
+    private int asignarTramo(int primero, int ultimo, List<Oferta> ofertas) {
+        InventarioAsientos inventario = funcion.getInventario();
+        while (primero <= ultimo && profundidad > 0) {
+            // Hueco: el tramo liberado más los asientos libres de los costados
+            int inicio = primero;
+            while (inicio > 0 && juntos(inicio - 1) && !inventario.estaOcupado(inicio - 1)) {
+                inicio--;
+            }
+            int fin = ultimo;
+            while (juntos(fin) && !inventario.estaOcupado(fin + 1)) {
+                fin++;
+            }
+            Solicitud solicitud = masAntigua(fin - inicio + 1);
+            if (solicitud == null) {
+                break; // Nadie entra en este hueco
+            }
+            int cantidad = solicitud.cantidad;
+            int[] bloque;
+            if (cantidad <= ultimo - primero + 1) {
+                bloque = rango(primero, primero + cantidad - 1); // Solo asientos liberados
+            } else {
+                // El bloque cubre todo lo liberado y toma asientos libres vecinos
+                int desde = Math.max(inicio, Math.min(primero, fin - cantidad + 1));
+                int[] extra = new int[cantidad - (ultimo - primero + 1)];
+                int n = 0;
+                for (int indice = desde; indice < desde + cantidad; indice++) {
+                    if (indice < primero || indice > ultimo) {
+                        extra[n++] = indice;
+                    }
+                }
+                if (!inventario.reclamar(extra)) {
+                    continue; // Otro comprador tomó un vecino: se recalcula el hueco
+                }
+                bloque = rango(desde, desde + cantidad - 1);
+            }
+            cola(cantidad).pollFirst();
+            cambiarProfundidad(-1);
+            ofertas.add(new Oferta(solicitud, bloque));
+            primero = Math.max(primero, bloque[bloque.length - 1] + 1);
+        }
+        return primero;
+    }
+
+    /**
+     * @param maximo Asientos disponibles en el hueco
+     * @return La solicitud más antigua de hasta maximo asientos, o null si no hay
+     */
+    private Solicitud masAntigua(int maximo) {
+        Solicitud elegida = null;
+        for (int cantidad = Math.min(maximo, porTamano.length - 1); cantidad >= 1; cantidad--) {
+            ArrayDeque<Solicitud> cola = porTamano[cantidad];
+            Solicitud cabeza = cola == null ? null : cola.peekFirst();
+            if (cabeza != null && (elegida == null || cabeza.secuencia < elegida.secuencia)) {
+                elegida = cabeza;
+            }
+        }
+        return elegida;
+    }
+
+    /**
+     * Convierte los asientos asignados en una reserva RETENIDA y se la entrega al cliente
+     * Corre fuera del lock de la lista: en un hilo de Entregas, o en el
+     * del cliente si la oferta es inmediata
+     */
+    private void ofrecer(Oferta oferta, long liberacion) {
+        List<Asiento> asientos = new ArrayList<>(oferta.indices.length);
+        for (int indice : oferta.indices) {
+            asientos.add(diseno.getAsientos().get(indice));
+        }
+        Reserva reserva = new Reserva(oferta.solicitud.cliente, funcion, asientos);
+        reserva.recibirAsientos();
+        // Como en expirar(), no esperamos el fsync del diario: los hilos de Entregas son pocos
+        reserva.marcarRetenida(SistemaReservas.getInstance().getTiempoRetencion());
+        if (!oferta.solicitud.oferta.complete(reserva)) {
+            reserva.anular(); // El cliente dejó de esperar: los asientos pasan al siguiente
+            return;
+        }
+        long ahora = System.nanoTime();
+        OFERTAS.increment();
+        TIEMPO_OFERTA.registrar(ahora - liberacion);
+        TIEMPO_EN_LISTA.registrar(ahora - oferta.solicitud.instante);
+    }
+
+    // ============================================
+    // AUXILIARES
+    // ============================================
+
+    /**
+     * @return true si el asiento y el siguiente están juntos (misma fila, sin pasillo)
+     */
+    private boolean juntos(int indice) {
+        int columna = indice % diseno.getColumnas();
+        return columna + 1 < diseno.getColumnas() && !diseno.hayPasilloDespues(columna);
+    }
+
+    private ArrayDeque<Solicitud> cola(int cantidad) {
+        if (porTamano[cantidad] == null) {
+            porTamano[cantidad] = new ArrayDeque<>();
+        }
+        return porTamano[cantidad];
+    }
+
+    private void cambiarProfundidad(int cambio) {
+        profundidad += cambio; // Solo se escribe con el lock
+        PROFUNDIDAD.add(cambio);
+    }
+
+    private static int[] rango(int desde, int hasta) {
+        int[] indices = new int[hasta - desde + 1];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = desde + i;
+        }
+        return indices;
+    }
+
+    private static int tramoMasLargo(DisenoSala diseno) {
+        int maximo = 0;
+        int largo = 0;
+        for (int columna = 0; columna < diseno.getColumnas(); columna++) {
+            largo++;
+            if (columna == diseno.getColumnas() - 1 || diseno.hayPasilloDespues(columna)) {
+                maximo = Math.max(maximo, largo);
+                largo = 0;
+            }
+        }
+        return maximo;
+    }
+
+    /**
+     * @return true si nadie espera (lectura sin lock: solo informativa)
+     */
+    public boolean estaVacia() { return profundidad == 0; }
+    public int getProfundidad() { return profundidad; }
+}
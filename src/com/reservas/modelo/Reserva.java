@@ -1,8 +1,15 @@
 package com.reservas.modelo;
 
+import com.reservas.metricas.RegistroMetricas;
+import com.reservas.metricas.Temporizador;
+import com.reservas.persistencia.DiarioReservas;
+import com.reservas.sistema.BusEventos;
+import com.reservas.sistema.RuedaTemporizadora;
+import com.reservas.sistema.SistemaReservas;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Clase Reserva: representa una reserva de asientos para una función
@@ -10,16 +17,25 @@ import java.util.UUID;
  * PATRÓN OBSERVER INTEGRADO:
  * - Define la interfaz ObservadorReserva
  * - Define la clase NotificadorEmail como inner class
- * - Mantiene una lista de observadores
- * - Notifica automáticamente cuando cambia de estado
+ * - Publica un EventoReserva en el BusEventos del sistema cada vez que
+ *   cambia de estado (los observadores comunes se suscriben UNA vez allí)
+ * - Solo guarda una lista propia si se le agregan observadores particulares
  */
 public class Reserva {
-    private String id;                              // ID único de la reserva
-    private Cliente cliente;                        // Cliente que hizo la reserva
+    // Métricas (se buscan una sola vez, no en cada llamada)
+    private static final Temporizador TIEMPO_CONFIRMAR = RegistroMetricas.global().temporizador("reserva.confirmar");
+    private static final Temporizador TIEMPO_CANCELAR = RegistroMetricas.global().temporizador("reserva.cancelar");
+    private static final Temporizador TIEMPO_NOTIFICAR = RegistroMetricas.global().temporizador("reserva.notificar");
+    
+    private final Id<Reserva> id;                  // ID único de la reserva
+    private volatile Cliente cliente;               // Cliente que hizo la reserva (se asigna después si se restauró sin él)
     private Funcion funcion;                        // Función reservada
     private List<Asiento> asientos;                 // Asientos reservados
-    private EstadoReserva estado;                   // Estado actual (enum)
-    private List<ObservadorReserva> observadores;   // Lista de observadores
+    private volatile EstadoReserva estado;          // Estado actual (enum)
+    private volatile Dinero monto = Dinero.CERO;    // Total cobrado
+    private List<ObservadorReserva> observadores;   // Observadores propios (null hasta que se agregue uno)
+    private boolean asientosReclamados;             // true si los asientos son de esta reserva
+    private RuedaTemporizadora.Tarea retencion;     // Vencimiento programado mientras está RETENIDA
     
     /**
      * Constructor que crea una reserva en estado PENDIENTE
@@ -28,16 +44,84 @@ public class Reserva {
      * @param asientos Lista de asientos seleccionados
      */
     public Reserva(Cliente cliente, Funcion funcion, List<Asiento> asientos) {
-        this.id = UUID.randomUUID().toString();
+        this(Id.nuevo(), cliente, funcion, asientos);
+    }
+    
+    private Reserva(Id<Reserva> id, Cliente cliente, Funcion funcion, List<Asiento> asientos) {
+        this.id = id;
         this.cliente = cliente;
         this.funcion = funcion;
         this.asientos = asientos;
         this.estado = EstadoReserva.PENDIENTE; // Estado inicial
-        this.observadores = new ArrayList<>();
         
-        // Auto-suscribimos el notificador de email por defecto
-        // Cada reserva automáticamente enviará emails
-        this.observadores.add(new NotificadorEmail());
+        // El notificador de email ya no se crea por reserva: el sistema
+        // suscribe uno solo en su BusEventos y atiende a todas las reservas
+    }
+    
+    /**
+     * Vuelve a armar una reserva que el DiarioReservas tenía viva
+     * Sus asientos ya están ocupados (el inventario de la función se
+     * restauró con el bitmap del diario), así que no se reclaman otra vez:
+     * - Confirmada: queda CONFIRMADA
+     * - Retenida: queda RETENIDA y vence cuando pase lo que le quedaba del
+     *   plazo; si ya pasó, vence en el próximo tick del expirador (y el
+     *   vencimiento queda en el diario, como cualquier otro)
+     * - Con el pago por conciliar (restante null): queda RETENIDA sin
+     *   vencer, hasta que ConciliacionPagos la confirme o la anule
+     * Se agrega al historial del cliente y al índice por id del sistema; si
+     * está confirmada, vuelve a sumarse a las estadísticas de ventas (con el
+     * monto del diario)
+     * 
+     * @param id Id original de la reserva
+     * @param cliente Cliente que la hizo (null si no se conoce)
+     * @param funcion Función reservada (con el inventario ya restaurado)
+     * @param asientos Asientos reservados
+     * @param confirmada true si estaba confirmada, false si estaba retenida
+     * @param restante Lo que le quedaba a la retención (se ignora si está
+     *        confirmada; null si no vence)
+     * @param monto Monto de la reserva según el diario
+     * @return La reserva reconstruida
+     */
+    public static Reserva restaurar(Id<Reserva> id, Cliente cliente, Funcion funcion, List<Asiento> asientos,
+                                    boolean confirmada, Duration restante, Dinero monto) {
+        Reserva reserva = new Reserva(id, cliente, funcion, asientos);
+        synchronized (reserva) {
+            reserva.asientosReclamados = true;
+            reserva.monto = monto;
+            reserva.estado = confirmada ? EstadoReserva.CONFIRMADA : EstadoReserva.RETENIDA;
+            if (!confirmada && restante != null) {
+                reserva.retencion = SistemaReservas.getInstance().getExpirador()
+                    .programar(reserva::expirar, restante.isNegative() ? Duration.ZERO : restante);
+            }
+        }
+        if (confirmada) {
+            SistemaReservas.getInstance().getEstadisticas().registrarRecuperada(reserva);
+        }
+        if (cliente != null) {
+            // Si vence antes de llegar al historial, se indexa con el estado que tenga al agregarse
+            cliente.getHistorial().agregar(reserva);
+        }
+        SistemaReservas.getInstance().registrarReserva(reserva);
+        return reserva;
+    }
+    
+    /**
+     * Le asigna su cliente a una reserva restaurada sin él (el cliente se
+     * registró después de recuperar el diario) y la agrega a su historial
+     * @param cliente Cliente de la reserva
+     * @throws IllegalStateException si la reserva ya tiene otro cliente
+     */
+    public void asignarCliente(Cliente cliente) {
+        synchronized (this) {
+            if (this.cliente == cliente) {
+                return;
+            }
+            if (this.cliente != null) {
+                throw new IllegalStateException("La reserva " + id + " ya tiene cliente");
+            }
+            this.cliente = cliente;
+        }
+        cliente.getHistorial().agregar(this);
     }
     
     // ============================================
@@ -55,6 +139,26 @@ public class Reserva {
          * @param reserva La reserva que cambió
          */
         void actualizar(Reserva reserva);
+        
+        /**
+         * Método que se ejecuta con cada evento publicado
+         * Por defecto delega en actualizar(); conviene sobrescribirlo para usar
+         * el estado del evento, porque la reserva pudo cambiar desde entonces
+         * @param evento Evento recibido
+         */
+        default void recibir(EventoReserva evento) {
+            actualizar(evento.getReserva());
+        }
+        
+        /**
+         * Recibe varios eventos juntos (los entrega el despachador asíncrono)
+         * Por defecto los procesa uno por uno; un canal que pueda enviar en
+         * lote (ej: varios emails en una sola conexión) puede sobrescribirlo
+         * @param eventos Eventos recibidos
+         */
+        default void actualizarLote(List<EventoReserva> eventos) {
+            eventos.forEach(this::recibir);
+        }
     }
     
     /**
@@ -69,13 +173,29 @@ public class Reserva {
          */
         @Override
         public void actualizar(Reserva reserva) {
-            System.out.println("\n--- Notificación por Email ---");
-            System.out.println("Para: " + reserva.getCliente().getEmail());
-            System.out.println("Reserva ID: " + reserva.getId());
-            System.out.println("Película: " + reserva.getFuncion().getPelicula().getTitulo());
-            System.out.println("Estado: " + reserva.getEstado());
-            System.out.println("Asientos: " + reserva.getAsientos().size());
-            System.out.println("-----------------------------\n");
+            enviar(reserva, reserva.getEstado());
+        }
+        
+        /**
+         * Envía el email con el estado que informa el evento
+         * @param evento Evento sobre el cual notificar
+         */
+        @Override
+        public void recibir(EventoReserva evento) {
+            enviar(evento.getReserva(), evento.getEstado());
+        }
+        
+        private void enviar(Reserva reserva, EstadoReserva estado) {
+            // Se arma el email completo y se escribe de una vez: el despachador
+            // puede llamar a este notificador desde varios hilos a la vez
+            String email = "\n--- Notificación por Email ---\n"
+                + "Para: " + (reserva.getCliente() == null ? "-" : reserva.getCliente().getEmail()) + "\n"
+                + "Reserva ID: " + reserva.getId() + "\n"
+                + "Película: " + reserva.getFuncion().getPelicula().getTitulo() + "\n"
+                + "Estado: " + estado + "\n"
+                + "Asientos: " + reserva.getAsientos().size() + "\n"
+                + "-----------------------------\n";
+            System.out.println(email);
             
             // En una implementación real, aquí se usaría:
             // - Una librería como JavaMail
@@ -85,38 +205,203 @@ public class Reserva {
     }
     
     /**
-     * Permite agregar nuevos observadores a la reserva
+     * Permite agregar observadores SOLO para esta reserva
      * Por ejemplo: new NotificadorSMS(), new NotificadorWpp()
+     * Para observar todas las reservas conviene suscribirse una vez en
+     * SistemaReservas.getInstance().getBusEventos()
      * @param observador Observador a agregar
      */
-    public void agregarObservador(ObservadorReserva observador) {
+    public synchronized void agregarObservador(ObservadorReserva observador) {
+        if (observadores == null) {
+            observadores = new ArrayList<>(2);
+        }
         observadores.add(observador);
     }
     
     /**
      * Método privado que notifica a TODOS los observadores
      * Se llama automáticamente cuando cambia el estado
+     * 
+     * Publica el evento en el BusEventos: no espera a los observadores,
+     * las notificaciones se entregan en otros hilos
+     * @param tipo Tipo de evento ocurrido
      */
-    private void notificarObservadores() {
-        // Recorremos todos los observadores y llamamos su método actualizar()
-        observadores.forEach(o -> o.actualizar(this));
+    void notificarObservadores(EventoReserva.Tipo tipo) {
+        long inicio = TIEMPO_NOTIFICAR.iniciar();
+        EventoReserva evento = new EventoReserva(tipo, this);
+        BusEventos bus = SistemaReservas.getInstance().getBusEventos();
+        List<ObservadorReserva> propios;
+        synchronized (this) {
+            propios = observadores == null ? null : List.copyOf(observadores);
+        }
+        if (propios == null) {
+            bus.publicar(evento);
+        } else {
+            bus.publicar(evento, propios);
+        }
+        TIEMPO_NOTIFICAR.detener(inicio);
     }
     // ============================================
     
+    /**
+     * Ocupa los asientos de la reserva en el inventario de la función
+     * Es atómico: o se ocupan todos o ninguno
+     * @return true si los asientos quedaron a nombre de esta reserva
+     */
+    synchronized boolean reclamarAsientos() {
+        if (!asientosReclamados) {
+            asientosReclamados = funcion.reclamarAsientos(asientos);
+        }
+        return asientosReclamados;
+    }
+    
+    /**
+     * Toma los asientos sin pasar por el inventario: ya están ocupados
+     * porque otra reserva los liberó directamente a esta (ListaEspera)
+     */
+    synchronized void recibirAsientos() {
+        asientosReclamados = true;
+    }
+    
+    /**
+     * Devuelve los asientos al inventario de la función
+     * Solo libera si esta reserva los tenía: así una segunda cancelación
+     * no libera asientos que ya compró otro cliente
+     */
+    synchronized void liberarAsientos() {
+        if (asientosReclamados) {
+            funcion.liberarAsientos(asientos);
+            asientosReclamados = false;
+        }
+    }
+    
+    /**
+     * Retiene los asientos por un tiempo limitado (estado RETENIDA)
+     * Si la reserva no se confirma ni se cancela antes del plazo,
+     * vence sola y los asientos vuelven a la función
+     * 
+     * @param ttl Tiempo que dura la retención
+     * @throws IllegalStateException si la reserva no está PENDIENTE o no tiene sus asientos
+     */
+    public void retener(Duration ttl) {
+        esperarDurable(marcarRetenida(ttl));
+    }
+    
+    /**
+     * retener() sin esperar al diario (la lista de espera ofrece asientos
+     * desde el hilo que los liberó, que puede ser el del expirador)
+     * @param ttl Tiempo que dura la retención
+     * @return Registro pendiente en el diario, o null si no hay diario
+     */
+    CompletableFuture<Long> marcarRetenida(Duration ttl) {
+        return marcarRetenida(ttl, this::expirar);
+    }
+    
+    /**
+     * marcarRetenida() con otra forma de vencer (ej: BuzonFuncion encola
+     * el vencimiento en el buzón de la función en vez de vencer en el
+     * hilo del expirador)
+     * @param ttl Tiempo que dura la retención
+     * @param alVencer Acción que ejecuta el expirador cuando pasa el plazo
+     * @return Registro pendiente en el diario, o null si no hay diario
+     */
+    synchronized CompletableFuture<Long> marcarRetenida(Duration ttl, Runnable alVencer) {
+        if (estado != EstadoReserva.PENDIENTE || !asientosReclamados) {
+            throw new IllegalStateException("Solo se puede retener una reserva pendiente con sus asientos");
+        }
+        cambiarEstado(EstadoReserva.RETENIDA);
+        this.retencion = SistemaReservas.getInstance().getExpirador().programar(alVencer, ttl);
+        return registrarEnDiario(DiarioReservas.Tipo.CREADA);
+    }
+    
+    /**
+     * Deja en el diario los asientos de una reserva que los reclamó sin
+     * retenerlos (un lote): si el proceso se cae antes de confirmarla,
+     * vuelve del diario como retenida y vence sola
+     * @return Registro pendiente en el diario, o null si no hay diario
+     * @throws IllegalStateException si la reserva no está PENDIENTE o no tiene sus asientos
+     */
+    synchronized CompletableFuture<Long> registrarReclamo() {
+        if (estado != EstadoReserva.PENDIENTE || !asientosReclamados) {
+            throw new IllegalStateException("Solo se puede registrar el reclamo de una reserva pendiente con sus asientos");
+        }
+        return registrarEnDiario(DiarioReservas.Tipo.CREADA);
+    }
+    
+    /**
+     * Detiene el vencimiento de la retención mientras se cobra: desde acá
+     * decide el resultado del pago (un pago aprobado no puede encontrarse
+     * la reserva vencida, y uno DESCONOCIDO no debe liberar los asientos)
+     * El pago siempre termina (tiene tiempo máximo); si el proceso se cae
+     * a mitad del cobro, la retención vuelve del diario con su plazo
+     * 
+     * @return false si la reserva ya no está RETENIDA (no hay que cobrarla)
+     */
+    synchronized boolean suspenderVencimiento() {
+        if (estado != EstadoReserva.RETENIDA) {
+            return false;
+        }
+        cancelarRetencion();
+        return true;
+    }
+    
+    /**
+     * Deja la reserva esperando que se concilie su pago (terminó DESCONOCIDO):
+     * sigue RETENIDA, sin vencer, y el diario guarda la clave del pago para
+     * que sobreviva a un reinicio (ver ConciliacionPagos)
+     * @param clavePago Clave de idempotencia con la que se cobró
+     * @return Registro pendiente en el diario, o null si no hay diario
+     * @throws IllegalStateException si la reserva ya no tiene sus asientos
+     */
+    synchronized CompletableFuture<Long> marcarIncierta(String clavePago) {
+        if ((estado != EstadoReserva.PENDIENTE && estado != EstadoReserva.RETENIDA) || !asientosReclamados) {
+            throw new IllegalStateException("La reserva " + id + " ya no tiene sus asientos");
+        }
+        cambiarEstado(EstadoReserva.RETENIDA);
+        cancelarRetencion();
+        return registrarEnDiario(DiarioReservas.Tipo.INCIERTA, clavePago);
+    }
+    
     /**
      * Confirma la reserva:
-     * 1. Cambia el estado a CONFIRMADA
-     * 2. Marca los asientos como ocupados
-     * 3. Notifica a todos los observadores
+     * 1. Se asegura de tener los asientos (si aún no los reclamó)
+     * 2. Cambia el estado a CONFIRMADA y detiene el vencimiento de la retención
+     * 3. Espera a que el cambio quede en el diario (si está activo)
+     * 4. Notifica a todos los observadores
+     * 
+     * @throws IllegalStateException si la retención ya venció o algún asiento
+     *         ya fue tomado por otra reserva
      */
     public void confirmar() {
-        this.estado = EstadoReserva.CONFIRMADA;
-        
-        // Marcamos cada asiento como ocupado
-        asientos.forEach(Asiento::reservar);
-        
-        // PATRÓN OBSERVER: notificamos el cambio de estado
-        notificarObservadores();
+        long inicio = TIEMPO_CONFIRMAR.iniciar();
+        try {
+            esperarDurable(marcarConfirmada());
+            
+            // PATRÓN OBSERVER: notificamos el cambio de estado
+            notificarObservadores(EventoReserva.Tipo.CONFIRMADA);
+        } finally {
+            TIEMPO_CONFIRMAR.detener(inicio);
+        }
+    }
+    
+    /**
+     * Pasos 1 y 2 de confirmar(), sin esperar al diario ni notificar
+     * (un lote confirma muchas reservas y espera al diario UNA sola vez)
+     * @return Registro pendiente en el diario, o null si no hay diario
+     */
+    synchronized CompletableFuture<Long> marcarConfirmada() {
+        if (estado == EstadoReserva.EXPIRADA) {
+            throw new IllegalStateException("La retención de la reserva " + id + " ya venció");
+        }
+        if (!reclamarAsientos()) {
+            throw new IllegalStateException("Los asientos de la reserva " + id + " ya no están disponibles");
+        }
+        if (estado != EstadoReserva.CONFIRMADA) {
+            SistemaReservas.getInstance().getEstadisticas().registrarVenta(this);
+        }
+        cambiarEstado(EstadoReserva.CONFIRMADA);
+        cancelarRetencion();
+        return registrarEnDiario(DiarioReservas.Tipo.CONFIRMADA);
     }
     
     /**
@@ -126,19 +411,157 @@ public class Reserva {
      * 3. Notifica a todos los observadores
      */
     public void cancelar() {
-        this.estado = EstadoReserva.CANCELADA;
+        long inicio = TIEMPO_CANCELAR.iniciar();
+        try {
+            esperarDurable(marcarCancelada());
+
+            // PATRÓN OBSERVER: notificamos el cambio de estado
+            notificarObservadores(EventoReserva.Tipo.CANCELADA);
+        } finally {
+            TIEMPO_CANCELAR.detener(inicio);
+        }
+    }
+    
+    /**
+     * Pasos 1 y 2 de cancelar(), sin esperar al diario ni notificar
+     * @return Registro pendiente en el diario, o null si no hay diario
+     *         o la reserva no tenía asientos
+     */
+    synchronized CompletableFuture<Long> marcarCancelada() {
+        EstadoReserva anterior = estado;
+        cambiarEstado(EstadoReserva.CANCELADA);
+        cancelarRetencion();
         
-        // Liberamos cada asiento
-        asientos.forEach(Asiento::liberar);
+        // Devolvemos los asientos al inventario de la función
+        CompletableFuture<Long> registro = liberarYRegistrar(DiarioReservas.Tipo.CANCELADA);
+        if (anterior != EstadoReserva.CANCELADA) {
+            SistemaReservas.getInstance().getEstadisticas()
+                .registrarCancelacion(this, anterior == EstadoReserva.CONFIRMADA);
+        }
+        return registro;
+    }
+    
+    /**
+     * Vence la retención: la ejecuta el ExpiradorRetenciones cuando pasa el plazo
+     * Si la reserva ya se confirmó o canceló, no hace nada
+     * 
+     * @return true si la reserva pasó a EXPIRADA
+     */
+    public boolean expirar() {
+        if (!marcarExpirada()) {
+            return false;
+        }
+        avisarExpiracion();
+        return true;
+    }
+    
+    /**
+     * Paso 1 de expirar(): cambia el estado y libera los asientos, sin
+     * estadísticas ni notificaciones
+     * @return true si la reserva pasó a EXPIRADA
+     */
+    synchronized boolean marcarExpirada() {
+        if (estado != EstadoReserva.RETENIDA) {
+            return false;
+        }
+        cambiarEstado(EstadoReserva.EXPIRADA);
+        this.retencion = null;
+        // No esperamos el fsync: corre en el hilo del expirador o del buzón
+        liberarYRegistrar(DiarioReservas.Tipo.EXPIRADA);
+        return true;
+    }
+    
+    /**
+     * Paso 2 de expirar(): estadísticas y observadores (fuera del lock)
+     */
+    void avisarExpiracion() {
+        SistemaReservas.getInstance().getEstadisticas().registrarExpiracion(this);
         
         // PATRÓN OBSERVER: notificamos el cambio de estado
-        notificarObservadores();
+        notificarObservadores(EventoReserva.Tipo.EXPIRADA);
+    }
+    
+    /**
+     * Descarta la reserva sin notificar (por ejemplo, cuando el pago falla
+     * y el cliente nunca llegó a recibirla)
+     */
+    synchronized void anular() {
+        cambiarEstado(EstadoReserva.CANCELADA);
+        cancelarRetencion();
+        liberarYRegistrar(DiarioReservas.Tipo.CANCELADA);
+    }
+    
+    // ============================================
+    // DIARIO (persistencia de los cambios de asientos)
+    // ============================================
+    
+    /**
+     * Libera los asientos dejando constancia en el diario
+     * El registro se encola ANTES de liberar: así, si otra reserva toma
+     * esos asientos enseguida, su registro queda después en el diario
+     * y la recuperación reproduce los cambios en el orden correcto
+     */
+    private CompletableFuture<Long> liberarYRegistrar(DiarioReservas.Tipo tipo) {
+        if (!asientosReclamados) {
+            return null; // No eran nuestros: nada que liberar ni registrar
+        }
+        CompletableFuture<Long> registro = registrarEnDiario(tipo);
+        liberarAsientos();
+        return registro;
+    }
+    
+    private CompletableFuture<Long> registrarEnDiario(DiarioReservas.Tipo tipo) {
+        return registrarEnDiario(tipo, "");
+    }
+    
+    private CompletableFuture<Long> registrarEnDiario(DiarioReservas.Tipo tipo, String clavePago) {
+        DiarioReservas diario = SistemaReservas.getInstance().getDiario();
+        if (diario == null) {
+            return null; // El sistema funciona solo en memoria
+        }
+        int[] indices = new int[asientos.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = asientos.get(i).getIndice();
+        }
+        String clienteId = cliente == null ? "" : cliente.getId().toString();
+        return diario.registrar(tipo, id.toString(), clienteId, funcion.getId().toString(), indices,
+            monto.getCentavos(), clavePago);
+    }
+    
+    /**
+     * Espera (fuera del lock de la reserva) a que el registro esté en disco
+     */
+    static void esperarDurable(CompletableFuture<Long> registro) {
+        if (registro != null) {
+            registro.join();
+        }
+    }
+    
+    /**
+     * Cambia el estado (siempre con el lock de la reserva) y avisa al
+     * historial del cliente para que la mueva al índice del nuevo estado
+     */
+    private void cambiarEstado(EstadoReserva nuevo) {
+        EstadoReserva anterior = estado;
+        this.estado = nuevo;
+        if (cliente != null) {
+            cliente.getHistorial().cambioDeEstado(this, anterior);
+        }
+    }
+    
+    private void cancelarRetencion() {
+        if (retencion != null) {
+            retencion.cancelar();
+            retencion = null;
+        }
     }
     
     // Getters
-    public String getId() { return id; }
+    public Id<Reserva> getId() { return id; }
     public Cliente getCliente() { return cliente; }
     public Funcion getFuncion() { return funcion; }
     public List<Asiento> getAsientos() { return asientos; }
     public EstadoReserva getEstado() { return estado; }
+    public Dinero getMonto() { return monto; }
+    void setMonto(Dinero monto) { this.monto = monto; }
 }
\ No newline at end of file
@@ -1,42 +1,61 @@
 package com.reservas.modelo;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Clase Sala: representa una sala de cine con sus asientos
- * Tiene la responsabilidad de inicializar todos sus asientos
+ * 
+ * La distribución de los asientos la describe su DisenoSala (inmutable y
+ * compartido por todas las salas con el mismo diseño): la ocupación de cada
+ * proyección vive en el InventarioAsientos de su Funcion. Por eso todas las
+ * funciones comparten una única lista de asientos
  */
 public class Sala {
-    private String id;              // Identificador único de la sala
-    private int capacidad;          // Número total de asientos
-    private List<Asiento> asientos; // Lista de todos los asientos
+    private final Id<Sala> id;            // Identificador único de la sala
+    private final DisenoSala diseno;      // Distribución de asientos (compartida entre salas iguales)
     
     /**
-     * Constructor que crea una sala con capacidad específica
+     * Constructor que crea una sala de una sola fila con capacidad específica
      * @param capacidad Número de asientos de la sala
      */
     public Sala(int capacidad) {
-        this.id = UUID.randomUUID().toString();
-        this.capacidad = capacidad;
-        this.asientos = new ArrayList<>();
-        inicializarAsientos(); // Creamos todos los asientos automáticamente
+        this(1, capacidad);
     }
     
     /**
-     * Método privado que crea todos los asientos de la sala
-     * Se ejecuta automáticamente en el constructor
+     * Constructor que crea una sala rectangular, sin pasillos
+     * @param filas Número de filas
+     * @param asientosPorFila Asientos en cada fila
      */
-    private void inicializarAsientos() {
-        // Creamos asientos numerados: A1, A2, A3, ..., A50
-        for (int i = 1; i <= capacidad; i++) {
-            asientos.add(new Asiento("A" + i));
-        }
+    public Sala(int filas, int asientosPorFila) {
+        this(DisenoSala.de(filas, asientosPorFila));
+    }
+    
+    /**
+     * Constructor que crea una sala con un diseño ya armado
+     * (ej: con pasillos y asientos premium o accesibles)
+     * @param diseno Distribución de los asientos
+     */
+    public Sala(DisenoSala diseno) {
+        this.id = Id.nuevo();
+        this.diseno = diseno;
+    }
+    
+    /**
+     * Busca un asiento por su nombre en O(1)
+     * @param numero Nombre del asiento (ej: "B12")
+     * @return El asiento, o null si la sala no lo tiene
+     */
+    public Asiento getAsiento(String numero) {
+        return diseno.buscar(numero);
     }
     
     // Getters
-    public String getId() { return id; }
-    public int getCapacidad() { return capacidad; }
-    public List<Asiento> getAsientos() { return asientos; }
-}
\ No newline at end of file
+    public Id<Sala> getId() { return id; }
+    public DisenoSala getDiseno() { return diseno; }
+    public int getCapacidad() { return diseno.getCapacidad(); }
+    public int getFilas() { return diseno.getFilas(); }
+    public int getAsientosPorFila() { return diseno.getColumnas(); }
+    public List<Asiento> getAsientos() { return diseno.getAsientos(); }
+    AsignadorAsientos getAsignador() { return diseno.getAsignador(); }
+}
@@ -0,0 +1,28 @@
+package com.reservas.modelo;
+
+import java.util.List;
+
+/**
+ * Clase SolicitudReserva: una de las reservas pedidas en un lote
+ * (ej: una empresa que reserva 3 funciones para distintos equipos)
+ */
+public final class SolicitudReserva {
+    private final Funcion funcion;        // Función a reservar
+    private final List<Asiento> asientos; // Asientos pedidos en esa función
+
+    /**
+     * @param funcion Función a reservar
+     * @param asientos Asientos pedidos (al menos uno)
+     */
+    public SolicitudReserva(Funcion funcion, List<Asiento> asientos) {
+        if (asientos.isEmpty()) {
+            throw new IllegalArgumentException("La solicitud no tiene asientos");
+        }
+        this.funcion = funcion;
+        this.asientos = List.copyOf(asientos);
+    }
+
+    // Getters
+    public Funcion getFuncion() { return funcion; }
+    public List<Asiento> getAsientos() { return asientos; }
+}
@@ -0,0 +1,10 @@
+package com.reservas.modelo;
+
+/**
+ * Enumeración que define los tipos de asiento de una sala
+ */
+public enum TipoAsiento {
+    NORMAL,     // Asiento común
+    PREMIUM,    // Asiento preferencial (más cómodo o mejor ubicado)
+    ACCESIBLE   // Espacio para sillas de ruedas o movilidad reducida
+}
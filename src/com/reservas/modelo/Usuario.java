@@ -1,7 +1,5 @@
 package com.reservas.modelo;
 
-import java.util.UUID;
-
 /**
  * Clase abstracta Usuario que representa a cualquier usuario del sistema
  * 
@@ -11,7 +9,7 @@ import java.util.UUID;
  */
 public abstract class Usuario {
     // Atributos protegidos: accesibles por las subclases
-    protected String id;         // Identificador único del usuario
+    protected final Id<Usuario> id; // Identificador único del usuario
     protected String nombre;     // Nombre completo
     protected String email;      // Correo electrónico
     protected String password;   // Contraseña (en producción debería estar encriptada)
@@ -24,7 +22,19 @@ public abstract class Usuario {
      * @param password Contraseña
      */
     protected Usuario(String nombre, String email, String password) {
-        this.id = UUID.randomUUID().toString(); // Generamos un ID único
+        this(Id.nuevo(), nombre, email, password); // Generamos un ID único (ver GeneradorIds)
+    }
+    
+    /**
+     * Constructor protegido con un id conocido (ej: un usuario ya
+     * registrado que se vuelve a cargar)
+     * @param id Identificador del usuario
+     * @param nombre Nombre del usuario
+     * @param email Correo electrónico
+     * @param password Contraseña
+     */
+    protected Usuario(Id<Usuario> id, String nombre, String email, String password) {
+        this.id = id;
         this.nombre = nombre;
         this.email = email;
         this.password = password;
@@ -74,7 +84,7 @@ public abstract class Usuario {
     public abstract void mostrarPanel();
     
     // Getters
-    public String getId() { return id; }
+    public Id<Usuario> getId() { return id; }
     public String getNombre() { return nombre; }
     public String getEmail() { return email; }
 }
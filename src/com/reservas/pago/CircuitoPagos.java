@@ -0,0 +1,91 @@
+package com.reservas.pago;
+
+/**
+ * Interruptor de circuito (circuit breaker) de UN proveedor de pago
+ *
+ * - CERRADO: los pagos pasan. Si fallan N veces seguidas, se abre
+ * - ABIERTO: los pagos se rechazan al instante, sin esperar a una pasarela
+ *   que sabemos caída (así no se acumulan clientes esperando)
+ * - SEMIABIERTO: pasado el tiempo de espera, se deja pasar UN pago de prueba;
+ *   si sale bien se cierra, si falla se vuelve a abrir
+ *
+ * Un pago RECHAZADO cuenta como éxito: la pasarela respondió
+ */
+public class CircuitoPagos {
+
+    public enum Estado { CERRADO, ABIERTO, SEMIABIERTO }
+
+    private final int fallosParaAbrir;
+    private final long tiempoAbiertoNanos;
+
+    private Estado estado = Estado.CERRADO;
+    private int fallosSeguidos;
+    private long abiertoHasta;      // System.nanoTime() hasta el que rechaza
+    private boolean pruebaEnCurso;  // En SEMIABIERTO, ya salió el pago de prueba
+    private long aperturas;
+
+    /**
+     * @param politica Política del proveedor (umbral de fallos y tiempo abierto)
+     */
+    public CircuitoPagos(PoliticaPago politica) {
+        this.fallosParaAbrir = politica.getFallosParaAbrir();
+        this.tiempoAbiertoNanos = politica.getTiempoAbierto().toNanos();
+    }
+
+    /**
+     * Decide si un pago puede intentarse ahora
+     * @return true si puede pasar
+     */
+    public synchronized boolean permitir() {
+        switch (estado) {
+            case CERRADO:
+                return true;
+            case ABIERTO:
+                if (System.nanoTime() - abiertoHasta < 0) {
+                    return false;
+                }
+                estado = Estado.SEMIABIERTO;
+                pruebaEnCurso = true;
+                return true; // Este es el pago de prueba
+            default:
+                if (pruebaEnCurso) {
+                    return false;
+                }
+                pruebaEnCurso = true;
+                return true;
+        }
+    }
+
+    /**
+     * La pasarela respondió (aprobado o rechazado)
+     */
+    public synchronized void registrarExito() {
+        fallosSeguidos = 0;
+        pruebaEnCurso = false;
+        estado = Estado.CERRADO;
+    }
+
+    /**
+     * El pago permitido no llegó a la pasarela (ej: compartimento lleno):
+     * no cuenta ni como éxito ni como fallo, pero libera el lugar de la prueba
+     */
+    public synchronized void descartarIntento() {
+        pruebaEnCurso = false;
+    }
+
+    /**
+     * La pasarela falló o no respondió a tiempo
+     */
+    public synchronized void registrarFallo() {
+        fallosSeguidos++;
+        pruebaEnCurso = false;
+        if (estado == Estado.SEMIABIERTO || fallosSeguidos >= fallosParaAbrir) {
+            estado = Estado.ABIERTO;
+            abiertoHasta = System.nanoTime() + tiempoAbiertoNanos;
+            aperturas++;
+        }
+    }
+
+    public synchronized Estado getEstado() { return estado; }
+    public synchronized long getAperturas() { return aperturas; }
+}
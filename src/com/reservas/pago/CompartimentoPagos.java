@@ -0,0 +1,94 @@
+package com.reservas.pago;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compartimento estanco (bulkhead) de UN proveedor de pago
+ *
+ * Cada proveedor tiene sus propios hilos y su propia cola, ambos acotados.
+ * Si PayPal se cuelga, solo se llenan los hilos y la cola de PayPal: los
+ * pagos con tarjeta siguen usando su propio compartimento como si nada.
+ * Cuando el compartimento está lleno, los pagos nuevos se rechazan al
+ * instante (y se cuentan) en lugar de esperar
+ */
+public class CompartimentoPagos {
+    private final String proveedor;
+    private final int hilos;
+    private final int capacidadCola;
+    private final ThreadPoolExecutor ejecutor;
+    private final LongAdder rechazados = new LongAdder();
+    private final LongAdder ejecutados = new LongAdder();
+
+    /**
+     * @param proveedor Nombre del proveedor (para los nombres de los hilos)
+     * @param hilos Pagos que pueden estar hablando con la pasarela a la vez
+     * @param capacidadCola Pagos que pueden esperar un hilo libre
+     */
+    public CompartimentoPagos(String proveedor, int hilos, int capacidadCola) {
+        this.proveedor = proveedor;
+        this.hilos = hilos;
+        this.capacidadCola = capacidadCola;
+        AtomicInteger numero = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, capacidadCola)), r -> {
+                Thread hilo = new Thread(r, "pagos-" + proveedor + "-" + numero.getAndIncrement());
+                hilo.setDaemon(true);
+                return hilo;
+            });
+        this.ejecutor.allowCoreThreadTimeOut(true); // Un proveedor sin uso no retiene hilos
+    }
+
+    /**
+     * Ejecuta una llamada a la pasarela dentro del compartimento
+     * @param llamada Llamada bloqueante
+     * @return La tarea, para poder cancelarla si se pasa del tiempo máximo
+     * @throws RejectedExecutionException si el compartimento está lleno o detenido
+     */
+    Future<?> ejecutar(Runnable llamada) {
+        if (capacidadCola == 0 && ejecutor.getActiveCount() >= hilos) {
+            rechazados.increment(); // Sin cola: solo se acepta si hay un hilo libre
+            throw new RejectedExecutionException("Compartimento de " + proveedor + " lleno");
+        }
+        try {
+            Future<?> tarea = ejecutor.submit(llamada);
+            ejecutados.increment();
+            return tarea;
+        } catch (RejectedExecutionException e) {
+            if (!ejecutor.isShutdown()) {
+                rechazados.increment();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Cancela una llamada: si aún estaba en la cola, libera su lugar
+     */
+    void cancelar(Future<?> tarea) {
+        tarea.cancel(true);
+        if (tarea instanceof Runnable) {
+            ejecutor.remove((Runnable) tarea);
+        }
+    }
+
+    boolean estaDetenido() { return ejecutor.isShutdown(); }
+
+    void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    // Métricas
+    public String getProveedor() { return proveedor; }
+    public int getHilos() { return hilos; }
+    public int getCapacidadCola() { return capacidadCola; }
+    public int getActivos() { return ejecutor.getActiveCount(); }
+    public int getEnCola() { return ejecutor.getQueue().size(); }
+    public long getRechazados() { return rechazados.sum(); }
+    public long getEjecutados() { return ejecutados.sum(); }
+}
@@ -1,5 +1,7 @@
 package com.reservas.pago;
 
+import com.reservas.modelo.Dinero;
+
 /**
  * PATRÓN STRATEGY
  * 
@@ -14,8 +16,43 @@ package com.reservas.pago;
 public interface EstrategiaPago {
     /**
      * Procesa un pago con el método específico
+     * @param monto Cantidad exacta a pagar
+     * @return true si el pago fue exitoso, false si falló
+     */
+    boolean procesarPago(Dinero monto);
+    
+    /**
+     * Versión anterior, con el monto en double
+     * Se redondea al centavo y se delega en procesarPago(Dinero)
      * @param monto Cantidad a pagar
      * @return true si el pago fue exitoso, false si falló
      */
-    boolean procesarPago(double monto);
+    default boolean procesarPago(double monto) {
+        return procesarPago(Dinero.de(monto));
+    }
+    
+    /**
+     * Procesa un pago identificado por una clave de idempotencia
+     * Si el mismo pago se reintenta (ej: después de un timeout), la pasarela
+     * debe reconocer la clave y NO cobrar dos veces.
+     * Por defecto ignora la clave: una estrategia que no la sobrescriba
+     * debe dejar usaClaveIdempotencia() en false, y entonces el
+     * ProcesadorPagos nunca la reintenta después de un timeout
+     * 
+     * @param claveIdempotencia Clave única del pago (ej: el id de la reserva)
+     * @param monto Cantidad exacta a pagar
+     * @return true si el pago fue exitoso, false si fue rechazado
+     */
+    default boolean procesarPago(String claveIdempotencia, Dinero monto) {
+        return procesarPago(monto);
+    }
+    
+    /**
+     * @return true si procesarPago(clave, monto) envía la clave a la
+     *         pasarela: repetir un pago que no respondió a tiempo es seguro
+     *         (devuelve lo que ya se hizo, sin cobrar dos veces)
+     */
+    default boolean usaClaveIdempotencia() {
+        return false;
+    }
 }
\ No newline at end of file
@@ -1,11 +1,17 @@
 package com.reservas.pago;
 
+import com.reservas.modelo.Dinero;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Estrategia concreta: Pago con PayPal
  * Implementa el algoritmo específico para procesar pagos vía PayPal
  */
 public class PagoPayPal implements EstrategiaPago {
     private String email; // Email de la cuenta PayPal
+    private final Map<String, Boolean> procesados = new ConcurrentHashMap<>(); // Lo que recuerda PayPal: clave -> respuesta
     
     /**
      * Constructor que recibe el email de PayPal
@@ -15,23 +21,43 @@ public class PagoPayPal implements EstrategiaPago {
         this.email = email;
     }
     
+    /**
+     * Pago sin clave: cada llamada es un pago nuevo
+     * @param monto Cantidad a cobrar
+     * @return true si el pago es exitoso
+     */
+    @Override
+    public boolean procesarPago(Dinero monto) {
+        return procesarPago(UUID.randomUUID().toString(), monto);
+    }
+    
     /**
      * Implementación específica del pago con PayPal
+     * La clave viaja como identificador del pedido (PayPal-Request-Id): un
+     * reintento con la misma clave devuelve el resultado original
+     * @param claveIdempotencia Clave única del pago
      * @param monto Cantidad a cobrar
      * @return true si el pago es exitoso
      */
     @Override
-    public boolean procesarPago(double monto) {
-        System.out.println("Procesando pago de $" + monto + " con PayPal (" + email + ")");
-        
-        // En una implementación real, aquí se haría:
-        // 1. Redirigir al usuario a PayPal
-        // 2. Usuario se autentica en PayPal
-        // 3. Usuario autoriza el pago
-        // 4. PayPal redirige de vuelta con token
-        // 5. Verificar el token con API de PayPal
-        // 6. Completar la transacción
-        
-        return true; // Simulamos un pago exitoso
+    public boolean procesarPago(String claveIdempotencia, Dinero monto) {
+        return procesados.computeIfAbsent(claveIdempotencia, clave -> {
+            System.out.println("Procesando pago de " + monto + " con PayPal (" + email + ")");
+            
+            // En una implementación real, aquí se haría:
+            // 1. Redirigir al usuario a PayPal
+            // 2. Usuario se autentica en PayPal
+            // 3. Usuario autoriza el pago
+            // 4. PayPal redirige de vuelta con token
+            // 5. Verificar el token con API de PayPal
+            // 6. Completar la transacción, enviando la clave
+            
+            return true; // Simulamos un pago exitoso
+        });
+    }
+    
+    @Override
+    public boolean usaClaveIdempotencia() {
+        return true;
     }
 }
\ No newline at end of file
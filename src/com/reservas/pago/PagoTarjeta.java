@@ -1,11 +1,17 @@
 package com.reservas.pago;
 
+import com.reservas.modelo.Dinero;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Estrategia concreta: Pago con Tarjeta de Crédito/Débito
  * Implementa el algoritmo específico para procesar pagos con tarjeta
  */
 public class PagoTarjeta implements EstrategiaPago {
     private String numeroTarjeta; // Número de tarjeta (debería estar encriptado)
+    private final Map<String, Boolean> procesados = new ConcurrentHashMap<>(); // Lo que recuerda la pasarela: clave -> respuesta
     
     /**
      * Constructor que recibe los datos de la tarjeta
@@ -15,25 +21,46 @@ public class PagoTarjeta implements EstrategiaPago {
         this.numeroTarjeta = numeroTarjeta;
     }
     
+    /**
+     * Pago sin clave: cada llamada es un pago nuevo
+     * @param monto Cantidad a cobrar
+     * @return true si el pago es exitoso
+     */
+    @Override
+    public boolean procesarPago(Dinero monto) {
+        return procesarPago(UUID.randomUUID().toString(), monto);
+    }
+    
     /**
      * Implementación específica del pago con tarjeta
+     * La clave viaja con el cobro (ej: el header Idempotency-Key de Stripe):
+     * si es un reintento de un pago ya procesado, la pasarela devuelve la
+     * respuesta original sin volver a cobrar
+     * @param claveIdempotencia Clave única del pago
      * @param monto Cantidad a cobrar
      * @return true si el pago es exitoso
      */
     @Override
-    public boolean procesarPago(double monto) {
-        // Mostramos solo los últimos 4 dígitos por seguridad
-        System.out.println("Procesando pago de $" + monto + " con tarjeta ****" + 
-                         numeroTarjeta.substring(numeroTarjeta.length() - 4));
-        
-        // En una implementación real, aquí se haría:
-        // 1. Validar el número de tarjeta (algoritmo de Luhn)
-        // 2. Verificar fecha de expiración
-        // 3. Validar CVV
-        // 4. Conectar con pasarela de pago (Stripe, PayU, etc.)
-        // 5. Procesar la transacción
-        // 6. Manejar respuestas de aprobación/rechazo
-        
-        return true; // Simulamos un pago exitoso
+    public boolean procesarPago(String claveIdempotencia, Dinero monto) {
+        return procesados.computeIfAbsent(claveIdempotencia, clave -> {
+            // Mostramos solo los últimos 4 dígitos por seguridad
+            System.out.println("Procesando pago de " + monto + " con tarjeta ****" + 
+                             numeroTarjeta.substring(numeroTarjeta.length() - 4));
+            
+            // En una implementación real, aquí se haría:
+            // 1. Validar el número de tarjeta (algoritmo de Luhn)
+            // 2. Verificar fecha de expiración
+            // 3. Validar CVV
+            // 4. Conectar con pasarela de pago (Stripe, PayU, etc.), enviando la clave
+            // 5. Procesar la transacción
+            // 6. Manejar respuestas de aprobación/rechazo
+            
+            return true; // Simulamos un pago exitoso
+        });
+    }
+    
+    @Override
+    public boolean usaClaveIdempotencia() {
+        return true;
     }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.reservas.pago;
+
+import com.reservas.modelo.Dinero;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estrategia concreta: pasarela de pago FALSA para pruebas y demostraciones
+ *
+ * Se puede configurar en cualquier momento (incluso con pagos en curso):
+ * - Latencia de cada llamada
+ * - Probabilidad de fallo (la pasarela lanza una excepción, como un error 5xx)
+ * - Probabilidad de rechazo (la pasarela responde "no", como fondos insuficientes)
+ *
+ * Respeta la clave de idempotencia: un pago repetido con la misma clave
+ * devuelve la respuesta original y no se cobra de nuevo
+ */
+public class PasarelaSimulada implements EstrategiaPago {
+    private volatile Duration latencia;
+    private volatile double probabilidadFallo;
+    private volatile double probabilidadRechazo;
+
+    private final Map<String, Boolean> procesados = new ConcurrentHashMap<>(); // Clave -> respuesta
+    private final LongAdder cobros = new LongAdder();
+    private final LongAdder llamadas = new LongAdder();
+
+    /**
+     * @param latencia Demora de cada llamada
+     * @param probabilidadFallo Probabilidad (0 a 1) de que la llamada falle
+     * @param probabilidadRechazo Probabilidad (0 a 1) de que el pago se rechace
+     */
+    public PasarelaSimulada(Duration latencia, double probabilidadFallo, double probabilidadRechazo) {
+        configurar(latencia, probabilidadFallo, probabilidadRechazo);
+    }
+
+    /**
+     * Cambia el comportamiento de la pasarela (ej: para simular que se degrada)
+     */
+    public void configurar(Duration latencia, double probabilidadFallo, double probabilidadRechazo) {
+        this.latencia = latencia;
+        this.probabilidadFallo = probabilidadFallo;
+        this.probabilidadRechazo = probabilidadRechazo;
+    }
+
+    @Override
+    public boolean procesarPago(Dinero monto) {
+        return procesarPago(UUID.randomUUID().toString(), monto); // Sin clave: cada llamada es un pago nuevo
+    }
+
+    @Override
+    public boolean procesarPago(String claveIdempotencia, Dinero monto) {
+        llamadas.increment();
+        try {
+            Thread.sleep(latencia.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Llamada a la pasarela interrumpida", e);
+        }
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        if (azar.nextDouble() < probabilidadFallo) {
+            throw new IllegalStateException("La pasarela no está disponible");
+        }
+        return procesados.computeIfAbsent(claveIdempotencia, clave -> {
+            boolean aprobado = azar.nextDouble() >= probabilidadRechazo;
+            if (aprobado) {
+                cobros.increment();
+            }
+            return aprobado;
+        });
+    }
+
+    @Override
+    public boolean usaClaveIdempotencia() {
+        return true;
+    }
+
+    // Métricas
+    public long getCobros() { return cobros.sum(); }
+    public long getLlamadas() { return llamadas.sum(); }
+}
@@ -0,0 +1,69 @@
+package com.reservas.pago;
+
+import java.time.Duration;
+
+/**
+ * Política de ejecución de un proveedor de pago (inmutable)
+ * - Cuánto esperar cada intento antes de darlo por fallido
+ * - Cuántas veces reintentar y con qué espera entre intentos
+ * - Cuándo abrir el circuito del proveedor
+ * - Tamaño de su compartimento: hilos y cola propios
+ */
+public final class PoliticaPago {
+    /** Política por defecto: 2 s por intento, 2 reintentos, circuito a los 5 fallos seguidos, 16 hilos y 64 en cola */
+    public static final PoliticaPago PREDETERMINADA = new PoliticaPago(
+        Duration.ofSeconds(2), 2, Duration.ofMillis(100), 5, Duration.ofSeconds(30));
+
+    private final Duration tiempoMaximo;      // Por intento
+    private final int reintentos;             // Intentos extra después del primero
+    private final Duration esperaInicial;     // Espera antes del primer reintento (se duplica en cada uno)
+    private final int fallosParaAbrir;        // Fallos seguidos que abren el circuito
+    private final Duration tiempoAbierto;     // Cuánto queda abierto antes de probar de nuevo
+    private final int hilos;                  // Pagos simultáneos del proveedor
+    private final int capacidadCola;          // Pagos esperando un hilo del proveedor
+
+    /**
+     * @param tiempoMaximo Tiempo máximo de cada intento
+     * @param reintentos Reintentos después del primer intento (0 = sin reintentos)
+     * @param esperaInicial Espera antes del primer reintento
+     * @param fallosParaAbrir Fallos consecutivos que abren el circuito
+     * @param tiempoAbierto Tiempo que el circuito queda abierto
+     */
+    public PoliticaPago(Duration tiempoMaximo, int reintentos, Duration esperaInicial,
+                        int fallosParaAbrir, Duration tiempoAbierto) {
+        this(tiempoMaximo, reintentos, esperaInicial, fallosParaAbrir, tiempoAbierto, 16, 64);
+    }
+    
+    /**
+     * @param tiempoMaximo Tiempo máximo de cada intento
+     * @param reintentos Reintentos después del primer intento (0 = sin reintentos)
+     * @param esperaInicial Espera antes del primer reintento
+     * @param fallosParaAbrir Fallos consecutivos que abren el circuito
+     * @param tiempoAbierto Tiempo que el circuito queda abierto
+     * @param hilos Pagos simultáneos del proveedor
+     * @param capacidadCola Pagos que pueden esperar un hilo (0 = sin cola)
+     */
+    public PoliticaPago(Duration tiempoMaximo, int reintentos, Duration esperaInicial,
+                        int fallosParaAbrir, Duration tiempoAbierto, int hilos, int capacidadCola) {
+        if (tiempoMaximo.isNegative() || tiempoMaximo.isZero() || reintentos < 0 || fallosParaAbrir <= 0
+                || hilos <= 0 || capacidadCola < 0) {
+            throw new IllegalArgumentException("Política de pago inválida");
+        }
+        this.tiempoMaximo = tiempoMaximo;
+        this.reintentos = reintentos;
+        this.esperaInicial = esperaInicial;
+        this.fallosParaAbrir = fallosParaAbrir;
+        this.tiempoAbierto = tiempoAbierto;
+        this.hilos = hilos;
+        this.capacidadCola = capacidadCola;
+    }
+
+    // Getters
+    public Duration getTiempoMaximo() { return tiempoMaximo; }
+    public int getReintentos() { return reintentos; }
+    public Duration getEsperaInicial() { return esperaInicial; }
+    public int getFallosParaAbrir() { return fallosParaAbrir; }
+    public Duration getTiempoAbierto() { return tiempoAbierto; }
+    public int getHilos() { return hilos; }
+    public int getCapacidadCola() { return capacidadCola; }
+}
@@ -0,0 +1,351 @@
+package com.reservas.pago;
+
+import com.reservas.metricas.RegistroMetricas;
+import com.reservas.metricas.Temporizador;
+import com.reservas.modelo.Dinero;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Procesador ASÍNCRONO de pagos
+ *
+ * Antes, realizarReserva() llamaba a procesarPago() y el hilo del cliente
+ * quedaba bloqueado mientras la pasarela respondía (con los asientos retenidos).
+ * Ahora el pago se ejecuta en otro hilo y se devuelve un CompletableFuture:
+ * - Cada intento tiene un tiempo máximo; si se pasa, el intento se
+ *   interrumpe y cuenta como fallo
+ * - Los fallos (excepción o timeout) se reintentan con espera exponencial;
+ *   un RECHAZO de la pasarela no se reintenta
+ * - Un timeout NO dice si se cobró: la pasarela pudo procesar el pago y
+ *   perderse la respuesta. Si ningún intento da una respuesta, el pago
+ *   termina DESCONOCIDO (no ERROR) y el que llama no debe liberar nada
+ *   hasta conciliarlo (ver conciliar()). Solo se reintenta después de un
+ *   timeout si la estrategia envía la clave (usaClaveIdempotencia())
+ * - Cada proveedor (clase de EstrategiaPago) tiene su política, su
+ *   CircuitoPagos (si está caído, los pagos fallan al instante) y su
+ *   CompartimentoPagos (hilos y cola propios: un proveedor colgado no
+ *   consume la capacidad de los demás)
+ * - Idempotencia: el mismo pago (misma clave, ej: id de la reserva) pedido
+ *   dos veces devuelve el MISMO resultado, sin cobrar dos veces; la clave
+ *   también se envía a la pasarela en cada reintento y en cada consulta
+ */
+public class ProcesadorPagos {
+    private static final int CONSULTAS = 3; // Consultas de un pago DESCONOCIDO antes de darlo por perdido
+
+    private final ScheduledExecutorService temporizador; // Timeouts y esperas entre reintentos
+    private final Duration retencionIdempotencia;    // Cuánto se recuerda un pago terminado
+
+    private final Map<Class<?>, PoliticaPago> politicas = new ConcurrentHashMap<>();
+    private final Map<Class<?>, CircuitoPagos> circuitos = new ConcurrentHashMap<>();
+    private final Map<Class<?>, CompartimentoPagos> compartimentos = new ConcurrentHashMap<>();
+    private volatile boolean detenido;
+    private final Map<String, CompletableFuture<ResultadoPago>> enCurso = new ConcurrentHashMap<>();
+
+    // Métricas
+    private final LongAdder intentos = new LongAdder();
+    private final LongAdder reintentos = new LongAdder();
+    private final LongAdder tiemposAgotados = new LongAdder();
+    private final LongAdder duplicados = new LongAdder();
+    private final Temporizador tiempoPago;     // Desde el pedido hasta el resultado final
+    private final Temporizador tiempoIntento;  // Cada llamada a la pasarela
+    private final Map<ResultadoPago, LongAdder> resultados = new EnumMap<>(ResultadoPago.class);
+
+    /**
+     * Procesador con métricas propias (no se publican en el registro global)
+     * @param retencionIdempotencia Cuánto tiempo se recuerda el resultado de un pago
+     */
+    public ProcesadorPagos(Duration retencionIdempotencia) {
+        this(retencionIdempotencia, new RegistroMetricas());
+    }
+    
+    /**
+     * @param retencionIdempotencia Cuánto tiempo se recuerda el resultado de un pago
+     * @param metricas Registro donde publicar tiempos y resultados ("pago.*")
+     */
+    public ProcesadorPagos(Duration retencionIdempotencia, RegistroMetricas metricas) {
+        this.retencionIdempotencia = retencionIdempotencia;
+        this.tiempoPago = metricas.temporizador("pago.procesar");
+        this.tiempoIntento = metricas.temporizador("pago.intento");
+        for (ResultadoPago resultado : ResultadoPago.values()) {
+            resultados.put(resultado, metricas.contador("pago." + resultado.name().toLowerCase(Locale.ROOT)));
+        }
+        metricas.indicador("pago.en_cola", () -> sumar(CompartimentoPagos::getEnCola));
+        metricas.indicador("pago.activos", () -> sumar(CompartimentoPagos::getActivos));
+        this.temporizador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "pagos-temporizador");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Configura la política de un proveedor
+     * Conviene hacerlo antes de procesar sus pagos: el compartimento anterior
+     * se detiene y los pagos que estaban en él terminan con error
+     * @param proveedor Clase de la estrategia (ej: PagoPayPal.class)
+     * @param politica Tiempos, reintentos, circuito y compartimento del proveedor
+     */
+    public void configurar(Class<? extends EstrategiaPago> proveedor, PoliticaPago politica) {
+        politicas.put(proveedor, politica);
+        circuitos.put(proveedor, new CircuitoPagos(politica));
+        CompartimentoPagos anterior = compartimentos.put(proveedor, crearCompartimento(proveedor, politica));
+        if (anterior != null) {
+            anterior.detener();
+        }
+    }
+
+    /**
+     * Procesa un pago sin bloquear al que llama
+     *
+     * @param claveIdempotencia Clave única del pago (ej: id de la reserva)
+     * @param estrategia Método de pago elegido
+     * @param monto Monto exacto
+     * @return Futuro que se completa con el resultado (nunca con excepción);
+     *         si es DESCONOCIDO, ver conciliar()
+     */
+    public CompletableFuture<ResultadoPago> procesar(String claveIdempotencia, EstrategiaPago estrategia,
+                                                     Dinero monto) {
+        CompletableFuture<ResultadoPago> nuevo = new CompletableFuture<>();
+        CompletableFuture<ResultadoPago> existente = enCurso.putIfAbsent(claveIdempotencia, nuevo);
+        if (existente != null) {
+            duplicados.increment();
+            return existente; // Mismo pago: mismo resultado, sin volver a cobrar
+        }
+
+        long inicio = tiempoPago.iniciar();
+        PoliticaPago politica = politicaDe(estrategia);
+        CircuitoPagos circuito = circuitoDe(estrategia);
+        CompartimentoPagos compartimento = compartimentoDe(estrategia);
+        intentar(claveIdempotencia, estrategia, monto, politica, circuito, compartimento, 0, false, nuevo);
+
+        nuevo.whenComplete((resultado, error) -> {
+            tiempoPago.detener(inicio);
+            resultados.get(resultado).increment();
+            boolean consultable = resultado == ResultadoPago.DESCONOCIDO && estrategia.usaClaveIdempotencia();
+            if (resultado == ResultadoPago.APROBADO || resultado == ResultadoPago.RECHAZADO
+                    || resultado == ResultadoPago.DESCONOCIDO && !consultable) {
+                // Lo recordamos un tiempo: un reintento del cliente recibe la misma
+                // respuesta (un DESCONOCIDO sin clave nunca se vuelve a enviar)
+                programar(() -> enCurso.remove(claveIdempotencia, nuevo), retencionIdempotencia.toNanos());
+            } else {
+                // No se cobró, o se puede preguntar con la misma clave sin cobrar dos veces
+                enCurso.remove(claveIdempotencia, nuevo);
+            }
+        });
+        return nuevo;
+    }
+
+    /**
+     * Averigua cómo terminó un pago DESCONOCIDO: lo vuelve a enviar con la
+     * MISMA clave (la pasarela responde lo que ya hizo, o lo procesa ahora
+     * si nunca le llegó), esperando cada vez más entre consultas
+     * Sin clave no hay forma segura de preguntar: el resultado sigue
+     * DESCONOCIDO y hay que conciliarlo a mano (o reembolsar)
+     *
+     * @param claveIdempotencia Clave con la que se procesó el pago
+     * @param estrategia Método de pago usado
+     * @param monto Monto exacto
+     * @return Futuro con el resultado final (DESCONOCIDO si ninguna consulta respondió)
+     */
+    public CompletableFuture<ResultadoPago> conciliar(String claveIdempotencia, EstrategiaPago estrategia,
+                                                      Dinero monto) {
+        if (!estrategia.usaClaveIdempotencia()) {
+            return CompletableFuture.completedFuture(ResultadoPago.DESCONOCIDO);
+        }
+        return consultar(claveIdempotencia, estrategia, monto, 0);
+    }
+
+    private CompletableFuture<ResultadoPago> consultar(String clave, EstrategiaPago estrategia, Dinero monto,
+                                                       int numero) {
+        CompletableFuture<ResultadoPago> consulta = new CompletableFuture<>();
+        // Le damos a la pasarela tiempo para terminar lo que tenía entre manos
+        long espera = politicaDe(estrategia).getTiempoMaximo().toNanos() << numero;
+        if (!programar(() -> procesar(clave, estrategia, monto).whenComplete((r, e) -> consulta.complete(r)),
+                espera)) {
+            consulta.complete(ResultadoPago.DESCONOCIDO);
+        }
+        return consulta.thenCompose(resultado -> resultado == ResultadoPago.DESCONOCIDO && numero + 1 < CONSULTAS
+            ? consultar(clave, estrategia, monto, numero + 1)
+            : CompletableFuture.completedFuture(resultado));
+    }
+
+    /**
+     * Un intento: si falla y quedan reintentos, programa el siguiente
+     * @param incierto true si algún intento anterior no respondió a tiempo
+     *        (si no se llega a otra respuesta, el pago es DESCONOCIDO)
+     */
+    private void intentar(String clave, EstrategiaPago estrategia, Dinero monto, PoliticaPago politica,
+                          CircuitoPagos circuito, CompartimentoPagos compartimento, int numero,
+                          boolean incierto, CompletableFuture<ResultadoPago> resultado) {
+        ResultadoPago fallido = incierto ? ResultadoPago.DESCONOCIDO : ResultadoPago.ERROR;
+        if (!circuito.permitir()) {
+            resultado.complete(numero == 0 ? ResultadoPago.NO_DISPONIBLE : fallido);
+            return;
+        }
+        CompletableFuture<Boolean> intento;
+        try {
+            intento = ejecutarConLimite(compartimento, () -> estrategia.procesarPago(clave, monto),
+                politica.getTiempoMaximo());
+        } catch (RejectedExecutionException e) {
+            circuito.descartarIntento(); // No llegó a la pasarela: no dice nada de su salud
+            boolean lleno = !detenido && !compartimento.estaDetenido();
+            resultado.complete(incierto ? fallido : lleno ? ResultadoPago.SATURADO : ResultadoPago.ERROR);
+            return;
+        }
+        intentos.increment();
+        intento.whenComplete((aprobado, error) -> {
+            if (error == null) {
+                circuito.registrarExito();
+                resultado.complete(aprobado ? ResultadoPago.APROBADO : ResultadoPago.RECHAZADO);
+                return;
+            }
+            boolean sinRespuesta = error instanceof TimeoutException;
+            if (sinRespuesta) {
+                tiemposAgotados.increment();
+            }
+            circuito.registrarFallo();
+            boolean inciertoAhora = incierto || sinRespuesta;
+            if (numero >= politica.getReintentos() || sinRespuesta && !estrategia.usaClaveIdempotencia()) {
+                // Sin clave, repetir un pago que quizás se cobró podría cobrarlo dos veces
+                resultado.complete(inciertoAhora ? ResultadoPago.DESCONOCIDO : ResultadoPago.ERROR);
+                return;
+            }
+            // Espera exponencial con "jitter" para no reintentar todos a la vez
+            long espera = politica.getEsperaInicial().toNanos() << numero;
+            espera = espera / 2 + ThreadLocalRandom.current().nextLong(espera / 2 + 1);
+            reintentos.increment();
+            if (!programar(() -> intentar(clave, estrategia, monto, politica, circuito, compartimento,
+                    numero + 1, inciertoAhora, resultado), espera)) {
+                resultado.complete(inciertoAhora ? ResultadoPago.DESCONOCIDO : ResultadoPago.ERROR);
+            }
+        });
+    }
+
+    /**
+     * Programa una acción en el temporizador
+     * @return false si el procesador ya se detuvo
+     */
+    private boolean programar(Runnable accion, long nanos) {
+        try {
+            temporizador.schedule(accion, nanos, TimeUnit.NANOSECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Ejecuta la llamada a la pasarela en un hilo del compartimento del proveedor
+     * Si no termina a tiempo (contando la espera en la cola), el futuro falla
+     * con TimeoutException y el hilo se interrumpe (la pasarela igual pudo
+     * procesarlo: por eso el resultado pasa a ser DESCONOCIDO)
+     */
+    private CompletableFuture<Boolean> ejecutarConLimite(CompartimentoPagos compartimento, LlamadaPasarela llamada,
+                                                         Duration tiempoMaximo) {
+        CompletableFuture<Boolean> futuro = new CompletableFuture<>();
+        long inicio = tiempoIntento.iniciar(); // Incluye la espera en la cola
+        Future<?> tarea;
+        try {
+            tarea = compartimento.ejecutar(() -> {
+                try {
+                    futuro.complete(llamada.ejecutar());
+                } catch (Throwable e) {
+                    futuro.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            tiempoIntento.descartar(inicio); // No hubo intento: no cuenta como latencia
+            throw e;
+        }
+        futuro.whenComplete((r, e) -> tiempoIntento.detener(inicio));
+        ScheduledFuture<?> limite = temporizador.schedule(() -> {
+            if (futuro.completeExceptionally(new TimeoutException("La pasarela no respondió a tiempo"))) {
+                compartimento.cancelar(tarea);
+            }
+        }, tiempoMaximo.toNanos(), TimeUnit.NANOSECONDS);
+        futuro.whenComplete((r, e) -> limite.cancel(false));
+        return futuro;
+    }
+
+    /**
+     * Detiene los hilos del procesador (los pagos en curso se interrumpen)
+     */
+    public void detener() {
+        detenido = true;
+        compartimentos.values().forEach(CompartimentoPagos::detener);
+        temporizador.shutdownNow();
+    }
+
+    private PoliticaPago politicaDe(EstrategiaPago estrategia) {
+        return politicas.getOrDefault(estrategia.getClass(), PoliticaPago.PREDETERMINADA);
+    }
+
+    /**
+     * Circuito del proveedor (se crea con la política por defecto si no se configuró)
+     */
+    public CircuitoPagos circuitoDe(EstrategiaPago estrategia) {
+        return circuitos.computeIfAbsent(estrategia.getClass(), c -> new CircuitoPagos(politicaDe(estrategia)));
+    }
+
+    /**
+     * Compartimento del proveedor (se crea con la política por defecto si no se configuró)
+     */
+    public CompartimentoPagos compartimentoDe(EstrategiaPago estrategia) {
+        return compartimentos.computeIfAbsent(estrategia.getClass(),
+            c -> crearCompartimento(c, politicaDe(estrategia)));
+    }
+
+    private CompartimentoPagos crearCompartimento(Class<?> proveedor, PoliticaPago politica) {
+        CompartimentoPagos compartimento = new CompartimentoPagos(
+            proveedor.getSimpleName().isEmpty() ? proveedor.getName() : proveedor.getSimpleName(),
+            politica.getHilos(), politica.getCapacidadCola());
+        if (detenido) {
+            compartimento.detener();
+        }
+        return compartimento;
+    }
+
+    private long sumar(ToIntFunction<CompartimentoPagos> valor) {
+        long total = 0;
+        for (CompartimentoPagos compartimento : compartimentos.values()) {
+            total += valor.applyAsInt(compartimento);
+        }
+        return total;
+    }
+
+    // Métricas
+    public long getIntentos() { return intentos.sum(); }
+    public long getReintentos() { return reintentos.sum(); }
+    public long getTiemposAgotados() { return tiemposAgotados.sum(); }
+    public long getDuplicados() { return duplicados.sum(); }
+
+    /**
+     * @return Compartimentos por proveedor (hilos activos, cola y rechazos)
+     */
+    public Map<Class<?>, CompartimentoPagos> getCompartimentos() {
+        return Collections.unmodifiableMap(compartimentos);
+    }
+
+    /**
+     * Una llamada bloqueante a la pasarela
+     */
+    @FunctionalInterface
+    private interface LlamadaPasarela {
+        boolean ejecutar() throws Exception;
+    }
+}
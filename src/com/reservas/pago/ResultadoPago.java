@@ -0,0 +1,15 @@
+package com.reservas.pago;
+
+/**
+ * Enumeración que define cómo terminó un pago procesado por ProcesadorPagos
+ */
+public enum ResultadoPago {
+    APROBADO,       // La pasarela cobró el monto
+    RECHAZADO,      // La pasarela respondió que no (ej: fondos insuficientes); no se reintenta
+    ERROR,          // La pasarela respondió con un error en todos los intentos: no cobró
+    DESCONOCIDO,    // Algún intento no respondió a tiempo: pudo haber cobrado (ver ProcesadorPagos.conciliar())
+    NO_DISPONIBLE,  // El circuito del proveedor está abierto: ni siquiera se intentó
+    SATURADO;       // El compartimento del proveedor está lleno: ni siquiera se intentó
+
+    public boolean esAprobado() { return this == APROBADO; }
+}
@@ -0,0 +1,284 @@
+package com.reservas.persistencia;
+
+import com.reservas.modelo.InventarioAsientos;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ocupación de asientos de muchas funciones en un archivo mapeado a memoria
+ *
+ * Pensado para cargar una temporada completa (miles de funciones):
+ * - Cada función tiene una región de tamaño FIJO dentro del archivo,
+ *   con un bit por asiento (el mismo formato que InventarioAsientos)
+ * - Los bits viven FUERA del heap: el inventario lee y hace CAS
+ *   directamente sobre el archivo mapeado, sin copias
+ * - Al reiniciar, se vuelve a mapear el archivo y la ocupación ya está
+ *   ahí: no hay nada que deserializar
+ *
+ * El sistema operativo escribe las páginas modificadas al disco por su
+ * cuenta (sobreviven a una caída del proceso); para sobrevivir a un corte
+ * de luz hay que llamar a sincronizar()
+ *
+ * Las ranuras se reciclan: cuando una función termina, liberar() deja su
+ * región para la próxima función nueva (si no, una temporada larga
+ * termina llenando el almacén)
+ *
+ * La región solo guarda bits: no sabe si un asiento estaba vendido o
+ * retenido. Sin diario, una retención abierta al caerse el proceso vuelve
+ * ocupada y sin vencimiento. Con el DiarioReservas activo,
+ * SistemaReservas.agregarFuncion() pisa la región con el bitmap del
+ * diario y vuelve a programar el vencimiento de cada retención
+ *
+ * Formato del archivo:
+ * [cabecera 32 bytes: mágico, versión, palabras por región, máximo de funciones, ranuras usadas]
+ * [directorio: una entrada de 64 bytes por ranura: capacidad int, largo short, id utf-8
+ *  (largo 0 = ranura liberada)]
+ * [regiones: máximo de funciones × palabras por región × 8 bytes]
+ */
+public class AlmacenAsientosMapeado {
+    private static final int MAGICO = 0x41534D31; // "ASM1"
+    private static final int VERSION = 1;
+    private static final int TAMANO_CABECERA = 32;
+    private static final int TAMANO_ENTRADA = 64;
+    private static final int MAXIMO_ID = TAMANO_ENTRADA - 6; // Bytes utf-8 de un id
+
+    // Posiciones dentro de la cabecera
+    private static final int POS_PALABRAS = 8;
+    private static final int POS_MAXIMO = 12;
+    private static final int POS_USADAS = 16;
+
+    // Acceso atómico a un long dentro del buffer (el índice es en BYTES)
+    private static final VarHandle PALABRA =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel canal;
+    private final MappedByteBuffer mapa;
+    private final int palabrasPorRegion;
+    private final int maximoFunciones;
+    private final int inicioRegiones;
+    private final Map<String, Integer> ranuras = new ConcurrentHashMap<>(); // id de función -> ranura
+    private final Map<Integer, InventarioAsientos> inventarios = new ConcurrentHashMap<>(); // Uno por ranura
+    private final Deque<Integer> libres = new ArrayDeque<>(); // Ranuras liberadas (con el lock del almacén)
+    private int usadas; // Ranuras alguna vez asignadas; solo se modifica con el lock del almacén
+
+    /**
+     * Abre el archivo del almacén, o lo crea si no existe
+     * Si el archivo ya existe se usan sus propias dimensiones
+     *
+     * @param archivo Archivo del almacén
+     * @param maximoFunciones Cuántas funciones caben (solo al crear)
+     * @param capacidadMaxima Máximo de asientos por función (solo al crear)
+     * @throws IOException si no se puede abrir o el archivo no es un almacén válido
+     */
+    public AlmacenAsientosMapeado(Path archivo, int maximoFunciones, int capacidadMaxima)
+            throws IOException {
+        boolean nuevo = !Files.exists(archivo) || Files.size(archivo) == 0;
+        this.canal = FileChannel.open(archivo,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (nuevo) {
+                if (maximoFunciones <= 0 || capacidadMaxima <= 0) {
+                    throw new IllegalArgumentException("Las dimensiones del almacén deben ser positivas");
+                }
+                this.palabrasPorRegion = InventarioAsientos.palabrasNecesarias(capacidadMaxima);
+                this.maximoFunciones = maximoFunciones;
+            } else {
+                MappedByteBuffer cabecera = canal.map(FileChannel.MapMode.READ_ONLY, 0, TAMANO_CABECERA);
+                cabecera.order(ByteOrder.LITTLE_ENDIAN);
+                if (cabecera.getInt(0) != MAGICO || cabecera.getInt(4) != VERSION) {
+                    throw new IOException("El archivo no es un almacén de asientos: " + archivo);
+                }
+                this.palabrasPorRegion = cabecera.getInt(POS_PALABRAS);
+                this.maximoFunciones = cabecera.getInt(POS_MAXIMO);
+            }
+            this.inicioRegiones = TAMANO_CABECERA + this.maximoFunciones * TAMANO_ENTRADA;
+
+            long tamano = inicioRegiones + (long) this.maximoFunciones * palabrasPorRegion * Long.BYTES;
+            if (tamano > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("El almacén no puede superar los 2 GB: " + tamano + " bytes");
+            }
+            this.mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano); // Agranda el archivo si hace falta
+            this.mapa.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (nuevo) {
+                mapa.putInt(0, MAGICO);
+                mapa.putInt(4, VERSION);
+                mapa.putInt(POS_PALABRAS, palabrasPorRegion);
+                mapa.putInt(POS_MAXIMO, this.maximoFunciones);
+                mapa.putInt(POS_USADAS, 0);
+            }
+            cargarDirectorio();
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Lee las funciones ya registradas en el archivo
+     */
+    private void cargarDirectorio() {
+        usadas = mapa.getInt(POS_USADAS);
+        for (int ranura = 0; ranura < usadas; ranura++) {
+            int entrada = TAMANO_CABECERA + ranura * TAMANO_ENTRADA;
+            int largo = mapa.getShort(entrada + 4);
+            if (largo == 0) {
+                libres.add(ranura);
+                continue;
+            }
+            byte[] id = new byte[largo];
+            mapa.get(entrada + 6, id);
+            ranuras.put(new String(id, StandardCharsets.UTF_8), ranura);
+        }
+    }
+
+    /**
+     * Inventario de una función respaldado por su región del archivo
+     * Si la función ya tenía región (ej: después de reiniciar) se reutiliza
+     * con la ocupación que tenía; si no, se le asigna una región libre.
+     * Pedirlo dos veces devuelve el mismo inventario
+     *
+     * @param funcionId Id de la función
+     * @param capacidad Asientos de la sala de la función
+     * @return Inventario que lee y escribe directamente en el archivo
+     * @throws IllegalStateException si el almacén está lleno (y no hay ranuras liberadas)
+     */
+    public InventarioAsientos inventario(String funcionId, int capacidad) {
+        if (InventarioAsientos.palabrasNecesarias(capacidad) > palabrasPorRegion) {
+            throw new IllegalArgumentException(
+                "La sala tiene más asientos de los que caben en una región: " + capacidad);
+        }
+        Integer ranura = ranuras.get(funcionId);
+        if (ranura == null) {
+            ranura = asignar(funcionId, capacidad);
+        }
+        int entrada = TAMANO_CABECERA + ranura * TAMANO_ENTRADA;
+        int guardada = mapa.getInt(entrada);
+        if (guardada != capacidad) {
+            throw new IllegalArgumentException("La función " + funcionId + " se guardó con "
+                + guardada + " asientos, no " + capacidad);
+        }
+        int inicio = inicioRegiones + ranura * palabrasPorRegion * Long.BYTES;
+        return inventarios.computeIfAbsent(ranura,
+            r -> new InventarioAsientos(capacidad, new Region(inicio)));
+    }
+
+    /**
+     * Reserva una ranura para una función nueva (primero las liberadas)
+     * El largo del id se escribe último y el contador se aumenta después:
+     * si el proceso se cae a la mitad, la entrada simplemente no existe
+     */
+    private synchronized int asignar(String funcionId, int capacidad) {
+        Integer existente = ranuras.get(funcionId);
+        if (existente != null) {
+            return existente; // Otro hilo la asignó mientras esperábamos el lock
+        }
+        byte[] id = funcionId.getBytes(StandardCharsets.UTF_8);
+        if (id.length > MAXIMO_ID) {
+            throw new IllegalArgumentException("Id de función demasiado largo: " + funcionId);
+        }
+        if (libres.isEmpty() && usadas == maximoFunciones) {
+            throw new IllegalStateException("El almacén de asientos está lleno (" + maximoFunciones + " funciones)");
+        }
+        int ranura = libres.isEmpty() ? usadas : libres.poll();
+        int entrada = TAMANO_CABECERA + ranura * TAMANO_ENTRADA;
+        mapa.putInt(entrada, capacidad);
+        mapa.put(entrada + 6, id);
+
+        // La región puede tener restos de la función anterior o de una
+        // asignación que no llegó a completarse
+        int inicio = inicioRegiones + ranura * palabrasPorRegion * Long.BYTES;
+        for (int i = 0; i < palabrasPorRegion; i++) {
+            PALABRA.setVolatile(mapa, inicio + i * Long.BYTES, 0L);
+        }
+        mapa.putShort(entrada + 4, (short) id.length); // Recién ahora la entrada existe
+
+        if (ranura == usadas) {
+            usadas = ranura + 1;
+            mapa.putInt(POS_USADAS, usadas);
+        }
+        ranuras.put(funcionId, ranura);
+        return ranura;
+    }
+
+    /**
+     * Libera la ranura de una función que ya terminó (o se canceló)
+     * La próxima función nueva reutiliza su región. El inventario que se
+     * había entregado para esta función no debe usarse después
+     *
+     * @param funcionId Id de la función
+     * @return true si la función tenía ranura
+     */
+    public synchronized boolean liberar(String funcionId) {
+        Integer ranura = ranuras.remove(funcionId);
+        if (ranura == null) {
+            return false;
+        }
+        inventarios.remove(ranura);
+        mapa.putShort(TAMANO_CABECERA + ranura * TAMANO_ENTRADA + 4, (short) 0);
+        libres.add(ranura);
+        return true;
+    }
+
+    /**
+     * Fuerza la escritura de las páginas modificadas al disco (fsync)
+     */
+    public void sincronizar() {
+        mapa.force();
+    }
+
+    /**
+     * Sincroniza y cierra el archivo
+     * Los inventarios ya entregados no deben usarse después de cerrar
+     * @throws IOException si no se puede cerrar el archivo
+     */
+    public void cerrar() throws IOException {
+        sincronizar();
+        canal.close();
+    }
+
+    public int getFuncionesRegistradas() { return ranuras.size(); }
+    public int getMaximoFunciones() { return maximoFunciones; }
+    public int getCapacidadMaxima() { return palabrasPorRegion * Long.SIZE; }
+
+    /**
+     * Región de UNA función: sus palabras dentro del archivo mapeado
+     * El inicio es múltiplo de 8, así que el CAS sobre cada palabra está alineado
+     */
+    private final class Region implements InventarioAsientos.Almacen {
+        private final int inicio; // Byte donde empieza la región
+
+        Region(int inicio) {
+            this.inicio = inicio;
+        }
+
+        @Override public int longitud() { return palabrasPorRegion; }
+
+        @Override
+        public long get(int i) {
+            return (long) PALABRA.getVolatile(mapa, inicio + i * Long.BYTES);
+        }
+
+        @Override
+        public void set(int i, long valor) {
+            PALABRA.setVolatile(mapa, inicio + i * Long.BYTES, valor);
+        }
+
+        @Override
+        public boolean compareAndSet(int i, long esperado, long nuevo) {
+            return PALABRA.compareAndSet(mapa, inicio + i * Long.BYTES, esperado, nuevo);
+        }
+    }
+}
@@ -0,0 +1,483 @@
+package com.reservas.persistencia;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Diario de reservas (write-ahead log) de solo agregado
+ *
+ * Cada cambio de una reserva que mueve asientos se escribe en disco antes
+ * de darse por hecho:
+ * - Los registros se agregan al final de un archivo con FileChannel
+ * - "Group commit": un único hilo escritor junta todos los registros que
+ *   llegaron mientras esperaba y los escribe con UN solo fsync
+ * - Cada registro lleva su CRC32: un registro a medio escribir (corte de luz)
+ *   se detecta y se descarta al recuperar
+ *
+ * Instantáneas (snapshots):
+ * - El escritor mantiene en memoria el bitmap de cada función y las reservas
+ *   vivas (retenidas o confirmadas) según lo escrito
+ * - Cada cierto número de registros lo guarda completo en una instantánea
+ *   y vacía el diario, así la recuperación solo reproduce la "cola" reciente
+ * - Al tomar la instantánea se descartan las funciones que ya terminaron
+ *   (ver setFuncionTerminada()): si no, cada instantánea reescribiría todo
+ *   lo vendido desde siempre
+ *
+ * Si falla una escritura (disco lleno, error de E/S), el archivo se corta
+ * en el último registro bueno y el lote falla; si ni eso se puede, el
+ * diario se DETIENE: falla lo encolado y todo registrar() posterior. Nunca
+ * se sigue escribiendo detrás de un registro roto, porque la recuperación
+ * se detiene en él y perdería todo lo que viene después
+ *
+ * Formato de un registro: [largo int][crc int][tipo byte][secuencia long]
+ * [instante long][reservaId utf][funcionId utf][cantidad int][índices int...]
+ * [clienteId utf][monto long][clavePago utf]. Los campos nuevos van al
+ * final: los registros anteriores a ellos se siguen leyendo (sin cliente,
+ * con monto 0, sin clave)
+ */
+public class DiarioReservas {
+
+    /**
+     * Tipos de registro
+     */
+    public enum Tipo {
+        CREADA,      // Asientos reclamados por una reserva nueva (ocupa)
+        CONFIRMADA,  // Reserva confirmada (ocupa, por si los reclamó al confirmar)
+        CANCELADA,   // Reserva cancelada (libera)
+        EXPIRADA,    // Retención vencida (libera)
+        INCIERTA;    // Pago DESCONOCIDO: sigue ocupando, sin vencer, hasta conciliarlo (lleva la clave del pago)
+
+        boolean ocupa() { return this == CREADA || this == CONFIRMADA || this == INCIERTA; }
+    }
+
+    static final String ARCHIVO_DIARIO = "reservas.diario";
+    static final String ARCHIVO_INSTANTANEA = "inventarios.instantanea";
+    static final int MAGICO_INSTANTANEA_V1 = 0x494E5631; // "INV1": solo bitmaps
+    static final int MAGICO_INSTANTANEA_V2 = 0x494E5632; // "INV2": bitmaps + reservas vivas
+    static final int MAGICO_INSTANTANEA = 0x494E5633;    // "INV3": reservas con monto y clave de pago
+    private static final int MAXIMO_LOTE = 1024;
+
+    private final Path directorio;
+    private final FileChannel canal;
+    private final int intervaloInstantanea;     // Registros entre instantáneas
+    private final BlockingQueue<Pendiente> cola = new LinkedBlockingQueue<>();
+    private final Thread escritor;
+    private final Object cierre = new Object();    // Mirar si está activo y encolar es UN paso
+    private volatile boolean activo = true;
+    private volatile IOException falla;             // Por qué se detuvo (null si se cerró normalmente)
+    private volatile Predicate<String> funcionTerminada = funcionId -> false;
+
+    // Estado del hilo escritor
+    private final Map<String, long[]> inventarios;  // Bitmaps según lo escrito en el diario
+    private final Map<String, ReservaRecuperada> reservas; // Reservas vivas por id, según lo escrito
+    private long secuencia;                         // Última secuencia escrita
+    private int registrosDesdeInstantanea;
+
+    // Métricas
+    private volatile long registrosEscritos;
+    private volatile long sincronizaciones;        // Cantidad de fsync realizados
+
+    /**
+     * Abre (o crea) el diario de un directorio, continuando desde el estado recuperado
+     *
+     * @param directorio Directorio de los archivos del diario
+     * @param recuperado Estado obtenido con recuperar() (instantánea + cola)
+     * @param intervaloInstantanea Cada cuántos registros se escribe una instantánea
+     * @throws IOException si no se puede abrir el archivo
+     */
+    public DiarioReservas(Path directorio, EstadoRecuperado recuperado, int intervaloInstantanea)
+            throws IOException {
+        this.directorio = directorio;
+        this.intervaloInstantanea = intervaloInstantanea;
+        this.secuencia = recuperado.getUltimaSecuencia();
+        this.inventarios = new HashMap<>();
+        recuperado.getInventarios().forEach((id, palabras) -> inventarios.put(id, palabras.clone()));
+        this.reservas = new HashMap<>(recuperado.getReservas()); // Inmutables: no hace falta copiarlas
+
+        Files.createDirectories(directorio);
+        this.canal = FileChannel.open(directorio.resolve(ARCHIVO_DIARIO),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Descartamos una posible cola corrupta (registro a medio escribir)
+        canal.truncate(recuperado.getBytesValidos());
+        canal.position(recuperado.getBytesValidos());
+
+        this.escritor = new Thread(this::escribir, "diario-reservas");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Recupera el estado guardado en un directorio: instantánea + registros posteriores
+     * @param directorio Directorio del diario (si no existe, el estado es vacío)
+     * @return Estado recuperado
+     * @throws IOException si no se pueden leer los archivos
+     */
+    public static EstadoRecuperado recuperar(Path directorio) throws IOException {
+        return EstadoRecuperado.leer(directorio);
+    }
+
+    /**
+     * Agrega un registro al diario
+     * Retorna enseguida; el futuro se completa cuando el registro ya está en disco
+     *
+     * @param tipo Tipo de registro
+     * @param reservaId Id de la reserva
+     * @param clienteId Id del cliente ("" si la reserva no tiene)
+     * @param funcionId Id de la función
+     * @param asientos Índices de los asientos afectados
+     * @return Futuro con la secuencia asignada, completado tras el fsync
+     */
+    public CompletableFuture<Long> registrar(Tipo tipo, String reservaId, String clienteId, String funcionId,
+                                             int[] asientos) {
+        return registrar(tipo, reservaId, clienteId, funcionId, asientos, 0, "");
+    }
+
+    /**
+     * registrar() con el monto de la reserva y la clave de su pago
+     *
+     * @param montoCentavos Monto de la reserva, en centavos
+     * @param clavePago Clave de idempotencia del pago (solo INCIERTA; "" si no)
+     * @return Futuro con la secuencia asignada, completado tras el fsync
+     */
+    public CompletableFuture<Long> registrar(Tipo tipo, String reservaId, String clienteId, String funcionId,
+                                             int[] asientos, long montoCentavos, String clavePago) {
+        Pendiente pendiente = new Pendiente(tipo, reservaId, clienteId, funcionId, asientos.clone(),
+            montoCentavos, clavePago);
+        synchronized (cierre) {
+            if (activo) {
+                cola.add(pendiente); // Con el lock: cerrar() no puede colarse entre el if y el add
+                return pendiente.futuro;
+            }
+        }
+        pendiente.futuro.completeExceptionally(cerrado());
+        return pendiente.futuro;
+    }
+
+    /**
+     * Cómo se deciden las funciones terminadas al tomar una instantánea
+     * (por defecto ninguna). Una función que el diario no sabe decidir (ej:
+     * todavía no se volvió a agregar tras un reinicio) no debe darse por terminada
+     * @param funcionTerminada Recibe el id de una función; true si ya terminó
+     */
+    public void setFuncionTerminada(Predicate<String> funcionTerminada) {
+        this.funcionTerminada = funcionTerminada;
+    }
+
+    /**
+     * Ciclo del hilo escritor: junta un lote, lo escribe y hace UN fsync
+     */
+    private void escribir() {
+        List<Pendiente> lote = new ArrayList<>(MAXIMO_LOTE);
+        while (activo || !cola.isEmpty()) {
+            try {
+                Pendiente primero = cola.take();
+                if (primero == Pendiente.FIN) {
+                    continue;
+                }
+                lote.add(primero);
+                cola.drainTo(lote, MAXIMO_LOTE - 1);
+                lote.removeIf(p -> p == Pendiente.FIN);
+                escribirLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                detener(new IOException("El escritor del diario fue interrumpido", e));
+            } catch (IOException | RuntimeException e) {
+                for (Pendiente pendiente : lote) {
+                    pendiente.futuro.completeExceptionally(e);
+                }
+            }
+            lote.clear();
+        }
+        fallarPendientes(); // Solo queda algo si el diario se detuvo
+    }
+
+    private void escribirLote(List<Pendiente> lote) throws IOException {
+        long primeraSecuencia = secuencia + 1;
+        long instante = System.currentTimeMillis(); // El mismo para todo el lote
+        List<ByteBuffer> registros = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            registros.add(serializar(lote.get(i), primeraSecuencia + i, instante));
+        }
+
+        ByteBuffer[] buffers = registros.toArray(new ByteBuffer[0]);
+        long posicion = canal.position(); // Fin del último registro bueno
+        try {
+            while (quedan(buffers)) {
+                canal.write(buffers);
+            }
+            canal.force(false); // UN fsync para todo el lote (group commit)
+        } catch (IOException e) {
+            descartarDesde(posicion, e);
+            throw e;
+        }
+        sincronizaciones++;
+
+        // Ya es durable: actualizamos el estado y avisamos a quienes esperaban
+        for (int i = 0; i < lote.size(); i++) {
+            Pendiente pendiente = lote.get(i);
+            aplicar(inventarios, pendiente.tipo, pendiente.funcionId, pendiente.asientos);
+            aplicar(reservas, pendiente.tipo, pendiente.reservaId, pendiente.clienteId, pendiente.funcionId,
+                instante, pendiente.asientos, pendiente.montoCentavos, pendiente.clavePago);
+            secuencia = primeraSecuencia + i;
+            pendiente.futuro.complete(secuencia);
+        }
+        registrosEscritos += lote.size();
+        registrosDesdeInstantanea += lote.size();
+
+        if (registrosDesdeInstantanea >= intervaloInstantanea) {
+            escribirInstantanea();
+        }
+    }
+
+    /**
+     * Corta el diario donde terminaba el último registro bueno: el lote que
+     * falló pudo quedar a medio escribir. Si tampoco se puede, se detiene
+     */
+    private void descartarDesde(long posicion, IOException causa) {
+        try {
+            canal.truncate(posicion);
+            canal.position(posicion);
+            canal.force(false);
+        } catch (IOException e) {
+            causa.addSuppressed(e);
+            detener(causa);
+        }
+    }
+
+    /**
+     * Deja de aceptar registros y falla los que esperaban (solo el escritor)
+     */
+    private void detener(IOException causa) {
+        synchronized (cierre) {
+            falla = causa;
+            activo = false;
+        }
+        fallarPendientes();
+    }
+
+    private void fallarPendientes() {
+        Pendiente pendiente;
+        while ((pendiente = cola.poll()) != null) {
+            if (pendiente != Pendiente.FIN) {
+                pendiente.futuro.completeExceptionally(cerrado());
+            }
+        }
+    }
+
+    private IllegalStateException cerrado() {
+        IOException causa = falla;
+        return causa == null ? new IllegalStateException("El diario está cerrado")
+            : new IllegalStateException("El diario se detuvo por un error de escritura", causa);
+    }
+
+    /**
+     * Guarda los bitmaps y las reservas vivas completos y vacía el diario
+     * Se escribe en un archivo temporal y se renombra: nunca queda una
+     * instantánea a medias. Si se corta la luz antes de vaciar el diario,
+     * la recuperación ignora los registros que la instantánea ya incluye
+     */
+    private void escribirInstantanea() throws IOException {
+        olvidarTerminadas();
+        Path temporal = directorio.resolve(ARCHIVO_INSTANTANEA + ".tmp");
+        try (FileChannel archivo = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CheckedOutputStream conCrc = new CheckedOutputStream(Channels.newOutputStream(archivo), new CRC32());
+            DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(conCrc));
+            salida.writeInt(MAGICO_INSTANTANEA);
+            salida.writeLong(secuencia);
+            salida.writeInt(inventarios.size());
+            for (Map.Entry<String, long[]> entrada : inventarios.entrySet()) {
+                salida.writeUTF(entrada.getKey());
+                salida.writeInt(entrada.getValue().length);
+                for (long palabra : entrada.getValue()) {
+                    salida.writeLong(palabra);
+                }
+            }
+            salida.writeInt(reservas.size());
+            for (ReservaRecuperada reserva : reservas.values()) {
+                salida.writeUTF(reserva.getReservaId());
+                salida.writeUTF(reserva.getClienteId());
+                salida.writeUTF(reserva.getFuncionId());
+                salida.writeBoolean(reserva.isConfirmada());
+                salida.writeLong(reserva.getInstante());
+                salida.writeInt(reserva.asientos().length);
+                for (int asiento : reserva.asientos()) {
+                    salida.writeInt(asiento);
+                }
+                salida.writeLong(reserva.getMontoCentavos());
+                salida.writeUTF(reserva.getClavePago());
+            }
+            salida.flush();
+            // El CRC de todo lo anterior va al final (fuera del cálculo)
+            new DataOutputStream(Channels.newOutputStream(archivo)).writeInt((int) conCrc.getChecksum().getValue());
+            archivo.force(true);
+        }
+        Files.move(temporal, directorio.resolve(ARCHIVO_INSTANTANEA),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        canal.truncate(0);
+        canal.position(0);
+        canal.force(true);
+        registrosDesdeInstantanea = 0;
+    }
+
+    /**
+     * Saca del estado las funciones terminadas: sus bitmaps y sus reservas
+     * (solo el escritor, antes de cada instantánea)
+     */
+    private void olvidarTerminadas() {
+        Predicate<String> terminada = funcionTerminada;
+        inventarios.keySet().removeIf(terminada);
+        reservas.values().removeIf(reserva -> terminada.test(reserva.getFuncionId()));
+    }
+
+    /**
+     * Cierra el diario después de escribir lo pendiente
+     * Los registros que lleguen después fallan enseguida
+     * @throws IOException si falla el cierre del archivo
+     */
+    public void cerrar() throws IOException {
+        synchronized (cierre) {
+            activo = false;
+            cola.add(Pendiente.FIN); // Despierta al escritor si estaba esperando
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        fallarPendientes(); // Si el escritor no llegó a vaciar la cola (interrumpido)
+        canal.close();
+    }
+
+    // Métricas
+    public long getRegistrosEscritos() { return registrosEscritos; }
+    public long getSincronizaciones() { return sincronizaciones; }
+    public int getPendientes() { return cola.size(); }
+    public boolean estaActivo() { return activo; }
+
+    // ============================================
+    // FORMATO DE LOS REGISTROS
+    // ============================================
+
+    private static ByteBuffer serializar(Pendiente pendiente, long secuencia, long instante) {
+        byte[] reserva = pendiente.reservaId.getBytes(StandardCharsets.UTF_8);
+        byte[] funcion = pendiente.funcionId.getBytes(StandardCharsets.UTF_8);
+        byte[] cliente = pendiente.clienteId.getBytes(StandardCharsets.UTF_8);
+        byte[] clave = pendiente.clavePago.getBytes(StandardCharsets.UTF_8);
+        int largo = 1 + Long.BYTES * 2 + 2 + reserva.length + 2 + funcion.length
+            + Integer.BYTES * (1 + pendiente.asientos.length) + 2 + cliente.length + Long.BYTES + 2 + clave.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 2 + largo);
+        buffer.putInt(largo).putInt(0); // El CRC se completa al final
+        buffer.put((byte) pendiente.tipo.ordinal());
+        buffer.putLong(secuencia);
+        buffer.putLong(instante);
+        buffer.putShort((short) reserva.length).put(reserva);
+        buffer.putShort((short) funcion.length).put(funcion);
+        buffer.putInt(pendiente.asientos.length);
+        for (int asiento : pendiente.asientos) {
+            buffer.putInt(asiento);
+        }
+        buffer.putShort((short) cliente.length).put(cliente);
+        buffer.putLong(pendiente.montoCentavos);
+        buffer.putShort((short) clave.length).put(clave);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), Integer.BYTES * 2, largo);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Aplica un registro a los bitmaps (se usa al escribir y al recuperar)
+     */
+    static void aplicar(Map<String, long[]> inventarios, Tipo tipo, String funcionId, int[] asientos) {
+        long[] palabras = inventarios.getOrDefault(funcionId, new long[0]);
+        for (int asiento : asientos) {
+            int palabra = asiento >>> 6;
+            if (palabra >= palabras.length) {
+                palabras = Arrays.copyOf(palabras, palabra + 1);
+            }
+            if (tipo.ocupa()) {
+                palabras[palabra] |= 1L << asiento;
+            } else {
+                palabras[palabra] &= ~(1L << asiento);
+            }
+        }
+        inventarios.put(funcionId, palabras);
+    }
+
+    /**
+     * Aplica un registro a las reservas vivas (se usa al escribir y al recuperar)
+     * CREADA la agrega retenida, CONFIRMADA la marca confirmada (o la agrega,
+     * si se confirmó sin retener), INCIERTA la deja retenida con la clave de
+     * su pago y CANCELADA / EXPIRADA la quitan
+     */
+    static void aplicar(Map<String, ReservaRecuperada> reservas, Tipo tipo, String reservaId, String clienteId,
+                        String funcionId, long instante, int[] asientos, long montoCentavos, String clavePago) {
+        if (!tipo.ocupa()) {
+            reservas.remove(reservaId);
+        } else if (tipo == Tipo.CREADA) {
+            reservas.put(reservaId, new ReservaRecuperada(reservaId, clienteId, funcionId, false, instante, asientos,
+                montoCentavos, ""));
+        } else {
+            ReservaRecuperada anterior = reservas.get(reservaId);
+            reservas.put(reservaId, new ReservaRecuperada(reservaId, clienteId, funcionId, tipo == Tipo.CONFIRMADA,
+                anterior == null ? instante : anterior.getInstante(), asientos, montoCentavos,
+                tipo == Tipo.INCIERTA ? clavePago : ""));
+        }
+    }
+
+    private static boolean quedan(ByteBuffer[] buffers) {
+        return buffers.length > 0 && buffers[buffers.length - 1].hasRemaining();
+    }
+
+    /**
+     * Registro esperando a ser escrito
+     */
+    private static final class Pendiente {
+        static final Pendiente FIN = new Pendiente(null, "", "", "", new int[0], 0, "");
+
+        final Tipo tipo;
+        final String reservaId;
+        final String clienteId;
+        final String funcionId;
+        final int[] asientos;
+        final long montoCentavos;
+        final String clavePago;
+        final CompletableFuture<Long> futuro = new CompletableFuture<>();
+
+        Pendiente(Tipo tipo, String reservaId, String clienteId, String funcionId, int[] asientos,
+                  long montoCentavos, String clavePago) {
+            this.tipo = tipo;
+            this.reservaId = reservaId;
+            this.clienteId = clienteId;
+            this.funcionId = funcionId;
+            this.asientos = asientos;
+            this.montoCentavos = montoCentavos;
+            this.clavePago = clavePago;
+        }
+    }
+}
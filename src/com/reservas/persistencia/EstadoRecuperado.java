@@ -0,0 +1,195 @@
+package com.reservas.persistencia;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Estado reconstruido a partir del diario: instantánea + registros posteriores
+ *
+ * Además de los bitmaps, trae las reservas vivas (retenidas, confirmadas o
+ * con el pago por conciliar) con su id, cliente, asientos y monto:
+ * SistemaReservas las vuelve a armar
+ *
+ * Recuperar es rápido porque:
+ * - La instantánea trae los bitmaps y las reservas ya armados (sin
+ *   reproducir todo el día)
+ * - Solo se reproducen los registros escritos después de ella
+ * - Se detiene en el primer registro incompleto o con CRC inválido
+ */
+public class EstadoRecuperado {
+    private final Map<String, long[]> inventarios;  // Bitmap de ocupación por id de función
+    private final Map<String, ReservaRecuperada> reservas; // Reservas vivas por id
+    private final long ultimaSecuencia;             // Última secuencia aplicada
+    private final long bytesValidos;                // Hasta dónde el diario es válido
+    private final int registrosReproducidos;        // Registros aplicados después de la instantánea
+
+    private EstadoRecuperado(Map<String, long[]> inventarios, Map<String, ReservaRecuperada> reservas,
+                             long ultimaSecuencia, long bytesValidos, int registrosReproducidos) {
+        this.inventarios = inventarios;
+        this.reservas = reservas;
+        this.ultimaSecuencia = ultimaSecuencia;
+        this.bytesValidos = bytesValidos;
+        this.registrosReproducidos = registrosReproducidos;
+    }
+
+    /**
+     * Estado vacío (sistema nuevo, sin diario previo)
+     */
+    public static EstadoRecuperado vacio() {
+        return new EstadoRecuperado(new HashMap<>(), new HashMap<>(), 0, 0, 0);
+    }
+
+    static EstadoRecuperado leer(Path directorio) throws IOException {
+        Map<String, long[]> inventarios = new HashMap<>();
+        Map<String, ReservaRecuperada> reservas = new HashMap<>();
+        long secuenciaInstantanea = leerInstantanea(directorio.resolve(DiarioReservas.ARCHIVO_INSTANTANEA),
+            inventarios, reservas);
+
+        Path archivo = directorio.resolve(DiarioReservas.ARCHIVO_DIARIO);
+        if (!Files.exists(archivo)) {
+            return new EstadoRecuperado(inventarios, reservas, secuenciaInstantanea, 0, 0);
+        }
+
+        ByteBuffer diario;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            diario = ByteBuffer.allocate((int) canal.size());
+            while (diario.hasRemaining() && canal.read(diario) >= 0) {
+                // Leemos el archivo completo
+            }
+            diario.flip();
+        }
+
+        long ultimaSecuencia = secuenciaInstantanea;
+        int reproducidos = 0;
+        CRC32 crc = new CRC32();
+        while (diario.remaining() >= Integer.BYTES * 2) {
+            int inicio = diario.position();
+            int largo = diario.getInt();
+            int crcEsperado = diario.getInt();
+            if (largo <= 0 || largo > diario.remaining()) {
+                diario.position(inicio);
+                break; // Registro incompleto: se cortó la escritura
+            }
+            crc.reset();
+            crc.update(diario.array(), diario.position(), largo);
+            if ((int) crc.getValue() != crcEsperado) {
+                diario.position(inicio);
+                break; // Registro corrupto: descartamos desde aquí
+            }
+
+            int fin = diario.position() + largo;
+            DiarioReservas.Tipo tipo = DiarioReservas.Tipo.values()[diario.get()];
+            long secuencia = diario.getLong();
+            long instante = diario.getLong();
+            String reservaId = leerTexto(diario);
+            String funcionId = leerTexto(diario);
+            int[] asientos = new int[diario.getInt()];
+            for (int i = 0; i < asientos.length; i++) {
+                asientos[i] = diario.getInt();
+            }
+            // Campos agregados al final: los registros viejos no los tienen
+            String clienteId = diario.position() < fin ? leerTexto(diario) : "";
+            long montoCentavos = diario.position() < fin ? diario.getLong() : 0;
+            String clavePago = diario.position() < fin ? leerTexto(diario) : "";
+            diario.position(fin);
+
+            // Los registros que la instantánea ya incluye se saltan
+            if (secuencia > secuenciaInstantanea) {
+                DiarioReservas.aplicar(inventarios, tipo, funcionId, asientos);
+                DiarioReservas.aplicar(reservas, tipo, reservaId, clienteId, funcionId, instante, asientos,
+                    montoCentavos, clavePago);
+                ultimaSecuencia = secuencia;
+                reproducidos++;
+            }
+        }
+        return new EstadoRecuperado(inventarios, reservas, ultimaSecuencia, diario.position(), reproducidos);
+    }
+
+    /**
+     * Lee la instantánea si existe y es válida
+     * @return Secuencia incluida en la instantánea (0 si no hay)
+     */
+    private static long leerInstantanea(Path archivo, Map<String, long[]> inventarios,
+                                        Map<String, ReservaRecuperada> reservas) throws IOException {
+        if (!Files.exists(archivo)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(archivo);
+        int largo = bytes.length - Integer.BYTES;   // El CRC va en los últimos 4 bytes
+        CRC32 crc = new CRC32();
+        if (largo > 0) {
+            crc.update(bytes, 0, largo);
+        }
+        if (largo <= 0 || (int) crc.getValue() != ByteBuffer.wrap(bytes, largo, Integer.BYTES).getInt()) {
+            throw new IOException("La instantánea " + archivo + " está corrupta");
+        }
+
+        DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(bytes, 0, largo));
+        int magico = entrada.readInt();
+        if (magico != DiarioReservas.MAGICO_INSTANTANEA && magico != DiarioReservas.MAGICO_INSTANTANEA_V2
+                && magico != DiarioReservas.MAGICO_INSTANTANEA_V1) {
+            throw new IOException("El archivo " + archivo + " no es una instantánea de inventarios");
+        }
+        long secuencia = entrada.readLong();
+        int funciones = entrada.readInt();
+        for (int i = 0; i < funciones; i++) {
+            String id = entrada.readUTF();
+            long[] palabras = new long[entrada.readInt()];
+            for (int j = 0; j < palabras.length; j++) {
+                palabras[j] = entrada.readLong();
+            }
+            inventarios.put(id, palabras);
+        }
+        if (magico == DiarioReservas.MAGICO_INSTANTANEA_V1) {
+            return secuencia; // Instantánea vieja: sin reservas
+        }
+        int vivas = entrada.readInt();
+        for (int i = 0; i < vivas; i++) {
+            String reservaId = entrada.readUTF();
+            String clienteId = entrada.readUTF();
+            String funcionId = entrada.readUTF();
+            boolean confirmada = entrada.readBoolean();
+            long instante = entrada.readLong();
+            int[] asientos = new int[entrada.readInt()];
+            for (int j = 0; j < asientos.length; j++) {
+                asientos[j] = entrada.readInt();
+            }
+            boolean conPago = magico == DiarioReservas.MAGICO_INSTANTANEA; // INV2: sin monto ni clave
+            long montoCentavos = conPago ? entrada.readLong() : 0;
+            String clavePago = conPago ? entrada.readUTF() : "";
+            reservas.put(reservaId, new ReservaRecuperada(reservaId, clienteId, funcionId, confirmada,
+                instante, asientos, montoCentavos, clavePago));
+        }
+        return secuencia;
+    }
+
+    private static String leerTexto(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Bitmaps recuperados por id de función (solo lectura)
+     */
+    public Map<String, long[]> getInventarios() { return Collections.unmodifiableMap(inventarios); }
+
+    /**
+     * @return Reservas retenidas o confirmadas por id de reserva (solo lectura)
+     */
+    public Map<String, ReservaRecuperada> getReservas() { return Collections.unmodifiableMap(reservas); }
+    public long getUltimaSecuencia() { return ultimaSecuencia; }
+    public long getBytesValidos() { return bytesValidos; }
+    public int getRegistrosReproducidos() { return registrosReproducidos; }
+}
@@ -0,0 +1,55 @@
+package com.reservas.persistencia;
+
+/**
+ * Reserva viva según el diario: retenida (CREADA), confirmada o con el
+ * pago por conciliar (INCIERTA: retenida, sin vencer, con la clave del pago)
+ *
+ * Las canceladas y vencidas no se guardan: sus asientos ya se liberaron y
+ * no hay nada que reconstruir. Con estos datos el sistema vuelve a armar
+ * la Reserva (mismo id, cliente, función y asientos) cuando se agregan su
+ * función y su cliente
+ *
+ * Es inmutable: un cambio de estado reemplaza el objeto en el mapa
+ */
+public final class ReservaRecuperada {
+    private final String reservaId;
+    private final String clienteId;     // "" si la reserva no tenía cliente
+    private final String funcionId;
+    private final boolean confirmada;   // false = retenida (vence, salvo si es incierta)
+    private final long instante;        // Cuándo se retuvo (milisegundos desde 1970)
+    private final int[] asientos;       // Índices dentro de la sala
+    private final long montoCentavos;   // Monto de la reserva (0 en diarios anteriores al monto)
+    private final String clavePago;     // Clave del pago por conciliar ("" si no hay)
+
+    ReservaRecuperada(String reservaId, String clienteId, String funcionId, boolean confirmada,
+                      long instante, int[] asientos, long montoCentavos, String clavePago) {
+        this.reservaId = reservaId;
+        this.clienteId = clienteId;
+        this.funcionId = funcionId;
+        this.confirmada = confirmada;
+        this.instante = instante;
+        this.asientos = asientos;
+        this.montoCentavos = montoCentavos;
+        this.clavePago = clavePago;
+    }
+
+    public String getReservaId() { return reservaId; }
+    public String getClienteId() { return clienteId; }
+    public String getFuncionId() { return funcionId; }
+    public boolean isConfirmada() { return confirmada; }
+    public long getInstante() { return instante; }
+    public long getMontoCentavos() { return montoCentavos; }
+    public String getClavePago() { return clavePago; }
+
+    /**
+     * @return true si su pago terminó DESCONOCIDO: no vence, espera a que se concilie
+     */
+    public boolean isIncierta() { return !clavePago.isEmpty(); }
+
+    /**
+     * @return Índices de los asientos (una copia)
+     */
+    public int[] getAsientos() { return asientos.clone(); }
+
+    int[] asientos() { return asientos; } // Sin copiar, para el diario
+}
@@ -0,0 +1,160 @@
+package com.reservas.precios;
+
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Dinero;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Id;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Motor de precios: reemplaza el precio fijo de $10 por asiento
+ *
+ * El precio de un asiento se calcula así:
+ * 1. Precio base del motor
+ * 2. Reglas (ReglaPrecio) en el orden en que se agregaron: película,
+ *    tipo de asiento, horario...
+ * 3. Recargo por demanda según la ocupación actual de la función
+ *
+ * Los pasos 1 y 2 se "compilan" en una TablaPrecios por función (un precio
+ * por asiento); el paso 3 es un nivel que la tabla recalcula solo cuando la
+ * ocupación cruza un umbral. Así, mostrar el precio de todo el mapa de
+ * asientos es copiar un arreglo
+ *
+ * La configuración es inmutable y se reemplaza completa con cada cambio
+ * (copy-on-write): las tablas compiladas con la configuración anterior
+ * se recompilan la próxima vez que se piden
+ *
+ * Las tablas de las funciones que ya terminaron se descartan solas (ver
+ * olvidarTerminadas()): si no, el mapa crece con cada función programada
+ */
+public class MotorPrecios {
+    private static final long INTERVALO_LIMPIEZA = TimeUnit.MINUTES.toNanos(1);
+
+    private volatile Configuracion configuracion;
+    private final Map<Id<Funcion>, TablaPrecios> tablas = new ConcurrentHashMap<>(); // Por id de función
+    private final AtomicLong proximaLimpieza = new AtomicLong(System.nanoTime() + INTERVALO_LIMPIEZA);
+
+    /**
+     * @param precioBase Precio de un asiento antes de aplicar reglas
+     */
+    public MotorPrecios(Dinero precioBase) {
+        this.configuracion = new Configuracion(precioBase.getCentavos(),
+            Collections.emptyList(), new TreeMap<>());
+    }
+
+    /**
+     * Agrega una regla al final de la lista
+     * @param regla Regla a aplicar
+     */
+    public synchronized void agregarRegla(ReglaPrecio regla) {
+        List<ReglaPrecio> reglas = new ArrayList<>(configuracion.reglas);
+        reglas.add(regla);
+        configuracion = new Configuracion(configuracion.precioBase, reglas, configuracion.niveles);
+    }
+
+    /**
+     * Agrega (o reemplaza) un nivel de demanda
+     * Ej: agregarNivelDemanda(70, 10) = +10% cuando la función está al 70% o más
+     * 
+     * @param ocupacionMinima Porcentaje de ocupación desde el que aplica (1 a 100)
+     * @param recargo Porcentaje de recargo
+     */
+    public synchronized void agregarNivelDemanda(int ocupacionMinima, int recargo) {
+        if (ocupacionMinima <= 0 || ocupacionMinima > 100) {
+            throw new IllegalArgumentException("Ocupación inválida: " + ocupacionMinima);
+        }
+        TreeMap<Integer, Integer> niveles = new TreeMap<>(configuracion.niveles);
+        niveles.put(ocupacionMinima, recargo);
+        configuracion = new Configuracion(configuracion.precioBase, configuracion.reglas, niveles);
+    }
+
+    /**
+     * @param precioBase Nuevo precio base
+     */
+    public synchronized void setPrecioBase(Dinero precioBase) {
+        configuracion = new Configuracion(precioBase.getCentavos(), configuracion.reglas, configuracion.niveles);
+    }
+
+    /**
+     * Tabla de precios de una función, compilada con la configuración vigente
+     * Cuando compila una tabla nueva, a lo sumo una vez por minuto, descarta
+     * las de funciones terminadas (el mapa solo crece al compilar)
+     * @param funcion Función a cotizar
+     * @return Tabla (compartida: se reutiliza mientras no cambie la configuración)
+     */
+    public TablaPrecios tablaDe(Funcion funcion) {
+        Configuracion actual = configuracion;
+        TablaPrecios tabla = tablas.get(funcion.getId());
+        if (tabla == null || tabla.getConfiguracion() != actual || tabla.getFuncion() != funcion) {
+            tabla = new TablaPrecios(funcion, actual);
+            tablas.put(funcion.getId(), tabla); // Si dos hilos compilan a la vez, ambas tablas son iguales
+            long limpieza = proximaLimpieza.get();
+            long ahora = System.nanoTime();
+            if (ahora - limpieza >= 0 && proximaLimpieza.compareAndSet(limpieza, ahora + INTERVALO_LIMPIEZA)) {
+                olvidarTerminadas(LocalDateTime.now()); // Un solo hilo por vez
+            }
+        }
+        return tabla;
+    }
+
+    /**
+     * Precio total de un conjunto de asientos
+     * @param funcion Función
+     * @param asientos Asientos a cotizar
+     * @return Total exacto
+     */
+    public Dinero cotizar(Funcion funcion, List<Asiento> asientos) {
+        return tablaDe(funcion).cotizar(asientos);
+    }
+
+    /**
+     * Descarta la tabla de una función (ej: cuando la función ya pasó)
+     * @param funcion Función
+     */
+    public void olvidar(Funcion funcion) {
+        tablas.remove(funcion.getId());
+    }
+
+    /**
+     * Descarta las tablas de todas las funciones que terminaron
+     * (si una se vuelve a cotizar, su tabla se compila de nuevo)
+     * @param ahora Momento de referencia
+     * @return Tablas descartadas
+     */
+    public int olvidarTerminadas(LocalDateTime ahora) {
+        int descartadas = 0;
+        for (TablaPrecios tabla : tablas.values()) {
+            if (tabla.getFuncion().getFin().isBefore(ahora)
+                    && tablas.remove(tabla.getFuncion().getId(), tabla)) {
+                descartadas++;
+            }
+        }
+        return descartadas;
+    }
+
+    public Dinero getPrecioBase() { return Dinero.deCentavos(configuracion.precioBase); }
+    public int getTablasCompiladas() { return tablas.size(); }
+
+    /**
+     * Configuración inmutable del motor
+     */
+    static final class Configuracion {
+        final long precioBase;
+        final List<ReglaPrecio> reglas;
+        final Map<Integer, Integer> niveles; // Ocupación mínima (%) -> recargo (%), ordenado
+
+        Configuracion(long precioBase, List<ReglaPrecio> reglas, Map<Integer, Integer> niveles) {
+            this.precioBase = precioBase;
+            this.reglas = Collections.unmodifiableList(new ArrayList<>(reglas));
+            this.niveles = Collections.unmodifiableMap(new TreeMap<>(niveles));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.reservas.precios;
+
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Dinero;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Id;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.TipoAsiento;
+import java.time.LocalTime;
+
+/**
+ * Regla de precio: ajusta el precio de UN asiento de UNA función
+ *
+ * Las reglas solo se evalúan al compilar la TablaPrecios de una función
+ * (una vez por asiento), nunca al mostrar el mapa de asientos. Por eso
+ * deben depender solo de la función y del asiento, no de la ocupación:
+ * los recargos por demanda se configuran aparte (MotorPrecios.agregarNivelDemanda)
+ */
+@FunctionalInterface
+public interface ReglaPrecio {
+
+    /**
+     * @param funcion Función que se cotiza
+     * @param asiento Asiento que se cotiza
+     * @param centavos Precio calculado hasta ahora
+     * @return Precio ajustado, en centavos
+     */
+    long aplicar(Funcion funcion, Asiento asiento, long centavos);
+
+    // ============================================
+    // REGLAS COMUNES
+    // ============================================
+
+    /**
+     * Precio fijo para todas las funciones de una película (reemplaza al anterior)
+     * @param peliculaId Id de la película
+     * @param precio Nuevo precio
+     */
+    static ReglaPrecio precioPelicula(Id<Pelicula> peliculaId, Dinero precio) {
+        long centavos = precio.getCentavos();
+        return (funcion, asiento, actual) ->
+            funcion.getPelicula().getId().equals(peliculaId) ? centavos : actual;
+    }
+
+    /**
+     * Ajuste porcentual según el tipo de asiento (ej: PREMIUM +30%)
+     * @param tipo Tipo de asiento
+     * @param porcentaje Ajuste (negativo = descuento)
+     */
+    static ReglaPrecio porTipo(TipoAsiento tipo, int porcentaje) {
+        return (funcion, asiento, actual) ->
+            asiento.getTipo() == tipo ? Dinero.ajustar(actual, porcentaje) : actual;
+    }
+
+    /**
+     * Ajuste porcentual según la hora de la función, en [desde, hasta)
+     * (ej: matiné -20%). Si desde es posterior a hasta, el rango cruza la medianoche
+     * @param desde Hora de inicio (incluida)
+     * @param hasta Hora de fin (excluida)
+     * @param porcentaje Ajuste (negativo = descuento)
+     */
+    static ReglaPrecio porHorario(LocalTime desde, LocalTime hasta, int porcentaje) {
+        return (funcion, asiento, actual) -> {
+            LocalTime hora = funcion.getHorario().toLocalTime();
+            boolean dentro = desde.isBefore(hasta)
+                ? !hora.isBefore(desde) && hora.isBefore(hasta)
+                : !hora.isBefore(desde) || hora.isBefore(hasta);
+            return dentro ? Dinero.ajustar(actual, porcentaje) : actual;
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package com.reservas.precios;
+
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Dinero;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.InventarioAsientos;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tabla de precios compilada de UNA función
+ *
+ * - base[i]: precio del asiento i con todas las reglas ya aplicadas
+ *   (se calcula una sola vez, al crear la tabla)
+ * - Niveles de demanda: cuántos asientos ocupados hacen falta para cada
+ *   recargo. El nivel actual se obtiene del contador de ocupados del
+ *   inventario, en O(1)
+ * - Vista: los precios finales del nivel actual. Solo se recalcula cuando
+ *   la ocupación cruza un umbral, no en cada consulta
+ */
+public class TablaPrecios {
+    private final Funcion funcion;
+    private final MotorPrecios.Configuracion configuracion;
+    private final InventarioAsientos inventario;
+    private final long[] base;       // Centavos por asiento, antes del recargo por demanda
+    private final int[] umbrales;    // Asientos ocupados a partir de los cuales aplica cada nivel
+    private final int[] recargos;    // Recargo (%) de cada nivel
+    private volatile Vista vista;    // Precios del nivel vigente
+
+    TablaPrecios(Funcion funcion, MotorPrecios.Configuracion configuracion) {
+        this.funcion = funcion;
+        this.configuracion = configuracion;
+        this.inventario = funcion.getInventario();
+
+        List<Asiento> asientos = funcion.getSala().getAsientos();
+        this.base = new long[asientos.size()];
+        for (Asiento asiento : asientos) {
+            long centavos = configuracion.precioBase;
+            for (ReglaPrecio regla : configuracion.reglas) {
+                centavos = regla.aplicar(funcion, asiento, centavos);
+            }
+            base[asiento.getIndice()] = Math.max(0, centavos);
+        }
+
+        // Umbrales en cantidad de asientos (redondeando hacia arriba)
+        this.umbrales = new int[configuracion.niveles.size()];
+        this.recargos = new int[configuracion.niveles.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> nivel : configuracion.niveles.entrySet()) {
+            umbrales[i] = (int) (((long) base.length * nivel.getKey() + 99) / 100);
+            recargos[i] = nivel.getValue();
+            i++;
+        }
+        this.vista = crearVista(0);
+    }
+
+    /**
+     * Precio actual de un asiento
+     * @param indice Índice del asiento
+     * @return Precio en centavos
+     */
+    public long precio(int indice) {
+        return vigente().precios[indice];
+    }
+
+    /**
+     * @param asiento Asiento
+     * @return Precio actual del asiento
+     */
+    public Dinero precio(Asiento asiento) {
+        return Dinero.deCentavos(precio(asiento.getIndice()));
+    }
+
+    /**
+     * Copia los precios de TODOS los asientos (para dibujar el mapa de la sala)
+     * @param destino Arreglo de al menos getCapacidad() elementos, en centavos
+     */
+    public void copiarPrecios(long[] destino) {
+        long[] precios = vigente().precios;
+        System.arraycopy(precios, 0, destino, 0, precios.length);
+    }
+
+    /**
+     * Total de un conjunto de asientos, todos con el mismo nivel de demanda
+     * @param asientos Asientos a cotizar
+     * @return Total exacto
+     */
+    public Dinero cotizar(List<Asiento> asientos) {
+        long[] precios = vigente().precios;
+        long total = 0;
+        for (Asiento asiento : asientos) {
+            total = Math.addExact(total, precios[asiento.getIndice()]);
+        }
+        return Dinero.deCentavos(total);
+    }
+
+    /**
+     * @return Nivel de demanda vigente (0 = sin recargo)
+     */
+    public int getNivelDemanda() { return vigente().nivel; }
+    public int getCapacidad() { return base.length; }
+    Funcion getFuncion() { return funcion; }
+    MotorPrecios.Configuracion getConfiguracion() { return configuracion; }
+
+    // ============================================
+    // NIVEL DE DEMANDA
+    // ============================================
+
+    /**
+     * Devuelve la vista del nivel actual, recalculándola si la ocupación
+     * cruzó un umbral desde la última consulta
+     */
+    private Vista vigente() {
+        Vista actual = vista;
+        int nivel = nivelPara(inventario.contarOcupados());
+        if (nivel != actual.nivel) {
+            actual = crearVista(nivel);
+            vista = actual; // Si dos hilos la recalculan, las dos son iguales
+        }
+        return actual;
+    }
+
+    private int nivelPara(int ocupados) {
+        int nivel = 0;
+        while (nivel < umbrales.length && ocupados >= umbrales[nivel]) {
+            nivel++;
+        }
+        return nivel;
+    }
+
+    private Vista crearVista(int nivel) {
+        if (nivel == 0) {
+            return new Vista(0, base); // Sin recargo: se comparte el arreglo base
+        }
+        int recargo = recargos[nivel - 1];
+        long[] precios = new long[base.length];
+        for (int i = 0; i < precios.length; i++) {
+            precios[i] = Dinero.ajustar(base[i], recargo);
+        }
+        return new Vista(nivel, precios);
+    }
+
+    /**
+     * Precios finales de un nivel (no se modifican después de crearse)
+     */
+    private static final class Vista {
+        final int nivel;
+        final long[] precios;
+
+        Vista(int nivel, long[] precios) {
+            this.nivel = nivel;
+            this.precios = precios;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.reservas.sistema;
+
+import com.reservas.modelo.EventoReserva;
+import com.reservas.modelo.Reserva.ObservadorReserva;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Bus de eventos de reservas (PATRÓN OBSERVER centralizado)
+ *
+ * Los observadores se suscriben UNA vez por tipo de evento, en lugar de
+ * crearse y guardarse en cada reserva. Cuando una reserva cambia de estado
+ * publica un EventoReserva y el bus lo reparte a los suscriptores de ese tipo
+ * a través del DespachadorNotificaciones (sin bloquear a quien publica)
+ */
+public class BusEventos {
+    private final Map<EventoReserva.Tipo, List<ObservadorReserva>> suscriptores =
+        new EnumMap<>(EventoReserva.Tipo.class);
+    private final DespachadorNotificaciones despachador;
+
+    /**
+     * Constructor del bus
+     * @param despachador Despachador que entrega los eventos en segundo plano
+     */
+    public BusEventos(DespachadorNotificaciones despachador) {
+        this.despachador = despachador;
+        for (EventoReserva.Tipo tipo : EventoReserva.Tipo.values()) {
+            // Copy-on-write: suscribir es raro, publicar es muy frecuente
+            suscriptores.put(tipo, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    /**
+     * Suscribe un observador a un tipo de evento
+     * @param tipo Tipo de evento (confirmada, cancelada, expirada)
+     * @param observador Observador a notificar
+     */
+    public void suscribir(EventoReserva.Tipo tipo, ObservadorReserva observador) {
+        suscriptores.get(tipo).add(observador);
+    }
+
+    /**
+     * Suscribe un observador a TODOS los tipos de evento
+     * @param observador Observador a notificar
+     */
+    public void suscribirATodos(ObservadorReserva observador) {
+        for (EventoReserva.Tipo tipo : EventoReserva.Tipo.values()) {
+            suscribir(tipo, observador);
+        }
+    }
+
+    /**
+     * Cancela la suscripción de un observador a un tipo de evento
+     * @param tipo Tipo de evento
+     * @param observador Observador a quitar
+     */
+    public void desuscribir(EventoReserva.Tipo tipo, ObservadorReserva observador) {
+        suscriptores.get(tipo).remove(observador);
+    }
+
+    /**
+     * Publica un evento a los suscriptores de su tipo
+     * @param evento Evento a publicar
+     */
+    public void publicar(EventoReserva evento) {
+        despachador.publicar(suscriptores.get(evento.getTipo()), evento);
+    }
+
+    /**
+     * Publica un evento a los suscriptores de su tipo y, además, a
+     * observadores propios de la reserva (si los tiene)
+     * @param evento Evento a publicar
+     * @param adicionales Observadores registrados solo en esa reserva
+     */
+    public void publicar(EventoReserva evento, List<ObservadorReserva> adicionales) {
+        publicar(evento);
+        if (!adicionales.isEmpty()) {
+            despachador.publicar(adicionales, evento);
+        }
+    }
+
+    /**
+     * @param tipo Tipo de evento
+     * @return Suscriptores actuales de ese tipo (solo lectura)
+     */
+    public List<ObservadorReserva> getSuscriptores(EventoReserva.Tipo tipo) {
+        return Collections.unmodifiableList(suscriptores.get(tipo));
+    }
+}
@@ -0,0 +1,313 @@
+package com.reservas.sistema;
+
+import com.reservas.modelo.EventoReserva;
+import com.reservas.modelo.Reserva.ObservadorReserva;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Despachador ASÍNCRONO de notificaciones (PATRÓN OBSERVER sin bloquear)
+ *
+ * Antes, confirmar() llamaba a cada observador y esperaba a que terminara.
+ * Ahora:
+ * 1. La reserva deja la notificación en una cola acotada y sigue su camino
+ * 2. Un grupo pequeño de hilos trabajadores vacía las colas
+ * 3. Cada trabajador toma un LOTE y lo agrupa por observador (canal),
+ *    así un NotificadorEmail puede enviar varios emails de una sola vez
+ *
+ * Cada trabajador tiene su propio carril (cola): los eventos de una misma
+ * reserva van siempre al mismo carril, elegido por su id. Así se entregan
+ * en el orden en que ocurrieron (CONFIRMADA antes que CANCELADA). Un
+ * observador puede recibir a la vez lotes de reservas distintas desde
+ * varios trabajadores
+ *
+ * Si el carril está lleno, se aplica la política de saturación elegida
+ */
+public class DespachadorNotificaciones {
+
+    /**
+     * Qué hacer cuando la cola está llena
+     */
+    public enum PoliticaSaturacion {
+        DESCARTAR,  // Se pierde la notificación (y se cuenta como descartada)
+        BLOQUEAR,   // Quien publica espera a que haya lugar
+        DESBORDAR   // Va a una cola de desborde sin límite, que se atiende después
+    }
+
+    private static final int TAMANO_LOTE = 64;
+    private static final long ESPERA_MILIS = 50;
+
+    private final List<Carril> carriles; // Uno por trabajador
+    private final PoliticaSaturacion politica;
+    private final List<Thread> hilos = new ArrayList<>();
+    private volatile boolean activo = true;
+
+    // Métricas
+    private final Map<Class<?>, MetricasObservador> metricas = new ConcurrentHashMap<>(); // Por canal (clase)
+    private final LongAdder descartadas = new LongAdder();
+    private final LongAdder pendientes = new LongAdder();
+
+    /**
+     * Constructor del despachador
+     * @param capacidad Tamaño máximo de las colas (se reparte entre los trabajadores)
+     * @param trabajadores Número de hilos que atienden las colas
+     * @param politica Qué hacer cuando una cola se llena
+     */
+    public DespachadorNotificaciones(int capacidad, int trabajadores, PoliticaSaturacion politica) {
+        if (trabajadores <= 0) {
+            throw new IllegalArgumentException("Debe haber al menos un trabajador");
+        }
+        List<Carril> nuevos = new ArrayList<>(trabajadores);
+        for (int i = 0; i < trabajadores; i++) {
+            nuevos.add(new Carril(Math.max(1, capacidad / trabajadores)));
+        }
+        this.carriles = Collections.unmodifiableList(nuevos);
+        this.politica = politica;
+    }
+
+    /**
+     * Encola una notificación para cada observador
+     * Retorna sin esperar a que los observadores terminen
+     *
+     * @param observadores Observadores a notificar
+     * @param evento Evento a entregar
+     */
+    public void publicar(List<ObservadorReserva> observadores, EventoReserva evento) {
+        if (!iniciar()) {
+            // El despachador ya se detuvo: entregamos en el mismo hilo para no perder nada
+            List<Notificacion> lote = new ArrayList<>(observadores.size());
+            for (ObservadorReserva observador : observadores) {
+                lote.add(new Notificacion(observador, evento));
+            }
+            pendientes.add(lote.size());
+            entregar(lote);
+            return;
+        }
+        Carril carril = carrilDe(evento);
+        for (ObservadorReserva observador : observadores) {
+            encolar(carril, new Notificacion(observador, evento));
+        }
+    }
+
+    /**
+     * El carril de la reserva del evento (siempre el mismo para la misma reserva)
+     */
+    private Carril carrilDe(EventoReserva evento) {
+        long mezcla = evento.getReserva().getId().getValor() * 0x9E3779B97F4A7C15L; // Reparte ids consecutivos
+        return carriles.get((int) ((mezcla >>> 32) % carriles.size()));
+    }
+
+    private void encolar(Carril carril, Notificacion notificacion) {
+        pendientes.increment();
+        // Mientras haya desborde, lo nuevo va detrás de él (para no adelantarse)
+        if (carril.desborde.isEmpty() && carril.cola.offer(notificacion)) {
+            return;
+        }
+        switch (politica) {
+            case BLOQUEAR:
+                try {
+                    carril.cola.put(notificacion);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    pendientes.decrement();
+                    descartadas.increment();
+                }
+                break;
+            case DESBORDAR:
+                carril.desborde.add(notificacion);
+                break;
+            default:
+                pendientes.decrement();
+                descartadas.increment();
+        }
+    }
+
+    /**
+     * Arranca los hilos trabajadores la primera vez que se publica algo
+     * @return false si el despachador ya fue detenido
+     */
+    private synchronized boolean iniciar() {
+        if (!activo) {
+            return false;
+        }
+        if (!hilos.isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < carriles.size(); i++) {
+            Carril carril = carriles.get(i);
+            Thread hilo = new Thread(() -> atender(carril), "notificaciones-" + i);
+            hilo.setDaemon(true);
+            hilos.add(hilo);
+            hilo.start();
+        }
+        return true;
+    }
+
+    /**
+     * Ciclo de cada trabajador: tomar un lote de su carril, agruparlo por
+     * observador y entregarlo
+     */
+    private void atender(Carril carril) {
+        List<Notificacion> lote = new ArrayList<>(TAMANO_LOTE);
+        while (activo || carril.tienePendientes()) {
+            try {
+                Notificacion primera = carril.cola.poll(ESPERA_MILIS, TimeUnit.MILLISECONDS);
+                if (primera != null) {
+                    lote.add(primera);
+                    carril.cola.drainTo(lote, TAMANO_LOTE - 1);
+                }
+            } catch (InterruptedException e) {
+                // Al detener: seguimos vaciando lo que quede en las colas
+            }
+            if (lote.size() < TAMANO_LOTE && carril.cola.isEmpty()) {
+                // El desborde es más nuevo que la cola: solo cuando la cola se vació
+                Notificacion extra;
+                while (lote.size() < TAMANO_LOTE && (extra = carril.desborde.poll()) != null) {
+                    lote.add(extra);
+                }
+            }
+            if (!lote.isEmpty()) {
+                entregar(lote);
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Agrupa el lote por observador y llama a cada uno una sola vez
+     */
+    private void entregar(List<Notificacion> lote) {
+        Map<ObservadorReserva, List<EventoReserva>> porObservador = new IdentityHashMap<>();
+        for (Notificacion notificacion : lote) {
+            porObservador.computeIfAbsent(notificacion.observador, o -> new ArrayList<>())
+                .add(notificacion.evento);
+        }
+
+        porObservador.forEach((observador, eventos) -> {
+            long inicio = System.nanoTime();
+            try {
+                observador.actualizarLote(Collections.unmodifiableList(eventos));
+            } catch (RuntimeException e) {
+                // Un observador con errores no debe detener a los demás
+                System.out.println("Error al notificar: " + e.getMessage());
+            }
+            metricas.computeIfAbsent(observador.getClass(), c -> new MetricasObservador())
+                .registrar(eventos.size(), System.nanoTime() - inicio);
+            pendientes.add(-eventos.size());
+        });
+    }
+
+    /**
+     * Deja de aceptar trabajo nuevo y espera a que se entreguen las notificaciones pendientes
+     * @param espera Tiempo máximo de espera
+     * @return true si se entregó todo a tiempo
+     */
+    public boolean detener(Duration espera) {
+        List<Thread> actuales;
+        synchronized (this) {
+            activo = false;
+            actuales = new ArrayList<>(hilos);
+        }
+        long limite = System.nanoTime() + espera.toNanos();
+        for (Thread hilo : actuales) {
+            long restante = limite - System.nanoTime();
+            try {
+                if (restante > 0) {
+                    TimeUnit.NANOSECONDS.timedJoin(hilo, restante);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return pendientes.sum() == 0;
+    }
+
+    // Métricas
+    public int getProfundidadCola() {
+        int total = 0;
+        for (Carril carril : carriles) {
+            total += carril.cola.size() + carril.desborde.size();
+        }
+        return total;
+    }
+    public long getPendientes() { return pendientes.sum(); }
+    public long getDescartadas() { return descartadas.sum(); }
+    public MetricasObservador getMetricas(Class<? extends ObservadorReserva> canal) { return metricas.get(canal); }
+    public Map<Class<?>, MetricasObservador> getMetricas() { return Collections.unmodifiableMap(metricas); }
+
+    // ============================================
+    // CLASES AUXILIARES
+    // ============================================
+
+    /**
+     * La cola de un trabajador (y su desborde, si la política es DESBORDAR)
+     */
+    private static final class Carril {
+        final BlockingQueue<Notificacion> cola;
+        final Queue<Notificacion> desborde = new ConcurrentLinkedQueue<>();
+
+        Carril(int capacidad) {
+            this.cola = new ArrayBlockingQueue<>(capacidad);
+        }
+
+        boolean tienePendientes() {
+            return !cola.isEmpty() || !desborde.isEmpty();
+        }
+    }
+
+    /**
+     * Una notificación pendiente: a quién avisar y qué evento
+     */
+    private static final class Notificacion {
+        final ObservadorReserva observador;
+        final EventoReserva evento;
+
+        Notificacion(ObservadorReserva observador, EventoReserva evento) {
+            this.observador = observador;
+            this.evento = evento;
+        }
+    }
+
+    /**
+     * Latencia y volumen de un canal de notificación (clase de observador)
+     */
+    public static final class MetricasObservador {
+        private final LongAdder notificaciones = new LongAdder();
+        private final LongAdder lotes = new LongAdder();
+        private final LongAdder nanosTotales = new LongAdder();
+        private volatile long maximoNanosLote;
+
+        void registrar(int cantidad, long nanos) {
+            notificaciones.add(cantidad);
+            lotes.increment();
+            nanosTotales.add(nanos);
+            if (nanos > maximoNanosLote) {
+                maximoNanosLote = nanos; // Aproximado: basta para detectar observadores lentos
+            }
+        }
+
+        public long getNotificaciones() { return notificaciones.sum(); }
+        public long getLotes() { return lotes.sum(); }
+        public long getMaximoNanosLote() { return maximoNanosLote; }
+
+        /**
+         * @return Latencia promedio por notificación, en nanosegundos
+         */
+        public double getPromedioNanos() {
+            long cantidad = notificaciones.sum();
+            return cantidad == 0 ? 0 : (double) nanosTotales.sum() / cantidad;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.reservas.sistema;
+
+import com.reservas.modelo.Dinero;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Id;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Reserva;
+import com.reservas.modelo.Sala;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Estadísticas de ventas en tiempo real (para los reportes del Administrador)
+ *
+ * En lugar de recorrer las reservas de todos los clientes al pedir un
+ * reporte, los totales se mantienen al día con cada cambio de estado:
+ * - Al confirmar: +1 reserva, +asientos, +ingresos
+ * - Al cancelar una reserva confirmada: se restan sus asientos e ingresos
+ *   y se cuenta la cancelación
+ * - Al vencer una retención: se cuenta la expiración
+ *
+ * Los totales se llevan por función, por película, por sala y por hora
+ * (la hora en que ocurrió el cambio), además del total general
+ *
+ * Al reiniciar, las reservas confirmadas que vuelven del diario se suman
+ * otra vez (registrarRecuperada(), sin contar en la hora: la venta no
+ * ocurrió ahora). Los totales de las funciones que ya terminaron se
+ * descartan solos (ver olvidarTerminadas()); los de película, sala y
+ * hora, y el general, no cambian
+ *
+ * Cada contador es un LongAdder: los hilos que reservan suman en celdas
+ * distintas sin competir entre ellos ni tomar locks, y leer un total es
+ * sumar unas pocas celdas (no depende de cuántas reservas hubo)
+ */
+public class EstadisticasVentas {
+    private static final long MILIS_POR_HORA = 3_600_000L;
+    private static final long INTERVALO_LIMPIEZA = TimeUnit.MINUTES.toNanos(1); // De las funciones terminadas
+
+    private final Contadores totales = new Contadores(null);
+    private final Map<Id<Funcion>, Contadores> porFuncion = new ConcurrentHashMap<>();
+    private final Map<Id<Pelicula>, Contadores> porPelicula = new ConcurrentHashMap<>();
+    private final Map<Id<Sala>, Contadores> porSala = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Contadores> porHora = new ConcurrentSkipListMap<>(); // Horas desde 1970
+    private final AtomicLong proximaLimpieza = new AtomicLong(System.nanoTime() + INTERVALO_LIMPIEZA);
+
+    // ============================================
+    // REGISTRO (lo llama la Reserva al cambiar de estado)
+    // ============================================
+
+    /**
+     * Registra una reserva que pasó a CONFIRMADA
+     * @param reserva Reserva confirmada
+     */
+    public void registrarVenta(Reserva reserva) {
+        sumarVenta(reserva, true);
+    }
+
+    /**
+     * Registra una reserva CONFIRMADA que volvió del diario al reiniciar
+     * (con el monto guardado en el diario). No cuenta en la hora actual
+     * @param reserva Reserva restaurada
+     */
+    public void registrarRecuperada(Reserva reserva) {
+        sumarVenta(reserva, false);
+    }
+
+    private void sumarVenta(Reserva reserva, boolean conHora) {
+        long asientos = reserva.getAsientos().size();
+        long centavos = reserva.getMonto().getCentavos();
+        for (Contadores contadores : contadoresDe(reserva, conHora)) {
+            contadores.reservas.increment();
+            contadores.asientos.add(asientos);
+            contadores.centavos.add(centavos);
+        }
+    }
+
+    /**
+     * Registra una cancelación
+     * @param reserva Reserva cancelada
+     * @param estabaConfirmada true si se había vendido (se descuentan sus asientos e ingresos)
+     */
+    public void registrarCancelacion(Reserva reserva, boolean estabaConfirmada) {
+        long asientos = reserva.getAsientos().size();
+        long centavos = reserva.getMonto().getCentavos();
+        for (Contadores contadores : contadoresDe(reserva, true)) {
+            contadores.cancelaciones.increment();
+            if (estabaConfirmada) {
+                contadores.reservas.decrement();
+                contadores.asientos.add(-asientos);
+                contadores.centavos.add(-centavos);
+            }
+        }
+    }
+
+    /**
+     * Registra una retención que venció sin confirmarse
+     * @param reserva Reserva expirada
+     */
+    public void registrarExpiracion(Reserva reserva) {
+        for (Contadores contadores : contadoresDe(reserva, true)) {
+            contadores.expiradas.increment();
+        }
+    }
+
+    /**
+     * Los grupos de contadores que afecta una reserva (cinco, o cuatro sin la hora)
+     * Cuando aparece una función nueva, a lo sumo una vez por minuto,
+     * descarta las terminadas (el mapa por función solo crece aquí)
+     */
+    private Contadores[] contadoresDe(Reserva reserva, boolean conHora) {
+        Funcion funcion = reserva.getFuncion();
+        Contadores deFuncion = porFuncion.get(funcion.getId());
+        if (deFuncion == null) {
+            deFuncion = porFuncion.computeIfAbsent(funcion.getId(), id -> new Contadores(funcion));
+            long limpieza = proximaLimpieza.get();
+            long ahora = System.nanoTime();
+            if (ahora - limpieza >= 0 && proximaLimpieza.compareAndSet(limpieza, ahora + INTERVALO_LIMPIEZA)) {
+                olvidarTerminadas(LocalDateTime.now()); // Un solo hilo por vez
+            }
+        }
+        Contadores dePelicula = obtener(porPelicula, funcion.getPelicula().getId(),
+            id -> new Contadores(funcion.getPelicula()));
+        Contadores deSala = obtener(porSala, funcion.getSala().getId(), id -> new Contadores(funcion.getSala()));
+        if (!conHora) {
+            return new Contadores[] {totales, deFuncion, dePelicula, deSala};
+        }
+        return new Contadores[] {totales, deFuncion, dePelicula, deSala,
+            obtener(porHora, System.currentTimeMillis() / MILIS_POR_HORA, hora -> new Contadores(null))};
+    }
+
+    /**
+     * get() primero: en el caso común el contador ya existe y no se toma ningún lock
+     */
+    private static <K> Contadores obtener(Map<K, Contadores> mapa, K clave, Function<K, Contadores> crear) {
+        Contadores contadores = mapa.get(clave);
+        return contadores != null ? contadores : mapa.computeIfAbsent(clave, crear);
+    }
+
+    // ============================================
+    // CONSULTAS (O(1), sin locks)
+    // ============================================
+
+    public Resumen getTotales() { return totales.resumen(); }
+
+    /**
+     * @param funcion Función
+     * @return Totales de la función (en cero si no tuvo movimientos)
+     */
+    public Resumen deFuncion(Funcion funcion) {
+        return resumenDe(porFuncion.get(funcion.getId()));
+    }
+
+    /**
+     * @param pelicula Película
+     * @return Totales de todas las funciones de la película
+     */
+    public Resumen dePelicula(Pelicula pelicula) {
+        return resumenDe(porPelicula.get(pelicula.getId()));
+    }
+
+    /**
+     * @param sala Sala
+     * @return Totales de todas las funciones de la sala
+     */
+    public Resumen deSala(Sala sala) {
+        return resumenDe(porSala.get(sala.getId()));
+    }
+
+    /**
+     * @param momento Cualquier momento dentro de la hora buscada
+     * @return Movimientos ocurridos en esa hora
+     */
+    public Resumen deHora(LocalDateTime momento) {
+        long hora = momento.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / MILIS_POR_HORA;
+        return resumenDe(porHora.get(hora));
+    }
+
+    private static Resumen resumenDe(Contadores contadores) {
+        return contadores == null ? Resumen.VACIO : contadores.resumen();
+    }
+
+    /**
+     * Descarta los totales de una función (ej: cuando la función ya pasó)
+     * Los totales por película, sala y hora no cambian
+     * @param funcion Función
+     */
+    public void olvidar(Funcion funcion) {
+        porFuncion.remove(funcion.getId());
+    }
+
+    /**
+     * Descarta los totales de todas las funciones que terminaron
+     * @param ahora Momento de referencia
+     * @return Funciones descartadas
+     */
+    public int olvidarTerminadas(LocalDateTime ahora) {
+        int descartadas = 0;
+        for (Map.Entry<Id<Funcion>, Contadores> entrada : porFuncion.entrySet()) {
+            if (((Funcion) entrada.getValue().origen).getFin().isBefore(ahora)
+                    && porFuncion.remove(entrada.getKey(), entrada.getValue())) {
+                descartadas++;
+            }
+        }
+        return descartadas;
+    }
+
+    // ============================================
+    // EXPORTACIÓN
+    // ============================================
+
+    /**
+     * Escribe el reporte completo en formato CSV, fila por fila
+     * No arma el reporte en memoria: cada fila se escribe apenas se lee
+     * su contador, así que sirve para miles de funciones
+     *
+     * Columnas: grupo, id, detalle, reservas, asientos, ingresos,
+     * cancelaciones, expiradas, ocupacion (% de la sala, solo por función)
+     *
+     * @param destino Donde escribir (archivo, respuesta HTTP, consola...)
+     * @throws IOException si falla la escritura
+     */
+    public void exportar(Writer destino) throws IOException {
+        destino.write("grupo,id,detalle,reservas,asientos,ingresos,cancelaciones,expiradas,ocupacion\n");
+        escribirFila(destino, "total", "", "", totales, "");
+        for (Map.Entry<Id<Funcion>, Contadores> entrada : porFuncion.entrySet()) {
+            Funcion funcion = (Funcion) entrada.getValue().origen;
+            int capacidad = funcion.getSala().getCapacidad();
+            String ocupacion = capacidad == 0 ? "0"
+                : String.valueOf(funcion.getInventario().contarOcupados() * 100L / capacidad);
+            escribirFila(destino, "funcion", entrada.getKey().toString(),
+                funcion.getPelicula().getTitulo() + " " + funcion.getHorario(), entrada.getValue(), ocupacion);
+        }
+        for (Map.Entry<Id<Pelicula>, Contadores> entrada : porPelicula.entrySet()) {
+            escribirFila(destino, "pelicula", entrada.getKey().toString(),
+                ((Pelicula) entrada.getValue().origen).getTitulo(), entrada.getValue(), "");
+        }
+        for (Map.Entry<Id<Sala>, Contadores> entrada : porSala.entrySet()) {
+            escribirFila(destino, "sala", entrada.getKey().toString(), "", entrada.getValue(), "");
+        }
+        for (Map.Entry<Long, Contadores> entrada : porHora.entrySet()) { // En orden cronológico
+            LocalDateTime hora = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(entrada.getKey() * MILIS_POR_HORA), ZoneId.systemDefault());
+            escribirFila(destino, "hora", entrada.getKey().toString(), hora.toString(), entrada.getValue(), "");
+        }
+        destino.flush();
+    }
+
+    private static void escribirFila(Writer destino, String grupo, String id, String detalle,
+                                     Contadores contadores, String ocupacion) throws IOException {
+        Resumen resumen = contadores.resumen();
+        destino.append(grupo).append(',').append(id).append(',').append(csv(detalle))
+            .append(',').append(String.valueOf(resumen.getReservas()))
+            .append(',').append(String.valueOf(resumen.getAsientos()))
+            .append(',').append(BigDecimal.valueOf(resumen.getIngresos().getCentavos(), 2).toPlainString())
+            .append(',').append(String.valueOf(resumen.getCancelaciones()))
+            .append(',').append(String.valueOf(resumen.getExpiradas()))
+            .append(',').append(ocupacion).append('\n');
+    }
+
+    /**
+     * Entrecomilla un texto si tiene comas o comillas
+     */
+    private static String csv(String texto) {
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0) {
+            return texto;
+        }
+        return '"' + texto.replace("\"", "\"\"") + '"';
+    }
+
+    // ============================================
+    // CONTADORES Y RESUMEN
+    // ============================================
+
+    /**
+     * Contadores de un grupo (función, película, sala u hora)
+     */
+    private static final class Contadores {
+        final Object origen; // La función, película o sala (para el reporte)
+        final LongAdder reservas = new LongAdder();
+        final LongAdder asientos = new LongAdder();
+        final LongAdder centavos = new LongAdder();
+        final LongAdder cancelaciones = new LongAdder();
+        final LongAdder expiradas = new LongAdder();
+
+        Contadores(Object origen) {
+            this.origen = origen;
+        }
+
+        Resumen resumen() {
+            return new Resumen(reservas.sum(), asientos.sum(), Dinero.deCentavos(centavos.sum()),
+                cancelaciones.sum(), expiradas.sum());
+        }
+    }
+
+    /**
+     * Foto de los contadores de un grupo
+     * Cada valor se lee por separado: con ventas en curso, la foto puede
+     * mezclar valores de un instante y del siguiente (para un tablero alcanza)
+     */
+    public static final class Resumen {
+        static final Resumen VACIO = new Resumen(0, 0, Dinero.CERO, 0, 0);
+
+        private final long reservas;
+        private final long asientos;
+        private final Dinero ingresos;
+        private final long cancelaciones;
+        private final long expiradas;
+
+        Resumen(long reservas, long asientos, Dinero ingresos, long cancelaciones, long expiradas) {
+            this.reservas = reservas;
+            this.asientos = asientos;
+            this.ingresos = ingresos;
+            this.cancelaciones = cancelaciones;
+            this.expiradas = expiradas;
+        }
+
+        public long getReservas() { return reservas; }       // Confirmadas y no canceladas
+        public long getAsientos() { return asientos; }       // Asientos vendidos (netos)
+        public Dinero getIngresos() { return ingresos; }     // Ingresos netos
+        public long getCancelaciones() { return cancelaciones; }
+        public long getExpiradas() { return expiradas; }
+
+        @Override
+        public String toString() {
+            return reservas + " reservas, " + asientos + " asientos, " + ingresos
+                + ", " + cancelaciones + " cancelaciones, " + expiradas + " expiradas";
+        }
+    }
+}
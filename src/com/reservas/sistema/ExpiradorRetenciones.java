@@ -0,0 +1,113 @@
+package com.reservas.sistema;
+
+import com.reservas.metricas.RegistroMetricas;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servicio que vence las retenciones temporales de asientos
+ *
+ * Usa UNA sola RuedaTemporizadora y UN solo hilo que la hace avanzar,
+ * sin importar cuántas retenciones haya activas. El hilo se crea recién
+ * cuando se programa la primera retención.
+ *
+ * Métricas disponibles (también como indicadores "retenciones.*" del
+ * RegistroMetricas, ver registrarMetricas()):
+ * - Retenciones activas y vencidas
+ * - Vencimientos por segundo (medidos en el último segundo)
+ * - Retraso de los ticks (cuánto tarde se procesan respecto a su hora)
+ */
+public class ExpiradorRetenciones {
+    private static final long NANOS_POR_SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+    private final RuedaTemporizadora rueda;
+    private final long duracionTickNanos;
+    private ScheduledExecutorService hiloTicks;   // Se crea con la primera retención
+
+    // Medición de vencimientos por segundo
+    private long vencidasEnMedicion;
+    private long inicioMedicionNanos;
+    private volatile double vencimientosPorSegundo;
+
+    /**
+     * Constructor que crea el expirador
+     * @param duracionTick Resolución de los vencimientos (ej: 100 ms)
+     */
+    public ExpiradorRetenciones(Duration duracionTick) {
+        this.duracionTickNanos = duracionTick.toNanos();
+        long ahora = System.nanoTime();
+        this.rueda = new RuedaTemporizadora(duracionTickNanos, TimeUnit.NANOSECONDS, ahora);
+        this.inicioMedicionNanos = ahora;
+    }
+
+    /**
+     * Programa el vencimiento de una retención
+     * @param alVencer Acción a ejecutar si la retención vence (liberar asientos)
+     * @param ttl Tiempo que dura la retención
+     * @return La tarea programada: se cancela cuando la reserva se confirma o cancela
+     */
+    public RuedaTemporizadora.Tarea programar(Runnable alVencer, Duration ttl) {
+        iniciar();
+        return rueda.programar(alVencer, System.nanoTime(), ttl.toNanos());
+    }
+
+    /**
+     * Publica las métricas del expirador como indicadores (se leen al exportar)
+     * @param metricas Registro donde publicarlas
+     */
+    public void registrarMetricas(RegistroMetricas metricas) {
+        metricas.indicador("retenciones.activas", this::getRetencionesActivas);
+        metricas.indicador("retenciones.vencidas", this::getRetencionesVencidas);
+        metricas.indicador("retenciones.vencimientos_por_segundo", () -> Math.round(vencimientosPorSegundo));
+        metricas.indicador("retenciones.retraso_tick_ns", this::getRetrasoTickNanos);
+        metricas.indicador("retenciones.retraso_maximo_tick_ns", this::getRetrasoMaximoTickNanos);
+    }
+
+    /**
+     * Arranca el hilo de ticks si aún no existe
+     */
+    private synchronized void iniciar() {
+        if (hiloTicks == null) {
+            hiloTicks = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "expirador-retenciones");
+                hilo.setDaemon(true); // No impide que la aplicación termine
+                return hilo;
+            });
+            hiloTicks.scheduleAtFixedRate(this::tick, duracionTickNanos, duracionTickNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Detiene el hilo de ticks (las retenciones pendientes ya no vencerán)
+     */
+    public synchronized void detener() {
+        if (hiloTicks != null) {
+            hiloTicks.shutdownNow();
+            hiloTicks = null;
+        }
+    }
+
+    /**
+     * Un tick del hilo: avanza la rueda y actualiza la tasa de vencimientos
+     */
+    private void tick() {
+        long ahora = System.nanoTime();
+        vencidasEnMedicion += rueda.avanzar(ahora);
+
+        long transcurrido = ahora - inicioMedicionNanos;
+        if (transcurrido >= NANOS_POR_SEGUNDO) {
+            vencimientosPorSegundo = vencidasEnMedicion * (double) NANOS_POR_SEGUNDO / transcurrido;
+            vencidasEnMedicion = 0;
+            inicioMedicionNanos = ahora;
+        }
+    }
+
+    // Métricas
+    public long getRetencionesActivas() { return rueda.getTareasActivas(); }
+    public long getRetencionesVencidas() { return rueda.getTareasVencidas(); }
+    public double getVencimientosPorSegundo() { return vencimientosPorSegundo; }
+    public long getRetrasoTickNanos() { return rueda.getUltimoRetrasoNanos(); }
+    public long getRetrasoMaximoTickNanos() { return rueda.getMaximoRetrasoNanos(); }
+}
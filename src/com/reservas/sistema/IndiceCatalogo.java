@@ -0,0 +1,266 @@
+package com.reservas.sistema;
+
+import com.reservas.modelo.Pelicula;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice invertido del catálogo de películas
+ *
+ * Evita recorrer todo el catálogo (y llamar toLowerCase() por cada película)
+ * en cada búsqueda:
+ * - Título y género se normalizan UNA vez, al agregar la película
+ * - Cada trigrama (secuencia de 3 letras) apunta a las películas que lo contienen
+ * - Cada género normalizado apunta a sus películas
+ *
+ * Búsqueda por texto (misma semántica que "contiene", sin importar mayúsculas):
+ * - Criterio de 3 o más letras: se cruzan las listas de sus trigramas y solo
+ *   se verifican esos candidatos
+ * - Criterio de 1 o 2 letras: se recorren los textos ya normalizados
+ *
+ * Concurrencia: las escrituras se serializan, las lecturas nunca se bloquean
+ * (las listas solo crecen y se publican con campos volatile)
+ */
+public class IndiceCatalogo {
+    private static final int N = 3; // Largo de los n-gramas
+
+    private final Map<String, Postings> trigramas = new ConcurrentHashMap<>();
+    private final Map<String, Postings> generos = new ConcurrentHashMap<>();
+    private volatile Documentos documentos = new Documentos(16);
+    private volatile int cantidad;   // Películas publicadas (visibles para las búsquedas)
+
+    /**
+     * Agrega una película al índice
+     * @param pelicula Película a indexar
+     */
+    public synchronized void agregar(Pelicula pelicula) {
+        int id = cantidad;
+        String titulo = normalizar(pelicula.getTitulo());
+        String genero = normalizar(pelicula.getGenero());
+
+        Documentos actuales = documentos;
+        if (id == actuales.peliculas.length) {
+            actuales = actuales.crecer();
+        }
+        actuales.peliculas[id] = pelicula;
+        actuales.titulos[id] = titulo;
+        actuales.generos[id] = genero;
+        documentos = actuales;
+
+        // Trigramas de título y género (cada campo por separado, para no
+        // inventar trigramas que crucen de un campo al otro)
+        Set<String> propios = new LinkedHashSet<>();
+        agregarTrigramas(titulo, propios);
+        agregarTrigramas(genero, propios);
+        for (String trigrama : propios) {
+            trigramas.computeIfAbsent(trigrama, t -> new Postings()).agregar(id);
+        }
+        generos.computeIfAbsent(genero, g -> new Postings()).agregar(id);
+
+        cantidad = id + 1; // Recién ahora la película es visible para las búsquedas
+    }
+
+    /**
+     * Busca películas cuyo título o género contengan el criterio
+     * (sin distinguir mayúsculas), en el orden en que fueron agregadas
+     *
+     * @param criterio Texto a buscar
+     * @return Películas que coinciden
+     */
+    public List<Pelicula> buscar(String criterio) {
+        String consulta = normalizar(criterio);
+        int total = cantidad;
+        Documentos docs = documentos;
+
+        if (consulta.length() < N) {
+            return recorrer(consulta, docs, total);
+        }
+
+        // Listas de los trigramas de la consulta, de la más corta a la más larga
+        Set<String> propios = new LinkedHashSet<>();
+        agregarTrigramas(consulta, propios);
+        Postings[] listas = new Postings[propios.size()];
+        int i = 0;
+        for (String trigrama : propios) {
+            Postings lista = trigramas.get(trigrama);
+            if (lista == null) {
+                return Collections.emptyList(); // Un trigrama que ninguna película tiene
+            }
+            listas[i++] = lista;
+        }
+        int[][] ids = new int[listas.length][];
+        int[] tamanos = new int[listas.length];
+        for (i = 0; i < listas.length; i++) {
+            tamanos[i] = listas[i].tamano;   // Primero el tamaño...
+            ids[i] = listas[i].ids;          // ...después el arreglo (ver Postings)
+        }
+        ordenarPorTamano(ids, tamanos);
+
+        // Recorremos la lista más corta y verificamos cada candidato
+        List<Pelicula> resultado = new ArrayList<>();
+        for (int k = 0; k < tamanos[0]; k++) {
+            int id = ids[0][k];
+            if (id >= total) {
+                break; // Película agregada después de empezar la búsqueda
+            }
+            if (estaEnTodas(id, ids, tamanos) && coincide(consulta, docs, id)) {
+                resultado.add(docs.peliculas[id]);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Busca películas de un género exacto (sin distinguir mayúsculas)
+     * @param genero Género a buscar
+     * @return Películas de ese género
+     */
+    public List<Pelicula> buscarPorGenero(String genero) {
+        Postings lista = generos.get(normalizar(genero));
+        if (lista == null) {
+            return Collections.emptyList();
+        }
+        int tamano = lista.tamano;
+        int[] ids = lista.ids;
+        int total = cantidad;
+        Documentos docs = documentos;
+
+        List<Pelicula> resultado = new ArrayList<>(tamano);
+        for (int k = 0; k < tamano && ids[k] < total; k++) {
+            resultado.add(docs.peliculas[ids[k]]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Todas las películas en el orden en que fueron agregadas
+     * @return Foto de solo lectura (no copia: los elementos publicados nunca cambian)
+     */
+    public List<Pelicula> todas() {
+        int total = cantidad;
+        Documentos docs = documentos;
+        return Collections.unmodifiableList(Arrays.asList(docs.peliculas).subList(0, total));
+    }
+
+    public int getCantidad() { return cantidad; }
+
+    // ============================================
+    // MÉTODOS AUXILIARES
+    // ============================================
+
+    private static String normalizar(String texto) {
+        return texto.toLowerCase(Locale.ROOT);
+    }
+
+    private static void agregarTrigramas(String texto, Set<String> destino) {
+        for (int i = 0; i + N <= texto.length(); i++) {
+            destino.add(texto.substring(i, i + N));
+        }
+    }
+
+    /**
+     * Búsqueda para criterios cortos: recorre los textos ya normalizados
+     */
+    private static List<Pelicula> recorrer(String consulta, Documentos docs, int total) {
+        List<Pelicula> resultado = new ArrayList<>();
+        for (int id = 0; id < total; id++) {
+            if (coincide(consulta, docs, id)) {
+                resultado.add(docs.peliculas[id]);
+            }
+        }
+        return resultado;
+    }
+
+    private static boolean coincide(String consulta, Documentos docs, int id) {
+        return docs.titulos[id].contains(consulta) || docs.generos[id].contains(consulta);
+    }
+
+    private static boolean estaEnTodas(int id, int[][] ids, int[] tamanos) {
+        for (int i = 1; i < ids.length; i++) {
+            if (Arrays.binarySearch(ids[i], 0, tamanos[i], id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ordena las listas por tamaño (inserción: casi siempre son muy pocas)
+     */
+    private static void ordenarPorTamano(int[][] ids, int[] tamanos) {
+        for (int i = 1; i < tamanos.length; i++) {
+            int[] lista = ids[i];
+            int tamano = tamanos[i];
+            int j = i - 1;
+            while (j >= 0 && tamanos[j] > tamano) {
+                ids[j + 1] = ids[j];
+                tamanos[j + 1] = tamanos[j];
+                j--;
+            }
+            ids[j + 1] = lista;
+            tamanos[j + 1] = tamano;
+        }
+    }
+
+    // ============================================
+    // ESTRUCTURAS INTERNAS
+    // ============================================
+
+    /**
+     * Lista de ids de películas, ordenada porque los ids crecen al agregar
+     *
+     * Un solo escritor agrega; los lectores leen primero "tamano" y después
+     * "ids". Como el escritor publica el arreglo ANTES de aumentar el tamaño,
+     * el lector siempre ve al menos "tamano" elementos válidos
+     */
+    private static final class Postings {
+        private volatile int[] ids = new int[4];
+        private volatile int tamano;
+
+        void agregar(int id) {
+            int[] actuales = ids;
+            if (tamano == actuales.length) {
+                actuales = Arrays.copyOf(actuales, actuales.length * 2);
+            }
+            actuales[tamano] = id;
+            ids = actuales;
+            tamano = tamano + 1; // Solo escribe el hilo que tiene el lock del índice
+        }
+    }
+
+    /**
+     * Películas y sus textos normalizados, indexados por id interno
+     */
+    private static final class Documentos {
+        final Pelicula[] peliculas;
+        final String[] titulos;
+        final String[] generos;
+
+        Documentos(int capacidad) {
+            this.peliculas = new Pelicula[capacidad];
+            this.titulos = new String[capacidad];
+            this.generos = new String[capacidad];
+        }
+
+        private Documentos(Pelicula[] peliculas, String[] titulos, String[] generos) {
+            this.peliculas = peliculas;
+            this.titulos = titulos;
+            this.generos = generos;
+        }
+
+        Documentos crecer() {
+            int capacidad = peliculas.length * 2;
+            return new Documentos(
+                Arrays.copyOf(peliculas, capacidad),
+                Arrays.copyOf(titulos, capacidad),
+                Arrays.copyOf(generos, capacidad));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.reservas.sistema;
+
+import com.reservas.modelo.ClaveHorario;
+import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Id;
+import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Sala;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Índices de las funciones programadas
+ *
+ * - Índice por horario: todas las funciones ordenadas por fecha y hora
+ * - Índice por película y por sala: el mismo orden, pero solo las de esa película/sala
+ *
+ * Todos usan ConcurrentSkipListMap, así que las consultas por rango son
+ * O(log n) y devuelven VISTAS de solo lectura (no copias)
+ */
+public class IndiceFunciones {
+    private final ConcurrentSkipListMap<ClaveHorario, Funcion> porHorario = new ConcurrentSkipListMap<>();
+    private final Map<Id<Pelicula>, ConcurrentSkipListMap<ClaveHorario, Funcion>> porPelicula = new ConcurrentHashMap<>();
+    private final Map<Id<Sala>, ConcurrentSkipListMap<ClaveHorario, Funcion>> porSala = new ConcurrentHashMap<>();
+
+    /**
+     * Agrega una función a los tres índices
+     * @param funcion Función a indexar
+     */
+    public void agregar(Funcion funcion) {
+        ClaveHorario clave = new ClaveHorario(funcion.getHorario(), funcion.getId().getValor());
+        porHorario.put(clave, funcion);
+        porPelicula.computeIfAbsent(funcion.getPelicula().getId(), id -> new ConcurrentSkipListMap<>())
+            .put(clave, funcion);
+        porSala.computeIfAbsent(funcion.getSala().getId(), id -> new ConcurrentSkipListMap<>())
+            .put(clave, funcion);
+    }
+
+    /**
+     * Funciones con horario en [desde, hasta), ordenadas por horario
+     * @return Vista de solo lectura
+     */
+    public Collection<Funcion> entre(LocalDateTime desde, LocalDateTime hasta) {
+        return rango(porHorario, desde, hasta);
+    }
+
+    /**
+     * Funciones de una película con horario en [desde, hasta)
+     * @param peliculaId Id de la película
+     * @return Vista de solo lectura
+     */
+    public Collection<Funcion> dePelicula(Id<Pelicula> peliculaId, LocalDateTime desde, LocalDateTime hasta) {
+        return rango(porPelicula.get(peliculaId), desde, hasta);
+    }
+
+    /**
+     * Funciones de una sala con horario en [desde, hasta)
+     * @param salaId Id de la sala
+     * @return Vista de solo lectura
+     */
+    public Collection<Funcion> deSala(Id<Sala> salaId, LocalDateTime desde, LocalDateTime hasta) {
+        return rango(porSala.get(salaId), desde, hasta);
+    }
+
+    /**
+     * Las próximas funciones de una sala a partir de un momento
+     * @param salaId Id de la sala
+     * @param desde Momento desde el cual buscar (incluido)
+     * @param cantidad Máximo de funciones a devolver
+     * @return Stream ordenado por horario (se recorre sobre el índice, sin copiar)
+     */
+    public Stream<Funcion> proximasDeSala(Id<Sala> salaId, LocalDateTime desde, int cantidad) {
+        ConcurrentSkipListMap<ClaveHorario, Funcion> indice = porSala.get(salaId);
+        if (indice == null) {
+            return Stream.empty();
+        }
+        return indice.tailMap(ClaveHorario.inicio(desde), true).values().stream().limit(cantidad);
+    }
+
+    /**
+     * Todas las funciones ordenadas por horario
+     * @return Vista de solo lectura
+     */
+    public Collection<Funcion> todas() {
+        return Collections.unmodifiableCollection(porHorario.values());
+    }
+
+    private static Collection<Funcion> rango(NavigableMap<ClaveHorario, Funcion> indice,
+                                             LocalDateTime desde, LocalDateTime hasta) {
+        if (indice == null || !desde.isBefore(hasta)) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableCollection(
+            indice.subMap(ClaveHorario.inicio(desde), true, ClaveHorario.inicio(hasta), false).values());
+    }
+}
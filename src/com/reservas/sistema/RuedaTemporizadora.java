@@ -0,0 +1,262 @@
+package com.reservas.sistema;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rueda temporizadora jerárquica (hierarchical timing wheel)
+ *
+ * Sirve para programar MILLONES de vencimientos sin un ScheduledFuture por cada uno:
+ * - El tiempo se divide en "ticks" de duración fija
+ * - Hay 4 niveles de 64 ranuras: el nivel 0 cubre 64 ticks, el nivel 1 cubre
+ *   64 x 64 ticks, y así sucesivamente
+ * - Programar o cancelar una tarea es O(1)
+ * - Cuando el nivel 0 da una vuelta completa, las tareas de la siguiente ranura
+ *   del nivel 1 "bajan" al nivel 0 (cascada), y así con los niveles superiores
+ *
+ * Concurrencia:
+ * - programar() y Tarea.cancelar() se pueden llamar desde cualquier hilo
+ * - avanzar() debe llamarse siempre desde UN SOLO hilo (el que hace los ticks)
+ * - Las tareas nuevas entran por una cola sin locks y el hilo de ticks las
+ *   coloca en su ranura, así las ranuras nunca se comparten entre hilos
+ */
+public class RuedaTemporizadora {
+    private static final int BITS_POR_NIVEL = 6;
+    private static final int RANURAS = 1 << BITS_POR_NIVEL;  // 64 ranuras por nivel
+    private static final int MASCARA = RANURAS - 1;
+    private static final int NIVELES = 4;
+    private static final long ALCANCE = 1L << (BITS_POR_NIVEL * NIVELES); // Ticks que cubre la rueda
+
+    private final long duracionTickNanos;       // Resolución de la rueda
+    private final long inicioNanos;             // Instante del tick 0
+    private final Tarea[][] ranuras;            // [nivel][ranura] -> lista enlazada de tareas
+    private final ConcurrentLinkedQueue<Tarea> entrantes; // Tareas aún no colocadas en su ranura
+    private long tickActual;                    // Último tick procesado (solo lo toca el hilo de ticks)
+
+    // Métricas
+    private final LongAdder activas = new LongAdder();
+    private final LongAdder vencidas = new LongAdder();
+    private volatile long ultimoRetrasoNanos;   // Cuánto tarde se procesó el último tick
+    private volatile long maximoRetrasoNanos;
+
+    /**
+     * Constructor que crea una rueda vacía
+     * @param duracionTick Duración de cada tick (resolución de los vencimientos)
+     * @param unidad Unidad de tiempo de la duración
+     * @param inicioNanos Instante (System.nanoTime()) que corresponde al tick 0
+     */
+    public RuedaTemporizadora(long duracionTick, TimeUnit unidad, long inicioNanos) {
+        this.duracionTickNanos = unidad.toNanos(duracionTick);
+        if (duracionTickNanos <= 0) {
+            throw new IllegalArgumentException("La duración del tick debe ser positiva");
+        }
+        this.inicioNanos = inicioNanos;
+        this.ranuras = new Tarea[NIVELES][RANURAS];
+        this.entrantes = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Programa una acción para cuando venza el plazo
+     * La acción se ejecuta en el hilo que llama a avanzar()
+     *
+     * @param accion Acción a ejecutar al vencer
+     * @param ahoraNanos Instante actual (System.nanoTime())
+     * @param retrasoNanos Plazo hasta el vencimiento
+     * @return La tarea, que puede cancelarse antes de vencer
+     */
+    public Tarea programar(Runnable accion, long ahoraNanos, long retrasoNanos) {
+        long transcurrido = ahoraNanos - inicioNanos + Math.max(0, retrasoNanos);
+        // Redondeamos hacia arriba: una tarea nunca vence ANTES de su plazo
+        long vencimiento = (transcurrido + duracionTickNanos - 1) / duracionTickNanos;
+
+        Tarea tarea = new Tarea(this, accion, vencimiento);
+        activas.increment();
+        entrantes.add(tarea);
+        return tarea;
+    }
+
+    /**
+     * Procesa todos los ticks transcurridos hasta el instante indicado
+     * Ejecuta las acciones de las tareas vencidas
+     *
+     * @param ahoraNanos Instante actual (System.nanoTime())
+     * @return Número de tareas vencidas en esta llamada
+     */
+    public int avanzar(long ahoraNanos) {
+        long objetivo = (ahoraNanos - inicioNanos) / duracionTickNanos;
+        int ejecutadas = 0;
+
+        while (tickActual < objetivo) {
+            tickActual++;
+            colocarEntrantes();
+            cascada();
+            ejecutadas += vencer(tickActual & MASCARA);
+        }
+
+        // Retraso del tick: cuánto después de su hora se procesó el último tick
+        long retraso = Math.max(0, ahoraNanos - (inicioNanos + tickActual * duracionTickNanos));
+        ultimoRetrasoNanos = retraso;
+        if (retraso > maximoRetrasoNanos) {
+            maximoRetrasoNanos = retraso;
+        }
+        return ejecutadas;
+    }
+
+    // ============================================
+    // MANEJO DE RANURAS (solo hilo de ticks)
+    // ============================================
+
+    /**
+     * Mueve las tareas recién programadas a su ranura
+     */
+    private void colocarEntrantes() {
+        Tarea tarea;
+        while ((tarea = entrantes.poll()) != null) {
+            if (tarea.estaPendiente()) {
+                colocar(tarea);
+            }
+        }
+    }
+
+    /**
+     * Elige nivel y ranura según lo lejos que esté el vencimiento
+     */
+    private void colocar(Tarea tarea) {
+        long vencimiento = tarea.vencimiento;
+        long distancia = vencimiento - tickActual;
+
+        if (distancia <= 0) {
+            // Ya venció: va a la ranura del tick que se está procesando
+            agregar(0, (int) (tickActual & MASCARA), tarea);
+            return;
+        }
+        if (distancia >= ALCANCE) {
+            // Más lejos de lo que cubre la rueda: la dejamos en el último nivel
+            // y se volverá a colocar cuando baje en cascada
+            vencimiento = tickActual + ALCANCE - 1;
+            distancia = ALCANCE - 1;
+        }
+
+        int nivel = 0;
+        while (distancia >= 1L << (BITS_POR_NIVEL * (nivel + 1))) {
+            nivel++;
+        }
+        int ranura = (int) ((vencimiento >>> (BITS_POR_NIVEL * nivel)) & MASCARA);
+        agregar(nivel, ranura, tarea);
+    }
+
+    /**
+     * Cuando un nivel completa una vuelta, bajamos la siguiente ranura
+     * del nivel superior (y así en cadena)
+     */
+    private void cascada() {
+        for (int nivel = 1; nivel < NIVELES; nivel++) {
+            long desplazado = tickActual >>> (BITS_POR_NIVEL * (nivel - 1));
+            if ((desplazado & MASCARA) != 0) {
+                return; // El nivel inferior no terminó su vuelta
+            }
+            int ranura = (int) ((tickActual >>> (BITS_POR_NIVEL * nivel)) & MASCARA);
+            Tarea tarea = ranuras[nivel][ranura];
+            ranuras[nivel][ranura] = null;
+            while (tarea != null) {
+                Tarea siguiente = tarea.siguiente;
+                tarea.siguiente = null;
+                if (tarea.estaPendiente()) {
+                    colocar(tarea);
+                }
+                tarea = siguiente;
+            }
+        }
+    }
+
+    /**
+     * Ejecuta las tareas de una ranura del nivel 0
+     */
+    private int vencer(long ranura) {
+        int indice = (int) ranura;
+        Tarea tarea = ranuras[0][indice];
+        ranuras[0][indice] = null;
+
+        int ejecutadas = 0;
+        while (tarea != null) {
+            Tarea siguiente = tarea.siguiente;
+            tarea.siguiente = null;
+            if (tarea.vencimiento > tickActual) {
+                colocar(tarea); // Tarea de largo plazo que aún no vence
+            } else if (tarea.marcarEjecutada()) {
+                activas.decrement();
+                vencidas.increment();
+                ejecutadas++;
+                try {
+                    tarea.accion.run();
+                } catch (RuntimeException e) {
+                    // Una acción fallida no debe detener la rueda
+                    System.out.println("Error al ejecutar una tarea vencida: " + e.getMessage());
+                }
+            }
+            tarea = siguiente;
+        }
+        return ejecutadas;
+    }
+
+    private void agregar(int nivel, int ranura, Tarea tarea) {
+        tarea.siguiente = ranuras[nivel][ranura];
+        ranuras[nivel][ranura] = tarea;
+    }
+
+    // Métricas
+    public long getTareasActivas() { return activas.sum(); }
+    public long getTareasVencidas() { return vencidas.sum(); }
+    public long getUltimoRetrasoNanos() { return ultimoRetrasoNanos; }
+    public long getMaximoRetrasoNanos() { return maximoRetrasoNanos; }
+    public long getDuracionTickNanos() { return duracionTickNanos; }
+
+    // ============================================
+    // TAREA PROGRAMADA
+    // ============================================
+
+    /**
+     * Una tarea programada en la rueda
+     * Ocupa un solo objeto pequeño: es a la vez el nodo de la lista de su ranura
+     */
+    public static final class Tarea {
+        private static final int PENDIENTE = 0;
+        private static final int CANCELADA = 1;
+        private static final int EJECUTADA = 2;
+        private static final AtomicIntegerFieldUpdater<Tarea> ESTADO =
+            AtomicIntegerFieldUpdater.newUpdater(Tarea.class, "estado");
+
+        private final RuedaTemporizadora rueda;
+        private final Runnable accion;
+        private final long vencimiento;   // Tick absoluto en que vence
+        private volatile int estado;
+        private Tarea siguiente;          // Siguiente tarea en la misma ranura
+
+        private Tarea(RuedaTemporizadora rueda, Runnable accion, long vencimiento) {
+            this.rueda = rueda;
+            this.accion = accion;
+            this.vencimiento = vencimiento;
+        }
+
+        /**
+         * Cancela la tarea si aún no venció
+         * La tarea se descarta sola la próxima vez que el hilo de ticks la encuentre
+         * @return true si se canceló, false si ya había vencido o estaba cancelada
+         */
+        public boolean cancelar() {
+            if (ESTADO.compareAndSet(this, PENDIENTE, CANCELADA)) {
+                rueda.activas.decrement();
+                return true;
+            }
+            return false;
+        }
+
+        private boolean marcarEjecutada() {
+            return ESTADO.compareAndSet(this, PENDIENTE, EJECUTADA);
+        }
+
+        boolean estaPendiente() { return estado == PENDIENTE; }
+    }
+}
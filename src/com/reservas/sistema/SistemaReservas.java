@@ -1,10 +1,39 @@
 package com.reservas.sistema;
 
+import com.reservas.metricas.RegistroMetricas;
+import com.reservas.metricas.Temporizador;
+import com.reservas.modelo.Asiento;
+import com.reservas.modelo.Cliente;
+import com.reservas.modelo.ConciliacionPagos;
 import com.reservas.modelo.Pelicula;
+import com.reservas.modelo.Reserva;
 import com.reservas.modelo.Funcion;
+import com.reservas.modelo.Sala;
+import com.reservas.modelo.Dinero;
+import com.reservas.modelo.EstadoReserva;
+import com.reservas.modelo.Id;
+import com.reservas.modelo.Usuario;
+import com.reservas.persistencia.DiarioReservas;
+import com.reservas.persistencia.EstadoRecuperado;
+import com.reservas.persistencia.ReservaRecuperada;
+import com.reservas.pago.ProcesadorPagos;
+import com.reservas.precios.MotorPrecios;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * PATRÓN SINGLETON
@@ -14,9 +43,13 @@ import java.util.stream.Collectors;
  * 
  * Características del Singleton:
  * 1. Constructor privado (nadie puede hacer new)
- * 2. Instancia estática privada
+ * 2. Instancia estática privada (dentro de una clase contenedora)
  * 3. Método público getInstance() para obtener la instancia
  * 
+ * Es seguro con varios hilos:
+ * - La instancia se crea una sola vez aunque muchos hilos llamen getInstance() a la vez
+ * - Las lecturas (búsquedas, listados) nunca se bloquean por las escrituras
+ * 
  * ¿Por qué Singleton aquí?
  * - Necesitamos un único catálogo de películas y funciones
  * - Evita inconsistencias (varias "versiones" del sistema)
@@ -28,17 +61,48 @@ public class SistemaReservas {
     // ============================================
     
     /**
-     * La ÚNICA instancia del sistema
-     * - Es estática: pertenece a la clase, no a objetos individuales
-     * - Es privada: solo esta clase puede accederla directamente
+     * Contenedor de la ÚNICA instancia del sistema (idiom "holder")
+     * - La JVM inicializa esta clase recién la primera vez que se usa,
+     *   es decir, en la primera llamada a getInstance() (inicialización perezosa)
+     * - La inicialización de clases es thread-safe por especificación:
+     *   aunque muchos hilos llamen a la vez, se crea UNA sola instancia
+     * - No necesita synchronized ni volatile en cada llamada
      */
-    private static SistemaReservas instancia;
+    private static class Contenedor {
+        private static final SistemaReservas INSTANCIA = new SistemaReservas();
+    }
     
     // ============================================
     // ATRIBUTOS DEL SISTEMA
     // ============================================
-    private List<Pelicula> peliculas;   // Catálogo completo de películas
-    private List<Funcion> funciones;    // Todas las funciones programadas
+    private static final long INTERVALO_LIMPIEZA = TimeUnit.MINUTES.toNanos(1); // Del índice de reservas por id
+    
+    // El catálogo completo de películas vive en el IndiceCatalogo
+    private final List<Funcion> funciones;    // Todas las funciones programadas (copy-on-write)
+    private final IndiceCatalogo indiceCatalogo; // Índice invertido para buscar películas
+    private final IndiceFunciones indiceFunciones; // Funciones por horario, película y sala
+    private final ExpiradorRetenciones expirador; // Vence las retenciones de asientos abandonadas
+    private final DespachadorNotificaciones despachador; // Entrega las notificaciones en segundo plano
+    private final BusEventos busEventos; // Observadores suscritos por tipo de evento
+    private final MotorPrecios motorPrecios; // Precio de cada asiento de cada función
+    private final ProcesadorPagos procesadorPagos; // Pagos asíncronos con reintentos y circuito
+    private final ConciliacionPagos conciliacion; // Pagos DESCONOCIDOS que esperan conciliarse
+    private final EstadisticasVentas estadisticas; // Ventas y cancelaciones, al día con cada reserva
+    private final RegistroMetricas metricas; // Latencias, contadores e indicadores del sistema
+    private final Temporizador tiempoBusqueda; // Búsquedas en el catálogo
+    private volatile DiarioReservas diario; // Diario en disco (null = solo memoria)
+    private final Map<Id<Reserva>, Reserva> reservasPorId = new ConcurrentHashMap<>(); // Reservas pagadas, por id
+    private final AtomicLong proximaLimpieza = new AtomicLong(System.nanoTime() + INTERVALO_LIMPIEZA);
+    private final Map<Id<Usuario>, Cliente> clientes = new ConcurrentHashMap<>(); // Clientes registrados, por id
+    private final Map<String, Funcion> funcionesPorId = new ConcurrentHashMap<>(); // Por id en texto (como en el diario)
+    private final Map<String, long[]> inventariosRecuperados = new ConcurrentHashMap<>(); // Aún sin función
+    // Reservas del diario: las que aún no se armaron, y dónde espera cada una
+    private final Map<String, ReservaRecuperada> reservasRecuperadas = new ConcurrentHashMap<>(); // Por id de reserva
+    private final Map<String, List<ReservaRecuperada>> recuperadasPorFuncion = new HashMap<>(); // Esperan su función
+    private final Map<String, List<ReservaRecuperada>> recuperadasPorCliente = new HashMap<>(); // Retenidas que esperan a su cliente
+    private final Map<String, List<Reserva>> armadasSinCliente = new ConcurrentHashMap<>(); // Confirmadas o por conciliar, su cliente no volvió
+    private final Object recuperacion = new Object(); // Protege los dos índices por función y por cliente
+    private volatile Duration tiempoRetencion; // Cuánto dura una retención antes de vencer
     
     /**
      * Constructor PRIVADO
@@ -46,8 +110,28 @@ public class SistemaReservas {
      * Es la clave del patrón Singleton
      */
     private SistemaReservas() {
-        this.peliculas = new ArrayList<>();
-        this.funciones = new ArrayList<>();
+        this.funciones = new CopyOnWriteArrayList<>();
+        this.indiceCatalogo = new IndiceCatalogo();
+        this.indiceFunciones = new IndiceFunciones();
+        this.expirador = new ExpiradorRetenciones(Duration.ofMillis(100));
+        this.tiempoRetencion = Duration.ofMinutes(10);
+        // Cola acotada de verdad: si los emails no dan abasto, quien confirma
+        // espera (las notificaciones de una compra no se pueden perder)
+        this.despachador = new DespachadorNotificaciones(
+            10_000, 2, DespachadorNotificaciones.PoliticaSaturacion.BLOQUEAR);
+        this.busEventos = new BusEventos(despachador);
+        this.motorPrecios = new MotorPrecios(Dinero.de(10, 0)); // $10 por asiento, sin reglas
+        this.metricas = RegistroMetricas.global();
+        this.procesadorPagos = new ProcesadorPagos(Duration.ofMinutes(15), metricas); // Más que una retención
+        this.conciliacion = new ConciliacionPagos(metricas);
+        this.estadisticas = new EstadisticasVentas();
+        this.tiempoBusqueda = metricas.temporizador("catalogo.buscar");
+        metricas.indicador("notificaciones.pendientes", despachador::getPendientes);
+        metricas.indicador("notificaciones.descartadas", despachador::getDescartadas);
+        expirador.registrarMetricas(metricas);
+        
+        // Un único notificador de email atiende los eventos de TODAS las reservas
+        busEventos.suscribirATodos(new Reserva.NotificadorEmail());
         
         // Aquí podríamos cargar datos desde una base de datos
         // o inicializar con datos predeterminados
@@ -58,18 +142,14 @@ public class SistemaReservas {
      * Este es el ÚNICO punto de acceso al sistema
      * 
      * Funcionamiento:
-     * - Primera vez: crea la instancia
+     * - Primera vez: la JVM inicializa Contenedor y crea la instancia
      * - Siguientes veces: devuelve la misma instancia
      * 
      * @return La única instancia de SistemaReservas
      */
     public static SistemaReservas getInstance() {
-        if (instancia == null) {
-            // Solo se ejecuta la primera vez
-            instancia = new SistemaReservas();
-        }
         // Siempre retorna la misma instancia
-        return instancia;
+        return Contenedor.INSTANCIA;
     }
     
     // ============================================
@@ -81,7 +161,7 @@ public class SistemaReservas {
      * @param pelicula Película a agregar
      */
     public void agregarPelicula(Pelicula pelicula) {
-        peliculas.add(pelicula);
+        indiceCatalogo.agregar(pelicula); // El índice guarda el catálogo y lo deja listo para buscar
         // En producción, aquí también se guardaría en base de datos
     }
     
@@ -90,43 +170,400 @@ public class SistemaReservas {
      * @param funcion Función a agregar
      */
     public void agregarFuncion(Funcion funcion) {
+        restaurarInventario(funcion); // Si el diario tenía ventas de esta función
         funciones.add(funcion);
+        funcionesPorId.put(funcion.getId().toString(), funcion);
+        indiceFunciones.agregar(funcion); // Por horario, película y sala
+        restaurarReservas(funcion); // Solo las de esta función
         // En producción, aquí también se guardaría en base de datos
     }
     
+    /**
+     * Registra un cliente en el sistema
+     * Si el diario tenía reservas suyas (mismo id) y su función ya está en
+     * el sistema, vuelven a su historial
+     * @param cliente Cliente a registrar
+     */
+    public void agregarCliente(Cliente cliente) {
+        clientes.put(cliente.getId(), cliente);
+        restaurarReservas(cliente);
+    }
+    
+    /**
+     * @param id Id del cliente
+     * @return El cliente, o null si no está registrado
+     */
+    public Cliente buscarCliente(Id<Usuario> id) {
+        return clientes.get(id);
+    }
+    
+    /**
+     * @param id Id de la función
+     * @return La función, o null si no está en el sistema
+     */
+    public Funcion buscarFuncion(Id<Funcion> id) {
+        return funcionesPorId.get(id.toString());
+    }
+    
     /**
      * Busca películas por título o género
-     * Utiliza Stream API para filtrar de manera funcional
+     * Consulta el índice invertido del catálogo en lugar de recorrer
+     * todas las películas (ver IndiceCatalogo)
      * 
      * @param criterio Texto a buscar (título o género)
      * @return Lista de películas que coinciden con el criterio
      */
     public List<Pelicula> buscarPeliculas(String criterio) {
-        return peliculas.stream()
-            // Filtramos: incluimos películas cuyo título o género contengan el criterio
-            .filter(p -> 
-                p.getTitulo().toLowerCase().contains(criterio.toLowerCase()) ||
-                p.getGenero().toLowerCase().contains(criterio.toLowerCase())
-            )
-            // Recolectamos los resultados en una nueva lista
-            .collect(Collectors.toList());
+        long inicio = tiempoBusqueda.iniciar();
+        try {
+            return indiceCatalogo.buscar(criterio);
+        } finally {
+            tiempoBusqueda.detener(inicio);
+        }
+    }
+    
+    /**
+     * Busca películas de un género exacto (sin distinguir mayúsculas)
+     * @param genero Género a buscar (ej: "Sci-Fi")
+     * @return Lista de películas de ese género
+     */
+    public List<Pelicula> buscarPeliculasPorGenero(String genero) {
+        return indiceCatalogo.buscarPorGenero(genero);
+    }
+    
+    /**
+     * Funciones programadas entre dos momentos, ordenadas por horario
+     * @param desde Inicio del rango (incluido)
+     * @param hasta Fin del rango (excluido)
+     * @return Vista de solo lectura sobre el índice (no es una copia)
+     */
+    public Collection<Funcion> buscarFunciones(LocalDateTime desde, LocalDateTime hasta) {
+        return indiceFunciones.entre(desde, hasta);
+    }
+    
+    /**
+     * Funciones de una película entre dos momentos, ordenadas por horario
+     * @param pelicula Película a buscar
+     * @param desde Inicio del rango (incluido)
+     * @param hasta Fin del rango (excluido)
+     * @return Vista de solo lectura sobre el índice (no es una copia)
+     */
+    public Collection<Funcion> buscarFunciones(Pelicula pelicula, LocalDateTime desde, LocalDateTime hasta) {
+        return indiceFunciones.dePelicula(pelicula.getId(), desde, hasta);
+    }
+    
+    /**
+     * Funciones de una sala entre dos momentos, ordenadas por horario
+     * @param sala Sala a consultar
+     * @param desde Inicio del rango (incluido)
+     * @param hasta Fin del rango (excluido)
+     * @return Vista de solo lectura sobre el índice (no es una copia)
+     */
+    public Collection<Funcion> buscarFunciones(Sala sala, LocalDateTime desde, LocalDateTime hasta) {
+        return indiceFunciones.deSala(sala.getId(), desde, hasta);
+    }
+    
+    /**
+     * Las próximas N funciones de una sala
+     * @param sala Sala a consultar
+     * @param desde Momento desde el cual buscar (incluido)
+     * @param cantidad Máximo de funciones
+     * @return Stream ordenado por horario
+     */
+    public Stream<Funcion> proximasFunciones(Sala sala, LocalDateTime desde, int cantidad) {
+        return indiceFunciones.proximasDeSala(sala.getId(), desde, cantidad);
+    }
+    
+    /**
+     * Registra una reserva pagada para poder encontrarla por id
+     * (lo hace el Cliente cuando el pago se aprueba)
+     * A lo sumo una vez por minuto, descarta además las reservas que ya no
+     * hace falta buscar (ver olvidarReservas()): el índice solo crece al
+     * registrar
+     * @param reserva Reserva a registrar
+     */
+    public void registrarReserva(Reserva reserva) {
+        reservasPorId.put(reserva.getId(), reserva);
+        long limpieza = proximaLimpieza.get();
+        long ahora = System.nanoTime();
+        if (ahora - limpieza >= 0 && proximaLimpieza.compareAndSet(limpieza, ahora + INTERVALO_LIMPIEZA)) {
+            olvidarReservas(LocalDateTime.now()); // Un solo hilo por vez
+        }
+    }
+    
+    /**
+     * Saca del índice por id las reservas canceladas, las vencidas y las
+     * de funciones que ya terminaron (siguen en el historial de su cliente)
+     * @param ahora Momento de referencia
+     * @return Reservas descartadas
+     */
+    public int olvidarReservas(LocalDateTime ahora) {
+        int descartadas = 0;
+        for (Reserva reserva : reservasPorId.values()) {
+            EstadoReserva estado = reserva.getEstado();
+            if ((estado == EstadoReserva.CANCELADA || estado == EstadoReserva.EXPIRADA
+                    || reserva.getFuncion().getFin().isBefore(ahora))
+                    && reservasPorId.remove(reserva.getId(), reserva)) {
+                descartadas++;
+            }
+        }
+        return descartadas;
+    }
+    
+    /**
+     * Busca una reserva por su id, sin recorrer los clientes
+     * Una reserva cancelada o vencida se sigue encontrando hasta la próxima
+     * limpieza del índice (ver registrarReserva())
+     * @param id Id de la reserva
+     * @return La reserva, o null si no existe, su pago no se aprobó o ya se
+     *         descartó del índice
+     */
+    public Reserva buscarReserva(Id<Reserva> id) {
+        return reservasPorId.get(id);
+    }
+    
+    /**
+     * Busca una reserva por el id que ve el cliente (ej: en su email)
+     * @param id Id de la reserva en texto
+     * @return La reserva, o null si no existe o el texto no es un id
+     */
+    public Reserva buscarReserva(String id) {
+        try {
+            return buscarReserva(Id.<Reserva>desdeTexto(id));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
     
     /**
      * Obtiene todas las películas del sistema
-     * Retorna una COPIA para prevenir modificaciones externas
+     * Retorna una "foto" de solo lectura del catálogo (no copia la lista):
+     * las películas agregadas después no aparecen en ella
      * @return Lista de todas las películas
      */
     public List<Pelicula> getPeliculas() { 
-        return new ArrayList<>(peliculas); 
+        return indiceCatalogo.todas(); 
     }
     
     /**
      * Obtiene todas las funciones del sistema
-     * Retorna una COPIA para prevenir modificaciones externas
+     * Retorna una vista de solo lectura: al recorrerla se ve una "foto"
+     * consistente aunque otro hilo esté agregando funciones
      * @return Lista de todas las funciones
      */
     public List<Funcion> getFunciones() { 
-        return new ArrayList<>(funciones); 
+        return Collections.unmodifiableList(funciones); 
+    }
+    
+    /**
+     * Configura cuánto tiempo se retienen los asientos de una reserva
+     * antes de liberarlos si no se confirma
+     * @param tiempoRetencion Duración de la retención (TTL)
+     */
+    public void setTiempoRetencion(Duration tiempoRetencion) {
+        if (tiempoRetencion.isNegative() || tiempoRetencion.isZero()) {
+            throw new IllegalArgumentException("El tiempo de retención debe ser positivo");
+        }
+        this.tiempoRetencion = tiempoRetencion;
+    }
+    
+    public Duration getTiempoRetencion() { return tiempoRetencion; }
+    public ExpiradorRetenciones getExpirador() { return expirador; }
+    public DespachadorNotificaciones getDespachador() { return despachador; }
+    public BusEventos getBusEventos() { return busEventos; }
+    public MotorPrecios getMotorPrecios() { return motorPrecios; }
+    public ProcesadorPagos getProcesadorPagos() { return procesadorPagos; }
+    public ConciliacionPagos getConciliacion() { return conciliacion; }
+    public EstadisticasVentas getEstadisticas() { return estadisticas; }
+    public RegistroMetricas getMetricas() { return metricas; }
+    
+    public DiarioReservas getDiario() { return diario; }
+    
+    // ============================================
+    // PERSISTENCIA
+    // ============================================
+    
+    /**
+     * Activa el diario en disco: recupera las ventas guardadas y, desde
+     * ahora, registra cada cambio de asientos antes de darlo por hecho
+     * 
+     * Las funciones se identifican por id: las que ya están en el sistema
+     * se restauran ahora, y las que se agreguen después (con su id original)
+     * se restauran al llamar a agregarFuncion()
+     * 
+     * Las reservas vivas vuelven como objetos Reserva (mismo id, estado y
+     * asientos) en cuanto están su función y su cliente (agregarCliente(),
+     * con el id original): entran al historial del cliente y a
+     * buscarReserva(). Las retenidas vencen con lo que les quedaba de
+     * getTiempoRetencion(), contado desde que se retuvieron (aunque su
+     * cliente no se registre: no quedan ocupando asientos). Las que tenían
+     * el pago por conciliar no vencen: vuelven a getConciliacion(). Las
+     * confirmadas y las por conciliar de un cliente que todavía no se
+     * registró se arman sin él (sus asientos no quedan sin dueño) y pasan a
+     * su historial cuando se registra
+     * 
+     * Al tomar cada instantánea, el diario descarta las funciones del
+     * sistema que ya terminaron
+     * 
+     * @param directorio Directorio de los archivos del diario
+     * @param intervaloInstantanea Cada cuántos registros se guarda una instantánea
+     * @return Resumen de lo recuperado
+     * @throws IOException si no se puede leer o abrir el diario
+     */
+    public synchronized EstadoRecuperado activarDiario(Path directorio, int intervaloInstantanea)
+            throws IOException {
+        if (diario != null) {
+            throw new IllegalStateException("El diario ya está activo");
+        }
+        EstadoRecuperado recuperado = DiarioReservas.recuperar(directorio);
+        inventariosRecuperados.putAll(recuperado.getInventarios());
+        synchronized (recuperacion) {
+            for (ReservaRecuperada recuperada : recuperado.getReservas().values()) {
+                reservasRecuperadas.put(recuperada.getReservaId(), recuperada);
+                recuperadasPorFuncion.computeIfAbsent(recuperada.getFuncionId(), id -> new ArrayList<>())
+                    .add(recuperada);
+            }
+        }
+        for (Funcion funcion : funciones) {
+            restaurarInventario(funcion);
+        }
+        // El diario primero: los vencimientos de las retenidas deben quedar registrados
+        this.diario = new DiarioReservas(directorio, recuperado, intervaloInstantanea);
+        diario.setFuncionTerminada(this::funcionTerminada);
+        for (Funcion funcion : funciones) {
+            restaurarReservas(funcion);
+        }
+        return recuperado;
+    }
+    
+    /**
+     * Para el diario: una función que no está en el sistema no se da por terminada
+     */
+    private boolean funcionTerminada(String funcionId) {
+        Funcion funcion = funcionesPorId.get(funcionId);
+        return funcion != null && funcion.getFin().isBefore(LocalDateTime.now());
+    }
+    
+    private void restaurarInventario(Funcion funcion) {
+        if (!inventariosRecuperados.isEmpty()) {
+            long[] palabras = inventariosRecuperados.remove(funcion.getId().toString());
+            if (palabras != null) {
+                funcion.getInventario().restaurar(palabras);
+            }
+        }
+    }
+    
+    /**
+     * Vuelve a armar las reservas recuperadas de una función recién agregada
+     * Solo mira las de esa función (están indexadas por función): agregar
+     * una temporada completa no recorre todas las pendientes cada vez
+     */
+    private void restaurarReservas(Funcion funcion) {
+        if (reservasRecuperadas.isEmpty()) {
+            return;
+        }
+        synchronized (recuperacion) {
+            List<ReservaRecuperada> pendientes = recuperadasPorFuncion.remove(funcion.getId().toString());
+            if (pendientes != null) {
+                for (ReservaRecuperada recuperada : pendientes) {
+                    ubicar(recuperada, funcion);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Arma una reserva cuya función ya está, según dónde esté su cliente:
+     * - Registrado (o la reserva no tiene cliente): se arma ahora
+     * - Sin registrar, confirmada o con el pago por conciliar: se arma sin
+     *   él, y se le asigna cuando se registre (sus asientos ya tienen dueño)
+     * - Sin registrar, retenida: espera al cliente, pero no ocupa sus
+     *   asientos para siempre: al vencer su plazo se arma sin él (y vence)
+     */
+    private void ubicar(ReservaRecuperada recuperada, Funcion funcion) {
+        String clienteId = recuperada.getClienteId();
+        Cliente cliente = clienteId.isEmpty() ? null : clientes.get(Id.<Usuario>desdeTexto(clienteId));
+        if (cliente != null || clienteId.isEmpty()) {
+            restaurarReserva(recuperada, funcion, cliente);
+        } else if (recuperada.isConfirmada() || recuperada.isIncierta()) {
+            Reserva reserva = restaurarReserva(recuperada, funcion, null);
+            if (reserva != null) {
+                armadasSinCliente.computeIfAbsent(clienteId, id -> new ArrayList<>()).add(reserva);
+            }
+        } else {
+            recuperadasPorCliente.computeIfAbsent(clienteId, id -> new ArrayList<>()).add(recuperada);
+            expirador.programar(() -> restaurarReserva(recuperada, funcion, null), restante(recuperada));
+        }
+    }
+    
+    /**
+     * Le devuelve a un cliente recién registrado sus reservas recuperadas
+     */
+    private void restaurarReservas(Cliente cliente) {
+        if (reservasRecuperadas.isEmpty() && armadasSinCliente.isEmpty()) {
+            return;
+        }
+        String clienteId = cliente.getId().toString();
+        synchronized (recuperacion) {
+            List<ReservaRecuperada> retenidas = recuperadasPorCliente.remove(clienteId);
+            if (retenidas != null) {
+                for (ReservaRecuperada recuperada : retenidas) {
+                    restaurarReserva(recuperada, funcionesPorId.get(recuperada.getFuncionId()), cliente);
+                }
+            }
+            List<Reserva> armadas = armadasSinCliente.remove(clienteId);
+            if (armadas != null) {
+                armadas.forEach(reserva -> reserva.asignarCliente(cliente));
+            }
+        }
+    }
+    
+    /**
+     * Arma UNA reserva recuperada (si su pago estaba por conciliar, vuelve a ConciliacionPagos)
+     * @return La reserva, o null si otro hilo ya la armó (ej: venció su plazo)
+     */
+    private Reserva restaurarReserva(ReservaRecuperada recuperada, Funcion funcion, Cliente cliente) {
+        if (reservasRecuperadas.remove(recuperada.getReservaId()) == null) {
+            return null;
+        }
+        List<Asiento> asientosSala = funcion.getSala().getAsientos();
+        List<Asiento> asientos = new ArrayList<>(recuperada.getAsientos().length);
+        for (int indice : recuperada.getAsientos()) {
+            asientos.add(asientosSala.get(indice));
+        }
+        Reserva reserva = Reserva.restaurar(Id.desdeTexto(recuperada.getReservaId()), cliente, funcion, asientos,
+            recuperada.isConfirmada(), recuperada.isIncierta() ? null : restante(recuperada),
+            Dinero.deCentavos(recuperada.getMontoCentavos()));
+        if (recuperada.isIncierta()) {
+            conciliacion.restaurar(recuperada.getClavePago(), reserva);
+        }
+        return reserva;
+    }
+    
+    /**
+     * Lo que le queda a una retención recuperada (negativo si ya venció)
+     */
+    private Duration restante(ReservaRecuperada recuperada) {
+        return tiempoRetencion.minusMillis(System.currentTimeMillis() - recuperada.getInstante());
+    }
+    
+    /**
+     * Apaga los servicios en segundo plano del sistema
+     * Espera a que se entreguen las notificaciones pendientes
+     * y a que el diario termine de escribir
+     * @param espera Tiempo máximo de espera
+     */
+    public void cerrar(Duration espera) {
+        despachador.detener(espera);
+        expirador.detener();
+        procesadorPagos.detener();
+        DiarioReservas actual = diario;
+        if (actual != null) {
+            try {
+                actual.cerrar();
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo cerrar el diario de reservas", e);
+            }
+        }
     }
 }
\ No newline at end of file